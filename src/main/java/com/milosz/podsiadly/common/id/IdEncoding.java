@@ -0,0 +1,26 @@
+package com.milosz.podsiadly.common.id;
+
+/**
+ * Fixed-width Crockford Base32 encoding of non-negative identifiers.
+ * The alphabet is in ASCII order, so the lexicographic order of encoded values equals their numeric order.
+ */
+final class IdEncoding {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    static final int LENGTH = 13; // 13 * 5 bitów >= 63 bity
+
+    private IdEncoding() {
+    }
+
+    static String encode(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Identifier must not be negative: " + id);
+        }
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
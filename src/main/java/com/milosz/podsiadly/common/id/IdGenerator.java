@@ -0,0 +1,24 @@
+package com.milosz.podsiadly.common.id;
+
+/**
+ * Source of unique, time-ordered identifiers for business references
+ * (transaction refs, account, loan and deposit numbers, assessment and run identifiers).
+ */
+public interface IdGenerator {
+
+    /**
+     * @return A new positive identifier, greater than every identifier previously returned by this instance.
+     */
+    long nextId();
+
+    /**
+     * Returns a new identifier formatted as a reference with the given prefix.
+     * The encoded part has a fixed width, so references with the same prefix sort in creation order.
+     *
+     * @param prefix The reference prefix, e.g. "TRN-".
+     * @return The reference.
+     */
+    default String nextRef(String prefix) {
+        return prefix + IdEncoding.encode(nextId());
+    }
+}
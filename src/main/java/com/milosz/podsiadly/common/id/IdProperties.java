@@ -0,0 +1,23 @@
+package com.milosz.podsiadly.common.id;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the identifier generator.
+ * Automatically bound from banking.id.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.id")
+@Getter
+@Setter
+public class IdProperties {
+
+    /**
+     * Node number (0-1023) embedded in every identifier; must be unique per running instance.
+     * A negative value derives the node from the host name and process ID, which is only probably unique.
+     */
+    private int nodeId = -1;
+}
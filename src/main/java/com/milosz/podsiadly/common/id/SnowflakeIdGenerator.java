@@ -0,0 +1,70 @@
+package com.milosz.podsiadly.common.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style generator: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node number
+ * and 12 bits of per-millisecond sequence. IDs from one node are strictly increasing, IDs from
+ * different nodes never collide, and consecutive IDs land on the right-most B-tree page.
+ * <p>
+ * The last timestamp and sequence are packed into one {@link AtomicLong} and advanced with a
+ * compare-and-set loop, so concurrent callers never block. When a millisecond's sequence is
+ * exhausted, or the wall clock moves backwards, the generator keeps counting on a logical clock
+ * ahead of the wall clock instead of waiting.
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeBits;
+    private final AtomicLong lastState = new AtomicLong();
+
+    public SnowflakeIdGenerator(IdProperties properties) {
+        int nodeId = properties.getNodeId() >= 0 ? properties.getNodeId() : deriveNodeId();
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("banking.id.node-id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        log.info("SnowflakeIdGenerator initialized with node ID {}.", nodeId);
+    }
+
+    @Override
+    public long nextId() {
+        long previous;
+        long next;
+        do {
+            previous = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // Nowa milisekunda zeruje sekwencję; w przeciwnym razie +1 (przepełnienie sekwencji przechodzi na znacznik czasu)
+            next = now > (previous >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : previous + 1;
+        } while (!lastState.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+    }
+
+    private static int deriveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        int nodeId = Math.floorMod((host + ":" + ProcessHandle.current().pid()).hashCode(), MAX_NODE_ID + 1);
+        log.warn("banking.id.node-id is not set; derived node ID {} from host {}. Set it explicitly when running several instances.",
+                nodeId, host);
+        return nodeId;
+    }
+}
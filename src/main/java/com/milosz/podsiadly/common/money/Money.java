@@ -0,0 +1,181 @@
+package com.milosz.podsiadly.common.money;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Amount of money stored as a {@code long} number of minor units (e.g. grosze, cents) plus an ISO 4217 currency code.
+ * <p>
+ * Arithmetic is exact: every operation checks for {@code long} overflow and throws {@link ArithmeticException}
+ * instead of wrapping. Values are converted from and to {@link BigDecimal} only at the edges (API, database columns).
+ * Code that keeps balances as primitive {@code long} minor units can use the static helpers and stay allocation-free.
+ */
+public final class Money implements Comparable<Money> {
+
+    private static final int DEFAULT_FRACTION_DIGITS = 2;
+    private static final int MAX_FRACTION_DIGITS = 6;
+    private static final ConcurrentHashMap<String, Integer> FRACTION_DIGITS = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0L, currency);
+    }
+
+    /**
+     * Converts a decimal amount to money.
+     *
+     * @param amount   The amount, with at most as many fraction digits as the currency has.
+     * @param currency The ISO 4217 currency code.
+     * @return The money value.
+     * @throws IllegalArgumentException if the amount has too many fraction digits or does not fit into a long.
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        return new Money(toMinorUnits(amount, currency), currency);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    /**
+     * Multiplies by the rate {@code numerator / denominator}, rounding half up (away from zero) to whole minor units.
+     *
+     * @param numerator   Rate numerator, e.g. 1 for 0.01% with a denominator of 10 000.
+     * @param denominator Rate denominator, must be positive.
+     * @return The product in the same currency.
+     */
+    public Money multiplyByRate(long numerator, long denominator) {
+        return new Money(multiplyByRate(minorUnits, numerator, denominator), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits, currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    // --- Operacje na surowych jednostkach groszowych (bez alokacji) ---
+
+    /**
+     * @param currency The ISO 4217 currency code.
+     * @return Number of minor-unit digits of the currency (2 for unknown codes).
+     */
+    public static int fractionDigits(String currency) {
+        Integer digits = FRACTION_DIGITS.get(currency);
+        if (digits == null) {
+            digits = FRACTION_DIGITS.computeIfAbsent(currency, Money::lookupFractionDigits);
+        }
+        return digits;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has too many fraction digits or does not fit into a long.
+     */
+    public static long toMinorUnits(BigDecimal amount, String currency) {
+        try {
+            return amount.movePointRight(fractionDigits(currency)).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Kwota " + amount.toPlainString() + " nie może być wyrażona w jednostkach waluty " + currency + ".", e);
+        }
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits, String currency) {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    public static long multiplyByRate(long minorUnits, long numerator, long denominator) {
+        if (denominator <= 0) {
+            throw new IllegalArgumentException("Rate denominator must be positive.");
+        }
+        long product = Math.multiplyExact(minorUnits, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (Math.abs(remainder) * 2 >= denominator) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Niezgodne waluty: " + currency + " i " + other.currency + ".");
+        }
+    }
+
+    private static int lookupFractionDigits(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 && digits <= MAX_FRACTION_DIGITS ? digits : DEFAULT_FRACTION_DIGITS;
+        } catch (IllegalArgumentException e) {
+            return DEFAULT_FRACTION_DIGITS;
+        }
+    }
+}
@@ -61,6 +61,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/reports/**").hasAnyAuthority("ADMIN", "ANALYST", "EMPLOYEE")
                         .requestMatchers("/api/risk/**").hasAnyAuthority("ADMIN", "ANALYST")
                         .requestMatchers("/api/data/**").hasAnyAuthority("ADMIN", "ANALYST")
+                        .requestMatchers("/api/interest/**").hasAuthority("ADMIN")
+                        .requestMatchers("/api/reversals/**").hasAuthority("ADMIN")
+                        .requestMatchers("/api/projections/accounts/rebuild").hasAuthority("ADMIN")
+                        .requestMatchers("/api/ledger/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated()
                 );
 
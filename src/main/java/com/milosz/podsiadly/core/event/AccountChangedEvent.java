@@ -0,0 +1,44 @@
+package com.milosz.podsiadly.core.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Signals that a bank account was created, that its metadata (currency, status) changed or that it was deleted.
+ * Every node consumes it to evict the account from its local account metadata cache; the account projection
+ * consumes it to add, refresh or remove the account's row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountChangedEvent {
+
+    /**
+     * Identifier of the changed account.
+     */
+    private Long accountId;
+
+    /**
+     * The account number of the changed account.
+     */
+    private String accountNumber;
+
+    /**
+     * Kind of change.
+     */
+    private ChangeType changeType;
+
+    /**
+     * Time of the change.
+     */
+    private LocalDateTime changedAt;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
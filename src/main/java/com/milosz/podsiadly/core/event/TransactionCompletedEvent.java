@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class TransactionCompletedEvent {
 
     /**
@@ -34,6 +34,12 @@ public class TransactionCompletedEvent {
      */
     private Long targetAccountId;
 
+    /**
+     * Account whose leg of the transaction this event reports, also its Kafka message key.
+     * A transfer produces one event per account; null in events written before per-leg publishing.
+     */
+    private Long accountId;
+
     /**
      * The amount of money transferred in the transaction.
      */
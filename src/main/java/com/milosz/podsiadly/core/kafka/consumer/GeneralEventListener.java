@@ -1,11 +1,14 @@
 package com.milosz.podsiadly.core.kafka.consumer;
 
+import com.milosz.podsiadly.core.event.AccountChangedEvent;
 import com.milosz.podsiadly.core.event.AccountCreatedEvent;
 import com.milosz.podsiadly.core.event.TransactionCompletedEvent;
 import com.milosz.podsiadly.core.event.TransactionFailedEvent;
 import com.milosz.podsiadly.core.event.UserRegisteredEvent;
 import com.milosz.podsiadly.core.service.EmailService;
 import com.milosz.podsiadly.core.service.NotificationService;
+import com.milosz.podsiadly.domain.bank.cache.AccountMetadataCache;
+import com.milosz.podsiadly.domain.bank.projection.AccountProjector;
 import com.milosz.podsiadly.domain.report.service.DataAggregator; // ZMIENIONO: Import DataAggregator
 import com.milosz.podsiadly.domain.risk.service.RiskAssessmentService;
 import org.slf4j.Logger;
@@ -28,6 +31,8 @@ public class GeneralEventListener {
     private final NotificationService notificationService;
     private final DataAggregator dataAggregator; // ZMIENIONO: Wstrzykujemy DataAggregator
     private final RiskAssessmentService riskAssessmentService;
+    private final AccountMetadataCache accountMetadataCache;
+    private final AccountProjector accountProjector;
 
     /**
      * Constructor for GeneralEventListener.
@@ -37,15 +42,21 @@ public class GeneralEventListener {
      * @param notificationService Service for sending general notifications.
      * @param dataAggregator Service for handling data aggregation for reporting. // ZMIENIONO KOMENTARZ
      * @param riskAssessmentService Service for performing risk assessments.
+     * @param accountMetadataCache Local cache of account metadata, invalidated by AccountChangedEvent.
+     * @param accountProjector Maintains the account projection from transaction and account events.
      */
     public GeneralEventListener(EmailService emailService,
                                 NotificationService notificationService,
                                 DataAggregator dataAggregator, // ZMIENIONO PARAMETR
-                                RiskAssessmentService riskAssessmentService) {
+                                RiskAssessmentService riskAssessmentService,
+                                AccountMetadataCache accountMetadataCache,
+                                AccountProjector accountProjector) {
         this.emailService = emailService;
         this.notificationService = notificationService;
         this.dataAggregator = dataAggregator; // ZMIENIONO PRZYPISANIE
         this.riskAssessmentService = riskAssessmentService;
+        this.accountMetadataCache = accountMetadataCache;
+        this.accountProjector = accountProjector;
     }
 
     /**
@@ -71,13 +82,29 @@ public class GeneralEventListener {
         riskAssessmentService.assessNewAccountRisk(event.getAccountId(), event.getUserId());
     }
 
+    /**
+     * Handles AccountChangedEvent.
+     * Evicts the account from the local metadata cache (the node that made the change has already done so).
+     *
+     * @param event The AccountChangedEvent to handle.
+     */
+    public void handleAccountChangedEvent(AccountChangedEvent event) {
+        log.debug("GeneralEventListener: Evicting account ID {} from metadata cache ({}).", event.getAccountId(), event.getChangeType());
+        accountMetadataCache.evict(event.getAccountId());
+    }
+
     /**
      * Handles TransactionCompletedEvent.
-     * Dispatches the event to relevant services.
+     * Dispatches the event to relevant services once per transaction: of the per-account events of a transfer
+     * only the source leg (or the target leg of a transaction without source) is handled.
      *
      * @param event The TransactionCompletedEvent to handle.
      */
     public void handleTransactionCompletedEvent(TransactionCompletedEvent event) {
+        Long primaryAccountId = event.getSourceAccountId() != null ? event.getSourceAccountId() : event.getTargetAccountId();
+        if (event.getAccountId() != null && !event.getAccountId().equals(primaryAccountId)) {
+            return; // Zdarzenie drugiej strony przelewu - transakcję obsługuje zdarzenie strony źródłowej
+        }
         log.info("GeneralEventListener: Handling TransactionCompletedEvent for transaction ID: {}", event.getTransactionId());
         // Przykład:
         notificationService.sendTransactionConfirmation(event.getUserId(), event.getTransactionId(), event.getAmount(), event.getCurrency());
@@ -85,6 +112,25 @@ public class GeneralEventListener {
         riskAssessmentService.assessTransactionRisk(event.getTransactionId(), event.getAmount(), event.getCurrency());
     }
 
+    /**
+     * Applies a TransactionCompletedEvent to the account projection.
+     * Consumed in a separate group, so a failure here is retried without repeating notifications.
+     *
+     * @param event The TransactionCompletedEvent to project.
+     */
+    public void projectTransactionCompletedEvent(TransactionCompletedEvent event) {
+        accountProjector.project(event);
+    }
+
+    /**
+     * Adds, refreshes or removes the account's row in the account projection.
+     *
+     * @param event The AccountChangedEvent to project.
+     */
+    public void projectAccountChangedEvent(AccountChangedEvent event) {
+        accountProjector.project(event);
+    }
+
     /**
      * Handles TransactionFailedEvent.
      * Dispatches the event to relevant services.
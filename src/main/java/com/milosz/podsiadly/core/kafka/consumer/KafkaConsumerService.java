@@ -24,12 +24,38 @@ public class KafkaConsumerService {
         generalEventListener.handleAccountCreatedEvent(event);
     }
 
+    // Własna grupa na każdy węzeł - każdy musi unieważnić swój cache; historia tematu nie jest potrzebna
+    @KafkaListener(topics = "${spring.kafka.topics.account-changed}",
+            groupId = "${spring.kafka.consumer.group-id}-account-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest")
+    public void listenAccountChangedEvent(AccountChangedEvent event) {
+        log.debug("KafkaConsumerService: Received AccountChangedEvent for account ID: {}", event.getAccountId());
+        generalEventListener.handleAccountChangedEvent(event);
+    }
+
     @KafkaListener(topics = "${spring.kafka.topics.transaction-completed}", groupId = "${spring.kafka.consumer.group-id}")
     public void listenTransactionCompletedEvent(TransactionCompletedEvent event) {
         log.info("KafkaConsumerService: Received TransactionCompletedEvent for transaction ID: {}", event.getTransactionId());
         generalEventListener.handleTransactionCompletedEvent(event);
     }
 
+    // Osobna grupa projekcji - opóźnienie lub błąd projekcji nie wstrzymuje powiadomień i oceny ryzyka
+    @KafkaListener(topics = "${spring.kafka.topics.transaction-completed}",
+            groupId = "${spring.kafka.consumer.group-id}-account-projection",
+            autoStartup = "${banking.projection.enabled:true}")
+    public void listenTransactionCompletedEventForProjection(TransactionCompletedEvent event) {
+        log.debug("KafkaConsumerService: Projecting TransactionCompletedEvent for transaction ID: {}", event.getTransactionId());
+        generalEventListener.projectTransactionCompletedEvent(event);
+    }
+
+    @KafkaListener(topics = "${spring.kafka.topics.account-changed}",
+            groupId = "${spring.kafka.consumer.group-id}-account-projection",
+            autoStartup = "${banking.projection.enabled:true}")
+    public void listenAccountChangedEventForProjection(AccountChangedEvent event) {
+        log.debug("KafkaConsumerService: Projecting AccountChangedEvent for account ID: {}", event.getAccountId());
+        generalEventListener.projectAccountChangedEvent(event);
+    }
+
     @KafkaListener(topics = "${spring.kafka.topics.transaction-failed}", groupId = "${spring.kafka.consumer.group-id}")
     public void listenTransactionFailedEvent(TransactionFailedEvent event) {
         log.warn("KafkaConsumerService: Received TransactionFailedEvent for transaction ID: {}. Reason: {}", event.getTransactionId(), event.getReason());
@@ -0,0 +1,59 @@
+package com.milosz.podsiadly.core.kafka.outbox;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Kafka event waiting to be published, written in the same database transaction
+ * as the change it describes. Rows are deleted by {@link OutboxRelay} once Kafka acknowledges them.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_message_key", columnList = "message_key"),
+        @Index(name = "idx_outbox_events_publish_order", columnList = "publish_order")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq_gen")
+    @SequenceGenerator(name = "outbox_events_seq_gen", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id; // Z puli (allocationSize 50) - nie wyznacza kolejności między instancjami
+
+    // IDENTITY nadawane przez bazę przy każdym INSERT (bez puli po stronie aplikacji), więc rośnie
+    // w kolejności zapisów we wszystkich instancjach - wyznacza kolejność publikacji. Nadawane przy INSERT,
+    // nie przy commicie: luki po trwających transakcjach OutboxRelay przeskakuje dopiero po gap-grace-ms
+    @Column(name = "publish_order", insertable = false, updatable = false,
+            columnDefinition = "BIGINT GENERATED BY DEFAULT AS IDENTITY")
+    private Long publishOrder;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(name = "message_key")
+    private String messageKey; // Klucz partycji Kafki (np. ID konta) - kolejność zachowana per klucz
+
+    @Column(nullable = false)
+    private String eventType; // Pełna nazwa klasy zdarzenia, do odtworzenia obiektu przed wysyłką
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // Zdarzenie w formacie JSON
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.milosz.podsiadly.core.kafka.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the transactional outbox relay.
+ * Automatically bound from banking.outbox.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+
+    /**
+     * Delay between relay runs when the outbox has been drained, in milliseconds.
+     */
+    private long pollIntervalMs = 100;
+
+    /**
+     * Maximum number of events read and sent to Kafka in one relay round.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum time to wait for Kafka acknowledgements of one round, in milliseconds.
+     */
+    private long sendTimeoutMs = 10000;
+
+    /**
+     * TTL of the relay lease in milliseconds. The holder extends it before every round, so it must exceed
+     * {@link #sendTimeoutMs}; after a crash another instance takes the relay over once it expires.
+     */
+    private long leaseMs = 30000;
+
+    /**
+     * How long a gap in publish order is waited for, in milliseconds. Publish order is assigned on insert, so a
+     * gap is a transaction that has not committed yet (or rolled back); events behind it are sent only after it
+     * closes or the first event behind it is older than this. Must exceed the longest writing transaction
+     * plus the clock difference between instances.
+     */
+    private long gapGraceMs = 5000;
+}
@@ -0,0 +1,213 @@
+package com.milosz.podsiadly.core.kafka.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.milosz.podsiadly.core.kafka.producer.KafkaProducerService;
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.core.lock.SchedulerLease;
+import com.milosz.podsiadly.core.lock.SchedulerLockProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains the outbox table into Kafka in batches with at-least-once delivery.
+ * <p>
+ * Events are read in publish order (assigned by the database on insert) and sent with their message key.
+ * Events sharing a key are sent one at a time: the next one goes out only after Kafka acknowledged the
+ * previous one, and the key stops at its first failure. Different keys are sent concurrently.
+ * A row is deleted only after Kafka acknowledged it, so a failed key is retried in the next round,
+ * which may produce duplicates but never lets a later event overtake an unacknowledged one.
+ * <p>
+ * Only the instance holding the "outbox-relay" lease of {@link ScheduledJobLock} relays; it keeps the lease
+ * across rounds and extends it before each one, the other instances skip. Publish order is assigned on insert,
+ * not on commit, so a row may become visible after rows with a higher order. The relay therefore stops at a gap
+ * in publish order until it closes, or until the first event behind it is older than
+ * {@link OutboxProperties#getGapGraceMs()} - then the missing rows are taken as rolled back.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
+    private final ScheduledJobLock scheduledJobLock;
+    private final SchedulerLockProperties lockProperties;
+    private final Map<String, Class<?>> eventClasses = new ConcurrentHashMap<>();
+
+    private SchedulerLease lease; // Dostęp tylko z wątku @Scheduled i przy zamknięciu
+    private Long lastReleased; // Najwyższy publish_order przepuszczony do wysyłki; null = nieznany po przejęciu
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaProducerService kafkaProducerService,
+                       OutboxProperties outboxProperties, ObjectMapper objectMapper,
+                       ScheduledJobLock scheduledJobLock, SchedulerLockProperties lockProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.outboxProperties = outboxProperties;
+        this.objectMapper = objectMapper;
+        this.scheduledJobLock = scheduledJobLock;
+        this.lockProperties = lockProperties;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.outbox.poll-interval-ms:100}")
+    public void relay() {
+        int batchSize = Math.max(1, outboxProperties.getBatchSize());
+        // Opróżniaj outbox pełnymi paczkami; przerwij przy błędzie, kolejna próba w następnym cyklu
+        while (holdsLease() && relayBatch(batchSize) == batchSize) {
+            log.debug("Outbox relay round of {} events completed, continuing.", batchSize);
+        }
+    }
+
+    @PreDestroy
+    synchronized void releaseLease() {
+        if (lease != null) {
+            scheduledJobLock.release(lease, 0);
+            lease = null;
+        }
+    }
+
+    // Dzierżawa trzymana między cyklami (bez lock-at-least, które wstrzymałoby też jej posiadacza)
+    private synchronized boolean holdsLease() {
+        if (!lockProperties.isEnabled()) {
+            return true;
+        }
+        if (lease != null && scheduledJobLock.extend(lease, outboxProperties.getLeaseMs())) {
+            return true;
+        }
+        if (lease != null) {
+            log.warn("Outbox relay lease expired, another instance may have taken the relay over.");
+        }
+        lease = scheduledJobLock.tryAcquire("outbox-relay", outboxProperties.getLeaseMs()).orElse(null);
+        // Poprzedni posiadacz mógł wysłać zdarzenia, których ten węzeł nie widział - pozycja nieznana
+        lastReleased = null;
+        return lease != null;
+    }
+
+    /**
+     * Sends one batch and deletes the acknowledged events.
+     *
+     * @return Number of events deleted from the outbox.
+     */
+    int relayBatch(int batchSize) {
+        List<OutboxEvent> events = releasable(outboxEventRepository.findAllByOrderByPublishOrderAsc(PageRequest.of(0, batchSize)));
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        // Zdarzenia bez klucza nie mają kolejności - każde jest osobnym łańcuchem
+        Map<String, List<OutboxEvent>> byKey = new LinkedHashMap<>();
+        List<List<OutboxEvent>> chains = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            if (event.getMessageKey() == null) {
+                chains.add(List.of(event));
+            } else {
+                byKey.computeIfAbsent(event.getMessageKey(), key -> new ArrayList<>()).add(event);
+            }
+        }
+        chains.addAll(byKey.values());
+
+        Queue<Long> acknowledged = new ConcurrentLinkedQueue<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        CompletableFuture<?>[] futures = chains.stream()
+                .map(chain -> sendInOrder(chain.iterator(), acknowledged, stopped).exceptionally(error -> null))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(outboxProperties.getSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Outbox send chain failed unexpectedly", e); // Łańcuchy kończą się bez wyjątku
+        } catch (TimeoutException e) {
+            log.warn("Outbox relay round timed out after {} ms, unacknowledged events will be retried.",
+                    outboxProperties.getSendTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Nie wysyłaj dalszych zdarzeń z rundy, której wynik już zebrano - następna runda zacznie od nich
+        stopped.set(true);
+
+        List<Long> deleted = new ArrayList<>(acknowledged);
+        if (!deleted.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(deleted);
+        }
+        log.debug("Outbox relay published {} of {} events.", deleted.size(), events.size());
+        return deleted.size();
+    }
+
+    /**
+     * Cuts the batch at the first gap in publish order that is younger than the grace period.
+     * Rows at or below the last released order were already let through, and the next order continues them.
+     */
+    List<OutboxEvent> releasable(List<OutboxEvent> events) {
+        LocalDateTime graceLimit = LocalDateTime.now().minusNanos(outboxProperties.getGapGraceMs() * 1_000_000L);
+        List<OutboxEvent> released = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            long order = event.getPublishOrder();
+            boolean continuous = lastReleased != null && order <= lastReleased + 1;
+            if (!continuous && event.getCreatedAt().isAfter(graceLimit)) {
+                log.debug("Outbox relay waits for publish order before {}: a writing transaction may not have committed yet.", order);
+                break;
+            }
+            released.add(event);
+            lastReleased = lastReleased == null ? order : Math.max(lastReleased, order);
+        }
+        return released;
+    }
+
+    // Następne zdarzenie klucza dopiero po potwierdzeniu poprzedniego; pierwszy błąd kończy łańcuch
+    private CompletableFuture<Void> sendInOrder(Iterator<OutboxEvent> chain, Queue<Long> acknowledged, AtomicBoolean stopped) {
+        if (!chain.hasNext() || stopped.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        OutboxEvent event = chain.next();
+        return send(event)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.warn("Outbox event {} to topic '{}' (key {}) not acknowledged, will retry: {}",
+                                event.getId(), event.getTopic(), event.getMessageKey(), error.getMessage());
+                    }
+                })
+                .thenCompose(result -> {
+                    acknowledged.add(event.getId());
+                    return sendInOrder(chain, acknowledged, stopped);
+                });
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            Object payload = objectMapper.readValue(event.getPayload(), eventClass(event.getEventType()));
+            return kafkaProducerService.sendMessage(event.getTopic(), event.getMessageKey(), payload);
+        } catch (Exception e) {
+            log.error("Cannot publish outbox event {} of type {}: {}", event.getId(), event.getEventType(), e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Class<?> eventClass(String eventType) {
+        return eventClasses.computeIfAbsent(eventType, type -> {
+            try {
+                return Class.forName(type);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unknown outbox event type: " + type, e);
+            }
+        });
+    }
+}
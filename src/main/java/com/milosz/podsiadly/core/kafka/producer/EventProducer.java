@@ -1,15 +1,20 @@
 package com.milosz.podsiadly.core.kafka.producer;
 
+import com.milosz.podsiadly.core.event.AccountChangedEvent;
 import com.milosz.podsiadly.core.event.AccountCreatedEvent;
 import com.milosz.podsiadly.core.event.TransactionCompletedEvent; // Importuj nowe zdarzenie
 import com.milosz.podsiadly.core.event.TransactionFailedEvent; // Importuj nowe zdarzenie
 import com.milosz.podsiadly.core.event.UserRegisteredEvent; // Pozostaw, jeśli używasz
 import com.milosz.podsiadly.core.event.SimulationStepEvent; // Pozostaw, jeśli używasz
+import com.milosz.podsiadly.core.kafka.outbox.OutboxService;
 import com.milosz.podsiadly.core.kafka.topic.KafkaTopics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Objects;
+import java.util.stream.Stream;
+
 /**
  * Producer responsible for sending specific domain events to Apache Kafka.
  * It uses the generic KafkaProducerService to handle the actual sending mechanism
@@ -22,17 +27,20 @@ public class EventProducer {
 
     private final KafkaProducerService kafkaProducerService;
     private final KafkaTopics kafkaTopics;
+    private final OutboxService outboxService;
 
     /**
      * Constructor for EventProducer.
-     * Spring will automatically inject KafkaProducerService and KafkaTopics.
+     * Spring will automatically inject KafkaProducerService, KafkaTopics and OutboxService.
      *
      * @param kafkaProducerService The service used for sending messages to Kafka.
      * @param kafkaTopics The utility class providing Kafka topic names.
+     * @param outboxService The transactional outbox for events tied to database changes.
      */
-    public EventProducer(KafkaProducerService kafkaProducerService, KafkaTopics kafkaTopics) {
+    public EventProducer(KafkaProducerService kafkaProducerService, KafkaTopics kafkaTopics, OutboxService outboxService) {
         this.kafkaProducerService = kafkaProducerService;
         this.kafkaTopics = kafkaTopics;
+        this.outboxService = outboxService;
     }
 
     /**
@@ -46,13 +54,30 @@ public class EventProducer {
     }
 
     /**
-     * Sends a TransactionCompletedEvent to the appropriate Kafka topic.
+     * Stores an AccountChangedEvent in the outbox within the current database transaction,
+     * so other nodes evict the account from their caches only once the change is committed.
+     *
+     * @param event The AccountChangedEvent to be sent.
+     */
+    public void publishAccountChangedEvent(AccountChangedEvent event) {
+        log.debug("Queueing AccountChangedEvent for account ID: {} in outbox", event.getAccountId());
+        outboxService.enqueue(kafkaTopics.getAccountChanged(), String.valueOf(event.getAccountId()), event);
+    }
+
+    /**
+     * Stores a TransactionCompletedEvent in the outbox within the current database transaction, once per
+     * account leg (source and target) with {@code accountId} set to that account. The OutboxRelay publishes
+     * them after commit keyed by that account, so all events of one account stay ordered, on both sides.
      *
      * @param event The TransactionCompletedEvent to be sent.
      */
     public void publishTransactionCompletedEvent(TransactionCompletedEvent event) {
-        log.info("Publishing TransactionCompletedEvent for transaction ID: {}", event.getTransactionId());
-        kafkaProducerService.sendMessage(kafkaTopics.getTransactionCompleted(), event);
+        log.debug("Queueing TransactionCompletedEvent for transaction ID: {} in outbox", event.getTransactionId());
+        Stream.of(event.getSourceAccountId(), event.getTargetAccountId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(accountId -> outboxService.enqueue(kafkaTopics.getTransactionCompleted(), String.valueOf(accountId),
+                        event.toBuilder().accountId(accountId).build()));
     }
 
     /**
@@ -59,4 +59,19 @@ public class KafkaProducerService {
             }
         });
     }
+
+    /**
+     * Sends a keyed message to a specified Kafka topic.
+     * Messages with the same key go to the same partition, so their order is preserved.
+     * The caller decides how to handle the result (e.g. the outbox relay waits for acknowledgements).
+     *
+     * @param topic   The Kafka topic to which the message will be sent.
+     * @param key     The message key (may be {@code null}).
+     * @param message The message object to be sent.
+     * @return A future completed when the broker acknowledges the message.
+     */
+    public CompletableFuture<SendResult<String, Object>> sendMessage(String topic, String key, Object message) {
+        log.debug("Sending message to topic: '{}', key: {}", topic, key);
+        return kafkaTemplate.send(topic, key, message);
+    }
 }
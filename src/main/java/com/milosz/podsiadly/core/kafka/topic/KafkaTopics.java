@@ -16,6 +16,7 @@ import org.springframework.stereotype.Component;
 public class KafkaTopics {
 
     private String accountCreated;
+    private String accountChanged;
     private String transactionCompleted;
     private String transactionFailed;
     private String userRegistered;
@@ -0,0 +1,175 @@
+package com.milosz.podsiadly.core.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Database lease lock making scheduled jobs run on one instance at a time.
+ * <p>
+ * A lease is a row of {@code scheduler_locks} whose {@code locked_until} lies in the future. It is taken with a
+ * single conditional UPDATE, so of several instances firing the same job only one succeeds; the others skip the
+ * run. Times come from the database clock, so instance clocks need not agree. A lease of a crashed instance
+ * expires after {@link SchedulerLockProperties#getLockAtMostForMs()}; every acquisition increments the fencing
+ * token, which lets {@link #isHeld} and {@link #extend} reject a holder whose lease was meanwhile taken over.
+ * <p>
+ * Instead of electing one runner, a job can shard its work by locking every shard separately (for example
+ * {@code "loan-collection#3"}): each instance then processes the shards it manages to lease.
+ * Only ANSI SQL is used, so the lock works on PostgreSQL and H2 alike.
+ */
+@Slf4j
+@Component
+public class ScheduledJobLock {
+
+    private static final LocalDateTime NEVER_LOCKED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO scheduler_locks (name, locked_by, locked_at, locked_until, fencing_token) VALUES (?, ?, ?, ?, 0)";
+    private static final String ACQUIRE_SQL =
+            "UPDATE scheduler_locks SET locked_by = ?, locked_at = ?, locked_until = ?, fencing_token = fencing_token + 1 " +
+                    "WHERE name = ? AND locked_until <= ?";
+    private static final String EXTEND_SQL =
+            "UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND fencing_token = ? AND locked_until > ?";
+    private static final String RELEASE_SQL =
+            "UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND fencing_token = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLockProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final Set<String> knownNames = ConcurrentHashMap.newKeySet();
+
+    public ScheduledJobLock(JdbcTemplate jdbcTemplate, SchedulerLockProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // Dzierżawa zatwierdzana od razu, także gdy zadanie wywołano wewnątrz transakcji
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = properties.getOwner() != null && !properties.getOwner().isBlank() ? properties.getOwner() : defaultOwner();
+    }
+
+    /**
+     * Runs the task if this instance gets the lease, keeping it at least
+     * {@link SchedulerLockProperties#getLockAtLeastForMs()} after the task finished.
+     *
+     * @param name Lock name, unique per job (or per shard of a job).
+     * @param task The job.
+     * @return Whether the task ran on this instance.
+     */
+    public boolean runExclusively(String name, Runnable task) {
+        if (!properties.isEnabled()) {
+            task.run();
+            return true;
+        }
+        Optional<SchedulerLease> lease = tryAcquire(name, properties.getLockAtMostForMs());
+        if (lease.isEmpty()) {
+            log.debug("Skipping {}: the lock is held by another instance.", name);
+            return false;
+        }
+        try {
+            task.run();
+        } finally {
+            release(lease.get(), properties.getLockAtLeastForMs());
+        }
+        return true;
+    }
+
+    /**
+     * Takes the lease if it is free or expired.
+     *
+     * @param name            Lock name.
+     * @param lockAtMostForMs Lease TTL in milliseconds.
+     * @return The lease, or empty if another instance holds it.
+     */
+    public Optional<SchedulerLease> tryAcquire(String name, long lockAtMostForMs) {
+        ensureRow(name);
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = databaseNow();
+            int updated = jdbcTemplate.update(ACQUIRE_SQL, owner, Timestamp.valueOf(now),
+                    Timestamp.valueOf(now.plusNanos(lockAtMostForMs * 1_000_000L)), name, Timestamp.valueOf(now));
+            if (updated == 0) {
+                return Optional.empty();
+            }
+            // Wiersz zablokowany przez UPDATE - odczytany token należy do tej dzierżawy
+            Long token = jdbcTemplate.queryForObject("SELECT fencing_token FROM scheduler_locks WHERE name = ?", Long.class, name);
+            return Optional.of(new SchedulerLease(name, owner, token, now));
+        });
+    }
+
+    /**
+     * Prolongs a lease still held, for jobs running longer than the TTL.
+     *
+     * @return false if the lease expired and may have been taken over.
+     */
+    public boolean extend(SchedulerLease lease, long lockAtMostForMs) {
+        Integer updated = transactionTemplate.execute(status -> {
+            LocalDateTime now = databaseNow();
+            return jdbcTemplate.update(EXTEND_SQL, Timestamp.valueOf(now.plusNanos(lockAtMostForMs * 1_000_000L)),
+                    lease.name(), lease.fencingToken(), Timestamp.valueOf(now));
+        });
+        return updated != null && updated == 1;
+    }
+
+    /**
+     * Checks the fencing token: whether the lease is still the current, unexpired one.
+     */
+    public boolean isHeld(SchedulerLease lease) {
+        Integer held = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM scheduler_locks WHERE name = ? AND fencing_token = ? AND locked_until > LOCALTIMESTAMP",
+                Integer.class, lease.name(), lease.fencingToken());
+        return held != null && held > 0;
+    }
+
+    /**
+     * Ends the lease, keeping it until {@code lockAtLeastForMs} after its acquisition; no-op if it was taken over.
+     */
+    public void release(SchedulerLease lease, long lockAtLeastForMs) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = databaseNow();
+            LocalDateTime keepUntil = lease.lockedAt().plusNanos(lockAtLeastForMs * 1_000_000L);
+            jdbcTemplate.update(RELEASE_SQL, Timestamp.valueOf(keepUntil.isAfter(now) ? keepUntil : now),
+                    lease.name(), lease.fencingToken());
+        });
+    }
+
+    // Wiersz zakładany raz - przejęcie to wtedy zawsze warunkowy UPDATE, bez konfliktów INSERT w transakcji
+    private void ensureRow(String name) {
+        if (knownNames.contains(name)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, name, owner,
+                    Timestamp.valueOf(NEVER_LOCKED), Timestamp.valueOf(NEVER_LOCKED)));
+        } catch (DuplicateKeyException e) {
+            log.trace("Lock row {} already exists.", name);
+        }
+        knownNames.add(name);
+    }
+
+    private LocalDateTime databaseNow() {
+        return jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", Timestamp.class).toLocalDateTime();
+    }
+
+    private static String defaultOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,15 @@
+package com.milosz.podsiadly.core.lock;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lease acquired by {@link ScheduledJobLock}.
+ *
+ * @param name         Lock name.
+ * @param owner        Instance holding the lease.
+ * @param fencingToken Token increased with every acquisition of the lock; writes guarded by the lease can pass it
+ *                     along, so a holder whose lease expired is recognised by its older token.
+ * @param lockedAt     Database time of the acquisition.
+ */
+public record SchedulerLease(String name, String owner, long fencingToken, LocalDateTime lockedAt) {
+}
@@ -0,0 +1,37 @@
+package com.milosz.podsiadly.core.lock;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease row of a scheduled job (or of one shard of it), written by {@link ScheduledJobLock} with plain SQL.
+ * The entity only declares the table; the lease is held while {@code locked_until} lies in the future.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+@Getter
+@NoArgsConstructor
+public class SchedulerLock {
+
+    @Id
+    @Column(length = 128)
+    private String name;
+
+    @Column(name = "locked_by", nullable = false)
+    private String lockedBy;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "fencing_token", nullable = false)
+    private Long fencingToken; // Rośnie przy każdym przejęciu - starszy token oznacza utraconą dzierżawę
+}
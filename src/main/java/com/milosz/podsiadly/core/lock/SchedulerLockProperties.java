@@ -0,0 +1,39 @@
+package com.milosz.podsiadly.core.lock;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the database lease lock guarding scheduled jobs across instances.
+ * Automatically bound from banking.scheduler-lock.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.scheduler-lock")
+@Getter
+@Setter
+public class SchedulerLockProperties {
+
+    /**
+     * Whether scheduled jobs take a lease before running; disable only for a single instance.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Name of this instance in the lock table; derived from host name and PID when empty.
+     */
+    private String owner;
+
+    /**
+     * Lease TTL in milliseconds: a lease of a crashed instance is taken over after this time, so it must
+     * exceed the run time of the guarded jobs (long jobs may extend their lease).
+     */
+    private long lockAtMostForMs = 1_800_000;
+
+    /**
+     * Minimum time a lease is kept after the job finished, in milliseconds; keeps instances whose clocks or
+     * schedules are slightly apart from running the same job again. Must be shorter than the shortest job interval.
+     */
+    private long lockAtLeastForMs = 30_000;
+}
@@ -0,0 +1,9 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance and version of an account as read by the optimistic balance strategy.
+ */
+public record AccountBalanceSnapshot(Long accountId, BigDecimal balance, Long version) {
+}
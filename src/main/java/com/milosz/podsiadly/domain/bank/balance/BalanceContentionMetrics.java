@@ -0,0 +1,61 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters describing lock contention and optimistic retries of balance updates.
+ * Exposed through the actuator (e.g. /actuator/prometheus).
+ */
+@Component
+public class BalanceContentionMetrics {
+
+    private final Timer lockWait;
+    private final Counter lockTimeouts;
+    private final Counter optimisticConflicts;
+    private final Counter optimisticExhausted;
+    private final DistributionSummary optimisticAttempts;
+
+    public BalanceContentionMetrics(MeterRegistry meterRegistry) {
+        this.lockWait = Timer.builder("banking.balance.lock.wait")
+                .description("Time spent acquiring ordered row locks on bank accounts")
+                .register(meterRegistry);
+        this.lockTimeouts = Counter.builder("banking.balance.lock.timeouts")
+                .description("Ordered row lock acquisitions that timed out")
+                .register(meterRegistry);
+        this.optimisticConflicts = Counter.builder("banking.balance.optimistic.conflicts")
+                .description("Versioned balance updates rejected because the row changed concurrently")
+                .register(meterRegistry);
+        this.optimisticExhausted = Counter.builder("banking.balance.optimistic.exhausted")
+                .description("Balance updates abandoned after the maximum number of attempts")
+                .register(meterRegistry);
+        this.optimisticAttempts = DistributionSummary.builder("banking.balance.optimistic.attempts")
+                .description("Compare-and-set attempts needed per successful balance update")
+                .register(meterRegistry);
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockTimeout() {
+        lockTimeouts.increment();
+    }
+
+    public void recordOptimisticConflict() {
+        optimisticConflicts.increment();
+    }
+
+    public void recordOptimisticSuccess(int attempts) {
+        optimisticAttempts.record(attempts);
+    }
+
+    public void recordOptimisticExhausted() {
+        optimisticExhausted.increment();
+    }
+}
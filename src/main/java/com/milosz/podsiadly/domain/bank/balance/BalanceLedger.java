@@ -0,0 +1,219 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import com.milosz.podsiadly.domain.bank.journal.JournalEntry;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory, authoritative store of account balances, kept as long minor units.
+ * Every account hashes to one of a fixed number of lock stripes; multi-account updates take
+ * their stripes in ascending index order, so concurrent transfers can never deadlock.
+ * Committed changes are applied under one commit lock, which also fixes their order in the {@link BalanceJournal}.
+ * Balances are loaded lazily from the {@link BankAccount} entity on first use and every committed change
+ * marks the account dirty for the write-behind flusher.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "ledger")
+public class BalanceLedger implements WriteBehindBalanceStore {
+
+    private final ConcurrentHashMap<Long, MinorUnitBalance> balances = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyAccounts = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final BalanceJournal journal;
+
+    public BalanceLedger(BalanceProperties properties, BalanceJournal journal) {
+        this.journal = journal;
+        int stripeCount = Integer.highestOneBit(Math.max(1, properties.getLockStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Checks the legs and reserves the debits atomically under the stripe locks of all involved accounts.
+     *
+     * @param legs The balance changes of one transaction.
+     * @throws InsufficientFundsException if a checked debit would leave a negative balance.
+     */
+    @Override
+    public void reserve(List<BalanceLeg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+        List<ReentrantLock> locks = lockAll(legs);
+        try {
+            // Najpierw sprawdź wszystkie nogi (środki i przepełnienie), dopiero potem zmieniaj salda w miejscu
+            for (int i = 0; i < legs.size(); i++) {
+                BalanceLeg leg = legs.get(i);
+                long next = MinorUnitBalance.balanceAfter(load(leg.account()).minorUnits(), legs, i);
+                if (leg.checksFunds() && leg.isDebit() && next < 0) {
+                    throw new InsufficientFundsException(leg.insufficientFundsMessage());
+                }
+            }
+            for (BalanceLeg leg : legs) {
+                if (leg.isDebit()) {
+                    MinorUnitBalance balance = load(leg.account());
+                    balance.set(balance.minorUnits() + leg.deltaMinor());
+                }
+            }
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public void makeAvailable(List<BalanceLeg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+        List<ReentrantLock> locks = lockAll(legs);
+        try {
+            for (BalanceLeg leg : legs) {
+                MinorUnitBalance balance = load(leg.account());
+                balance.set(balance.minorUnits() + leg.deltaMinor());
+            }
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    @Override
+    public long commit(List<BalanceLeg> legs) {
+        if (legs.isEmpty()) {
+            return 0;
+        }
+        commitLock.lock();
+        try {
+            List<JournalEntry> entries = new ArrayList<>(legs.size());
+            for (BalanceLeg leg : legs) {
+                MinorUnitBalance balance = load(leg.account());
+                long committed = balance.committedMinorUnits() + leg.deltaMinor();
+                balance.setCommitted(committed);
+                dirtyAccounts.add(leg.accountId());
+                entries.add(new JournalEntry(leg.accountId(), committed, leg.deltaMinor()));
+            }
+            return journal.appendPending(entries);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public BigDecimal balanceOf(BankAccount account) {
+        return load(account).toBigDecimal();
+    }
+
+    public Money moneyOf(BankAccount account) {
+        return load(account).toMoney();
+    }
+
+    /**
+     * Sets the committed balance; reservations of open transactions stay deducted from the available balance.
+     *
+     * @return The journal sequence number of the change (0 if nothing was journaled).
+     */
+    public long overwrite(BankAccount account, BigDecimal newBalance) {
+        ReentrantLock lock = stripeFor(account.getId());
+        lock.lock();
+        commitLock.lock();
+        try {
+            MinorUnitBalance balance = load(account);
+            long newMinor = Money.toMinorUnits(newBalance, account.getCurrency());
+            long delta = newMinor - balance.committedMinorUnits();
+            balance.set(balance.minorUnits() + delta);
+            balance.setCommitted(newMinor);
+            dirtyAccounts.add(account.getId());
+            return journal.appendCommitted(List.of(new JournalEntry(account.getId(), newMinor, delta)));
+        } finally {
+            commitLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    public void evict(Long accountId) {
+        ReentrantLock lock = stripeFor(accountId);
+        lock.lock();
+        try {
+            balances.remove(accountId);
+            dirtyAccounts.remove(accountId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<Long, BigDecimal> drainDirty() {
+        Map<Long, BigDecimal> snapshot = new HashMap<>();
+        for (Long accountId : dirtyAccounts) {
+            if (dirtyAccounts.remove(accountId)) {
+                MinorUnitBalance balance = balances.get(accountId);
+                if (balance != null) {
+                    snapshot.put(accountId, balance.committedToBigDecimal());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void markDirty(Collection<Long> accountIds) {
+        dirtyAccounts.addAll(accountIds);
+    }
+
+    @Override
+    public int dirtyCount() {
+        return dirtyAccounts.size();
+    }
+
+    private MinorUnitBalance load(BankAccount account) {
+        MinorUnitBalance balance = balances.get(account.getId());
+        return balance != null ? balance : balances.computeIfAbsent(account.getId(), id -> MinorUnitBalance.load(account));
+    }
+
+    private List<ReentrantLock> lockAll(List<BalanceLeg> legs) {
+        Set<Integer> indexes = new TreeSet<>();
+        for (BalanceLeg leg : legs) {
+            indexes.add(stripeIndex(leg.accountId()));
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            ReentrantLock lock = stripes[index];
+            lock.lock();
+            acquired.add(lock);
+        }
+        return acquired;
+    }
+
+    private void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long accountId) {
+        return stripes[stripeIndex(accountId)];
+    }
+
+    private int stripeIndex(Long accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & stripeMask;
+    }
+}
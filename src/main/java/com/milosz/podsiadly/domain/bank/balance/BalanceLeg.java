@@ -0,0 +1,56 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+
+import java.math.BigDecimal;
+
+/**
+ * A single signed balance change against one account, in minor units of the account currency.
+ * Negative deltas are debits, positive deltas are credits.
+ *
+ * @param account                   The account whose balance changes.
+ * @param deltaMinor                Signed amount added to the balance, in minor units.
+ * @param insufficientFundsMessage  Message used when a debit would leave a negative balance;
+ *                                  {@code null} disables the funds check for this leg.
+ */
+public record BalanceLeg(BankAccount account, long deltaMinor, String insufficientFundsMessage) {
+
+    public static BalanceLeg credit(BankAccount account, Money amount) {
+        return new BalanceLeg(account, amount.minorUnits(), null);
+    }
+
+    public static BalanceLeg debit(BankAccount account, Money amount, String insufficientFundsMessage) {
+        return new BalanceLeg(account, Math.negateExact(amount.minorUnits()), insufficientFundsMessage);
+    }
+
+    /**
+     * Signed change without a funds check (administrative correction).
+     */
+    public static BalanceLeg adjustment(BankAccount account, Money delta) {
+        return new BalanceLeg(account, delta.minorUnits(), null);
+    }
+
+    public Long accountId() {
+        return account.getId();
+    }
+
+    /**
+     * @return The delta as a decimal amount, for strategies that write the balance column directly.
+     */
+    public BigDecimal delta() {
+        return Money.toBigDecimal(deltaMinor, account.getCurrency());
+    }
+
+    public boolean isDebit() {
+        return deltaMinor < 0;
+    }
+
+    public boolean checksFunds() {
+        return insufficientFundsMessage != null;
+    }
+
+    public BalanceLeg inverse() {
+        return new BalanceLeg(account, Math.negateExact(deltaMinor), null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+/**
+ * Strategy used by {@link BalanceUpdater} to apply balance changes.
+ */
+public enum BalanceMode {
+    /**
+     * Balances are read from and written to the bank_accounts row on every leg.
+     */
+    DIRECT,
+    /**
+     * Row locks (SELECT ... FOR UPDATE) are taken on all involved accounts in ascending ID order
+     * before any balance changes, so opposite transfers cannot deadlock.
+     */
+    ORDERED_LOCKING,
+    /**
+     * Balances are updated with a versioned compare-and-set statement and retried a bounded
+     * number of times on conflict.
+     */
+    OPTIMISTIC,
+    /**
+     * Balances are authoritative in memory behind striped locks and flushed to bank_accounts in batches.
+     */
+    LEDGER,
+    /**
+     * Every account is owned by one single-threaded partition chosen by hashing its ID; balances are
+     * changed only on the owning thread, without locks, and flushed to bank_accounts in batches.
+     * Multi-partition updates reserve debits first and hand credits off afterwards.
+     */
+    PARTITIONED
+}
@@ -0,0 +1,309 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import com.milosz.podsiadly.domain.bank.journal.JournalEntry;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory, authoritative store of account balances split into single-writer partitions.
+ * Every account hashes to exactly one partition; its balance is only ever changed by that
+ * partition's thread, so no locks are needed and hot accounts do not contend with each other
+ * unless they share a partition.
+ * <p>
+ * Updates spanning several partitions reserve in parallel: every involved partition checks its legs
+ * and reserves its debits; if any partition rejects them, the reservations already made are returned.
+ * Credits are handed to their partitions only once the transaction has committed, so credited money
+ * can never be spent before the whole update is known to succeed. Committed balances are changed under
+ * one commit lock, which also fixes the order of the changes in the {@link BalanceJournal}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "partitioned")
+public class BalancePartitions implements WriteBehindBalanceStore {
+
+    private static final class Partition {
+        private final ExecutorService executor;
+        // Saldo dostępne zmienia wyłącznie wątek partycji, saldo zatwierdzone - wątek trzymający commitLock
+        private final ConcurrentHashMap<Long, MinorUnitBalance> balances = new ConcurrentHashMap<>();
+        private final Set<Long> dirtyAccounts = ConcurrentHashMap.newKeySet();
+
+        private Partition(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "balance-partition-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final Partition[] partitions;
+    private final BalanceJournal journal;
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    public BalancePartitions(BalanceProperties properties, BalanceJournal journal) {
+        this.journal = journal;
+        int count = properties.getPartitions() > 0 ? properties.getPartitions() : Runtime.getRuntime().availableProcessors();
+        this.partitions = new Partition[count];
+        for (int i = 0; i < count; i++) {
+            partitions[i] = new Partition(i);
+        }
+        log.info("Balance engine running with {} single-writer partitions.", count);
+    }
+
+    /**
+     * Checks the legs and reserves the debits atomically: either every partition reserves its debits or none does.
+     *
+     * @param legs The balance changes of one transaction.
+     * @throws InsufficientFundsException if a checked debit would leave a negative balance.
+     */
+    @Override
+    public void reserve(List<BalanceLeg> legs) {
+        if (legs.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<BalanceLeg>> byPartition = groupByPartition(legs);
+        if (byPartition.size() == 1) {
+            Map.Entry<Integer, List<BalanceLeg>> only = byPartition.entrySet().iterator().next();
+            Partition partition = partitions[only.getKey()];
+            call(partition, () -> reserveOwned(partition, only.getValue()));
+            return;
+        }
+
+        // Rezerwacja obciążeń we wszystkich partycjach równolegle
+        Map<Integer, CompletableFuture<Void>> reservations = new TreeMap<>();
+        byPartition.forEach((index, partitionLegs) -> {
+            Partition partition = partitions[index];
+            reservations.put(index, CompletableFuture.supplyAsync(() -> reserveOwned(partition, partitionLegs), partition.executor));
+        });
+        RuntimeException failure = null;
+        List<Integer> reserved = new ArrayList<>();
+        for (Map.Entry<Integer, CompletableFuture<Void>> reservation : reservations.entrySet()) {
+            try {
+                await(reservation.getValue());
+                reserved.add(reservation.getKey());
+            } catch (RuntimeException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            List<CompletableFuture<Void>> releases = new ArrayList<>(reserved.size());
+            for (Integer index : reserved) {
+                List<BalanceLeg> inverse = byPartition.get(index).stream()
+                        .filter(BalanceLeg::isDebit)
+                        .map(BalanceLeg::inverse)
+                        .toList();
+                releases.add(CompletableFuture.supplyAsync(() -> addOwned(partitions[index], inverse), partitions[index].executor));
+            }
+            releases.forEach(BalancePartitions::await);
+            throw failure;
+        }
+    }
+
+    @Override
+    public void makeAvailable(List<BalanceLeg> legs) {
+        List<CompletableFuture<Void>> handOffs = new ArrayList<>();
+        groupByPartition(legs).forEach((index, partitionLegs) ->
+                handOffs.add(CompletableFuture.supplyAsync(() -> addOwned(partitions[index], partitionLegs), partitions[index].executor)));
+        handOffs.forEach(BalancePartitions::await);
+    }
+
+    @Override
+    public long commit(List<BalanceLeg> legs) {
+        if (legs.isEmpty()) {
+            return 0;
+        }
+        commitLock.lock();
+        try {
+            List<JournalEntry> entries = new ArrayList<>(legs.size());
+            for (BalanceLeg leg : legs) {
+                Partition partition = partitionOf(leg.accountId());
+                MinorUnitBalance balance = load(partition, leg.account());
+                long committed = balance.committedMinorUnits() + leg.deltaMinor();
+                balance.setCommitted(committed);
+                partition.dirtyAccounts.add(leg.accountId());
+                entries.add(new JournalEntry(leg.accountId(), committed, leg.deltaMinor()));
+            }
+            return journal.appendPending(entries);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public BigDecimal balanceOf(BankAccount account) {
+        return balanceHolder(account).toBigDecimal();
+    }
+
+    public Money moneyOf(BankAccount account) {
+        return balanceHolder(account).toMoney();
+    }
+
+    private MinorUnitBalance balanceHolder(BankAccount account) {
+        Partition partition = partitionOf(account.getId());
+        MinorUnitBalance balance = partition.balances.get(account.getId());
+        if (balance != null) {
+            return balance;
+        }
+        // Pierwsze odwołanie do konta: saldo ładuje wątek właściciela
+        return call(partition, () -> load(partition, account));
+    }
+
+    /**
+     * Sets the committed balance; reservations of open transactions stay deducted from the available balance.
+     *
+     * @return The journal sequence number of the change (0 if nothing was journaled).
+     */
+    public long overwrite(BankAccount account, BigDecimal newBalance) {
+        Partition partition = partitionOf(account.getId());
+        return call(partition, () -> {
+            MinorUnitBalance balance = load(partition, account);
+            long newMinor = Money.toMinorUnits(newBalance, account.getCurrency());
+            commitLock.lock();
+            try {
+                long delta = newMinor - balance.committedMinorUnits();
+                balance.set(balance.minorUnits() + delta);
+                balance.setCommitted(newMinor);
+                partition.dirtyAccounts.add(account.getId());
+                return journal.appendCommitted(List.of(new JournalEntry(account.getId(), newMinor, delta)));
+            } finally {
+                commitLock.unlock();
+            }
+        });
+    }
+
+    public void evict(Long accountId) {
+        Partition partition = partitionOf(accountId);
+        call(partition, () -> {
+            partition.balances.remove(accountId);
+            partition.dirtyAccounts.remove(accountId);
+            return null;
+        });
+    }
+
+    // Salda zatwierdzone nie należą do wątków partycji - zrzut nie czeka na ich kolejki
+    @Override
+    public Map<Long, BigDecimal> drainDirty() {
+        Map<Long, BigDecimal> snapshot = new HashMap<>();
+        for (Partition partition : partitions) {
+            for (Long accountId : partition.dirtyAccounts) {
+                if (partition.dirtyAccounts.remove(accountId)) {
+                    MinorUnitBalance balance = partition.balances.get(accountId);
+                    if (balance != null) {
+                        snapshot.put(accountId, balance.committedToBigDecimal());
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void markDirty(Collection<Long> accountIds) {
+        accountIds.forEach(id -> partitionOf(id).dirtyAccounts.add(id));
+    }
+
+    @Override
+    public int dirtyCount() {
+        int count = 0;
+        for (Partition partition : partitions) {
+            count += partition.dirtyAccounts.size();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Partition partition : partitions) {
+            partition.executor.shutdown();
+        }
+        for (Partition partition : partitions) {
+            partition.executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Wykonywane wyłącznie na wątku partycji: sprawdza wszystkie nogi, zmienia saldo dostępne tylko o obciążenia
+    private static Void reserveOwned(Partition partition, List<BalanceLeg> legs) {
+        for (int i = 0; i < legs.size(); i++) {
+            BalanceLeg leg = legs.get(i);
+            long next = MinorUnitBalance.balanceAfter(load(partition, leg.account()).minorUnits(), legs, i);
+            if (leg.checksFunds() && leg.isDebit() && next < 0) {
+                throw new InsufficientFundsException(leg.insufficientFundsMessage());
+            }
+        }
+        for (BalanceLeg leg : legs) {
+            if (leg.isDebit()) {
+                MinorUnitBalance balance = load(partition, leg.account());
+                balance.set(balance.minorUnits() + leg.deltaMinor());
+            }
+        }
+        return null;
+    }
+
+    // Wykonywane wyłącznie na wątku partycji
+    private static Void addOwned(Partition partition, List<BalanceLeg> legs) {
+        for (BalanceLeg leg : legs) {
+            MinorUnitBalance balance = load(partition, leg.account());
+            balance.set(balance.minorUnits() + leg.deltaMinor());
+        }
+        return null;
+    }
+
+    private static MinorUnitBalance load(Partition partition, BankAccount account) {
+        MinorUnitBalance balance = partition.balances.get(account.getId());
+        return balance != null ? balance : partition.balances.computeIfAbsent(account.getId(), id -> MinorUnitBalance.load(account));
+    }
+
+    private Map<Integer, List<BalanceLeg>> groupByPartition(List<BalanceLeg> legs) {
+        Map<Integer, List<BalanceLeg>> byPartition = new TreeMap<>();
+        for (BalanceLeg leg : legs) {
+            byPartition.computeIfAbsent(partitionIndex(leg.accountId()), index -> new ArrayList<>()).add(leg);
+        }
+        return byPartition;
+    }
+
+    private Partition partitionOf(Long accountId) {
+        return partitions[partitionIndex(accountId)];
+    }
+
+    private int partitionIndex(Long accountId) {
+        int h = accountId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions.length);
+    }
+
+    private static <T> T call(Partition partition, Supplier<T> task) {
+        return await(CompletableFuture.supplyAsync(task, partition.executor));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the balance engine.
+ * Automatically bound from banking.balance.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.balance")
+@Getter
+@Setter
+public class BalanceProperties {
+
+    private BalanceMode mode = BalanceMode.DIRECT;
+
+    /**
+     * Pessimistic lock timeout used in ORDERED_LOCKING mode, in milliseconds.
+     */
+    private long lockTimeoutMs = 5000;
+
+    /**
+     * Maximum number of compare-and-set attempts per account in OPTIMISTIC mode.
+     */
+    private int optimisticMaxAttempts = 5;
+
+    /**
+     * Upper bound of the randomized back-off between optimistic attempts, in milliseconds.
+     */
+    private long optimisticBackoffMs = 5;
+
+    /**
+     * Number of lock stripes guarding in-memory balances (rounded up to a power of two).
+     */
+    private int lockStripes = 1024;
+
+    /**
+     * Number of single-threaded partitions in PARTITIONED mode; 0 means one per available processor.
+     */
+    private int partitions = 0;
+
+    /**
+     * Delay between write-behind flushes of dirty balances, in milliseconds.
+     */
+    private long flushIntervalMs = 200;
+
+    /**
+     * Maximum number of rows sent in one JDBC batch by the write-behind flusher.
+     */
+    private int flushBatchSize = 500;
+}
@@ -0,0 +1,75 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.domain.bank.dto.ReconciliationMismatch;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.service.PostingService;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Startup check of the in-memory balances (after the journal replay) against the committed transactions:
+ * the double-entry ledger is written in the same database transaction as every transaction row, so a
+ * customer account's credits minus debits there is its committed balance. Accounts whose bank_accounts
+ * balance differs from the ledger are compared again using the in-memory balance, which may simply not
+ * have been flushed yet; the remaining differences are logged and audited for manual review.
+ * Manual balance overwrites are not booked in the ledger and therefore also show up here.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${banking.balance.mode:direct}'.equalsIgnoreCase('ledger') " +
+        "or '${banking.balance.mode:direct}'.equalsIgnoreCase('partitioned')")
+public class BalanceReconciler {
+
+    private static final int LOGGED_MISMATCHES = 20;
+
+    private final PostingService postingService;
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final AuditService auditService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        List<ReconciliationMismatch> candidates = postingService.reconcile();
+        if (candidates.isEmpty()) {
+            log.info("Startup balance reconciliation: all account balances match the ledger.");
+            return;
+        }
+        Map<Long, BankAccount> accounts = bankAccountRepository.findAllById(
+                        candidates.stream().map(ReconciliationMismatch::accountId).toList()).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        int mismatches = 0;
+        for (ReconciliationMismatch candidate : candidates) {
+            BankAccount account = accounts.get(candidate.accountId());
+            if (account == null) {
+                continue;
+            }
+            BigDecimal inMemory = balanceUpdater.currentBalance(account);
+            if (inMemory.compareTo(candidate.ledgerBalance()) == 0) {
+                continue; // Saldo w pamięci zgodne z księgą - bank_accounts dogoni je przy najbliższym zrzucie
+            }
+            if (mismatches++ < LOGGED_MISMATCHES) {
+                log.warn("Balance of account {} is {} but its committed transactions sum up to {}.",
+                        candidate.accountNumber(), inMemory, candidate.ledgerBalance());
+            }
+            auditService.logEvent("SYSTEM", "BALANCE_RECONCILIATION_MISMATCH", "BankAccount", account.getId(),
+                    "Saldo " + inMemory + " różni się od salda z zatwierdzonych transakcji " + candidate.ledgerBalance() + ".",
+                    AuditLog.AuditStatus.FAILURE);
+        }
+        log.info("Startup balance reconciliation: {} of {} accounts differ from the ledger.", mismatches, candidates.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Single entry point for every balance mutation of a {@link BankAccount}.
+ * The active implementation is selected with the banking.balance.mode property.
+ */
+public interface BalanceUpdater {
+
+    /**
+     * Applies all legs atomically: either every leg is applied or none is.
+     *
+     * @param legs The balance changes to apply.
+     * @throws InsufficientFundsException if a checked debit would leave a negative balance.
+     */
+    void apply(List<BalanceLeg> legs);
+
+    /**
+     * Returns the authoritative balance of the account.
+     *
+     * @param account The account to read.
+     * @return The current balance.
+     */
+    BigDecimal currentBalance(BankAccount account);
+
+    /**
+     * Returns the authoritative balance of the account in minor units of its currency.
+     *
+     * @param account The account to read.
+     * @return The current balance.
+     */
+    default Money currentMoney(BankAccount account) {
+        return Money.of(currentBalance(account), account.getCurrency());
+    }
+
+    /**
+     * Overwrites the balance of the account (administrative correction).
+     *
+     * @param account    The account to update.
+     * @param newBalance The new balance.
+     */
+    void overwrite(BankAccount account, BigDecimal newBalance);
+
+    /**
+     * Forgets any state kept for the account, e.g. after it has been deleted.
+     *
+     * @param accountId The ID of the account.
+     */
+    default void evict(Long accountId) {
+    }
+}
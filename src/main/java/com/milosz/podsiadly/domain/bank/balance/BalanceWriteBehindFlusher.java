@@ -0,0 +1,88 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically writes dirty committed balances from the in-memory {@link WriteBehindBalanceStore}
+ * ({@link BalanceLedger} or {@link BalancePartitions}) to the bank_accounts table
+ * using JDBC batch updates; debits reserved by open transactions are never written.
+ * A failed flush puts the accounts back on the dirty list.
+ * After a fully successful flush the {@link BalanceJournal} is checkpointed, so its older records are not replayed.
+ * Both modes acknowledge a transaction before its balances reach bank_accounts, so they refuse to start
+ * without a durable journal.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${banking.balance.mode:direct}'.equalsIgnoreCase('ledger') " +
+        "or '${banking.balance.mode:direct}'.equalsIgnoreCase('partitioned')")
+public class BalanceWriteBehindFlusher {
+
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE bank_accounts SET balance = ?, updated_at = ? WHERE id = ?";
+
+    private final WriteBehindBalanceStore balanceStore;
+    private final BalanceProperties balanceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceJournal balanceJournal;
+
+    @PostConstruct
+    public void requireDurableJournal() {
+        if (!balanceJournal.isDurable()) {
+            throw new IllegalStateException("banking.balance.mode=" + balanceProperties.getMode()
+                    + " keeps committed balances only in memory until they are flushed; set banking.journal.enabled=true.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.balance.flush-interval-ms:200}")
+    public void flush() {
+        // Grupy do tego numeru zostały już dodane do sald zatwierdzonych, więc są w tym lub wcześniejszym zrzucie
+        long coveredSequence = balanceJournal.lastSequence();
+        Map<Long, BigDecimal> dirty = balanceStore.drainDirty();
+        if (dirty.isEmpty()) {
+            balanceJournal.checkpoint(coveredSequence);
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(dirty.size());
+        dirty.forEach((accountId, balance) -> rows.add(new Object[]{balance, now, accountId}));
+
+        int batchSize = Math.max(1, balanceProperties.getFlushBatchSize());
+        boolean failed = false;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, chunk);
+            } catch (Exception e) {
+                log.error("Write-behind flush of {} balances failed, will retry: {}", chunk.size(), e.getMessage(), e);
+                balanceStore.markDirty(chunk.stream().map(row -> (Long) row[2]).toList());
+                failed = true;
+            }
+        }
+        if (!failed) {
+            balanceJournal.checkpoint(coveredSequence);
+        }
+        log.debug("Flushed {} dirty balances to bank_accounts.", rows.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Flushing {} dirty balances before shutdown.", balanceStore.dirtyCount());
+        flush();
+    }
+}
@@ -0,0 +1,48 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Default balance strategy: mutates the {@link BankAccount} entity and saves it on every leg.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "direct", matchIfMissing = true)
+public class DirectBalanceUpdater implements BalanceUpdater {
+
+    private final BankAccountRepository bankAccountRepository;
+
+    @Override
+    public void apply(List<BalanceLeg> legs) {
+        for (BalanceLeg leg : legs) {
+            BankAccount account = leg.account();
+            BigDecimal newBalance = account.getBalance().add(leg.delta());
+            if (leg.checksFunds() && leg.isDebit() && newBalance.signum() < 0) {
+                throw new InsufficientFundsException(leg.insufficientFundsMessage());
+            }
+        }
+        for (BalanceLeg leg : legs) {
+            BankAccount account = leg.account();
+            account.setBalance(account.getBalance().add(leg.delta()));
+            bankAccountRepository.save(account);
+        }
+    }
+
+    @Override
+    public BigDecimal currentBalance(BankAccount account) {
+        return account.getBalance();
+    }
+
+    @Override
+    public void overwrite(BankAccount account, BigDecimal newBalance) {
+        account.setBalance(newBalance);
+    }
+}
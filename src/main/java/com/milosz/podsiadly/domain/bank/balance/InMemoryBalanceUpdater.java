@@ -0,0 +1,52 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Balance strategy backed by the in-memory {@link BalanceLedger}.
+ * Debits are reserved (and funds checked) immediately so that money can never be spent twice;
+ * the transaction commits only once its legs are durable in the journal, and credits only become
+ * spendable after that commit. If the transaction rolls back, the debits are released again.
+ * The bank_accounts table is updated asynchronously by {@link BalanceWriteBehindFlusher}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "ledger")
+public class InMemoryBalanceUpdater implements BalanceUpdater {
+
+    private final BalanceLedger balanceLedger;
+    private final BalanceJournal balanceJournal;
+
+    @Override
+    public void apply(List<BalanceLeg> legs) {
+        JournaledBalanceCommit.apply(balanceLedger, balanceJournal, legs);
+    }
+
+    @Override
+    public BigDecimal currentBalance(BankAccount account) {
+        return balanceLedger.balanceOf(account);
+    }
+
+    @Override
+    public Money currentMoney(BankAccount account) {
+        return balanceLedger.moneyOf(account);
+    }
+
+    @Override
+    public void overwrite(BankAccount account, BigDecimal newBalance) {
+        balanceJournal.awaitDurable(balanceLedger.overwrite(account, newBalance));
+    }
+
+    @Override
+    public void evict(Long accountId) {
+        balanceLedger.evict(accountId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Ties legs reserved in a {@link WriteBehindBalanceStore} to the surrounding database transaction.
+ * Before the database commit the legs are committed in the store and journaled as one pending group, the group
+ * is confirmed in the database transaction, and the commit only proceeds once the group is durable; a journal
+ * failure rolls the database transaction back and reaches the caller. A crash between the fsync and the database
+ * commit leaves the group unconfirmed, so it is not replayed. After the commit the credits become available. After a rollback the reserved debits are returned
+ * and a group that was already committed in the store is compensated by a journaled inverse group.
+ */
+@Slf4j
+final class JournaledBalanceCommit implements TransactionSynchronization {
+
+    private final WriteBehindBalanceStore store;
+    private final BalanceJournal journal;
+    private final List<BalanceLeg> legs;
+    private boolean committed;
+
+    private JournaledBalanceCommit(WriteBehindBalanceStore store, BalanceJournal journal, List<BalanceLeg> legs) {
+        this.store = store;
+        this.journal = journal;
+        this.legs = legs;
+    }
+
+    /**
+     * Reserves the legs and commits them together with the active transaction,
+     * or immediately when no transaction synchronization is active.
+     */
+    static void apply(WriteBehindBalanceStore store, BalanceJournal journal, List<BalanceLeg> legs) {
+        store.reserve(legs);
+        JournaledBalanceCommit commit = new JournaledBalanceCommit(store, journal, legs);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(commit);
+            return;
+        }
+        try {
+            commit.beforeCommit(false);
+        } catch (RuntimeException e) {
+            commit.afterCompletion(STATUS_ROLLED_BACK);
+            throw e;
+        }
+        commit.afterCompletion(STATUS_COMMITTED);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        committed = true; // Przed wywołaniem: nieudany zapis do dziennika mógł już zmienić salda zatwierdzone
+        long sequence = store.commit(legs);
+        journal.confirm(sequence); // Wiersz potwierdzenia zatwierdza się razem z transakcją bazy
+        journal.awaitDurable(sequence);
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        try {
+            if (status == STATUS_COMMITTED) {
+                store.makeAvailable(legs.stream().filter(leg -> !leg.isDebit()).toList());
+                return;
+            }
+            store.makeAvailable(legs.stream().filter(BalanceLeg::isDebit).map(BalanceLeg::inverse).toList());
+            if (committed) {
+                // Grupa mogła trafić do dziennika przed nieudanym commitem bazy - grupa odwrotna przywraca salda zatwierdzone.
+                // Obie grupy pozostają niepotwierdzone, więc odtworzenie pomija je razem
+                store.commit(legs.stream().map(BalanceLeg::inverse).toList());
+            }
+        } catch (RuntimeException e) {
+            log.error("Cannot complete in-memory balance change of {} legs after transaction status {}: {}",
+                    legs.size(), status, e.getMessage(), e);
+        }
+    }
+}
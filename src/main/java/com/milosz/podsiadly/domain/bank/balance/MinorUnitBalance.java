@@ -0,0 +1,78 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Mutable in-memory balance of one account in minor units, kept twice:
+ * the available balance (funds checks and reads) already excludes debits reserved by open transactions and
+ * includes credits only once their transaction has committed; the committed balance holds exactly the changes
+ * of committed transactions and is the one journaled and written to bank_accounts. Without open transactions
+ * both are equal.
+ * Allocated once per account. The available balance is updated in place by its single writer (stripe lock holder
+ * or partition thread), the committed balance under the commit lock of the store; readers on other threads see
+ * the latest values through the volatile fields.
+ */
+final class MinorUnitBalance {
+
+    private final String currency;
+    private volatile long minorUnits;
+    private volatile long committedMinorUnits;
+
+    MinorUnitBalance(String currency, long minorUnits) {
+        this.currency = currency;
+        this.minorUnits = minorUnits;
+        this.committedMinorUnits = minorUnits;
+    }
+
+    static MinorUnitBalance load(BankAccount account) {
+        return new MinorUnitBalance(account.getCurrency(), Money.toMinorUnits(account.getBalance(), account.getCurrency()));
+    }
+
+    /**
+     * Balance of the account of leg {@code index} after applying every leg of that account up to and including it.
+     * Overflow is detected here, before anything is written.
+     */
+    static long balanceAfter(long opening, List<BalanceLeg> legs, int index) {
+        Long accountId = legs.get(index).accountId();
+        long balance = opening;
+        for (int i = 0; i <= index; i++) {
+            BalanceLeg leg = legs.get(i);
+            if (leg.accountId().equals(accountId)) {
+                balance = Math.addExact(balance, leg.deltaMinor());
+            }
+        }
+        return balance;
+    }
+
+    long minorUnits() {
+        return minorUnits;
+    }
+
+    void set(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    long committedMinorUnits() {
+        return committedMinorUnits;
+    }
+
+    void setCommitted(long committedMinorUnits) {
+        this.committedMinorUnits = committedMinorUnits;
+    }
+
+    BigDecimal committedToBigDecimal() {
+        return Money.toBigDecimal(committedMinorUnits, currency);
+    }
+
+    BigDecimal toBigDecimal() {
+        return Money.toBigDecimal(minorUnits, currency);
+    }
+
+    Money toMoney() {
+        return Money.ofMinor(minorUnits, currency);
+    }
+}
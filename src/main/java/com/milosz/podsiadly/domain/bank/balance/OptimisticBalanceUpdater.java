@@ -0,0 +1,134 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * Balance strategy based on the BankAccount version column.
+ * Each account is read (balance + version) and written back with a compare-and-set UPDATE; when
+ * another transaction changed the row in between, the update matches no row and is retried with a
+ * short randomized back-off, up to banking.balance.optimistic-max-attempts times.
+ * <p>
+ * Every retry is a fresh statement, so under READ COMMITTED (the PostgreSQL and H2 default) it sees
+ * the latest committed balance without restarting the surrounding transaction. Accounts are updated
+ * in ascending ID order so the row locks held by successful updates are always taken in the same order.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "optimistic")
+public class OptimisticBalanceUpdater implements BalanceUpdater {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceProperties balanceProperties;
+    private final BalanceContentionMetrics metrics;
+
+    @Override
+    public void apply(List<BalanceLeg> legs) {
+        // Zsumuj zmiany per konto (rosnąco po ID), zachowując komunikat kontroli środków
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        Map<Long, BalanceLeg> firstLeg = new LinkedHashMap<>();
+        Map<Long, String> fundsMessages = new LinkedHashMap<>();
+        for (BalanceLeg leg : legs) {
+            deltas.merge(leg.accountId(), leg.delta(), BigDecimal::add);
+            firstLeg.putIfAbsent(leg.accountId(), leg);
+            if (leg.checksFunds()) {
+                fundsMessages.putIfAbsent(leg.accountId(), leg.insufficientFundsMessage());
+            }
+        }
+
+        Map<Long, BigDecimal> applied = new LinkedHashMap<>();
+        try {
+            deltas.forEach((accountId, delta) -> {
+                BigDecimal newBalance = compareAndSet(accountId, current -> {
+                    BigDecimal next = current.add(delta);
+                    String message = fundsMessages.get(accountId);
+                    if (message != null && delta.signum() < 0 && next.signum() < 0) {
+                        throw new InsufficientFundsException(message);
+                    }
+                    return next;
+                });
+                applied.put(accountId, delta);
+                syncEntity(firstLeg.get(accountId).account(), newBalance);
+            });
+        } catch (RuntimeException e) {
+            // Wszystko albo nic: cofnij konta zmienione przed błędem. Ich wiersze blokuje już ta transakcja,
+            // więc cofnięcie nie trafi na konflikt wersji
+            applied.forEach((accountId, delta) -> syncEntity(firstLeg.get(accountId).account(),
+                    compareAndSet(accountId, current -> current.subtract(delta))));
+            throw e;
+        }
+    }
+
+    @Override
+    public BigDecimal currentBalance(BankAccount account) {
+        return account.getBalance();
+    }
+
+    @Override
+    public void overwrite(BankAccount account, BigDecimal newBalance) {
+        compareAndSet(account.getId(), current -> newBalance);
+        syncEntity(account, newBalance);
+    }
+
+    private BigDecimal compareAndSet(Long accountId, UnaryOperator<BigDecimal> change) {
+        int maxAttempts = Math.max(1, balanceProperties.getOptimisticMaxAttempts());
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            AccountBalanceSnapshot snapshot = bankAccountRepository.findBalanceSnapshot(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
+            BigDecimal newBalance = change.apply(snapshot.balance());
+
+            int updated = bankAccountRepository.compareAndSetBalance(
+                    accountId, snapshot.version(), newBalance, LocalDateTime.now());
+            if (updated == 1) {
+                metrics.recordOptimisticSuccess(attempt);
+                return newBalance;
+            }
+
+            metrics.recordOptimisticConflict();
+            log.debug("Version conflict on account {} (attempt {}/{}), retrying.", accountId, attempt, maxAttempts);
+            backOff();
+        }
+        metrics.recordOptimisticExhausted();
+        throw new ObjectOptimisticLockingFailureException(BankAccount.class, accountId);
+    }
+
+    private void backOff() {
+        long maxBackoffMs = balanceProperties.getOptimisticBackoffMs();
+        if (maxBackoffMs > 0) {
+            long nanos = ThreadLocalRandom.current().nextLong(maxBackoffMs * 1_000_000L) + 1;
+            LockSupport.parkNanos(nanos);
+        }
+    }
+
+    // Zapytanie UPDATE omija kontekst persystencji - odśwież zarządzaną encję, żeby nie nadpisała nowego salda
+    private void syncEntity(BankAccount account, BigDecimal newBalance) {
+        if (entityManager.contains(account)) {
+            entityManager.refresh(account);
+        } else {
+            account.setBalance(newBalance);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Balance strategy that takes PESSIMISTIC_WRITE row locks on every involved account in ascending
+ * account ID order before changing any balance. Two opposite transfers between the same accounts
+ * therefore always lock in the same order and cannot deadlock.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "ordered_locking")
+public class OrderedLockingBalanceUpdater implements BalanceUpdater {
+
+    private static final String LOCK_TIMEOUT_HINT = "jakarta.persistence.lock.timeout";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final BalanceProperties balanceProperties;
+    private final BalanceContentionMetrics metrics;
+
+    @Override
+    public void apply(List<BalanceLeg> legs) {
+        Map<Long, BankAccount> locked = lockInOrder(legs);
+
+        Map<Long, BigDecimal> newBalances = new TreeMap<>();
+        for (BalanceLeg leg : legs) {
+            BigDecimal current = newBalances.getOrDefault(leg.accountId(), locked.get(leg.accountId()).getBalance());
+            BigDecimal next = current.add(leg.delta());
+            if (leg.checksFunds() && leg.isDebit() && next.signum() < 0) {
+                throw new InsufficientFundsException(leg.insufficientFundsMessage());
+            }
+            newBalances.put(leg.accountId(), next);
+        }
+
+        newBalances.forEach((accountId, balance) -> locked.get(accountId).setBalance(balance));
+        // Odzwierciedl nowe saldo także w obiektach przekazanych przez wywołującego (mogą być odłączone)
+        for (BalanceLeg leg : legs) {
+            leg.account().setBalance(newBalances.get(leg.accountId()));
+        }
+    }
+
+    @Override
+    public BigDecimal currentBalance(BankAccount account) {
+        return account.getBalance();
+    }
+
+    @Override
+    public void overwrite(BankAccount account, BigDecimal newBalance) {
+        lockInOrder(List.of(BalanceLeg.credit(account, Money.zero(account.getCurrency()))));
+        account.setBalance(newBalance);
+    }
+
+    private Map<Long, BankAccount> lockInOrder(List<BalanceLeg> legs) {
+        Map<Long, BankAccount> byId = new TreeMap<>();
+        for (BalanceLeg leg : legs) {
+            byId.putIfAbsent(leg.accountId(), leg.account());
+        }
+
+        Map<String, Object> hints = Map.of(LOCK_TIMEOUT_HINT, balanceProperties.getLockTimeoutMs());
+        Map<Long, BankAccount> locked = new TreeMap<>();
+        for (Map.Entry<Long, BankAccount> entry : byId.entrySet()) {
+            long start = System.nanoTime();
+            try {
+                BankAccount account = entry.getValue();
+                if (entityManager.contains(account)) {
+                    entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE, hints);
+                } else {
+                    account = entityManager.find(BankAccount.class, entry.getKey(), LockModeType.PESSIMISTIC_WRITE, hints);
+                    if (account == null) {
+                        throw new ResourceNotFoundException("Account not found with id: " + entry.getKey());
+                    }
+                }
+                locked.put(entry.getKey(), account);
+            } catch (LockTimeoutException e) {
+                metrics.recordLockTimeout();
+                throw e;
+            } finally {
+                metrics.recordLockWait(System.nanoTime() - start);
+            }
+        }
+        return locked;
+    }
+}
@@ -0,0 +1,52 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Balance strategy backed by the single-writer {@link BalancePartitions}.
+ * Debits are reserved on the owning partitions immediately; the transaction commits only once its legs
+ * are durable in the journal, credits are handed off to their partitions after that commit, and
+ * reservations are returned if it rolls back. The bank_accounts table is updated asynchronously
+ * by {@link BalanceWriteBehindFlusher}.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.balance", name = "mode", havingValue = "partitioned")
+public class PartitionedBalanceUpdater implements BalanceUpdater {
+
+    private final BalancePartitions balancePartitions;
+    private final BalanceJournal balanceJournal;
+
+    @Override
+    public void apply(List<BalanceLeg> legs) {
+        JournaledBalanceCommit.apply(balancePartitions, balanceJournal, legs);
+    }
+
+    @Override
+    public BigDecimal currentBalance(BankAccount account) {
+        return balancePartitions.balanceOf(account);
+    }
+
+    @Override
+    public Money currentMoney(BankAccount account) {
+        return balancePartitions.moneyOf(account);
+    }
+
+    @Override
+    public void overwrite(BankAccount account, BigDecimal newBalance) {
+        balanceJournal.awaitDurable(balancePartitions.overwrite(account, newBalance));
+    }
+
+    @Override
+    public void evict(Long accountId) {
+        balancePartitions.evict(accountId);
+    }
+}
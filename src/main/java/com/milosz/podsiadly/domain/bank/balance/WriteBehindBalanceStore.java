@@ -0,0 +1,57 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory balance store whose committed changes are persisted by {@link BalanceWriteBehindFlusher}.
+ * A change goes through three steps: {@link #reserve} checks it and takes debits off the available balance,
+ * {@link #commit} adds it to the committed balance and journals it, {@link #makeAvailable} lets credits be spent.
+ */
+public interface WriteBehindBalanceStore {
+
+    /**
+     * Checks all legs against the available balances and reserves the debits; credits are only checked here.
+     *
+     * @param legs The balance changes of one transaction.
+     * @throws InsufficientFundsException if a checked debit would leave a negative balance.
+     */
+    void reserve(List<BalanceLeg> legs);
+
+    /**
+     * Adds the legs to the available balances: credits of a committed transaction,
+     * or inverted debits returning a reservation.
+     *
+     * @param legs The balance changes to make available.
+     */
+    void makeAvailable(List<BalanceLeg> legs);
+
+    /**
+     * Adds the legs to the committed balances, marks the accounts dirty and journals the legs as one pending group,
+     * which the caller confirms in its database transaction.
+     *
+     * @param legs The balance changes of one transaction.
+     * @return The journal sequence number of the group (0 if nothing was journaled).
+     */
+    long commit(List<BalanceLeg> legs);
+
+    /**
+     * Removes and returns the committed balances of all dirty accounts.
+     *
+     * @return Balances that have to be written to the bank_accounts table, keyed by account ID.
+     */
+    Map<Long, BigDecimal> drainDirty();
+
+    /**
+     * Marks accounts dirty again, e.g. after a failed flush.
+     *
+     * @param accountIds The IDs of the accounts to flush on the next run.
+     */
+    void markDirty(Collection<Long> accountIds);
+
+    int dirtyCount();
+}
@@ -0,0 +1,33 @@
+package com.milosz.podsiadly.domain.bank.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the account metadata cache.
+ * Automatically bound from banking.account-cache.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.account-cache")
+@Getter
+@Setter
+public class AccountCacheProperties {
+
+    /**
+     * Whether account metadata is cached; when disabled every lookup reads the table.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached accounts; the least recently used entry is evicted first.
+     */
+    private int maxEntries = 100000;
+
+    /**
+     * Upper bound on how long an entry is served without re-reading, in seconds.
+     * Limits staleness when an invalidation message is lost.
+     */
+    private long ttlSeconds = 300;
+}
@@ -0,0 +1,127 @@
+package com.milosz.podsiadly.domain.bank.cache;
+
+import com.milosz.podsiadly.domain.bank.repository.AccountMetadata;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded read-through cache of account metadata (currency, status, bank, owner), keyed by ID and by account number.
+ * Balances are never cached.
+ * <p>
+ * Entries are evicted by the account update and delete paths after commit and, on other nodes, by
+ * AccountChangedEvent messages. A load that raced with an eviction is not stored: every eviction
+ * bumps a generation counter and a loaded value is only cached if the generation did not change.
+ * Missing accounts are not cached.
+ */
+@Slf4j
+@Component
+public class AccountMetadataCache {
+
+    private record Entry(AccountMetadata metadata, long expiresAtMillis) {
+    }
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountCacheProperties properties;
+    private final Map<Long, Entry> byId;
+    private final Map<String, Long> idByNumber; // Numer konta nie zmienia się - mapowanie usuwane tylko razem z kontem
+    private long generation;
+
+    public AccountMetadataCache(BankAccountRepository bankAccountRepository, AccountCacheProperties properties) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.properties = properties;
+        int maxEntries = Math.max(1, properties.getMaxEntries());
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.idByNumber = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<AccountMetadata> get(Long accountId) {
+        if (!properties.isEnabled()) {
+            return bankAccountRepository.findMetadataById(accountId);
+        }
+        long observed;
+        synchronized (this) {
+            Entry entry = byId.get(accountId);
+            if (entry != null && entry.expiresAtMillis() >= System.currentTimeMillis()) {
+                return Optional.of(entry.metadata());
+            }
+            observed = generation;
+        }
+        Optional<AccountMetadata> loaded = bankAccountRepository.findMetadataById(accountId);
+        loaded.ifPresent(metadata -> store(metadata, observed));
+        return loaded;
+    }
+
+    public Optional<AccountMetadata> getByAccountNumber(String accountNumber) {
+        if (!properties.isEnabled()) {
+            return bankAccountRepository.findMetadataByAccountNumber(accountNumber);
+        }
+        Long accountId;
+        long observed;
+        synchronized (this) {
+            accountId = idByNumber.get(accountNumber);
+            observed = generation;
+        }
+        if (accountId != null) {
+            return get(accountId);
+        }
+        Optional<AccountMetadata> loaded = bankAccountRepository.findMetadataByAccountNumber(accountNumber);
+        loaded.ifPresent(metadata -> store(metadata, observed));
+        return loaded;
+    }
+
+    /**
+     * Removes an account from the cache immediately.
+     */
+    public synchronized void evict(Long accountId) {
+        generation++;
+        Entry removed = byId.remove(accountId);
+        if (removed != null) {
+            idByNumber.remove(removed.metadata().accountNumber());
+        }
+        // Pozostałe mapowanie numeru bez wpisu jest bezpieczne: prowadzi do ponownego odczytu po ID
+    }
+
+    /**
+     * Removes an account once the current database transaction commits, so no other thread can reload the old row in between.
+     */
+    public void evictAfterCommit(Long accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(accountId);
+            }
+        });
+    }
+
+    private synchronized void store(AccountMetadata metadata, long observedGeneration) {
+        if (generation != observedGeneration) {
+            log.debug("Account {} changed while loading, not caching.", metadata.id());
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(properties.getTtlSeconds());
+        byId.put(metadata.id(), new Entry(metadata, expiresAt));
+        idByNumber.put(metadata.accountNumber(), metadata.id());
+    }
+}
@@ -2,18 +2,26 @@ package com.milosz.podsiadly.domain.bank.controller;
 
 import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
 import com.milosz.podsiadly.domain.bank.dto.AccountDto;
+import com.milosz.podsiadly.domain.bank.dto.BalanceAsOfDto;
 import com.milosz.podsiadly.domain.bank.mapper.AccountMapper;
+import com.milosz.podsiadly.domain.bank.mapper.AccountProjectionMapper;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.service.AccountProjectionService;
 import com.milosz.podsiadly.domain.bank.service.AccountService;
+import com.milosz.podsiadly.domain.bank.service.BalanceSnapshotService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.apache.kafka.common.requests.DeleteAclsResponse.log;
@@ -24,10 +32,17 @@ public class AccountController {
 
     private final AccountService accountService;
     private final AccountMapper accountMapper;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final AccountProjectionService accountProjectionService;
+    private final AccountProjectionMapper accountProjectionMapper;
 
-    public AccountController(AccountService accountService, AccountMapper accountMapper) {
+    public AccountController(AccountService accountService, AccountMapper accountMapper, BalanceSnapshotService balanceSnapshotService,
+                             AccountProjectionService accountProjectionService, AccountProjectionMapper accountProjectionMapper) {
         this.accountService = accountService;
         this.accountMapper = accountMapper;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.accountProjectionService = accountProjectionService;
+        this.accountProjectionMapper = accountProjectionMapper;
     }
 
     @PostMapping
@@ -113,14 +128,37 @@ public class AccountController {
         }
     }
 
+    // Saldo na koniec wskazanego dnia: najbliższa migawka dzienna + zmiany od niej
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceAsOfDto> getBalanceAsOf(@PathVariable Long id,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        try {
+            return ResponseEntity.ok(new BalanceAsOfDto(id, asOf, balanceSnapshotService.balanceAsOf(id, asOf)));
+        } catch (ResourceNotFoundException e) {
+            log.warn("Account not found with ID: {} for balance as of {}.", id, asOf);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Z projekcji kont, gdy jest zbudowana; w przeciwnym razie z bank_accounts. Saldo zawsze z balanceUpdater
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<AccountDto>> getAccountsByUserId(@PathVariable Long userId) {
-        List<AccountDto> accounts = accountService.getAccountsByUserId(userId).stream()
-                .map(accountMapper::toDto)
-                .collect(Collectors.toList());
+        List<AccountDto> accounts = accountProjectionService.findAccountsByUserId(userId)
+                .map(projections -> withCurrentBalances(accountProjectionMapper.toAccountDtoList(projections),
+                        accountService.getCurrentBalancesByUserId(userId)))
+                .orElseGet(() -> accountService.getAccountsByUserId(userId).stream()
+                        .map(accountMapper::toDto)
+                        .collect(Collectors.toList()));
         return ResponseEntity.ok(accounts);
     }
 
+    private static List<AccountDto> withCurrentBalances(List<AccountDto> accounts, Map<Long, BigDecimal> balances) {
+        return accounts.stream()
+                .map(a -> new AccountDto(a.id(), a.accountNumber(), a.userId(), balances.getOrDefault(a.id(), a.balance()),
+                        a.currency(), a.status(), a.bankId(), a.bankName(), a.createdAt(), a.updatedAt()))
+                .collect(Collectors.toList());
+    }
+
     @GetMapping
     public ResponseEntity<List<AccountDto>> getAllAccounts() {
         List<AccountDto> accounts = accountService.getAllBankAccounts().stream()
@@ -0,0 +1,62 @@
+package com.milosz.podsiadly.domain.bank.controller;
+
+import com.milosz.podsiadly.domain.bank.dto.AccountDto;
+import com.milosz.podsiadly.domain.bank.dto.AccountProjectionStatusDto;
+import com.milosz.podsiadly.domain.bank.dto.DailyTurnoverDto;
+import com.milosz.podsiadly.domain.bank.mapper.AccountProjectionMapper;
+import com.milosz.podsiadly.domain.bank.service.AccountProjectionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/projections/accounts")
+public class AccountProjectionController {
+
+    private final AccountProjectionService accountProjectionService;
+    private final AccountProjectionMapper accountProjectionMapper;
+
+    public AccountProjectionController(AccountProjectionService accountProjectionService, AccountProjectionMapper accountProjectionMapper) {
+        this.accountProjectionService = accountProjectionService;
+        this.accountProjectionMapper = accountProjectionMapper;
+    }
+
+    @GetMapping("/{accountId}")
+    public ResponseEntity<AccountDto> getAccount(@PathVariable Long accountId) {
+        return accountProjectionService.findAccount(accountId)
+                .map(accountProjectionMapper::toAccountDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{accountId}/turnover")
+    public ResponseEntity<List<DailyTurnoverDto>> getDailyTurnover(
+            @PathVariable Long accountId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(accountProjectionMapper.toDtoList(accountProjectionService.getDailyTurnover(accountId, from, to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<AccountProjectionStatusDto> getStatus() {
+        return ResponseEntity.ok(accountProjectionMapper.toDto(accountProjectionService.getState()));
+    }
+
+    // Przebudowa działa w tle - postęp pod /status
+    @PostMapping("/rebuild")
+    public ResponseEntity<AccountProjectionStatusDto> rebuild() {
+        try {
+            return new ResponseEntity<>(accountProjectionMapper.toDto(accountProjectionService.startRebuild()), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
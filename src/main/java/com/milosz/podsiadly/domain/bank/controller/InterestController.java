@@ -0,0 +1,62 @@
+package com.milosz.podsiadly.domain.bank.controller;
+
+import com.milosz.podsiadly.domain.bank.dto.InterestRunDto;
+import com.milosz.podsiadly.domain.bank.mapper.InterestRunMapper;
+import com.milosz.podsiadly.domain.bank.service.InterestService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/interest/runs")
+public class InterestController {
+
+    private final InterestService interestService;
+    private final InterestRunMapper interestRunMapper;
+
+    public InterestController(InterestService interestService, InterestRunMapper interestRunMapper) {
+        this.interestService = interestService;
+        this.interestRunMapper = interestRunMapper;
+    }
+
+    @PostMapping
+    public ResponseEntity<InterestRunDto> startRun(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            LocalDate accrualDate = date != null ? date : LocalDate.now().minusDays(1);
+            return new ResponseEntity<>(interestRunMapper.toDto(interestService.startRun(accrualDate)), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<InterestRunDto>> getRecentRuns() {
+        return ResponseEntity.ok(interestRunMapper.toDtoList(interestService.getRecentRuns()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<InterestRunDto> getRunById(@PathVariable Long id) {
+        return interestService.getRunById(id)
+                .map(interestRunMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<InterestRunDto> resumeRun(@PathVariable Long id) {
+        try {
+            return new ResponseEntity<>(interestRunMapper.toDto(interestService.resumeRun(id)), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.milosz.podsiadly.domain.bank.controller;
+
+import com.milosz.podsiadly.domain.bank.dto.LedgerAccountBalance;
+import com.milosz.podsiadly.domain.bank.dto.ReconciliationMismatch;
+import com.milosz.podsiadly.domain.bank.dto.TrialBalanceLine;
+import com.milosz.podsiadly.domain.bank.service.PostingService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ledger")
+public class LedgerController {
+
+    private final PostingService postingService;
+
+    public LedgerController(PostingService postingService) {
+        this.postingService = postingService;
+    }
+
+    // Zestawienie obrotów per waluta - suma Wn musi równać się sumie Ma
+    @GetMapping("/trial-balance")
+    public ResponseEntity<List<TrialBalanceLine>> getTrialBalance() {
+        return ResponseEntity.ok(postingService.trialBalance());
+    }
+
+    // Salda kont wewnętrznych banku (kasa, należności, przychody z opłat...), zsumowane po slotach
+    @GetMapping("/banks/{bankId}/accounts")
+    public ResponseEntity<List<LedgerAccountBalance>> getInternalAccountBalances(@PathVariable Long bankId) {
+        return ResponseEntity.ok(postingService.internalAccountBalances(bankId));
+    }
+
+    // Konta klientów, których saldo w księdze różni się od salda w bank_accounts
+    @GetMapping("/reconciliation")
+    public ResponseEntity<List<ReconciliationMismatch>> getReconciliationMismatches() {
+        return ResponseEntity.ok(postingService.reconcile());
+    }
+}
@@ -2,6 +2,7 @@ package com.milosz.podsiadly.domain.bank.controller;
 
 import com.milosz.podsiadly.domain.bank.dto.LoanApplicationDto;
 import com.milosz.podsiadly.domain.bank.dto.LoanDto;
+import com.milosz.podsiadly.domain.bank.dto.LoanInstallmentDto;
 import com.milosz.podsiadly.domain.bank.mapper.LoanMapper;
 import com.milosz.podsiadly.domain.bank.model.Loan;
 import com.milosz.podsiadly.domain.bank.service.LoanService;
@@ -50,6 +51,15 @@ public class LoanController {
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<List<LoanInstallmentDto>> getSchedule(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(loanService.getSchedule(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/account/{accountId}")
     public ResponseEntity<List<LoanDto>> getLoansByAccountId(@PathVariable Long accountId) {
         List<LoanDto> loans = loanService.getLoansByAccountId(accountId).stream()
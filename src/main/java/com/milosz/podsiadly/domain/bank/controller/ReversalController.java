@@ -0,0 +1,81 @@
+package com.milosz.podsiadly.domain.bank.controller;
+
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobDto;
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobRequest;
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobSkipDto;
+import com.milosz.podsiadly.domain.bank.mapper.ReversalJobMapper;
+import com.milosz.podsiadly.domain.bank.service.ReversalService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/reversals")
+public class ReversalController {
+
+    private final ReversalService reversalService;
+    private final ReversalJobMapper reversalJobMapper;
+
+    public ReversalController(ReversalService reversalService, ReversalJobMapper reversalJobMapper) {
+        this.reversalService = reversalService;
+        this.reversalJobMapper = reversalJobMapper;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReversalJobDto> createJob(@Valid @RequestBody ReversalJobRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getName())) {
+            log.warn("Unauthorized attempt to create reversal job. No authenticated user found.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(reversalJobMapper.toDto(reversalService.createJob(request, authentication.getName())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReversalJobDto>> getRecentJobs() {
+        return ResponseEntity.ok(reversalJobMapper.toDtoList(reversalService.getRecentJobs()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReversalJobDto> getJobById(@PathVariable Long id) {
+        return reversalService.getJobById(id)
+                .map(reversalJobMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/skips")
+    public ResponseEntity<List<ReversalJobSkipDto>> getSkips(@PathVariable Long id) {
+        return ResponseEntity.ok(reversalJobMapper.toSkipDtoList(reversalService.getSkips(id)));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ReversalJobDto> cancelJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(reversalJobMapper.toDto(reversalService.cancelJob(id)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ReversalJobDto> resumeJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(reversalJobMapper.toDto(reversalService.resumeJob(id)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.milosz.podsiadly.domain.bank.controller;
+
+import com.milosz.podsiadly.domain.bank.dto.StandingOrderDto;
+import com.milosz.podsiadly.domain.bank.dto.StandingOrderRequest;
+import com.milosz.podsiadly.domain.bank.mapper.StandingOrderMapper;
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import com.milosz.podsiadly.domain.bank.service.StandingOrderService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/standing-orders")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+    private final StandingOrderMapper standingOrderMapper;
+
+    public StandingOrderController(StandingOrderService standingOrderService, StandingOrderMapper standingOrderMapper) {
+        this.standingOrderService = standingOrderService;
+        this.standingOrderMapper = standingOrderMapper;
+    }
+
+    @PostMapping
+    public ResponseEntity<StandingOrderDto> createStandingOrder(@Valid @RequestBody StandingOrderRequest request) {
+        try {
+            StandingOrder created = standingOrderService.createStandingOrder(request);
+            return new ResponseEntity<>(standingOrderMapper.toDto(created), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StandingOrderDto> getStandingOrderById(@PathVariable Long id) {
+        return standingOrderService.getStandingOrderById(id)
+                .map(standingOrderMapper::toDto)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/account/{accountId}")
+    public ResponseEntity<List<StandingOrderDto>> getStandingOrdersByAccountId(@PathVariable Long accountId) {
+        return ResponseEntity.ok(standingOrderMapper.toDtoList(standingOrderService.getStandingOrdersByAccountId(accountId)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<StandingOrderDto> cancelStandingOrder(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(standingOrderMapper.toDto(standingOrderService.cancelStandingOrder(id)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
@@ -1,24 +1,35 @@
 package com.milosz.podsiadly.domain.bank.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.domain.bank.cache.AccountMetadataCache;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionRequest;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionResponse;
 import com.milosz.podsiadly.domain.bank.dto.TransactionDto;
+import com.milosz.podsiadly.domain.bank.dto.TransactionPage;
 import com.milosz.podsiadly.domain.bank.dto.TransactionRequest;
+import com.milosz.podsiadly.domain.bank.idempotency.IdempotencyService;
 import com.milosz.podsiadly.domain.bank.mapper.TransactionMapper;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
 import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.AccountMetadata;
 import com.milosz.podsiadly.domain.bank.service.AccountService;
+import com.milosz.podsiadly.domain.bank.service.BatchTransactionService;
 import com.milosz.podsiadly.domain.bank.service.TransactionService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.apache.kafka.common.requests.DeleteAclsResponse.log;
@@ -27,18 +38,31 @@ import static org.apache.kafka.common.requests.DeleteAclsResponse.log;
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final TransactionService transactionService;
     private final AccountService accountService; // Potrzebne do pobrania konta po numerze
     private final TransactionMapper transactionMapper;
+    private final BatchTransactionService batchTransactionService;
+    private final IdempotencyService idempotencyService; // Powtórzone żądania z tym samym Idempotency-Key nie zmieniają sald
+    private final ObjectMapper objectMapper;
+    private final AccountMetadataCache accountMetadataCache; // Rozwiązywanie kont przelewu bez ładowania encji
 
-    public TransactionController(TransactionService transactionService, AccountService accountService, TransactionMapper transactionMapper) {
+    public TransactionController(TransactionService transactionService, AccountService accountService, TransactionMapper transactionMapper,
+                                 BatchTransactionService batchTransactionService, IdempotencyService idempotencyService,
+                                 ObjectMapper objectMapper, AccountMetadataCache accountMetadataCache) {
         this.transactionService = transactionService;
         this.accountService = accountService;
         this.transactionMapper = transactionMapper;
+        this.batchTransactionService = batchTransactionService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.accountMetadataCache = accountMetadataCache;
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<TransactionDto> createTransfer(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionDto> createTransfer(@Valid @RequestBody TransactionRequest request,
+                                                         @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String username;
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && !"anonymousUser".equals(authentication.getName())) {
@@ -48,29 +72,22 @@ public class TransactionController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        try {
-            // Get Source Account - NOW PASSING USERNAME
-            BankAccount sourceAccount = accountService.getAccountById(request.sourceAccountId(), username);
-            // .orElseThrow is no longer needed here as getAccountById throws ResourceNotFoundException directly
+        return idempotencyService.execute(idempotencyKey, "transfer:" + username, request, TransactionDto.class,
+                () -> processTransfer(request, username));
+    }
 
-            // Get Target Account - Assuming getAccountByAccountNumber does NOT require a username
-            // If getAccountByAccountNumber returns Optional, you still need .orElseThrow()
-            Optional<BankAccount> targetAccountOptional = accountService.getAccountByAccountNumber(request.targetAccountNumber());
-            BankAccount targetAccount = targetAccountOptional
+    private ResponseEntity<TransactionDto> processTransfer(TransactionRequest request, String username) {
+        try {
+            // Konta rozwiązywane z cache metadanych; encje ładuje dopiero transakcja (jednym zapytaniem)
+            AccountMetadata sourceAccount = accountMetadataCache.get(request.sourceAccountId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + request.sourceAccountId()));
+            AccountMetadata targetAccount = accountMetadataCache.getByAccountNumber(request.targetAccountNumber())
                     .orElseThrow(() -> new ResourceNotFoundException("Konto docelowe o numerze " + request.targetAccountNumber() + " nie znaleziono."));
+            accountService.logAccountAccess(sourceAccount, username);
 
-
-            // Ustaw typ transakcji w encji, ponieważ TransactionRequest jest ogólny
-            Transaction transaction = transactionMapper.toEntity(request);
-            transaction.setSourceAccount(sourceAccount);
-            transaction.setTargetAccount(targetAccount);
-            transaction.setType(Transaction.TransactionType.TRANSFER); // Upewniamy się, że typ jest ustawiony
-            // You might also want to set currency and description if not set by mapper or request
-            transaction.setCurrency(request.currency()); // Ensure currency is set
-            transaction.setDescription("Transfer from " + sourceAccount.getAccountNumber() + " to " + targetAccount.getAccountNumber());
-
-
-            Transaction processedTransaction = transactionService.processTransaction(transaction);
+            Transaction processedTransaction = transactionService.createTransferTransaction(
+                    sourceAccount.id(), targetAccount.accountNumber(), request.amount(), request.currency(),
+                    "Transfer from " + sourceAccount.accountNumber() + " to " + targetAccount.accountNumber(), null);
             return new ResponseEntity<>(transactionMapper.toDto(processedTransaction), HttpStatus.CREATED);
 
         } catch (ResourceNotFoundException e) { // Catch ResourceNotFoundException directly from service
@@ -87,7 +104,15 @@ public class TransactionController {
 
     // Możesz dodać endpointy dla innych typów transakcji, np. deposit, withdrawal
     @PostMapping("/deposit")
-    public ResponseEntity<TransactionDto> createDeposit(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionDto> createDeposit(@Valid @RequestBody TransactionRequest request,
+                                                        @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null ? authentication.getName() : "anonymousUser";
+        return idempotencyService.execute(idempotencyKey, "deposit:" + caller, request, TransactionDto.class,
+                () -> processDeposit(request));
+    }
+
+    private ResponseEntity<TransactionDto> processDeposit(TransactionRequest request) {
         try {
             BankAccount targetAccount = accountService.getAccountByAccountNumber(request.targetAccountNumber())
                     .orElseThrow(() -> new EntityNotFoundException("Konto docelowe o numerze " + request.targetAccountNumber() + " nie znaleziono."));
@@ -107,7 +132,8 @@ public class TransactionController {
     }
 
     @PostMapping("/withdrawal")
-    public ResponseEntity<TransactionDto> createWithdrawal(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<TransactionDto> createWithdrawal(@Valid @RequestBody TransactionRequest request,
+                                                           @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String username;
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() && !"anonymousUser".equals(authentication.getName())) {
@@ -117,6 +143,11 @@ public class TransactionController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        return idempotencyService.execute(idempotencyKey, "withdrawal:" + username, request, TransactionDto.class,
+                () -> processWithdrawal(request, username));
+    }
+
+    private ResponseEntity<TransactionDto> processWithdrawal(TransactionRequest request, String username) {
         try {
             // Correctly call accountService.getAccountById with both accountId and username
             // Since getAccountById throws ResourceNotFoundException directly, .orElseThrow is not needed here.
@@ -145,6 +176,36 @@ public class TransactionController {
         }
     }
 
+    // Wsad transakcji (np. listy płac) - wynik dla każdej pozycji, odrzucone pozycje nie blokują reszty
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> createBatch(@Valid @RequestBody BatchTransactionRequest request,
+                                                                @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String username;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !"anonymousUser".equals(authentication.getName())) {
+            username = authentication.getName();
+        } else {
+            log.warn("Unauthorized attempt to create transaction batch. No authenticated user found.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        return idempotencyService.execute(idempotencyKey, "batch:" + username, request, BatchTransactionResponse.class,
+                () -> processBatch(request, username));
+    }
+
+    private ResponseEntity<BatchTransactionResponse> processBatch(BatchTransactionRequest request, String username) {
+        try {
+            BatchTransactionResponse response = batchTransactionService.processBatch(request, username);
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.error("Transaction batch failed due to invalid arguments or state: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(null);
+        } catch (Exception e) {
+            log.error("An unexpected error occurred during transaction batch: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDto> getTransactionById(@PathVariable Long id) {
         return transactionService.getTransactionById(id)
@@ -169,6 +230,33 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    // Stronicowanie po kluczu: nextCursor z odpowiedzi przekazujemy jako cursor w kolejnym żądaniu
+    @GetMapping("/account/{accountId}/page")
+    public ResponseEntity<TransactionPage> getTransactionPageByAccountId(
+            @PathVariable Long accountId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionPageByAccountId(accountId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
+    // Cała historia konta jako NDJSON (jedna transakcja w linii), bez ładowania jej do pamięci
+    @GetMapping(value = "/account/{accountId}/stream", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactionsByAccountId(@PathVariable Long accountId) {
+        StreamingResponseBody body = outputStream -> transactionService.streamTransactionsByAccountId(accountId, transaction -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(transaction));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
     @GetMapping("/account/{accountId}/history")
     public ResponseEntity<List<TransactionDto>> getTransactionsByAccountIdAndDateRange(
             @PathVariable Long accountId,
@@ -180,6 +268,17 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<TransactionPage> getTransactionPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(transactionService.getTransactionPage(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<TransactionDto>> getAllTransactions() {
         List<TransactionDto> transactions = transactionService.getAllTransactions().stream()
@@ -0,0 +1,83 @@
+package com.milosz.podsiadly.domain.bank.deposit;
+
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Matures all due ACTIVE deposits once a day, chunk by chunk.
+ * <p>
+ * Each chunk commits on its own and flips its deposits to MATURED, so a run stopped by a failure or a crash
+ * simply continues with the remaining due deposits on the next run. The run is guarded by a
+ * {@link ScheduledJobLock}, so it starts on one instance; should two instances still overlap, they wait on
+ * each other's row locks and never pay a deposit twice.
+ */
+@Slf4j
+@Component
+public class DepositMaturityJob {
+
+    private final DepositMaturityProcessor maturityProcessor;
+    private final AuditService auditService;
+    private final DepositMaturityProperties properties;
+    private final ScheduledJobLock scheduledJobLock;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DepositMaturityJob(DepositMaturityProcessor maturityProcessor, AuditService auditService,
+                              DepositMaturityProperties properties, ScheduledJobLock scheduledJobLock) {
+        this.maturityProcessor = maturityProcessor;
+        this.auditService = auditService;
+        this.properties = properties;
+        this.scheduledJobLock = scheduledJobLock;
+    }
+
+    @Scheduled(cron = "${banking.deposit-maturity.cron:0 30 0 * * *}")
+    public void matureDueDeposits() {
+        if (!properties.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduledJobLock.runExclusively("deposit-maturity", () -> run(LocalDate.now()));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run(LocalDate today) {
+        long startedNanos = System.nanoTime();
+        long matured = 0;
+        int chunks = 0;
+        String error = null;
+        try {
+            int chunk;
+            // Do pustej paczki - paczka może być krótsza, gdy część wierszy zapadła równolegle na innej instancji
+            while ((chunk = maturityProcessor.matureNextChunk(today, Math.max(1, properties.getChunkSize()))) > 0) {
+                matured += chunk;
+                chunks++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Deposit maturity run failed after {} deposits: {}", matured, e.getMessage(), e);
+            error = String.valueOf(e.getMessage());
+        }
+        long millis = Math.max(1, (System.nanoTime() - startedNanos) / 1_000_000);
+        if (matured == 0 && error == null) {
+            log.debug("No deposits due for maturity.");
+            return;
+        }
+        log.info("Matured {} deposits in {} chunks, {} ms ({} deposits/s).",
+                matured, chunks, millis, String.format("%.1f", matured * 1000.0 / millis));
+        auditService.logEvent(
+                "SYSTEM",
+                "DEPOSITS_MATURED",
+                "Deposit",
+                null,
+                "Zapadło " + matured + " lokat" + (error != null ? ", przerwano: " + error : "."),
+                error == null ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+    }
+}
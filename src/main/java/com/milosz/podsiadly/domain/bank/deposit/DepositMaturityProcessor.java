@@ -0,0 +1,154 @@
+package com.milosz.podsiadly.domain.bank.deposit;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.core.kafka.producer.EventProducer;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.Deposit;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.DepositRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionBatchRepository;
+import com.milosz.podsiadly.domain.bank.service.PostingService;
+import com.milosz.podsiadly.domain.bank.service.TransactionEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pays out matured term deposits in bulk.
+ * <p>
+ * Every deposit becomes a TERM_DEPOSIT_MATURITY transaction returning the principal and, if positive, an
+ * INTEREST_PAYOUT transaction. Balances change with one {@link BalanceUpdater} call (one leg per account),
+ * the rows are written with JDBC batching and their postings and outbox events are added in the same
+ * transaction that marks the deposits MATURED, so a deposit is paid out exactly once.
+ */
+@Component
+public class DepositMaturityProcessor {
+
+    private final DepositRepository depositRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final PostingService postingService;
+    private final EventProducer eventProducer;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public DepositMaturityProcessor(DepositRepository depositRepository, BankAccountRepository bankAccountRepository,
+                                    TransactionBatchRepository transactionBatchRepository, BalanceUpdater balanceUpdater,
+                                    PostingService postingService, EventProducer eventProducer, IdGenerator idGenerator,
+                                    PlatformTransactionManager transactionManager) {
+        this.depositRepository = depositRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.balanceUpdater = balanceUpdater;
+        this.postingService = postingService;
+        this.eventProducer = eventProducer;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Matures the next chunk of due deposits in its own database transaction.
+     *
+     * @param today     Deposits ending before this day are due.
+     * @param chunkSize Maximum number of deposits in the chunk.
+     * @return Number of deposits matured; 0 once no due deposit is left.
+     */
+    public int matureNextChunk(LocalDate today, int chunkSize) {
+        Integer matured = transactionTemplate.execute(status -> {
+            List<Deposit> due = depositRepository.findDueForUpdate(today, PageRequest.of(0, chunkSize));
+            mature(due);
+            return due.size();
+        });
+        return matured != null ? matured : 0;
+    }
+
+    /**
+     * Pays out the given deposits, which the caller has locked and checked to be ACTIVE and due.
+     *
+     * @param deposits Deposits to mature.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void mature(List<Deposit> deposits) {
+        if (deposits.isEmpty()) {
+            return;
+        }
+        Set<Long> accountIds = deposits.stream().map(deposit -> deposit.getAccount().getId()).collect(Collectors.toSet());
+        Map<Long, BankAccount> accountsById = bankAccountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        Map<Long, Long> credits = new LinkedHashMap<>();
+        List<Transaction> payouts = new ArrayList<>(deposits.size() * 2);
+        LocalDateTime now = LocalDateTime.now();
+        for (Deposit deposit : deposits) {
+            BankAccount account = accountsById.get(deposit.getAccount().getId());
+            BigDecimal interest = interest(deposit, account.getCurrency());
+
+            // Zwrot kapitału z lokaty (Wn: lokaty terminowe) i osobno odsetki (Wn: koszty odsetkowe)
+            payouts.add(payout(account, deposit.getAmount(), Transaction.TransactionType.TERM_DEPOSIT_MATURITY,
+                    "Return of the deposit principal " + deposit.getDepositNumber() + ".", now));
+            long credit = Money.toMinorUnits(deposit.getAmount(), account.getCurrency());
+            if (interest.signum() > 0) {
+                payouts.add(payout(account, interest, Transaction.TransactionType.INTEREST_PAYOUT,
+                        "Interest on the deposit " + deposit.getDepositNumber() + ".", now));
+                credit = Math.addExact(credit, Money.toMinorUnits(interest, account.getCurrency()));
+            }
+            credits.merge(account.getId(), credit, Math::addExact);
+            deposit.setStatus(Deposit.DepositStatus.MATURED); // Zapis przy flush - UPDATE-y grupowane w JDBC batch
+        }
+
+        List<BalanceLeg> legs = new ArrayList<>(credits.size());
+        credits.forEach((accountId, credit) -> legs.add(new BalanceLeg(accountsById.get(accountId), credit, null)));
+        balanceUpdater.apply(legs);
+        transactionBatchRepository.insertAll(payouts, jdbcBatchSize);
+        postingService.postAll(payouts); // ID nadane przez insertAll
+        payouts.forEach(payout -> eventProducer.publishTransactionCompletedEvent(TransactionEvents.completed(payout)));
+    }
+
+    /**
+     * Simple interest for the whole term: amount * annual rate * months / 12, rounded half up to the
+     * minor unit of the account currency.
+     */
+    private static BigDecimal interest(Deposit deposit, String currency) {
+        return deposit.getAmount().multiply(deposit.getInterestRate())
+                .multiply(BigDecimal.valueOf(deposit.getTermMonths()))
+                .divide(BigDecimal.valueOf(12), Money.fractionDigits(currency), RoundingMode.HALF_UP);
+    }
+
+    private Transaction payout(BankAccount account, BigDecimal amount, Transaction.TransactionType type, String description,
+                               LocalDateTime now) {
+        return Transaction.builder()
+                .transactionRef(idGenerator.nextRef("TRN-"))
+                .targetAccount(account)
+                .amount(amount)
+                .currency(account.getCurrency())
+                .type(type)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .description(description)
+                .transactionDate(now)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.milosz.podsiadly.domain.bank.deposit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the scheduled term deposit maturity job.
+ * Automatically bound from banking.deposit-maturity.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.deposit-maturity")
+@Getter
+@Setter
+public class DepositMaturityProperties {
+
+    /**
+     * Whether due deposits are matured on schedule; /api/deposits/{id}/mature keeps working either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression of the daily maturity run.
+     */
+    private String cron = "0 30 0 * * *";
+
+    /**
+     * Deposits matured per database transaction.
+     */
+    private int chunkSize = 1000;
+}
@@ -0,0 +1,12 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.AccountProjectionState;
+
+import java.time.LocalDateTime;
+
+public record AccountProjectionStatusDto(
+        AccountProjectionState.RebuildStatus status,
+        LocalDateTime rebuildStartedAt,
+        LocalDateTime rebuiltAt, // Koniec ostatniej udanej przebudowy
+        String lastError
+) {}
@@ -0,0 +1,10 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record BalanceAsOfDto(
+        Long accountId,
+        LocalDate asOf, // Saldo na koniec tego dnia
+        BigDecimal balance
+) {}
@@ -0,0 +1,20 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+public record BatchTransactionItem(
+        @NotNull(message = "Transaction type cannot be empty")
+        Transaction.TransactionType type,
+        Long sourceAccountId, // Wymagane dla TRANSFER, WITHDRAWAL, LOAN_REPAYMENT, FEE
+        String targetAccountNumber, // Wymagane dla TRANSFER, DEPOSIT, INTEREST_PAYOUT
+        @NotNull(message = "Transaction amount cannot be empty")
+        @Positive(message = "The transaction amount must be positive")
+        BigDecimal amount,
+        @NotBlank(message = "Transaction currency cannot be empty")
+        String currency,
+        String description
+) {}
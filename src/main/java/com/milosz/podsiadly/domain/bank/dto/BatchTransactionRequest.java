@@ -0,0 +1,12 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchTransactionRequest(
+        @NotEmpty(message = "Batch must contain at least one transaction")
+        @Size(max = 10000, message = "Batch cannot contain more than 10000 transactions")
+        List<@Valid BatchTransactionItem> items
+) {}
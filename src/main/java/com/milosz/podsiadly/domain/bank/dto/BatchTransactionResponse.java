@@ -0,0 +1,10 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.util.List;
+
+public record BatchTransactionResponse(
+        int total,
+        int completed,
+        int failed,
+        List<BatchTransactionResult> results
+) {}
@@ -0,0 +1,11 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+
+public record BatchTransactionResult(
+        int index, // Pozycja w żądaniu (od 0)
+        Long transactionId,
+        String transactionRef,
+        Transaction.TransactionStatus status,
+        String error // Powód odrzucenia, null dla COMPLETED
+) {}
@@ -0,0 +1,13 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record DailyTurnoverDto(
+        LocalDate turnoverDate,
+        BigDecimal debitTotal,
+        BigDecimal creditTotal,
+        long transactionCount,
+        LocalDateTime lastActivityAt
+) {}
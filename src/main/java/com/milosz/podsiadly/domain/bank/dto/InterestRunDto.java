@@ -0,0 +1,25 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record InterestRunDto(
+        Long id,
+        String runRef,
+        LocalDate accrualDate,
+        Long rateNumerator,
+        Long rateDenominator,
+        InterestRun.InterestRunStatus status,
+        int chunkCount,
+        int completedChunks,
+        long scannedCount,
+        long creditedCount,
+        long processingMillis,
+        double accountsPerSecond,
+        String lastError,
+        LocalDateTime startedAt,
+        LocalDateTime heartbeatAt,
+        LocalDateTime finishedAt,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,20 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount;
+import java.math.BigDecimal;
+
+public record LedgerAccountBalance(
+        String code,
+        LedgerAccount.LedgerAccountType type,
+        String currency,
+        BigDecimal debitTotal, // Suma po wszystkich slotach konta
+        BigDecimal creditTotal,
+        BigDecimal balance, // Po stronie normalnej konta
+        Long postingCount,
+        Integer balanceSlots
+) {
+    public LedgerAccountBalance(String code, LedgerAccount.LedgerAccountType type, String currency,
+                                BigDecimal debitTotal, BigDecimal creditTotal, Long postingCount, Integer balanceSlots) {
+        this(code, type, currency, debitTotal, creditTotal, type.balance(debitTotal, creditTotal), postingCount, balanceSlots);
+    }
+}
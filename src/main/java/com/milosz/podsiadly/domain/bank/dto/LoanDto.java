@@ -16,6 +16,8 @@ public record LoanDto(
         Integer termMonths,
         LocalDate startDate,
         LocalDate endDate,
+        Integer nextInstallment,
+        LocalDate nextDueDate,
         Loan.LoanStatus status,
         LocalDateTime createdAt,
         LocalDateTime updatedAt
@@ -0,0 +1,13 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record LoanInstallmentDto(
+        Integer number,
+        LocalDate dueDate,
+        BigDecimal principal,
+        BigDecimal interest,
+        BigDecimal total,
+        boolean paid // Pobrana przez zadanie spłat (numer mniejszy niż nextInstallment pożyczki)
+) {}
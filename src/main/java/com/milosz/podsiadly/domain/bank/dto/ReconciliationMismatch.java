@@ -0,0 +1,10 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.math.BigDecimal;
+
+public record ReconciliationMismatch(
+        Long accountId,
+        String accountNumber,
+        BigDecimal ledgerBalance, // Uznania minus obciążenia w księdze
+        BigDecimal accountBalance // Saldo w bank_accounts
+) {}
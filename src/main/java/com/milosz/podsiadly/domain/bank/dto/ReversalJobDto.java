@@ -0,0 +1,28 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import java.time.LocalDateTime;
+
+public record ReversalJobDto(
+        Long id,
+        String jobRef,
+        Transaction.TransactionType transactionType,
+        LocalDateTime fromDate,
+        LocalDateTime toDate,
+        String reason,
+        Integer chunkSize,
+        ReversalJob.ReversalJobStatus status,
+        long scannedCount,
+        long reversedCount,
+        long skippedCount,
+        long chunkCount,
+        long processingMillis,
+        double transactionsPerSecond,
+        String requestedBy,
+        String lastError,
+        LocalDateTime startedAt,
+        LocalDateTime heartbeatAt,
+        LocalDateTime finishedAt,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,19 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+public record ReversalJobRequest(
+        Transaction.TransactionType transactionType, // Brak = wszystkie typy, które można odwrócić
+        @NotNull(message = "Start of the date range cannot be empty")
+        LocalDateTime fromDate,
+        @NotNull(message = "End of the date range cannot be empty")
+        LocalDateTime toDate,
+        @NotBlank(message = "Reason cannot be empty")
+        String reason,
+        @Positive(message = "The chunk size must be positive")
+        Integer chunkSize // Brak = banking.reversal.default-chunk-size
+) {}
@@ -0,0 +1,6 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+public record ReversalJobSkipDto(
+        Long transactionId,
+        String reason
+) {}
@@ -0,0 +1,26 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record StandingOrderDto(
+        Long id,
+        String orderRef,
+        Long sourceAccountId,
+        String targetAccountNumber,
+        BigDecimal amount,
+        String currency,
+        String description,
+        StandingOrder.Frequency frequency,
+        LocalDateTime startAt,
+        LocalDate endDate,
+        LocalDateTime nextExecutionAt,
+        Integer failedAttempts,
+        StandingOrder.StandingOrderStatus status,
+        Long lastTransactionId,
+        String lastFailureReason,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {}
@@ -0,0 +1,26 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record StandingOrderRequest(
+        @NotNull(message = "Source account ID cannot be empty")
+        Long sourceAccountId,
+        @NotBlank(message = "Target account number cannot be empty")
+        String targetAccountNumber,
+        @NotNull(message = "Amount cannot be empty")
+        @Positive(message = "The amount must be positive")
+        BigDecimal amount,
+        @NotBlank(message = "Currency cannot be empty")
+        String currency,
+        String description,
+        @NotNull(message = "Frequency cannot be empty")
+        StandingOrder.Frequency frequency, // ONCE = przelew z odroczoną datą
+        LocalDateTime firstExecutionAt, // Brak = jak najszybciej
+        LocalDate endDate // Brak = bezterminowo
+) {}
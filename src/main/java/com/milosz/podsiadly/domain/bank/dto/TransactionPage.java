@@ -0,0 +1,8 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.util.List;
+
+public record TransactionPage(
+        List<TransactionDto> items,
+        String nextCursor // null, jeśli to ostatnia strona
+) {}
@@ -0,0 +1,10 @@
+package com.milosz.podsiadly.domain.bank.dto;
+
+import java.math.BigDecimal;
+
+public record TrialBalanceLine(
+        String currency,
+        BigDecimal debitTotal,
+        BigDecimal creditTotal,
+        BigDecimal difference // 0, jeśli księga jest zbilansowana
+) {}
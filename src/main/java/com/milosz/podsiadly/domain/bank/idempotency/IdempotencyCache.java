@@ -0,0 +1,38 @@
+package com.milosz.podsiadly.domain.bank.idempotency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory cache of completed idempotent responses.
+ * Entries expire after the TTL; when full, the least recently used entry is evicted.
+ */
+class IdempotencyCache {
+
+    record CachedResponse(String requestHash, int status, Object body, long expiresAtMillis) {
+    }
+
+    private final Map<String, CachedResponse> entries;
+
+    IdempotencyCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached != null && cached.expiresAtMillis() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    synchronized void put(String key, CachedResponse response) {
+        entries.put(key, response);
+    }
+}
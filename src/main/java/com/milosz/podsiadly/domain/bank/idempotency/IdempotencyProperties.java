@@ -0,0 +1,44 @@
+package com.milosz.podsiadly.domain.bank.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the Idempotency-Key store.
+ * Automatically bound from banking.idempotency.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    /**
+     * How long a stored response is replayed for its key, in seconds.
+     */
+    private long ttlSeconds = 86400;
+
+    /**
+     * Maximum number of responses kept in the in-memory cache in front of the table.
+     */
+    private int cacheMaxEntries = 10000;
+
+    /**
+     * Maximum accepted length of the Idempotency-Key header.
+     */
+    private int maxKeyLength = 128;
+
+    /**
+     * Age after which an IN_PROGRESS claim is treated as abandoned and may be claimed again, in seconds.
+     * Safe because the response is stored in the same transaction as the business change: a claim still
+     * IN_PROGRESS after its request ended means that change was rolled back.
+     */
+    private long inProgressTimeoutSeconds = 60;
+
+    /**
+     * Delay between removals of expired records from the table, in milliseconds.
+     */
+    private long cleanupIntervalMs = 3600000;
+}
@@ -0,0 +1,216 @@
+package com.milosz.podsiadly.domain.bank.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.milosz.podsiadly.domain.bank.model.IdempotencyRecord;
+import com.milosz.podsiadly.domain.bank.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Executes money-moving requests at most once per Idempotency-Key.
+ * <p>
+ * The first request claims the key with a plain INSERT into idempotency_records; a concurrent duplicate
+ * fails on the primary key and gets 409 Conflict. The action runs in one transaction together with the
+ * update that stores its successful (2xx) response, so the business change and the COMPLETED record commit
+ * or roll back together. The stored response is replayed for retries, first from the in-memory cache, then
+ * from the table. Failed responses release the key so that the client may retry.
+ * <p>
+ * A claim left IN_PROGRESS longer than banking.idempotency.in-progress-timeout-seconds belongs to a request
+ * that died before committing (its business change was rolled back with the missing COMPLETED record),
+ * so the next request with that key takes it over.
+ * <p>
+ * Records are keyed by the SHA-256 of scope and key, which fits the column whatever the length of the scope.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache cache;
+    private final TransactionTemplate businessTransaction;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              IdempotencyProperties idempotencyProperties,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        this.businessTransaction = new TransactionTemplate(transactionManager);
+        this.cache = new IdempotencyCache(Math.max(1, idempotencyProperties.getCacheMaxEntries()));
+    }
+
+    /**
+     * Runs the action once per key, or replays its stored response.
+     *
+     * @param idempotencyKey Value of the Idempotency-Key header; {@code null} runs the action without protection.
+     * @param scope          Endpoint and caller the key belongs to, so keys of different users never collide.
+     * @param request        Request body, used to reject a key reused with a different payload.
+     * @param responseType   Type of the response body, used to read a stored response.
+     * @param action         The request processing.
+     * @return The response of the action, a replayed response, 409 if the key is in use or 422 on a payload mismatch.
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String scope, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > idempotencyProperties.getMaxKeyLength()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String key = sha256(scope + ":" + idempotencyKey);
+        String requestHash = fingerprint(request);
+
+        IdempotencyCache.CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        LocalDateTime claimedAt = claim(key, requestHash);
+        if (claimedAt == null) {
+            return existingResponse(key, requestHash, responseType);
+        }
+
+        ResponseEntity<T> response;
+        try {
+            // Serwisy (@Transactional) dołączają do tej transakcji; COMPLETED zapisany w tym samym commicie
+            response = businessTransaction.execute(status -> {
+                ResponseEntity<T> result = action.get();
+                if (result.getStatusCode().is2xxSuccessful()) {
+                    complete(key, claimedAt, result);
+                } else {
+                    status.setRollbackOnly();
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            idempotencyRecordRepository.release(key, claimedAt);
+            throw e;
+        }
+
+        if (response.getStatusCode().is2xxSuccessful()) {
+            cache.put(key, new IdempotencyCache.CachedResponse(requestHash, response.getStatusCode().value(),
+                    response.getBody(), expiresAtMillis(claimedAt.plusSeconds(idempotencyProperties.getTtlSeconds()))));
+        } else {
+            idempotencyRecordRepository.release(key, claimedAt);
+        }
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpiredRecords() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency records.", deleted);
+        }
+    }
+
+    /**
+     * @return Claim time identifying this claim, or {@code null} if the key is held by another request.
+     */
+    private LocalDateTime claim(String key, String requestHash) {
+        // Milisekundy - wartość musi się zgadzać z zapisaną w bazie przy complete/release
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        try {
+            idempotencyRecordRepository.claim(key, requestHash, now, now.plusSeconds(idempotencyProperties.getTtlSeconds()));
+            return now;
+        } catch (DataIntegrityViolationException e) {
+            // Klucz już istnieje; wygasły rekord lub porzucone zajęcie zwalniamy i próbujemy jeszcze raz
+            LocalDateTime staleBefore = now.minusSeconds(idempotencyProperties.getInProgressTimeoutSeconds());
+            if (idempotencyRecordRepository.releaseAbandoned(key, now, staleBefore) > 0) {
+                log.warn("Took over abandoned or expired idempotency record {}.", key);
+                return claim(key, requestHash);
+            }
+            return null;
+        }
+    }
+
+    private <T> ResponseEntity<T> existingResponse(String key, String requestHash, Class<T> responseType) {
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(key);
+        if (existing.isEmpty() || existing.get().getStatus() != IdempotencyRecord.IdempotencyStatus.COMPLETED) {
+            log.warn("Request with idempotency key {} is already being processed.", key);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        IdempotencyRecord record = existing.get();
+        try {
+            IdempotencyCache.CachedResponse cached = new IdempotencyCache.CachedResponse(
+                    record.getRequestHash(),
+                    record.getResponseStatus(),
+                    record.getResponseBody() != null ? objectMapper.readValue(record.getResponseBody(), responseType) : null,
+                    expiresAtMillis(record.getExpiresAt()));
+            cache.put(key, cached);
+            return replay(cached, requestHash, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response for idempotency key " + key, e);
+        }
+    }
+
+    // Wyjątek wycofuje zmianę biznesową - bez zapisanej odpowiedzi nie ma też skutku operacji
+    private <T> void complete(String key, LocalDateTime claimedAt, ResponseEntity<T> response) {
+        String body;
+        try {
+            body = response.getBody() != null ? objectMapper.writeValueAsString(response.getBody()) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for idempotency key " + key, e);
+        }
+        if (idempotencyRecordRepository.complete(key, claimedAt, response.getStatusCode().value(), body) == 0) {
+            throw new IllegalStateException("Idempotency key " + key + " was taken over by another request.");
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyCache.CachedResponse cached, String requestHash, Class<T> responseType) {
+        if (!cached.requestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        return ResponseEntity.status(cached.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(responseType.cast(cached.body()));
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request " + request.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long expiresAtMillis(LocalDateTime expiresAt) {
+        return expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
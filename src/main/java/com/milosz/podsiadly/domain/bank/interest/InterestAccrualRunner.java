@@ -0,0 +1,228 @@
+package com.milosz.podsiadly.domain.bank.interest;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import com.milosz.podsiadly.domain.bank.model.InterestRunChunk;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionJdbcRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunChunkRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunTotals;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the daily interest accrual as an {@link InterestRun} split into account ID ranges.
+ * <p>
+ * Starting a run plans its chunks over the current account ID range in the same transaction that creates
+ * the run; accounts opened later that day are not accrued. The chunks are then processed in parallel by
+ * {@link InterestChunkProcessor}, each in its own database transaction, so no transaction spans more than
+ * one chunk. A failed run keeps its completed chunks and is resumed with {@link #resume}; a run abandoned by
+ * a crashed instance is resumed automatically once its heartbeat is stale.
+ */
+@Slf4j
+@Component
+public class InterestAccrualRunner {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final InterestRunRepository runRepository;
+    private final InterestRunChunkRepository chunkRepository;
+    private final AccountProjectionJdbcRepository projectionJdbcRepository;
+    private final InterestChunkProcessor chunkProcessor;
+    private final AuditService auditService;
+    private final InterestProperties properties;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+
+    public InterestAccrualRunner(InterestRunRepository runRepository, InterestRunChunkRepository chunkRepository,
+                                 AccountProjectionJdbcRepository projectionJdbcRepository, InterestChunkProcessor chunkProcessor,
+                                 AuditService auditService, InterestProperties properties, IdGenerator idGenerator,
+                                 PlatformTransactionManager transactionManager) {
+        this.runRepository = runRepository;
+        this.chunkRepository = chunkRepository;
+        this.projectionJdbcRepository = projectionJdbcRepository;
+        this.chunkProcessor = chunkProcessor;
+        this.auditService = auditService;
+        this.properties = properties;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "interest-accrual"));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkerThreads()),
+                runnable -> new Thread(runnable, "interest-accrual-" + threadIndex.getAndIncrement()));
+    }
+
+    /**
+     * Creates the run for the day and accrues it in the background.
+     *
+     * @param accrualDate Day the interest is paid for.
+     * @return The run right after it was planned.
+     * @throws IllegalStateException if the day already has a run.
+     */
+    public InterestRun start(LocalDate accrualDate) {
+        InterestRun run;
+        try {
+            run = transactionTemplate.execute(status -> plan(accrualDate));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Interest for " + accrualDate + " is already being accrued.");
+        }
+        Long runId = run.getId();
+        coordinator.execute(() -> execute(runId));
+        return run;
+    }
+
+    /**
+     * Continues a failed or abandoned run with its pending chunks.
+     *
+     * @param runId ID of the run.
+     * @return The claimed run.
+     * @throws IllegalStateException if the run is completed or still running.
+     */
+    public InterestRun resume(Long runId) {
+        LocalDateTime now = LocalDateTime.now();
+        InterestRun claimed = transactionTemplate.execute(status ->
+                runRepository.claim(runId, now, staleBefore(now)) == 1 ? runRepository.findById(runId).orElseThrow() : null);
+        if (claimed == null) {
+            throw new IllegalStateException("Interest run " + runId + " is completed or still running.");
+        }
+        coordinator.execute(() -> execute(runId));
+        return claimed;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.interest.resume-interval-ms:300000}")
+    public void resumeAbandoned() {
+        for (Long runId : runRepository.findStaleIds(staleBefore(LocalDateTime.now()))) {
+            try {
+                resume(runId);
+                log.warn("Resuming abandoned interest run {}.", runId);
+            } catch (IllegalStateException e) {
+                log.debug("Interest run {} was claimed by another instance.", runId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private InterestRun plan(LocalDate accrualDate) {
+        LocalDateTime now = LocalDateTime.now();
+        InterestRun run = runRepository.saveAndFlush(InterestRun.builder()
+                .runRef(idGenerator.nextRef("INT-"))
+                .accrualDate(accrualDate)
+                .rateNumerator(properties.getRateNumerator())
+                .rateDenominator(properties.getRateDenominator())
+                .status(InterestRun.InterestRunStatus.RUNNING)
+                .startedAt(now)
+                .heartbeatAt(now)
+                .build());
+
+        List<InterestRunChunk> chunks = new ArrayList<>();
+        long width = Math.max(1, properties.getChunkSize());
+        projectionJdbcRepository.accountIdRange().ifPresent(range -> {
+            for (long from = range[0]; from <= range[1]; from += width) {
+                chunks.add(InterestRunChunk.builder()
+                        .runId(run.getId())
+                        .fromAccountId(from)
+                        .toAccountId(Math.min(range[1], from + width - 1))
+                        .build());
+            }
+        });
+        chunkRepository.saveAll(chunks);
+        run.setChunkCount(chunks.size());
+        log.info("Interest run {} planned with {} chunks.", run.getRunRef(), chunks.size());
+        return run;
+    }
+
+    private void execute(Long runId) {
+        long startedNanos = System.nanoTime();
+        InterestRun run = runRepository.findById(runId).orElseThrow();
+        String error = null;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long chunkId : chunkRepository.findPendingIds(runId)) {
+                futures.add(workers.submit(() -> {
+                    chunkProcessor.process(chunkId, run);
+                    transactionTemplate.executeWithoutResult(status -> runRepository.touch(runId, LocalDateTime.now()));
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Pozostałe przedziały kończą się normalnie - przy wznowieniu zostanie mniej do zrobienia
+                    log.error("Interest run {} chunk failed: {}", run.getRunRef(), e.getCause().getMessage(), e.getCause());
+                    error = error != null ? error : String.valueOf(e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted at shutdown.";
+        } catch (RuntimeException e) {
+            log.error("Interest run {} failed: {}", run.getRunRef(), e.getMessage(), e);
+            error = String.valueOf(e.getMessage());
+        }
+        finish(runId, error, (System.nanoTime() - startedNanos) / 1_000_000);
+    }
+
+    private void finish(Long runId, String error, long elapsedMillis) {
+        InterestRun run = transactionTemplate.execute(status -> {
+            InterestRun current = runRepository.findById(runId).orElseThrow();
+            InterestRunTotals totals = chunkRepository.sumDone(runId);
+            current.setCompletedChunks(totals.completedChunks().intValue());
+            current.setScannedCount(totals.scannedCount());
+            current.setCreditedCount(totals.creditedCount());
+            current.setProcessingMillis(current.getProcessingMillis() + elapsedMillis);
+            current.setFinishedAt(LocalDateTime.now());
+            if (error == null && current.getCompletedChunks() == current.getChunkCount()) {
+                current.setStatus(InterestRun.InterestRunStatus.COMPLETED);
+                current.setLastError(null);
+            } else {
+                String message = error != null ? error : "Not all chunks were processed.";
+                current.setStatus(InterestRun.InterestRunStatus.FAILED);
+                current.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            }
+            return current;
+        });
+
+        boolean completed = run.getStatus() == InterestRun.InterestRunStatus.COMPLETED;
+        log.info("Interest run {} {}: {}/{} chunks, {} accounts scanned, {} credited, {} ms ({} accounts/s).",
+                run.getRunRef(), completed ? "completed" : "failed", run.getCompletedChunks(), run.getChunkCount(),
+                run.getScannedCount(), run.getCreditedCount(), run.getProcessingMillis(),
+                String.format("%.1f", run.getAccountsPerSecond()));
+        auditService.logEvent(
+                "SYSTEM",
+                completed ? "INTEREST_RUN_COMPLETED" : "INTEREST_RUN_FAILED",
+                "InterestRun",
+                run.getId(),
+                "Naliczenie " + run.getRunRef() + ": " + run.getCreditedCount() + " wypłat z " + run.getScannedCount() + " kont"
+                        + (completed ? "." : ", przetworzono " + run.getCompletedChunks() + "/" + run.getChunkCount() + " przedziałów."),
+                completed ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+    }
+
+    private LocalDateTime staleBefore(LocalDateTime now) {
+        return now.minusSeconds(properties.getStaleAfterSeconds());
+    }
+}
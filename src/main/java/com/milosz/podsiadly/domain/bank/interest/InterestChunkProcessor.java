@@ -0,0 +1,111 @@
+package com.milosz.podsiadly.domain.bank.interest;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.core.kafka.producer.EventProducer;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import com.milosz.podsiadly.domain.bank.model.InterestRunChunk;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunChunkRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionBatchRepository;
+import com.milosz.podsiadly.domain.bank.service.PostingService;
+import com.milosz.podsiadly.domain.bank.service.TransactionEvents;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accrues daily interest for one {@link InterestRunChunk} in one database transaction.
+ * <p>
+ * The chunk row is locked and skipped if already done, so a chunk is paid at most once also when a resumed
+ * run overlaps with a run still finishing elsewhere. Interest of every active account with a positive balance
+ * becomes an INTEREST_PAYOUT transaction; balances change with one {@link BalanceUpdater} call, the rows are
+ * written with JDBC batching and their postings and outbox events are added before the chunk is marked done.
+ */
+@Component
+public class InterestChunkProcessor {
+
+    private final InterestRunChunkRepository chunkRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final PostingService postingService;
+    private final EventProducer eventProducer;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public InterestChunkProcessor(InterestRunChunkRepository chunkRepository, BankAccountRepository bankAccountRepository,
+                                  TransactionBatchRepository transactionBatchRepository, BalanceUpdater balanceUpdater,
+                                  PostingService postingService, EventProducer eventProducer, IdGenerator idGenerator,
+                                  PlatformTransactionManager transactionManager) {
+        this.chunkRepository = chunkRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.balanceUpdater = balanceUpdater;
+        this.postingService = postingService;
+        this.eventProducer = eventProducer;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Pays the interest of the chunk's accounts and marks the chunk done.
+     *
+     * @param chunkId ID of the chunk.
+     * @param run     The run the chunk belongs to (accrual date and rate).
+     */
+    public void process(Long chunkId, InterestRun run) {
+        transactionTemplate.executeWithoutResult(status -> {
+            InterestRunChunk chunk = chunkRepository.findByIdForUpdate(chunkId).orElseThrow();
+            if (chunk.isDone()) {
+                return;
+            }
+            List<BankAccount> accounts = bankAccountRepository.findByStatusAndIdBetweenOrderByIdAsc(
+                    BankAccount.AccountStatus.ACTIVE, chunk.getFromAccountId(), chunk.getToAccountId());
+
+            List<BalanceLeg> legs = new ArrayList<>();
+            List<Transaction> payouts = new ArrayList<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (BankAccount account : accounts) {
+                Money interest = balanceUpdater.currentMoney(account).multiplyByRate(run.getRateNumerator(), run.getRateDenominator());
+                if (!interest.isPositive()) {
+                    continue;
+                }
+                legs.add(new BalanceLeg(account, interest.minorUnits(), null));
+                payouts.add(Transaction.builder()
+                        .transactionRef(idGenerator.nextRef("TRN-"))
+                        .targetAccount(account)
+                        .amount(interest.toBigDecimal())
+                        .currency(account.getCurrency())
+                        .type(Transaction.TransactionType.INTEREST_PAYOUT)
+                        .status(Transaction.TransactionStatus.COMPLETED)
+                        .description("Daily interest payout for " + run.getAccrualDate())
+                        .transactionDate(now)
+                        .build());
+            }
+
+            if (!payouts.isEmpty()) {
+                balanceUpdater.apply(legs);
+                transactionBatchRepository.insertAll(payouts, jdbcBatchSize);
+                postingService.postAll(payouts); // ID nadane przez insertAll
+                payouts.forEach(payout -> eventProducer.publishTransactionCompletedEvent(TransactionEvents.completed(payout)));
+            }
+            chunk.setDone(true);
+            chunk.setScannedCount(accounts.size());
+            chunk.setCreditedCount(payouts.size());
+            chunk.setProcessedAt(now);
+        });
+    }
+}
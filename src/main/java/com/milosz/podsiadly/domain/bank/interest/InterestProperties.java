@@ -0,0 +1,53 @@
+package com.milosz.podsiadly.domain.bank.interest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the daily interest accrual.
+ * Automatically bound from banking.interest.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.interest")
+@Getter
+@Setter
+public class InterestProperties {
+
+    /**
+     * Width of the account ID range accrued in one database transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Number of chunks accrued in parallel; each holds a pooled connection while it runs.
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Daily interest rate numerator; the rate is numerator / denominator of the closing balance.
+     */
+    private long rateNumerator = 1;
+
+    /**
+     * Daily interest rate denominator.
+     */
+    private long rateDenominator = 10_000;
+
+    /**
+     * How many days back an accrual may be started or resumed by hand; older days stay closed.
+     */
+    private int backfillDays = 7;
+
+    /**
+     * A running accrual that has not finished a chunk for this long is considered abandoned and resumed
+     * from its pending chunks, in seconds. Must exceed the time of one chunk.
+     */
+    private long staleAfterSeconds = 600;
+
+    /**
+     * Delay between scans for abandoned accruals, in milliseconds.
+     */
+    private long resumeIntervalMs = 300000;
+}
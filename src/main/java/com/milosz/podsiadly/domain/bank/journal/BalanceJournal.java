@@ -0,0 +1,71 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import java.util.List;
+
+/**
+ * Append-only redo log of balance changes made by the in-memory balance stores.
+ * The changes of one database transaction are appended as one contiguous group closed by a commit marker.
+ * Every change carries the committed balance after it (post-image), so replaying the newest change of
+ * every complete group restores balances that had not yet been written to bank_accounts; a group
+ * without its marker (torn write) is never replayed.
+ * <p>
+ * The group of a transfer is made durable before its database transaction commits, so a marker alone does not
+ * mean the transaction committed: such groups are appended with {@link #appendPending} and count only once
+ * {@link #confirm} wrote its row in that database transaction. Recovery takes the deltas of unconfirmed groups
+ * back out of the newer post-images.
+ */
+public interface BalanceJournal {
+
+    /**
+     * Appends changes that are final regardless of any database transaction (e.g. an administrative overwrite
+     * or a replayed balance), followed by a commit marker. Must be called while the caller serializes the commits
+     * of its store, so that groups are appended in the order their post-images were computed.
+     *
+     * @param entries The committed changes.
+     * @return The sequence number of the commit marker, or 0 if nothing was written.
+     */
+    long appendCommitted(List<JournalEntry> entries);
+
+    /**
+     * Appends the changes of a database transaction that has not committed yet, followed by a commit marker;
+     * the group is replayed only if {@link #confirm} was committed with the transaction. Same ordering rule
+     * as {@link #appendCommitted}.
+     *
+     * @param entries The changes of one transaction.
+     * @return The sequence number of the commit marker, or 0 if nothing was written.
+     */
+    long appendPending(List<JournalEntry> entries);
+
+    /**
+     * Confirms a group appended with {@link #appendPending} in the caller's database transaction.
+     *
+     * @param sequence The sequence number returned by {@link #appendPending}.
+     */
+    void confirm(long sequence);
+
+    /**
+     * Blocks until every record up to and including the sequence number has been forced to disk.
+     *
+     * @param sequence The sequence number returned by {@link #appendCommitted} or {@link #appendPending}.
+     * @throws IllegalStateException if the record is not durable within the commit timeout.
+     */
+    void awaitDurable(long sequence);
+
+    /**
+     * @return The sequence number of the commit marker of the newest appended group.
+     */
+    long lastSequence();
+
+    /**
+     * Confirms that the effects of all records up to the sequence number are stored in bank_accounts,
+     * so they no longer need to be replayed.
+     *
+     * @param sequence The newest sequence number covered by a successful write-behind flush.
+     */
+    void checkpoint(long sequence);
+
+    /**
+     * @return Whether {@link #awaitDurable} really waits for the disk, i.e. committed changes survive a crash.
+     */
+    boolean isDurable();
+}
@@ -0,0 +1,44 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link JournalCommitLog} kept in the balance_journal_commits table. {@link JdbcTemplate} joins the
+ * transaction bound to the calling thread, so {@link #confirm} commits or rolls back with the transfer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class JdbcJournalCommitLog implements JournalCommitLog {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcJournalCommitLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void confirm(long sequence) {
+        jdbcTemplate.update("INSERT INTO balance_journal_commits (journal_sequence) VALUES (?)", sequence);
+    }
+
+    @Override
+    public Set<Long> confirmedAfter(long sequence) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT journal_sequence FROM balance_journal_commits WHERE journal_sequence > ?", Long.class, sequence));
+    }
+
+    @Override
+    public void deleteUpTo(long sequence) {
+        jdbcTemplate.update("DELETE FROM balance_journal_commits WHERE journal_sequence <= ?", sequence);
+    }
+
+    @Override
+    public void deleteAfter(long sequence) {
+        jdbcTemplate.update("DELETE FROM balance_journal_commits WHERE journal_sequence > ?", sequence);
+    }
+}
@@ -0,0 +1,21 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Confirmation row of a journal group, written by {@link JdbcJournalCommitLog} with plain SQL.
+ * The entity only declares the table.
+ */
+@Entity
+@Table(name = "balance_journal_commits")
+@Getter
+@NoArgsConstructor
+public class JournalCommit {
+
+    @Id
+    private Long journalSequence; // Numer znacznika zatwierdzenia grupy w dzienniku
+}
@@ -0,0 +1,34 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import java.util.Set;
+
+/**
+ * Database-side confirmation of the journal groups appended with {@link BalanceJournal#appendPending}.
+ * A group is confirmed by a row written in the database transaction whose balance changes it carries,
+ * so the row exists exactly when that transaction committed.
+ */
+public interface JournalCommitLog {
+
+    /**
+     * Records the group in the caller's database transaction (or immediately when there is none).
+     *
+     * @param sequence The sequence number of the group's commit marker.
+     */
+    void confirm(long sequence);
+
+    /**
+     * @return Sequence numbers of the confirmed groups newer than the sequence number.
+     */
+    Set<Long> confirmedAfter(long sequence);
+
+    /**
+     * Forgets the confirmations of groups up to the sequence number, once a checkpoint covers them.
+     */
+    void deleteUpTo(long sequence);
+
+    /**
+     * Forgets confirmations that no journal record refers to, e.g. left behind by a journal directory
+     * that was removed; their sequence numbers would otherwise be reused.
+     */
+    void deleteAfter(long sequence);
+}
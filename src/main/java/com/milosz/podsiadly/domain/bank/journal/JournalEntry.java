@@ -0,0 +1,11 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+/**
+ * One committed balance change of a group passed to {@link BalanceJournal#appendCommitted} or {@link BalanceJournal#appendPending}.
+ *
+ * @param accountId    The account whose balance changed.
+ * @param balanceMinor The committed balance after the change, in minor units.
+ * @param deltaMinor   The applied change, in minor units.
+ */
+public record JournalEntry(long accountId, long balanceMinor, long deltaMinor) {
+}
@@ -0,0 +1,13 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import java.util.List;
+
+/**
+ * A complete journal group read back on recovery.
+ *
+ * @param sequence Sequence number of the group's commit marker.
+ * @param pending  Whether the group only counts once confirmed in the {@link JournalCommitLog}.
+ * @param entries  The balance changes of the group.
+ */
+record JournalGroup(long sequence, boolean pending, List<JournalEntry> entries) {
+}
@@ -0,0 +1,42 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the memory-mapped balance journal.
+ * Automatically bound from banking.journal.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.journal")
+@Getter
+@Setter
+public class JournalProperties {
+
+    /**
+     * Whether balance changes of the ledger and partitioned modes are journaled; both modes require it.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the segment files and the checkpoint file.
+     */
+    private String directory = "data/journal";
+
+    /**
+     * Size of one segment file in megabytes.
+     */
+    private int segmentSizeMb = 64;
+
+    /**
+     * Maximum time the sync thread sleeps between checks for new records, in milliseconds.
+     */
+    private long syncIntervalMs = 1;
+
+    /**
+     * Maximum time a caller waits for its record to be forced to disk, in milliseconds.
+     */
+    private long commitTimeoutMs = 5000;
+}
@@ -0,0 +1,82 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-layout, 48-byte journal record:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic (record type)
+ *      4     4  CRC32C of bytes 8..47
+ *      8     8  sequence
+ *     16     8  timestamp (epoch millis)
+ *     24     8  LEG: account ID            COMMIT: sequence of the first leg of the group
+ *     32     8  LEG: balance after, minor  COMMIT: number of legs in the group
+ *     40     8  LEG: applied change, minor COMMIT: 1 if the group awaits database confirmation, else 0
+ * </pre>
+ * A zeroed slot (magic 0) marks the end of a segment; a checksum mismatch marks a torn write.
+ */
+record JournalRecord(Type type, long sequence, long timestampMillis, long accountId, long balanceMinor, long deltaMinor) {
+
+    enum Type {
+        LEG(0x4A524E32),    // "JRN2"
+        COMMIT(0x4A524332); // "JRC2"
+
+        private final int magic;
+
+        Type(int magic) {
+            this.magic = magic;
+        }
+
+        private static Type of(int magic) {
+            for (Type type : values()) {
+                if (type.magic == magic) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+
+    static final int SIZE = 48;
+    private static final int BODY_OFFSET = 8;
+    private static final int BODY_SIZE = SIZE - BODY_OFFSET;
+
+    /**
+     * Writes a record at the absolute offset without changing the buffer position.
+     */
+    static void write(ByteBuffer buffer, int offset, CRC32C crc, Type type,
+                      long sequence, long timestampMillis, long accountId, long balanceMinor, long deltaMinor) {
+        buffer.putLong(offset + 8, sequence);
+        buffer.putLong(offset + 16, timestampMillis);
+        buffer.putLong(offset + 24, accountId);
+        buffer.putLong(offset + 32, balanceMinor);
+        buffer.putLong(offset + 40, deltaMinor);
+        buffer.putInt(offset + 4, checksum(buffer, offset, crc));
+        buffer.putInt(offset, type.magic); // Magic na końcu: slot staje się ważny dopiero po zapisaniu całej treści
+    }
+
+    /**
+     * @return The record at the absolute offset, or {@code null} if the slot is empty or torn.
+     */
+    static JournalRecord read(ByteBuffer buffer, int offset, CRC32C crc) {
+        Type type = Type.of(buffer.getInt(offset));
+        if (type == null || buffer.getInt(offset + 4) != checksum(buffer, offset, crc)) {
+            return null;
+        }
+        return new JournalRecord(
+                type,
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                buffer.getLong(offset + 32),
+                buffer.getLong(offset + 40));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, CRC32C crc) {
+        crc.reset();
+        crc.update(buffer.slice(offset + BODY_OFFSET, BODY_SIZE));
+        return (int) crc.getValue();
+    }
+}
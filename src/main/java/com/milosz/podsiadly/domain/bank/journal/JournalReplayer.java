@@ -0,0 +1,58 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores in-memory balances after a crash: the newest journaled balance of every account changed by a
+ * committed group after the last checkpoint is written back into the balance store, which marks it dirty,
+ * so the write-behind flusher also completes the bank_accounts updates that were lost. Changes whose group
+ * lacks a commit marker, or whose pending group was not confirmed by its database transaction, did not commit
+ * and are not restored.
+ * Runs while the context starts, before the application accepts requests.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("${banking.journal.enabled:false} and " +
+        "('${banking.balance.mode:direct}'.equalsIgnoreCase('ledger') " +
+        "or '${banking.balance.mode:direct}'.equalsIgnoreCase('partitioned'))")
+public class JournalReplayer {
+
+    private static final int ACCOUNT_CHUNK_SIZE = 1000;
+
+    private final MappedBalanceJournal journal;
+    private final BalanceUpdater balanceUpdater;
+    private final BankAccountRepository bankAccountRepository;
+
+    @PostConstruct
+    public void replay() {
+        Map<Long, Long> recovered = journal.recoveredBalances();
+        journal.clearRecovered();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        List<Long> accountIds = new ArrayList<>(recovered.keySet());
+        int restored = 0;
+        for (int from = 0; from < accountIds.size(); from += ACCOUNT_CHUNK_SIZE) {
+            List<Long> chunk = accountIds.subList(from, Math.min(from + ACCOUNT_CHUNK_SIZE, accountIds.size()));
+            for (BankAccount account : bankAccountRepository.findAllById(chunk)) {
+                long balanceMinor = recovered.get(account.getId());
+                balanceUpdater.overwrite(account, Money.toBigDecimal(balanceMinor, account.getCurrency()));
+                restored++;
+            }
+        }
+        log.info("Replayed balance journal: restored {} of {} account balances (others were deleted).", restored, accountIds.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped journal segment file of fixed-size {@link JournalRecord} slots.
+ * The file name holds the sequence number of the first record, zero-padded, so segments sort in journal order.
+ * Not thread-safe: appends are serialized by {@link MappedBalanceJournal}.
+ */
+final class JournalSegment {
+
+    static final String SUFFIX = ".seg";
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int count;
+    private long lastSequence;
+
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, int count, long lastSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity() / JournalRecord.SIZE;
+        this.count = count;
+        this.lastSequence = lastSequence;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, long sizeBytes) {
+        Path path = directory.resolve(String.format("%020d", firstSequence) + SUFFIX);
+        long size = Math.max(1, sizeBytes / JournalRecord.SIZE) * JournalRecord.SIZE;
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new JournalSegment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), 0, firstSequence - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+    }
+
+    /**
+     * Reads all valid records of an existing segment, stopping at the first empty or torn slot.
+     * The segment is returned closed for appends; it is only kept for deletion after a checkpoint.
+     */
+    static JournalSegment recover(Path path, List<JournalRecord> records) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C crc = new CRC32C();
+            List<JournalRecord> valid = new ArrayList<>();
+            for (int offset = 0; offset + JournalRecord.SIZE <= buffer.capacity(); offset += JournalRecord.SIZE) {
+                JournalRecord record = JournalRecord.read(buffer, offset, crc);
+                if (record == null) {
+                    break;
+                }
+                valid.add(record);
+            }
+            records.addAll(valid);
+            long lastSequence = valid.isEmpty() ? 0 : valid.get(valid.size() - 1).sequence();
+            return new JournalSegment(path, null, buffer, valid.size(), lastSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal segment " + path, e);
+        }
+    }
+
+    boolean isFull() {
+        return count >= capacity;
+    }
+
+    void append(CRC32C crc, JournalRecord.Type type,
+                long sequence, long timestampMillis, long accountId, long balanceMinor, long deltaMinor) {
+        JournalRecord.write(buffer, count * JournalRecord.SIZE, crc, type, sequence, timestampMillis, accountId, balanceMinor, deltaMinor);
+        count++;
+        lastSequence = sequence;
+    }
+
+    /**
+     * Forces written records to the storage device (msync).
+     */
+    void force() {
+        buffer.force();
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    void delete() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete journal segment " + path, e);
+        }
+    }
+
+    void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal segment " + path, e);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+}
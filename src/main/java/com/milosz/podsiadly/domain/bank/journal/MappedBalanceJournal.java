@@ -0,0 +1,400 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * {@link BalanceJournal} stored in memory-mapped segment files.
+ * <p>
+ * Appends copy the 48-byte records of a group (its legs and the commit marker) into the mapped segment
+ * under a short lock; the group becomes visible to the sync thread only as a whole. A dedicated sync thread
+ * forces the segment to disk and then releases every caller waiting for a record up to the forced
+ * sequence number, so concurrent callers share one fsync (group commit). Full segments are forced and
+ * replaced by a new file. Segments whose records are all covered by a checkpoint are deleted.
+ * <p>
+ * On startup the records written after the last checkpoint are read back; {@link JournalReplayer}
+ * restores the newest balance of each account from the groups that carry their commit marker, without the
+ * changes of pending groups whose database transaction never committed (no row in the {@link JournalCommitLog}).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "true")
+public class MappedBalanceJournal implements BalanceJournal {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final JournalProperties properties;
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final CRC32C crc = new CRC32C();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition pending = appendLock.newCondition();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+
+    private final Deque<JournalSegment> closedSegments = new ArrayDeque<>();
+    private final JournalCommitLog commitLog;
+    private final List<JournalGroup> recoveredGroups;
+    private final long recoveredCheckpoint;
+    private final long recoveredSequence;
+    private final Thread syncThread;
+    private JournalSegment current;
+    private volatile long lastSequence;
+    private volatile long durableSequence;
+    private long checkpointSequence;
+    private volatile boolean running = true;
+
+    public MappedBalanceJournal(JournalProperties properties, JournalCommitLog commitLog) {
+        this.properties = properties;
+        this.commitLog = commitLog;
+        this.directory = Paths.get(properties.getDirectory());
+        this.segmentSizeBytes = Math.max(1, properties.getSegmentSizeMb()) * 1024L * 1024L;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+        this.checkpointSequence = readCheckpoint();
+        this.recoveredGroups = recover();
+        this.recoveredCheckpoint = checkpointSequence;
+        this.recoveredSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        this.current = JournalSegment.create(directory, lastSequence + 1, segmentSizeBytes);
+        this.syncThread = new Thread(this::syncLoop, "balance-journal-sync");
+        this.syncThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        syncThread.start();
+        log.info("Balance journal opened in {} at sequence {} (checkpoint {}, {} groups to replay).",
+                directory.toAbsolutePath(), lastSequence, checkpointSequence, recoveredGroups.size());
+    }
+
+    @Override
+    public long appendCommitted(List<JournalEntry> entries) {
+        return append(entries, false);
+    }
+
+    @Override
+    public long appendPending(List<JournalEntry> entries) {
+        return append(entries, true);
+    }
+
+    @Override
+    public void confirm(long sequence) {
+        if (sequence > 0) {
+            commitLog.confirm(sequence);
+        }
+    }
+
+    private long append(List<JournalEntry> entries, boolean awaitsConfirmation) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        appendLock.lock();
+        try {
+            long timestamp = System.currentTimeMillis();
+            long firstSequence = lastSequence + 1;
+            long sequence = firstSequence;
+            for (JournalEntry entry : entries) {
+                write(JournalRecord.Type.LEG, sequence++, timestamp, entry.accountId(), entry.balanceMinor(), entry.deltaMinor());
+            }
+            write(JournalRecord.Type.COMMIT, sequence, timestamp, firstSequence, entries.size(), awaitsConfirmation ? 1 : 0);
+            // Dopiero cała grupa jest widoczna dla wątku fsync i punktu kontrolnego
+            lastSequence = sequence;
+            pending.signal();
+            return sequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        if (sequence <= durableSequence) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(properties.getCommitTimeoutMs());
+        syncLock.lock();
+        try {
+            while (sequence > durableSequence) {
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Balance journal record " + sequence + " not durable within "
+                            + properties.getCommitTimeoutMs() + " ms.");
+                }
+                remaining = synced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for balance journal commit.", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void checkpoint(long sequence) {
+        List<JournalSegment> obsolete = new ArrayList<>();
+        appendLock.lock();
+        try {
+            if (sequence <= checkpointSequence) {
+                return;
+            }
+            checkpointSequence = sequence;
+            while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSequence() <= sequence) {
+                obsolete.add(closedSegments.pollFirst());
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        writeCheckpoint(sequence);
+        obsolete.forEach(JournalSegment::delete);
+        try {
+            commitLog.deleteUpTo(sequence);
+        } catch (RuntimeException e) {
+            log.warn("Cannot delete balance journal confirmations up to {}, retrying at the next checkpoint: {}", sequence, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
+    /**
+     * Reads the confirmations of the recovered pending groups; the database must be available.
+     *
+     * @return Newest committed balance (minor units) of every account changed after the last checkpoint, keyed by account ID.
+     */
+    public Map<Long, Long> recoveredBalances() {
+        boolean anyPending = recoveredGroups.stream().anyMatch(JournalGroup::pending);
+        return committedBalances(recoveredGroups, anyPending ? commitLog.confirmedAfter(recoveredCheckpoint) : Set.of());
+    }
+
+    /**
+     * Releases the recovered groups once they have been restored, and drops confirmations newer than
+     * every recovered record - their sequence numbers are about to be reused.
+     */
+    public void clearRecovered() {
+        recoveredGroups.clear();
+        commitLog.deleteAfter(recoveredSequence);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        appendLock.lock();
+        try {
+            pending.signal();
+        } finally {
+            appendLock.unlock();
+        }
+        syncThread.join(TimeUnit.SECONDS.toMillis(10));
+        current.force();
+        current.close();
+        log.info("Balance journal closed at sequence {}.", lastSequence);
+    }
+
+    // Wywoływane pod appendLock
+    private void write(JournalRecord.Type type, long sequence, long timestamp, long accountId, long balanceMinor, long deltaMinor) {
+        if (current.isFull()) {
+            roll(sequence);
+        }
+        current.append(crc, type, sequence, timestamp, accountId, balanceMinor, deltaMinor);
+    }
+
+    // Wywoływane pod appendLock; grupa może zaczynać się w jednym segmencie i kończyć w następnym
+    private void roll(long firstSequence) {
+        current.force();
+        closedSegments.addLast(current);
+        current = JournalSegment.create(directory, firstSequence, segmentSizeBytes);
+        log.debug("Balance journal rolled to segment {}.", current.path().getFileName());
+    }
+
+    private void syncLoop() {
+        while (running || durableSequence < lastSequence) {
+            long target;
+            JournalSegment segment;
+            appendLock.lock();
+            try {
+                if (running && lastSequence == durableSequence) {
+                    pending.await(properties.getSyncIntervalMs(), TimeUnit.MILLISECONDS);
+                }
+                target = lastSequence;
+                segment = current;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                appendLock.unlock();
+            }
+            if (target <= durableSequence) {
+                continue;
+            }
+            try {
+                // Rekordy z wcześniejszych segmentów zostały wymuszone przy zmianie segmentu
+                segment.force();
+            } catch (RuntimeException e) {
+                log.error("Balance journal fsync failed, will retry: {}", e.getMessage(), e);
+                continue;
+            }
+            syncLock.lock();
+            try {
+                durableSequence = target;
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private List<JournalGroup> recover() {
+        List<Path> segmentFiles;
+        try (Stream<Path> files = Files.list(directory)) {
+            segmentFiles = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal directory " + directory, e);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        long maxSequence = checkpointSequence;
+        for (Path file : segmentFiles) {
+            List<JournalRecord> segmentRecords = new ArrayList<>();
+            JournalSegment segment = JournalSegment.recover(file, segmentRecords);
+            for (JournalRecord record : segmentRecords) {
+                maxSequence = Math.max(maxSequence, record.sequence());
+            }
+            records.addAll(segmentRecords);
+            if (segmentRecords.isEmpty() || segment.lastSequence() <= checkpointSequence) {
+                segment.delete();
+            } else {
+                closedSegments.addLast(segment);
+            }
+        }
+        this.lastSequence = maxSequence;
+        return completeGroups(records, checkpointSequence);
+    }
+
+    /**
+     * Complete groups (legs followed by their commit marker) after the checkpoint, in journal order.
+     * Legs of a group whose marker is missing - cut off by a crash - are skipped.
+     *
+     * @param records All readable records, in journal order.
+     */
+    static List<JournalGroup> completeGroups(List<JournalRecord> records, long checkpointSequence) {
+        List<JournalGroup> groups = new ArrayList<>();
+        List<JournalRecord> group = new ArrayList<>();
+        int torn = 0;
+        for (JournalRecord record : records) {
+            if (record.sequence() <= checkpointSequence) {
+                continue;
+            }
+            if (record.type() == JournalRecord.Type.LEG) {
+                group.add(record);
+                continue;
+            }
+            // Znacznik zatwierdzenia: nogi sprzed pierwszej nogi grupy należą do grupy urwanej awarią
+            long firstSequence = record.accountId();
+            List<JournalRecord> legs = group.stream().filter(leg -> leg.sequence() >= firstSequence).toList();
+            torn += group.size() - legs.size();
+            if (legs.size() == record.balanceMinor()) {
+                groups.add(new JournalGroup(record.sequence(), record.deltaMinor() == 1,
+                        legs.stream().map(leg -> new JournalEntry(leg.accountId(), leg.balanceMinor(), leg.deltaMinor())).toList()));
+            } else {
+                torn += legs.size();
+            }
+            group.clear();
+        }
+        torn += group.size();
+        if (torn > 0) {
+            log.warn("Balance journal recovery skipped {} records of groups without a commit marker.", torn);
+        }
+        return groups;
+    }
+
+    /**
+     * Newest committed balance of every account changed by the groups. Post-images of later groups include the
+     * changes of earlier unconfirmed pending groups, so those deltas are subtracted again; a final (non-pending)
+     * group sets the balance outright and ends that correction.
+     *
+     * @param groups    Complete groups, in journal order.
+     * @param confirmed Sequence numbers of the confirmed pending groups.
+     */
+    static Map<Long, Long> committedBalances(List<JournalGroup> groups, Set<Long> confirmed) {
+        Map<Long, Long> balances = new HashMap<>();
+        Map<Long, Long> rolledBack = new HashMap<>();
+        int skipped = 0;
+        for (JournalGroup group : groups) {
+            boolean discarded = group.pending() && !confirmed.contains(group.sequence());
+            if (discarded) {
+                skipped++;
+            }
+            for (JournalEntry entry : group.entries()) {
+                balances.put(entry.accountId(), entry.balanceMinor()); // Grupy w kolejności - wygrywa najnowsza
+                if (discarded) {
+                    rolledBack.merge(entry.accountId(), entry.deltaMinor(), Math::addExact);
+                } else if (!group.pending()) {
+                    rolledBack.remove(entry.accountId());
+                }
+            }
+        }
+        rolledBack.forEach((accountId, delta) -> balances.merge(accountId, -delta, Math::addExact));
+        if (skipped > 0) {
+            log.warn("Balance journal recovery discarded {} groups whose database transaction did not commit.", skipped);
+        }
+        return balances;
+    }
+
+    private long readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        try {
+            return Files.exists(file) ? Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Cannot read balance journal checkpoint, replaying all segments: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long sequence) {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.writeString(tmp, Long.toString(sequence), StandardCharsets.US_ASCII);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot write balance journal checkpoint {}: {}", sequence, e.getMessage());
+        }
+    }
+}
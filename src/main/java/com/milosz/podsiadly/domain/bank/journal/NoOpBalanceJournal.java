@@ -0,0 +1,46 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Journal used when banking.journal.enabled is false: nothing is recorded and nothing is awaited.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.journal", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class NoOpBalanceJournal implements BalanceJournal {
+
+    @Override
+    public long appendCommitted(List<JournalEntry> entries) {
+        return 0;
+    }
+
+    @Override
+    public long appendPending(List<JournalEntry> entries) {
+        return 0;
+    }
+
+    @Override
+    public void confirm(long sequence) {
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+    }
+
+    @Override
+    public long lastSequence() {
+        return 0;
+    }
+
+    @Override
+    public void checkpoint(long sequence) {
+    }
+
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+}
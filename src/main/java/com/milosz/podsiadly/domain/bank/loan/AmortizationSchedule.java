@@ -0,0 +1,130 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Annuity (equal installment) amortization schedule of a loan.
+ * <p>
+ * Installments fall due monthly from the loan start date. The schedule is persisted compactly as a version byte
+ * and the principal and interest of each installment as unsigned varints, usually 6-8 bytes per installment;
+ * due dates are derived from the start date and are not stored.
+ */
+public final class AmortizationSchedule {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final LocalDate startDate;
+    private final long[] principal;
+    private final long[] interest;
+
+    private AmortizationSchedule(LocalDate startDate, long[] principal, long[] interest) {
+        this.startDate = startDate;
+        this.principal = principal;
+        this.interest = interest;
+    }
+
+    /**
+     * Computes the schedule; interest of each installment is charged on the balance left after the previous one
+     * and rounded half up to the minor unit, the last installment repays the remaining principal.
+     *
+     * @param principalMinor Loan principal in minor units.
+     * @param annualRate     Annual interest rate, e.g. 0.05 for 5%.
+     * @param termMonths     Number of monthly installments.
+     * @param startDate      Loan start date; installment n is due n months later.
+     */
+    public static AmortizationSchedule annuity(long principalMinor, BigDecimal annualRate, int termMonths, LocalDate startDate) {
+        if (principalMinor <= 0 || termMonths <= 0 || annualRate.signum() < 0) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry harmonogramu spłat.");
+        }
+        BigDecimal monthlyRate = annualRate.divide(BigDecimal.valueOf(12), PRECISION);
+        BigDecimal balance = BigDecimal.valueOf(principalMinor);
+        BigDecimal payment = monthlyRate.signum() == 0
+                ? balance.divide(BigDecimal.valueOf(termMonths), PRECISION)
+                // P * r / (1 - (1 + r)^-n)
+                : balance.multiply(monthlyRate).divide(BigDecimal.ONE.subtract(
+                        BigDecimal.ONE.divide(BigDecimal.ONE.add(monthlyRate).pow(termMonths, PRECISION), PRECISION)), PRECISION);
+        long paymentMinor = payment.setScale(0, RoundingMode.HALF_UP).longValueExact();
+
+        long[] principal = new long[termMonths];
+        long[] interest = new long[termMonths];
+        long remaining = principalMinor;
+        for (int i = 0; i < termMonths; i++) {
+            interest[i] = BigDecimal.valueOf(remaining).multiply(monthlyRate).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            principal[i] = i == termMonths - 1 ? remaining : Math.min(remaining, Math.max(0, paymentMinor - interest[i]));
+            remaining -= principal[i];
+        }
+        return new AmortizationSchedule(startDate, principal, interest);
+    }
+
+    public static AmortizationSchedule decode(byte[] data, LocalDate startDate) {
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            throw new IllegalStateException("Nieobsługiwany format harmonogramu spłat.");
+        }
+        int[] position = {1};
+        int count = (int) readVarint(data, position);
+        long[] principal = new long[count];
+        long[] interest = new long[count];
+        for (int i = 0; i < count; i++) {
+            principal[i] = readVarint(data, position);
+            interest[i] = readVarint(data, position);
+        }
+        return new AmortizationSchedule(startDate, principal, interest);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + 5 + principal.length * 8);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, principal.length);
+        for (int i = 0; i < principal.length; i++) {
+            writeVarint(out, principal[i]);
+            writeVarint(out, interest[i]);
+        }
+        return out.toByteArray();
+    }
+
+    public int size() {
+        return principal.length;
+    }
+
+    /**
+     * @param number 1-based installment number.
+     */
+    public Installment installment(int number) {
+        return new Installment(number, startDate.plusMonths(number), principal[number - 1], interest[number - 1]);
+    }
+
+    public List<Installment> installments() {
+        List<Installment> installments = new ArrayList<>(principal.length);
+        for (int number = 1; number <= principal.length; number++) {
+            installments.add(installment(number));
+        }
+        return installments;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Uszkodzony harmonogram spłat.");
+    }
+}
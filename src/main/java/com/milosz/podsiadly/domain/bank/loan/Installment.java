@@ -0,0 +1,18 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import java.time.LocalDate;
+
+/**
+ * One installment of an {@link AmortizationSchedule}, amounts in minor units of the loan currency.
+ *
+ * @param number         1-based installment number.
+ * @param dueDate        Day the installment is collected.
+ * @param principalMinor Principal part, reduces the outstanding balance.
+ * @param interestMinor  Interest part, bank income.
+ */
+public record Installment(int number, LocalDate dueDate, long principalMinor, long interestMinor) {
+
+    public long totalMinor() {
+        return principalMinor + interestMinor;
+    }
+}
@@ -0,0 +1,124 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects due loan installments once a day.
+ * <p>
+ * Loans are split into partitions by linked account ID and the partitions are collected in parallel, each
+ * walking its due loans in ID order chunk by chunk. Because all loans of an account share a partition, no two
+ * workers debit the same account. Every partition is a shard leased through {@link ScheduledJobLock}, so with
+ * several instances each collects the partitions it manages to lease instead of one instance doing all.
+ * Every chunk commits on its own and advances the collected loans, so a run stopped by a failure leaves the
+ * remaining installments due for the next run.
+ */
+@Slf4j
+@Component
+public class LoanCollectionJob {
+
+    private final LoanCollectionProcessor collectionProcessor;
+    private final AuditService auditService;
+    private final LoanCollectionProperties properties;
+    private final ScheduledJobLock scheduledJobLock;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LoanCollectionJob(LoanCollectionProcessor collectionProcessor, AuditService auditService,
+                             LoanCollectionProperties properties, ScheduledJobLock scheduledJobLock) {
+        this.collectionProcessor = collectionProcessor;
+        this.auditService = auditService;
+        this.properties = properties;
+        this.scheduledJobLock = scheduledJobLock;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkerThreads()),
+                runnable -> new Thread(runnable, "loan-collection-" + threadIndex.getAndIncrement()));
+    }
+
+    @Scheduled(cron = "${banking.loan-collection.cron:0 15 0 * * *}")
+    public void collectDueInstallments() {
+        if (!properties.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            run(LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(LocalDate today) {
+        long startedNanos = System.nanoTime();
+        AtomicLong loans = new AtomicLong();
+        AtomicLong installments = new AtomicLong();
+        AtomicLong defaulted = new AtomicLong();
+        String error = null;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int partition = 0; partition < Math.max(1, properties.getPartitions()); partition++) {
+            int current = partition;
+            futures.add(workers.submit(() -> scheduledJobLock.runExclusively("loan-collection#" + current, () -> {
+                long cursor = 0; // ID pożyczek są dodatnie
+                LoanCollectionProcessor.CollectionChunk chunk;
+                while ((chunk = collectionProcessor.collectChunk(today, current, cursor)).loans() > 0) {
+                    cursor = chunk.lastLoanId();
+                    loans.addAndGet(chunk.loans());
+                    installments.addAndGet(chunk.installments());
+                    defaulted.addAndGet(chunk.defaulted());
+                }
+            })));
+        }
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Pozostałe partycje kończą się normalnie - niepobrane raty pozostają wymagalne
+                    log.error("Loan collection partition failed: {}", e.getCause().getMessage(), e.getCause());
+                    error = error != null ? error : String.valueOf(e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted at shutdown.";
+        }
+
+        long millis = Math.max(1, (System.nanoTime() - startedNanos) / 1_000_000);
+        if (loans.get() == 0 && error == null) {
+            log.debug("No loan installments due.");
+            return;
+        }
+        log.info("Loan collection: {} due loans, {} installments collected, {} loans defaulted, {} ms ({} loans/s).",
+                loans.get(), installments.get(), defaulted.get(), millis, String.format("%.1f", loans.get() * 1000.0 / millis));
+        auditService.logEvent(
+                "SYSTEM",
+                "LOAN_INSTALLMENTS_COLLECTED",
+                "Loan",
+                null,
+                "Pobrano " + installments.get() + " rat z " + loans.get() + " wymagalnych pożyczek, " + defaulted.get()
+                        + " oznaczono jako DEFAULTED" + (error != null ? ", przerwano: " + error : "."),
+                error == null ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+    }
+}
@@ -0,0 +1,222 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.Loan;
+import com.milosz.podsiadly.domain.bank.model.LoanSchedule;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.LoanRepository;
+import com.milosz.podsiadly.domain.bank.repository.LoanScheduleRepository;
+import com.milosz.podsiadly.domain.bank.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Collects due installments of one chunk of loans in one database transaction.
+ * <p>
+ * The loans are locked, so an installment is collected once also when several instances run the job.
+ * Installments of a loan are collected oldest first for as long as the linked account covers them; each
+ * collection becomes a LOAN_REPAYMENT transaction for the principal and a LOAN_INTEREST transaction for the
+ * interest, completed together through {@link TransactionService#completeAll}. A loan whose oldest unpaid
+ * installment is overdue longer than {@link LoanCollectionProperties#getDefaultAfterDays()} is marked DEFAULTED.
+ * <p>
+ * A debit of a linked account by another request between reading its funds and collecting fails the chunk;
+ * the chunk is rolled back and collected again from fresh balances. After {@value #MAX_ATTEMPTS} failed attempts
+ * it is skipped and its installments stay due for the next run.
+ */
+@Slf4j
+@Component
+public class LoanCollectionProcessor {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final LoanRepository loanRepository;
+    private final LoanScheduleRepository loanScheduleRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionService transactionService;
+    private final BalanceUpdater balanceUpdater;
+    private final IdGenerator idGenerator;
+    private final LoanCollectionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public LoanCollectionProcessor(LoanRepository loanRepository, LoanScheduleRepository loanScheduleRepository,
+                                   BankAccountRepository bankAccountRepository, TransactionService transactionService,
+                                   BalanceUpdater balanceUpdater, IdGenerator idGenerator, LoanCollectionProperties properties,
+                                   PlatformTransactionManager transactionManager) {
+        this.loanRepository = loanRepository;
+        this.loanScheduleRepository = loanScheduleRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionService = transactionService;
+        this.balanceUpdater = balanceUpdater;
+        this.idGenerator = idGenerator;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Outcome of one chunk.
+     *
+     * @param loans        Loans with a due installment that were examined; 0 once the partition is exhausted.
+     * @param lastLoanId   Highest loan ID of the chunk, the keyset cursor of the next chunk.
+     * @param installments Installments collected.
+     * @param defaulted    Loans marked DEFAULTED.
+     */
+    public record CollectionChunk(int loans, long lastLoanId, int installments, int defaulted) {
+    }
+
+    /**
+     * Collects the next chunk of due loans of a partition.
+     *
+     * @param today       Installments due on or before this day are collected.
+     * @param partition   Partition (linked account ID modulo {@link LoanCollectionProperties#getPartitions()}).
+     * @param afterLoanId Only loans with a higher ID are taken.
+     */
+    public CollectionChunk collectChunk(LocalDate today, int partition, long afterLoanId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> collect(today, partition, afterLoanId));
+            } catch (InsufficientFundsException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.warn("Skipping loans after {} of partition {}, balances changed during {} attempts: {}",
+                            afterLoanId, partition, attempt, e.getMessage());
+                    return transactionTemplate.execute(status -> skip(today, partition, afterLoanId));
+                }
+                log.info("Balance changed during collection after loan {} of partition {} (attempt {}), retrying: {}",
+                        afterLoanId, partition, attempt, e.getMessage());
+            }
+        }
+    }
+
+    // Przesuwa kursor za paczkę bez pobierania rat - pozostają wymagalne do następnego przebiegu
+    private CollectionChunk skip(LocalDate today, int partition, long afterLoanId) {
+        List<Loan> loans = findDue(today, partition, afterLoanId);
+        return new CollectionChunk(loans.size(), loans.isEmpty() ? afterLoanId : loans.get(loans.size() - 1).getId(), 0, 0);
+    }
+
+    private List<Loan> findDue(LocalDate today, int partition, long afterLoanId) {
+        return loanRepository.findDueForUpdate(today, properties.getPartitions(), partition, afterLoanId,
+                PageRequest.of(0, properties.getChunkSize()));
+    }
+
+    private CollectionChunk collect(LocalDate today, int partition, long afterLoanId) {
+        List<Loan> loans = findDue(today, partition, afterLoanId);
+        if (loans.isEmpty()) {
+            return new CollectionChunk(0, afterLoanId, 0, 0);
+        }
+        Map<Long, LoanSchedule> schedulesByLoanId = loanScheduleRepository.findAllById(loans.stream().map(Loan::getId).toList())
+                .stream().collect(Collectors.toMap(LoanSchedule::getLoanId, Function.identity()));
+        Set<Long> accountIds = loans.stream().map(loan -> loan.getAccount().getId()).collect(Collectors.toSet());
+        Map<Long, BankAccount> accountsById = bankAccountRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        Map<Long, Long> available = new HashMap<>(); // Środki kont po ratach pobranych już w tej paczce
+        Map<Long, Long> debits = new LinkedHashMap<>();
+        List<Transaction> collections = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        int installments = 0;
+        int defaulted = 0;
+        for (Loan loan : loans) {
+            LoanSchedule stored = schedulesByLoanId.get(loan.getId());
+            if (stored == null) {
+                continue;
+            }
+            AmortizationSchedule schedule = AmortizationSchedule.decode(stored.getInstallments(), loan.getStartDate());
+            BankAccount account = accountsById.get(loan.getAccount().getId());
+            String currency = account.getCurrency();
+            long funds = account.getStatus() == BankAccount.AccountStatus.ACTIVE
+                    ? available.computeIfAbsent(account.getId(), id -> balanceUpdater.currentMoney(account).minorUnits())
+                    : 0;
+            long outstanding = Money.toMinorUnits(loan.getOutstandingBalance(), currency);
+
+            long principal = 0;
+            long interest = 0;
+            int next = loan.getNextInstallment();
+            while (next <= schedule.size() && outstanding > principal) {
+                Installment installment = schedule.installment(next);
+                if (installment.dueDate().isAfter(today)) {
+                    break;
+                }
+                // Spłaty ręczne zmniejszają zaległość - kapitał raty nie może jej przekroczyć
+                long installmentPrincipal = Math.min(installment.principalMinor(), outstanding - principal);
+                long total = installmentPrincipal + installment.interestMinor();
+                if (total > funds) {
+                    break;
+                }
+                funds -= total;
+                principal += installmentPrincipal;
+                interest += installment.interestMinor();
+                next++;
+                installments++;
+            }
+
+            if (principal + interest > 0) {
+                if (principal > 0) {
+                    collections.add(collection(account, principal, Transaction.TransactionType.LOAN_REPAYMENT,
+                            "Principal of installments " + loan.getNextInstallment() + "-" + (next - 1) + " of the loan "
+                                    + loan.getLoanNumber() + ".", now));
+                }
+                if (interest > 0) {
+                    collections.add(collection(account, interest, Transaction.TransactionType.LOAN_INTEREST,
+                            "Interest of installments " + loan.getNextInstallment() + "-" + (next - 1) + " of the loan "
+                                    + loan.getLoanNumber() + ".", now));
+                }
+                available.put(account.getId(), funds);
+                debits.merge(account.getId(), -(principal + interest), Math::addExact);
+                loan.setOutstandingBalance(Money.toBigDecimal(outstanding - principal, currency));
+                loan.setNextInstallment(next);
+            }
+
+            if (outstanding - principal == 0 || next > schedule.size()) {
+                loan.setStatus(Loan.LoanStatus.PAID_OFF);
+                loan.setNextDueDate(null);
+            } else {
+                loan.setNextDueDate(schedule.installment(next).dueDate());
+                if (loan.getNextDueDate().plusDays(properties.getDefaultAfterDays()).isBefore(today)) {
+                    loan.setStatus(Loan.LoanStatus.DEFAULTED);
+                    defaulted++;
+                }
+            }
+        }
+
+        List<BalanceLeg> legs = new ArrayList<>(debits.size());
+        debits.forEach((accountId, debit) -> {
+            BankAccount account = accountsById.get(accountId);
+            legs.add(new BalanceLeg(account, debit, "Niewystarczające środki na koncie " + account.getAccountNumber() + "."));
+        });
+        transactionService.completeAll(collections, legs); // Zmiany pożyczek zapisywane przy flush, w tej samej transakcji
+        return new CollectionChunk(loans.size(), loans.get(loans.size() - 1).getId(), installments, defaulted);
+    }
+
+    private Transaction collection(BankAccount account, long amountMinor, Transaction.TransactionType type, String description,
+                                   LocalDateTime now) {
+        return Transaction.builder()
+                .transactionRef(idGenerator.nextRef("TRN-"))
+                .sourceAccount(account)
+                .amount(Money.toBigDecimal(amountMinor, account.getCurrency()))
+                .currency(account.getCurrency())
+                .type(type)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .description(description)
+                .transactionDate(now)
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Settings of the daily loan installment collection.
+ * Automatically bound from banking.loan-collection.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.loan-collection")
+@Validated
+@Getter
+@Setter
+public class LoanCollectionProperties {
+
+    /**
+     * Whether due installments are collected on schedule.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression of the daily collection run.
+     */
+    private String cron = "0 15 0 * * *";
+
+    /**
+     * Number of partitions by linked account ID; all loans of one account fall into one partition, so
+     * partitions never compete for the same customer balance.
+     */
+    @Min(1) // Zapytanie dzieli pożyczki przez MOD(account_id, partitions)
+    private int partitions = 16;
+
+    /**
+     * Number of partitions collected in parallel; each holds a pooled connection while it runs.
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Loans collected per database transaction.
+     */
+    @Min(1)
+    private int chunkSize = 500;
+
+    /**
+     * Days an installment may stay unpaid before the loan is marked DEFAULTED.
+     */
+    private int defaultAfterDays = 90;
+}
@@ -0,0 +1,29 @@
+package com.milosz.podsiadly.domain.bank.mapper;
+
+import com.milosz.podsiadly.domain.bank.dto.AccountDto;
+import com.milosz.podsiadly.domain.bank.dto.AccountProjectionStatusDto;
+import com.milosz.podsiadly.domain.bank.dto.DailyTurnoverDto;
+import com.milosz.podsiadly.domain.bank.model.AccountDailyTurnover;
+import com.milosz.podsiadly.domain.bank.model.AccountProjection;
+import com.milosz.podsiadly.domain.bank.model.AccountProjectionState;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface AccountProjectionMapper {
+
+    @Mapping(source = "accountId", target = "id")
+    @Mapping(source = "accountCreatedAt", target = "createdAt")
+    @Mapping(source = "accountUpdatedAt", target = "updatedAt")
+    AccountDto toAccountDto(AccountProjection projection);
+
+    List<AccountDto> toAccountDtoList(List<AccountProjection> projections);
+
+    DailyTurnoverDto toDto(AccountDailyTurnover turnover);
+
+    List<DailyTurnoverDto> toDtoList(List<AccountDailyTurnover> turnover);
+
+    AccountProjectionStatusDto toDto(AccountProjectionState state);
+}
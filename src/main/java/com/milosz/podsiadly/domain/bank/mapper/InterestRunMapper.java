@@ -0,0 +1,15 @@
+package com.milosz.podsiadly.domain.bank.mapper;
+
+import com.milosz.podsiadly.domain.bank.dto.InterestRunDto;
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface InterestRunMapper {
+
+    InterestRunDto toDto(InterestRun run);
+
+    List<InterestRunDto> toDtoList(List<InterestRun> runs);
+}
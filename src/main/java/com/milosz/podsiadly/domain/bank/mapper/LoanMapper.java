@@ -22,6 +22,8 @@ public interface LoanMapper {
     @Mapping(target = "outstandingBalance", ignore = true) // Ustawiane w serwisie
     @Mapping(target = "startDate", ignore = true) // Ustawiane w serwisie
     @Mapping(target = "endDate", ignore = true) // Ustawiane w serwisie
+    @Mapping(target = "nextInstallment", ignore = true) // Ustawiane w serwisie z harmonogramu
+    @Mapping(target = "nextDueDate", ignore = true) // Ustawiane w serwisie z harmonogramu
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "account", ignore = true) // Konto będzie ustawione ręcznie w serwisie
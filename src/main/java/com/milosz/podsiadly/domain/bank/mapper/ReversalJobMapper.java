@@ -0,0 +1,21 @@
+package com.milosz.podsiadly.domain.bank.mapper;
+
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobDto;
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobSkipDto;
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.model.ReversalJobSkip;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ReversalJobMapper {
+
+    ReversalJobDto toDto(ReversalJob job);
+
+    List<ReversalJobDto> toDtoList(List<ReversalJob> jobs);
+
+    ReversalJobSkipDto toDto(ReversalJobSkip skip);
+
+    List<ReversalJobSkipDto> toSkipDtoList(List<ReversalJobSkip> skips);
+}
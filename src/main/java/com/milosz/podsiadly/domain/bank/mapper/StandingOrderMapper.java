@@ -0,0 +1,15 @@
+package com.milosz.podsiadly.domain.bank.mapper;
+
+import com.milosz.podsiadly.domain.bank.dto.StandingOrderDto;
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface StandingOrderMapper {
+
+    StandingOrderDto toDto(StandingOrder standingOrder);
+
+    List<StandingOrderDto> toDtoList(List<StandingOrder> standingOrders);
+}
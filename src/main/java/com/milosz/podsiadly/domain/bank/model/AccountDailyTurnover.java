@@ -0,0 +1,54 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Debit and credit totals of completed transactions of an account on one day.
+ * Each row is recomputed as a whole from the transactions table, never incremented,
+ * so replaying an event or rebuilding the projection cannot count a transaction twice.
+ */
+@Entity
+@Table(name = "account_daily_turnover")
+@IdClass(AccountDailyTurnover.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountDailyTurnover {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Column(name = "turnover_date")
+    private LocalDate turnoverDate;
+
+    @Column(nullable = false)
+    private BigDecimal debitTotal;
+
+    @Column(nullable = false)
+    private BigDecimal creditTotal;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    private LocalDateTime lastActivityAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long accountId;
+        private LocalDate turnoverDate;
+    }
+}
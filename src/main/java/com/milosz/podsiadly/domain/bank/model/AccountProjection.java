@@ -0,0 +1,63 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read view of a bank account built from completed transactions by the account projector.
+ * The balance is the sum of {@link AccountDailyTurnover} rows of the account, so it only reflects
+ * balance changes recorded as transactions (not manual overwrites of bank_accounts.balance).
+ */
+@Entity
+@Table(name = "account_projections", indexes = {
+        @Index(name = "idx_account_projections_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountProjection {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId; // ID konta z bank_accounts - projekcja nie ma własnego klucza
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BankAccount.AccountStatus status;
+
+    @Column(name = "bank_id", nullable = false)
+    private Long bankId;
+
+    private String bankName;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private long transactionCount; // Liczba ruchów (przelew na własne konto to dwa ruchy)
+
+    private LocalDateTime lastActivityAt;
+
+    private LocalDateTime accountCreatedAt;
+
+    private LocalDateTime accountUpdatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime projectedAt; // Czas ostatniego przeliczenia wiersza
+}
@@ -0,0 +1,41 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-row state of the account projection: whether it has been fully built and which rebuild is running.
+ * The row is claimed with a conditional update, so only one instance rebuilds at a time.
+ */
+@Entity
+@Table(name = "account_projection_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AccountProjectionState {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RebuildStatus status;
+
+    private LocalDateTime rebuildStartedAt;
+
+    private LocalDateTime rebuiltAt; // Koniec ostatniej udanej przebudowy; null = projekcja nigdy nie była zbudowana
+
+    private String lastError;
+
+    public enum RebuildStatus {
+        EMPTY, REBUILDING, READY, FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Single-row state of the daily balance snapshots: the last day that has been closed.
+ * Advanced for every closed day, including days without any completed transaction,
+ * so the next run resumes after it regardless of which days produced snapshots.
+ */
+@Entity
+@Table(name = "balance_snapshot_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshotState {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate closedUntil; // Ostatni zamknięty dzień - migawki dni po nim jeszcze nie istnieją
+}
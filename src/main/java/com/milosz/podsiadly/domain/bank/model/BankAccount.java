@@ -2,6 +2,7 @@ package com.milosz.podsiadly.domain.bank.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Getter
 @Builder
+@DynamicUpdate // Aktualizuje tylko zmienione kolumny, aby nie nadpisywać salda prowadzonego przez BalanceUpdater
 public class BankAccount {
 
     @Id
@@ -30,6 +32,10 @@ public class BankAccount {
     @Column(nullable = false)
     private BigDecimal balance;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0") // Istniejące wiersze dostają wersję 0 przy ddl-auto update
+    private Long version; // Wersja do optymistycznej kontroli współbieżności sald
+
     @Column(nullable = false)
     private String currency; // e.g., PLN, EUR, USD
 
@@ -42,6 +48,8 @@ public class BankAccount {
 
     private LocalDateTime updatedAt;
 
+    private LocalDateTime closedAt; // Moment zamknięcia konta; null dla kont niezamkniętych
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bank_id", nullable = false)
     private Bank bank; // Owning bank
@@ -0,0 +1,40 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Closing balance of an account at the end of a day.
+ * Written only for days on which the account had completed transactions; on other days
+ * the balance equals the closing balance of the most recent earlier snapshot.
+ */
+@Entity
+@Table(name = "daily_balance_snapshots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_balance_snapshots_account_date", columnNames = {"account_id", "snapshot_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_balance_snapshots_seq_gen")
+    @SequenceGenerator(name = "daily_balance_snapshots_seq_gen", sequenceName = "daily_balance_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId; // Bez relacji - migawki czytane są wyłącznie po (konto, data)
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+
+    @Column(nullable = false)
+    private BigDecimal closingBalance;
+}
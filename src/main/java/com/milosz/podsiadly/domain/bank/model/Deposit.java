@@ -8,7 +8,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deposits")
+@Table(name = "deposits", indexes = {
+        @Index(name = "idx_deposits_status_end_date", columnList = "status, end_date, id") // Wyszukiwanie lokat do zapadnięcia
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,50 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of a money-moving request stored under its Idempotency-Key,
+ * so that a retried request is answered without processing it again.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+        @Index(name = "idx_idempotency_records_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey; // SHA-256 z zakresu (endpoint + użytkownik) i klucza z nagłówka - stała długość
+
+    @Column(nullable = false, length = 64)
+    private String requestHash; // SHA-256 treści żądania - ten sam klucz z inną treścią jest odrzucany
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IdempotencyStatus status;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody; // Odpowiedź w formacie JSON
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt; // Chwila zajęcia klucza - identyfikuje zajęcie przy zakończeniu i zwolnieniu
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum IdempotencyStatus {
+        IN_PROGRESS, COMPLETED
+    }
+}
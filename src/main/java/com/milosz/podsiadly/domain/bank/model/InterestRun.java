@@ -0,0 +1,87 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Naliczenie odsetek dziennych za jeden dzień. Konta dzielone są na przedziały ID ({@link InterestRunChunk}),
+ * a każdy przedział oznaczany jest jako wykonany w tej samej transakcji co wypłata odsetek,
+ * więc przerwane naliczenie wznawia się od niewykonanych przedziałów, bez podwójnych wypłat.
+ */
+@Entity
+@Table(name = "interest_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InterestRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interest_runs_seq_gen")
+    @SequenceGenerator(name = "interest_runs_seq_gen", sequenceName = "interest_runs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String runRef;
+
+    @Column(nullable = false, unique = true)
+    private LocalDate accrualDate; // Jedno naliczenie na dzień
+
+    @Column(nullable = false)
+    private Long rateNumerator; // Stawka dzienna = rateNumerator / rateDenominator, zapamiętana na wypadek wznowienia
+
+    @Column(nullable = false)
+    private Long rateDenominator;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private InterestRunStatus status;
+
+    @Column(nullable = false)
+    private int chunkCount;
+
+    @Column(nullable = false)
+    private int completedChunks;
+
+    @Column(nullable = false)
+    private long scannedCount; // Aktywne konta w wykonanych przedziałach
+
+    @Column(nullable = false)
+    private long creditedCount; // Konta, którym wypłacono odsetki (dodatnie saldo)
+
+    @Column(nullable = false)
+    private long processingMillis; // Łączny czas wszystkich prób - podstawa przepustowości
+
+    private String lastError;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime heartbeatAt; // Odświeżane po każdym przedziale; naliczenie RUNNING bez postępu uznawane jest za porzucone
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * @return Konta przetworzone na sekundę czasu naliczania.
+     */
+    public double getAccountsPerSecond() {
+        return processingMillis > 0 ? scannedCount * 1000.0 / processingMillis : 0.0;
+    }
+
+    public enum InterestRunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,48 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Przedział ID kont [fromAccountId, toAccountId] naliczenia odsetek, przetwarzany w jednej transakcji.
+ */
+@Entity
+@Table(name = "interest_run_chunks", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_interest_run_chunks_run_from", columnNames = {"run_id", "from_account_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InterestRunChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interest_run_chunks_seq_gen")
+    @SequenceGenerator(name = "interest_run_chunks_seq_gen", sequenceName = "interest_run_chunks_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "from_account_id", nullable = false)
+    private Long fromAccountId;
+
+    @Column(nullable = false)
+    private Long toAccountId;
+
+    @Column(nullable = false)
+    private boolean done;
+
+    @Column(nullable = false)
+    private int scannedCount;
+
+    @Column(nullable = false)
+    private int creditedCount;
+
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,78 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Account of the double-entry ledger: either the bank's view of a customer {@link BankAccount}
+ * (a liability) or one of the bank-owned internal accounts such as cash or loans receivable.
+ */
+@Entity
+@Table(name = "ledger_accounts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerAccount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_accounts_seq_gen")
+    @SequenceGenerator(name = "ledger_accounts_seq_gen", sequenceName = "ledger_accounts_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String code; // Np. CUST:42 albo BANK:1:CASH:PLN
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LedgerAccountType type;
+
+    @Column(nullable = false)
+    private String currency;
+
+    private Long bankId; // Bank będący właścicielem konta wewnętrznego lub prowadzący konto klienta
+
+    @Column(unique = true)
+    private Long bankAccountId; // Tylko dla kont klientów
+
+    @Column(nullable = false)
+    private Integer balanceSlots; // Liczba wierszy ledger_balances, na które rozkładane są aktualizacje
+
+    public enum LedgerAccountType {
+        ASSET, LIABILITY, INCOME, EXPENSE;
+
+        /**
+         * @return Saldo po stronie normalnej konta: Wn - Ma dla aktywów i kosztów, Ma - Wn dla pasywów i przychodów.
+         */
+        public BigDecimal balance(BigDecimal debitTotal, BigDecimal creditTotal) {
+            return this == ASSET || this == EXPENSE ? debitTotal.subtract(creditTotal) : creditTotal.subtract(debitTotal);
+        }
+    }
+
+    /**
+     * Bank-owned accounts used as counterparties of customer postings.
+     */
+    public enum InternalAccount {
+        CASH(LedgerAccountType.ASSET),
+        LOANS_RECEIVABLE(LedgerAccountType.ASSET),
+        TERM_DEPOSITS(LedgerAccountType.LIABILITY),
+        INTEREST_EXPENSE(LedgerAccountType.EXPENSE),
+        INTEREST_INCOME(LedgerAccountType.INCOME),
+        FEE_INCOME(LedgerAccountType.INCOME);
+
+        private final LedgerAccountType type;
+
+        InternalAccount(LedgerAccountType type) {
+            this.type = type;
+        }
+
+        public LedgerAccountType getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized debit and credit totals of a {@link LedgerAccount}, updated incrementally with every posting.
+ * Busy internal accounts spread their updates over several slots so that concurrent transactions
+ * do not queue on one row lock; the balance of an account is the sum of its slots.
+ */
+@Entity
+@Table(name = "ledger_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ledger_balances_account_slot", columnNames = {"ledger_account_id", "slot"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_balances_seq_gen")
+    @SequenceGenerator(name = "ledger_balances_seq_gen", sequenceName = "ledger_balances_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "ledger_account_id", nullable = false)
+    private Long ledgerAccountId;
+
+    @Column(nullable = false)
+    private Integer slot;
+
+    @Column(nullable = false)
+    private BigDecimal debitTotal;
+
+    @Column(nullable = false)
+    private BigDecimal creditTotal;
+
+    @Column(nullable = false)
+    private Long postingCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -9,7 +9,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+        @Index(name = "idx_loans_status_next_due_date", columnList = "status, next_due_date") // Wyszukiwanie wymagalnych rat
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -45,6 +47,10 @@ public class Loan {
 
     private LocalDate endDate;
 
+    private Integer nextInstallment; // Numer najbliższej niespłaconej raty z harmonogramu (LoanSchedule)
+
+    private LocalDate nextDueDate; // Termin płatności najbliższej raty; null - pożyczka bez harmonogramu
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private LoanStatus status;
@@ -0,0 +1,31 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Amortization schedule of a loan, stored as one compact row per loan instead of one row per installment.
+ * The installments are encoded by {@link com.milosz.podsiadly.domain.bank.loan.AmortizationSchedule};
+ * due dates follow from {@link Loan#getStartDate()}.
+ */
+@Entity
+@Table(name = "loan_schedules")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanSchedule {
+
+    @Id
+    @Column(name = "loan_id")
+    private Long loanId; // ID pożyczki z loans - harmonogram nie ma własnego klucza
+
+    @Column(nullable = false)
+    private Integer installmentCount;
+
+    @Column(nullable = false)
+    private byte[] installments; // AmortizationSchedule.encode()
+}
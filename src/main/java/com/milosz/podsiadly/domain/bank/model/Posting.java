@@ -0,0 +1,54 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One side of a double-entry posting. Every {@link Transaction} produces a debit and a credit
+ * of the same amount; rows are only ever inserted.
+ */
+@Entity
+@Table(name = "postings", indexes = {
+        @Index(name = "idx_postings_ledger_account", columnList = "ledger_account_id, id"),
+        @Index(name = "idx_postings_transaction", columnList = "transaction_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Posting {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "postings_seq_gen")
+    @SequenceGenerator(name = "postings_seq_gen", sequenceName = "postings_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private Long transactionId;
+
+    @Column(name = "ledger_account_id", nullable = false, updatable = false)
+    private Long ledgerAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EntryType entryType;
+
+    @Column(nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false)
+    private String currency;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime postedAt;
+
+    public enum EntryType {
+        DEBIT, CREDIT
+    }
+}
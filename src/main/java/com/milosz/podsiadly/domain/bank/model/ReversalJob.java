@@ -0,0 +1,103 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zadanie masowego odwracania transakcji (np. wszystkich opłat z okresu awarii).
+ * Transakcje przetwarzane są paczkami w kolejności (transactionDate, id); kursor ostatniej przetworzonej
+ * transakcji i liczniki zapisywane są w tej samej transakcji bazodanowej co paczka, więc po awarii
+ * zadanie wznawia się dokładnie od ostatniej zatwierdzonej paczki.
+ */
+@Entity
+@Table(name = "reversal_jobs", indexes = {
+        @Index(name = "idx_reversal_jobs_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReversalJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reversal_jobs_seq_gen")
+    @SequenceGenerator(name = "reversal_jobs_seq_gen", sequenceName = "reversal_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String jobRef;
+
+    @Enumerated(EnumType.STRING)
+    private Transaction.TransactionType transactionType; // null = wszystkie typy, które można odwrócić
+
+    @Column(nullable = false)
+    private LocalDateTime fromDate; // Zakres [fromDate, toDate) daty transakcji
+
+    @Column(nullable = false)
+    private LocalDateTime toDate;
+
+    @Column(nullable = false)
+    private String reason;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReversalJobStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime cursorDate; // Punkt kontrolny: data i ID ostatniej przetworzonej transakcji
+
+    @Column(nullable = false)
+    private Long cursorId;
+
+    @Column(nullable = false)
+    private long scannedCount;
+
+    @Column(nullable = false)
+    private long reversedCount;
+
+    @Column(nullable = false)
+    private long skippedCount; // Pominięte - odwrócenie obciążyłoby konto ponad dostępne środki
+
+    @Column(nullable = false)
+    private long chunkCount;
+
+    @Column(nullable = false)
+    private long processingMillis; // Łączny czas przetwarzania paczek - podstawa przepustowości, bez przerw między wznowieniami
+
+    private String requestedBy;
+
+    private String lastError;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime heartbeatAt; // Ostatnia zatwierdzona paczka; zadanie RUNNING bez postępu uznawane jest za porzucone
+
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * @return Odwrócone transakcje na sekundę czasu przetwarzania.
+     */
+    public double getTransactionsPerSecond() {
+        return processingMillis > 0 ? reversedCount * 1000.0 / processingMillis : 0.0;
+    }
+
+    public enum ReversalJobStatus {
+        PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+}
@@ -0,0 +1,35 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transakcja pominięta przez zadanie odwracania; pozostaje w statusie COMPLETED i może zostać odwrócona kolejnym zadaniem.
+ */
+@Entity
+@Table(name = "reversal_job_skips", indexes = {
+        @Index(name = "idx_reversal_job_skips_job", columnList = "job_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReversalJobSkip {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reversal_job_skips_seq_gen")
+    @SequenceGenerator(name = "reversal_job_skips_seq_gen", sequenceName = "reversal_job_skips_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(nullable = false)
+    private Long transactionId;
+
+    @Column(nullable = false)
+    private String reason;
+}
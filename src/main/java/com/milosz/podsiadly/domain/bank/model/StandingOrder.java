@@ -0,0 +1,114 @@
+package com.milosz.podsiadly.domain.bank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Zlecenie stałe lub przelew z odroczoną datą wykonania (częstotliwość ONCE).
+ * Kolejny termin liczony jest zawsze od startAt i numeru wystąpienia, więc zlecenie miesięczne
+ * na 31. dzień nie "przesuwa się" po krótszych miesiącach.
+ */
+@Entity
+@Table(name = "standing_orders", indexes = {
+        @Index(name = "idx_standing_orders_due", columnList = "status, next_execution_at"),
+        @Index(name = "idx_standing_orders_source_account", columnList = "source_account_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "standing_orders_seq_gen")
+    @SequenceGenerator(name = "standing_orders_seq_gen", sequenceName = "standing_orders_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String orderRef;
+
+    @Column(name = "source_account_id", nullable = false)
+    private Long sourceAccountId;
+
+    @Column(nullable = false)
+    private String targetAccountNumber;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private String currency;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frequency frequency;
+
+    @Column(nullable = false)
+    private LocalDateTime startAt; // Termin pierwszego wykonania - kotwica dla kolejnych terminów
+
+    private LocalDate endDate; // Ostatni dzień, w którym zlecenie może się wykonać (null = bezterminowo)
+
+    @Column(nullable = false)
+    private Integer occurrence; // Numer bieżącego wystąpienia (0 = pierwsze)
+
+    @Column(name = "next_execution_at", nullable = false)
+    private LocalDateTime nextExecutionAt; // Termin bieżącego wystąpienia lub ponowienia po błędzie
+
+    @Column(nullable = false)
+    private Integer failedAttempts; // Nieudane próby bieżącego wystąpienia
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StandingOrderStatus status;
+
+    private Long lastTransactionId;
+
+    private String lastFailureReason;
+
+    private LocalDateTime lastAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public enum Frequency {
+        ONCE, DAILY, WEEKLY, MONTHLY;
+
+        /**
+         * @return Termin wystąpienia o podanym numerze albo null, jeśli zlecenie jednorazowe już się wykonało.
+         */
+        public LocalDateTime occurrenceAt(LocalDateTime startAt, int occurrence) {
+            return switch (this) {
+                case ONCE -> occurrence == 0 ? startAt : null;
+                case DAILY -> startAt.plusDays(occurrence);
+                case WEEKLY -> startAt.plusWeeks(occurrence);
+                case MONTHLY -> startAt.plusMonths(occurrence);
+            };
+        }
+    }
+
+    public enum StandingOrderStatus {
+        ACTIVE, COMPLETED, CANCELLED
+    }
+}
@@ -8,7 +8,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_transaction_ref", columnList = "transaction_ref"),
+        @Index(name = "idx_transactions_source_account_date", columnList = "source_account_id, transaction_date"),
+        @Index(name = "idx_transactions_target_account_date", columnList = "target_account_id, transaction_date"),
+        @Index(name = "idx_transactions_date", columnList = "transaction_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,8 +21,13 @@ import java.time.LocalDateTime;
 @Builder
 public class Transaction {
 
+    // Sekwencja z pulą ID (pooled-lo) - pozwala Hibernate i TransactionBatchRepository grupować INSERT-y
+    public static final String ID_SEQUENCE = "transactions_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq_gen")
+    @SequenceGenerator(name = "transactions_seq_gen", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -28,7 +38,7 @@ public class Transaction {
     private BankAccount sourceAccount;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "target_account_id", nullable = false)
+    @JoinColumn(name = "target_account_id") // Brak konta docelowego dla wypłat i opłat
     private BankAccount targetAccount;
 
     @Column(nullable = false)
@@ -47,6 +57,10 @@ public class Transaction {
 
     private String description;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reversal_of_id", unique = true) // Tylko dla REVERSAL; unikalność - najwyżej jedno odwrócenie transakcji
+    private Transaction reversalOf;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime transactionDate;
 
@@ -56,9 +70,13 @@ public class Transaction {
     }
 
     public enum TransactionType {
-        DEPOSIT, WITHDRAWAL, TRANSFER, LOAN_REPAYMENT, INTEREST_PAYOUT, FEE
+        DEPOSIT, WITHDRAWAL, TRANSFER, LOAN_REPAYMENT, INTEREST_PAYOUT, FEE,
+        LOAN_DISBURSEMENT, TERM_DEPOSIT_PLACEMENT, TERM_DEPOSIT_MATURITY,
+        LOAN_INTEREST, // Część odsetkowa raty kredytu (Ma: przychody odsetkowe); część kapitałowa to LOAN_REPAYMENT
+        REVERSAL // Transakcja kompensująca: konta i zapisy księgowe odwrotne do transakcji reversalOf
     }
 
+    // REFUNDED: transakcja zaksięgowana i odwrócona transakcją REVERSAL - nadal liczy się do obrotów i sald
     public enum TransactionStatus {
         PENDING, COMPLETED, FAILED, REFUNDED
     }
@@ -0,0 +1,48 @@
+package com.milosz.podsiadly.domain.bank.projection;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the account projection built from completed transactions.
+ * Automatically bound from banking.projection.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.projection")
+@Getter
+@Setter
+public class AccountProjectionProperties {
+
+    /**
+     * Whether this instance consumes transaction and account events into the projection.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether account reads are served from the projection once it has been fully built.
+     */
+    private boolean serveReads = true;
+
+    /**
+     * Number of account ID ranges a full rebuild is split into.
+     */
+    private int rebuildPartitions = 64;
+
+    /**
+     * Number of ranges rebuilt concurrently, each on its own database connection.
+     */
+    private int rebuildThreads = 4;
+
+    /**
+     * Transactions dated this many seconds before the start of a rebuild are recomputed again after it,
+     * covering transactions that committed while the bulk statements ran. Must exceed the longest transaction.
+     */
+    private long rebuildRepairSeconds = 300;
+
+    /**
+     * A rebuild running longer than this is considered abandoned and may be claimed by another instance, in minutes.
+     */
+    private long rebuildTimeoutMinutes = 120;
+}
@@ -0,0 +1,200 @@
+package com.milosz.podsiadly.domain.bank.projection;
+
+import com.milosz.podsiadly.domain.bank.model.AccountProjectionState;
+import com.milosz.podsiadly.domain.bank.repository.AccountDay;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionJdbcRepository;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionStateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full rebuild of the account projection from the transactions table.
+ * <p>
+ * The account ID space is split into ranges rebuilt concurrently. Each range runs two set-based statements,
+ * each committed on its own: daily turnover grouped by account and day (range scans of the account/date
+ * indexes of transactions), then projection rows summed from that turnover. Neither statement waits for
+ * a lock while holding locks of the other table, so the live {@link AccountProjector} keeps running.
+ * <p>
+ * A range statement may overwrite a row with data older than a live refresh that committed meanwhile.
+ * Such a row always belongs to a transaction dated after the rebuild started (less the repair margin),
+ * so once all ranges are done the account days of those transactions are recomputed through the projector.
+ */
+@Slf4j
+@Component
+public class AccountProjectionRebuilder {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final AccountProjectionJdbcRepository projectionJdbcRepository;
+    private final AccountProjectionStateRepository stateRepository;
+    private final AccountProjector accountProjector;
+    private final AccountProjectionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinator;
+    private volatile boolean ready;
+
+    public AccountProjectionRebuilder(AccountProjectionJdbcRepository projectionJdbcRepository,
+                                      AccountProjectionStateRepository stateRepository,
+                                      AccountProjector accountProjector,
+                                      AccountProjectionProperties properties,
+                                      PlatformTransactionManager transactionManager) {
+        this.projectionJdbcRepository = projectionJdbcRepository;
+        this.stateRepository = stateRepository;
+        this.accountProjector = accountProjector;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "account-projection-rebuild"));
+    }
+
+    /**
+     * Claims the rebuild and runs it in the background.
+     *
+     * @return State right after the claim.
+     * @throws IllegalStateException if another rebuild is running.
+     */
+    public AccountProjectionState startRebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        ensureStateRow();
+        LocalDateTime staleBefore = startedAt.minusMinutes(properties.getRebuildTimeoutMinutes());
+        AccountProjectionState claimed = transactionTemplate.execute(status ->
+                stateRepository.claimRebuild(AccountProjectionState.SINGLETON_ID, startedAt, staleBefore) == 1
+                        ? stateRepository.findById(AccountProjectionState.SINGLETON_ID).orElseThrow()
+                        : null);
+        if (claimed == null) {
+            throw new IllegalStateException("Account projection rebuild is already running.");
+        }
+        coordinator.execute(() -> rebuild(startedAt));
+        return claimed;
+    }
+
+    public AccountProjectionState state() {
+        return stateRepository.findById(AccountProjectionState.SINGLETON_ID)
+                .orElseGet(() -> AccountProjectionState.builder()
+                        .id(AccountProjectionState.SINGLETON_ID)
+                        .status(AccountProjectionState.RebuildStatus.EMPTY)
+                        .build());
+    }
+
+    /**
+     * @return true once the projection has been fully built at least once; from then on the live projector keeps it current.
+     */
+    public boolean isReady() {
+        if (!ready) {
+            ready = state().getRebuiltAt() != null; // Raz zbudowana projekcja pozostaje aktualna - wynik można zapamiętać
+        }
+        return ready;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void rebuild(LocalDateTime startedAt) {
+        try {
+            int[] totals = rebuildRanges(startedAt);
+            int repaired = repair(startedAt.minusSeconds(properties.getRebuildRepairSeconds()));
+            finish(AccountProjectionState.RebuildStatus.READY, null);
+            log.info("Account projection rebuilt in {} ms: {} accounts, {} daily turnover rows, {} accounts repaired.",
+                    Duration.between(startedAt, LocalDateTime.now()).toMillis(), totals[1], totals[0], repaired);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Account projection rebuild failed: {}", e.getMessage(), e);
+            finish(AccountProjectionState.RebuildStatus.FAILED, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private int[] rebuildRanges(LocalDateTime startedAt) throws Exception {
+        long[] idRange = projectionJdbcRepository.accountIdRange().orElse(null);
+        if (idRange == null) {
+            return new int[2];
+        }
+        List<long[]> ranges = split(idRange[0], idRange[1], Math.max(1, properties.getRebuildPartitions()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(Math.max(1, properties.getRebuildThreads()), ranges.size()),
+                runnable -> new Thread(runnable, "account-projection-rebuild-" + threadIndex.getAndIncrement()));
+        try {
+            List<Future<int[]>> futures = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                // Bez transakcji - każde polecenie zatwierdzane osobno
+                futures.add(workers.submit(() -> new int[]{
+                        projectionJdbcRepository.rebuildTurnover(range[0], range[1]),
+                        projectionJdbcRepository.rebuildProjections(range[0], range[1], startedAt)
+                }));
+            }
+            int[] totals = new int[2];
+            for (Future<int[]> future : futures) {
+                int[] counts = future.get();
+                totals[0] += counts[0];
+                totals[1] += counts[1];
+            }
+            return totals;
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private int repair(LocalDateTime since) {
+        Map<Long, List<LocalDate>> daysByAccount = new TreeMap<>();
+        for (AccountDay accountDay : projectionJdbcRepository.findAccountDaysSince(since)) {
+            daysByAccount.computeIfAbsent(accountDay.accountId(), id -> new ArrayList<>()).add(accountDay.day());
+        }
+        daysByAccount.forEach(accountProjector::refresh);
+        return daysByAccount.size();
+    }
+
+    // Równe przedziały ID - ID kont pochodzą z sekwencji, więc są gęste
+    private static List<long[]> split(long minId, long maxId, int partitions) {
+        long width = Math.max(1, (maxId - minId + partitions) / partitions);
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += width) {
+            ranges.add(new long[]{from, Math.min(maxId, from + width - 1)});
+        }
+        return ranges;
+    }
+
+    private void ensureStateRow() {
+        if (stateRepository.existsById(AccountProjectionState.SINGLETON_ID)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> stateRepository.saveAndFlush(AccountProjectionState.builder()
+                    .id(AccountProjectionState.SINGLETON_ID)
+                    .status(AccountProjectionState.RebuildStatus.EMPTY)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Account projection state row created concurrently.");
+        }
+    }
+
+    private void finish(AccountProjectionState.RebuildStatus status, String error) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            AccountProjectionState state = stateRepository.findById(AccountProjectionState.SINGLETON_ID).orElseThrow();
+            state.setStatus(status);
+            state.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (status == AccountProjectionState.RebuildStatus.READY) {
+                state.setRebuiltAt(LocalDateTime.now());
+            }
+        });
+    }
+}
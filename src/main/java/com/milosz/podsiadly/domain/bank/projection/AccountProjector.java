@@ -0,0 +1,80 @@
+package com.milosz.podsiadly.domain.bank.projection;
+
+import com.milosz.podsiadly.core.event.AccountChangedEvent;
+import com.milosz.podsiadly.core.event.TransactionCompletedEvent;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the account projection up to date from {@link TransactionCompletedEvent}s and {@link AccountChangedEvent}s.
+ * <p>
+ * An event is only a hint which account and day changed: the daily turnover of that day is recomputed from
+ * the transactions table and the balance from the turnover rows. Duplicated, reordered or replayed events
+ * therefore leave the projection unchanged, and so does an event for a transaction already included by a rebuild.
+ * The projection row is locked first, so concurrent refreshes of one account are serialized and the last one
+ * always reads the newest committed transactions.
+ */
+@Slf4j
+@Component
+public class AccountProjector {
+
+    private final AccountProjectionJdbcRepository projectionJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public AccountProjector(AccountProjectionJdbcRepository projectionJdbcRepository, PlatformTransactionManager transactionManager) {
+        this.projectionJdbcRepository = projectionJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void project(TransactionCompletedEvent event) {
+        LocalDate day = (event.getCompletedAt() != null ? event.getCompletedAt() : LocalDateTime.now()).toLocalDate();
+        if (event.getAccountId() != null) {
+            refresh(event.getAccountId(), List.of(day)); // Zdarzenie jednej strony transakcji
+            return;
+        }
+        // Osobna transakcja na konto - blokowany jest zawsze tylko jeden wiersz, bez ryzyka zakleszczeń
+        Stream.of(event.getSourceAccountId(), event.getTargetAccountId())
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(accountId -> refresh(accountId, List.of(day)));
+    }
+
+    public void project(AccountChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (event.getChangeType() == AccountChangedEvent.ChangeType.DELETED) {
+                projectionJdbcRepository.delete(event.getAccountId());
+            } else if (projectionJdbcRepository.insertMissingAndLock(event.getAccountId(), now)) {
+                projectionJdbcRepository.refreshMetadata(event.getAccountId(), now);
+            }
+        });
+    }
+
+    /**
+     * Recomputes the given days of the account's turnover and its balance.
+     *
+     * @param accountId ID of the account.
+     * @param days      Days whose transactions changed.
+     */
+    public void refresh(Long accountId, Collection<LocalDate> days) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!projectionJdbcRepository.insertMissingAndLock(accountId, now)) {
+                log.debug("Account {} no longer exists, skipping projection.", accountId);
+                return;
+            }
+            days.forEach(day -> projectionJdbcRepository.refreshTurnover(accountId, day));
+            projectionJdbcRepository.refreshBalance(accountId, now);
+        });
+    }
+}
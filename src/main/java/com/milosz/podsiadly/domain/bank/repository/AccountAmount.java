@@ -0,0 +1,9 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Sum of transaction amounts for one account, as returned by grouped JPQL queries.
+ */
+public record AccountAmount(Long accountId, BigDecimal amount) {
+}
@@ -0,0 +1,14 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.AccountDailyTurnover;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccountDailyTurnoverRepository extends JpaRepository<AccountDailyTurnover, AccountDailyTurnover.Key> {
+
+    List<AccountDailyTurnover> findByAccountIdAndTurnoverDateBetweenOrderByTurnoverDateAsc(Long accountId, LocalDate from, LocalDate to);
+}
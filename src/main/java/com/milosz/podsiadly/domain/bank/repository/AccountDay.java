@@ -0,0 +1,9 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Account and day with at least one transaction, used to recompute daily turnover.
+ */
+public record AccountDay(Long accountId, LocalDate day) {
+}
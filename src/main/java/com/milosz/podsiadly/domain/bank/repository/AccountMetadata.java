@@ -0,0 +1,10 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+
+/**
+ * Account attributes that change rarely (no balance), as kept by the account metadata cache.
+ */
+public record AccountMetadata(Long id, String accountNumber, String currency, BankAccount.AccountStatus status,
+                              Long bankId, Long userId) {
+}
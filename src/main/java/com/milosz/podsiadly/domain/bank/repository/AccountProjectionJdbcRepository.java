@@ -0,0 +1,199 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.AccountDailyTurnover;
+import com.milosz.podsiadly.domain.bank.model.AccountProjection;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based SQL maintaining {@link AccountProjection} and {@link AccountDailyTurnover}. Upserts use standard MERGE,
+ * so the same statements run on PostgreSQL (15+) and on the H2 database of the test profile.
+ * Every statement recomputes rows from the transactions table instead of adding deltas, so it is idempotent
+ * and may run again for the same account and day at any time.
+ */
+@Repository
+public class AccountProjectionJdbcRepository {
+
+    // Transakcje odwrócone nadal się liczą - odwrócenie jest osobną transakcją REVERSAL
+    private static final String COMPLETED = Transaction.TransactionStatus.COMPLETED.name();
+    private static final String REFUNDED = Transaction.TransactionStatus.REFUNDED.name();
+
+    private static final String PROJECTION_COLUMNS =
+            "account_id, user_id, account_number, currency, status, bank_id, bank_name, balance, transaction_count, " +
+                    "last_activity_at, account_created_at, account_updated_at, projected_at";
+
+    private static final String ACCOUNT_SOURCE =
+            "SELECT a.id AS account_id, a.user_id, a.account_number, a.currency, a.status, a.bank_id, b.name AS bank_name, " +
+                    "a.created_at, a.updated_at FROM bank_accounts a JOIN banks b ON b.id = a.bank_id";
+
+    // Źródło MERGE musi mieć kolumny account_id, turnover_date, debit_total, credit_total, transaction_count, last_activity_at
+    private static final String TURNOVER_MERGE =
+            ") s ON (d.account_id = s.account_id AND d.turnover_date = s.turnover_date) " +
+                    "WHEN MATCHED THEN UPDATE SET debit_total = s.debit_total, credit_total = s.credit_total, " +
+                    "transaction_count = s.transaction_count, last_activity_at = s.last_activity_at " +
+                    "WHEN NOT MATCHED THEN INSERT (account_id, turnover_date, debit_total, credit_total, transaction_count, last_activity_at) " +
+                    "VALUES (s.account_id, s.turnover_date, s.debit_total, s.credit_total, s.transaction_count, s.last_activity_at)";
+
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO account_projections (" + PROJECTION_COLUMNS + ") " +
+                    "SELECT a.id, a.user_id, a.account_number, a.currency, a.status, a.bank_id, b.name, 0, 0, NULL, " +
+                    "a.created_at, a.updated_at, ? FROM bank_accounts a JOIN banks b ON b.id = a.bank_id WHERE a.id = ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM account_projections p WHERE p.account_id = a.id)";
+
+    private static final String LOCK_SQL =
+            "SELECT account_id FROM account_projections WHERE account_id = ? FOR UPDATE";
+
+    // Obie nogi po idx_transactions_source_account_date / idx_transactions_target_account_date
+    private static final String REFRESH_TURNOVER_SQL =
+            "MERGE INTO account_daily_turnover d USING (" +
+                    "SELECT CAST(? AS BIGINT) AS account_id, CAST(? AS DATE) AS turnover_date, COALESCE(SUM(l.debit), 0) AS debit_total, " +
+                    "COALESCE(SUM(l.credit), 0) AS credit_total, COUNT(*) AS transaction_count, MAX(l.transaction_date) AS last_activity_at FROM (" +
+                    "SELECT t.amount AS debit, 0 AS credit, t.transaction_date FROM transactions t " +
+                    "WHERE t.source_account_id = ? AND t.transaction_date >= ? AND t.transaction_date < ? AND t.status IN (?, ?) " +
+                    "UNION ALL " +
+                    "SELECT 0, t.amount, t.transaction_date FROM transactions t " +
+                    "WHERE t.target_account_id = ? AND t.transaction_date >= ? AND t.transaction_date < ? AND t.status IN (?, ?)" +
+                    ") l HAVING COUNT(*) > 0" + TURNOVER_MERGE;
+
+    private static final String REFRESH_BALANCE_SQL =
+            "UPDATE account_projections SET (balance, transaction_count, last_activity_at) = (" +
+                    "SELECT COALESCE(SUM(d.credit_total - d.debit_total), 0), COALESCE(SUM(d.transaction_count), 0), MAX(d.last_activity_at) " +
+                    "FROM account_daily_turnover d WHERE d.account_id = ?), projected_at = ? WHERE account_id = ?";
+
+    private static final String REFRESH_METADATA_SQL =
+            "MERGE INTO account_projections p USING (" + ACCOUNT_SOURCE + " WHERE a.id = ?) s ON (p.account_id = s.account_id) " +
+                    "WHEN MATCHED THEN UPDATE SET user_id = s.user_id, account_number = s.account_number, currency = s.currency, " +
+                    "status = s.status, bank_id = s.bank_id, bank_name = s.bank_name, account_created_at = s.created_at, " +
+                    "account_updated_at = s.updated_at, projected_at = ?";
+
+    private static final String BULK_TURNOVER_SQL =
+            "MERGE INTO account_daily_turnover d USING (" +
+                    "SELECT l.account_id AS account_id, CAST(l.transaction_date AS DATE) AS turnover_date, SUM(l.debit) AS debit_total, " +
+                    "SUM(l.credit) AS credit_total, COUNT(*) AS transaction_count, MAX(l.transaction_date) AS last_activity_at FROM (" +
+                    "SELECT t.source_account_id AS account_id, t.transaction_date, t.amount AS debit, 0 AS credit FROM transactions t " +
+                    "WHERE t.source_account_id BETWEEN ? AND ? AND t.status IN (?, ?) " +
+                    "UNION ALL " +
+                    "SELECT t.target_account_id, t.transaction_date, 0, t.amount FROM transactions t " +
+                    "WHERE t.target_account_id BETWEEN ? AND ? AND t.status IN (?, ?)" +
+                    ") l GROUP BY l.account_id, CAST(l.transaction_date AS DATE)" + TURNOVER_MERGE;
+
+    private static final String BULK_PROJECTION_SQL =
+            "MERGE INTO account_projections p USING (" +
+                    "SELECT a.account_id, a.user_id, a.account_number, a.currency, a.status, a.bank_id, a.bank_name, " +
+                    "COALESCE(s.balance, 0) AS balance, COALESCE(s.transaction_count, 0) AS transaction_count, s.last_activity_at, " +
+                    "a.created_at, a.updated_at, CAST(? AS TIMESTAMP) AS projected_at FROM (" + ACCOUNT_SOURCE + ") a LEFT JOIN (" +
+                    "SELECT account_id, SUM(credit_total - debit_total) AS balance, SUM(transaction_count) AS transaction_count, " +
+                    "MAX(last_activity_at) AS last_activity_at FROM account_daily_turnover WHERE account_id BETWEEN ? AND ? " +
+                    "GROUP BY account_id) s ON s.account_id = a.account_id WHERE a.account_id BETWEEN ? AND ?" +
+                    ") n ON (p.account_id = n.account_id) " +
+                    "WHEN MATCHED THEN UPDATE SET user_id = n.user_id, account_number = n.account_number, currency = n.currency, " +
+                    "status = n.status, bank_id = n.bank_id, bank_name = n.bank_name, balance = n.balance, " +
+                    "transaction_count = n.transaction_count, last_activity_at = n.last_activity_at, " +
+                    "account_created_at = n.created_at, account_updated_at = n.updated_at, projected_at = n.projected_at " +
+                    "WHEN NOT MATCHED THEN INSERT (" + PROJECTION_COLUMNS + ") VALUES (n.account_id, n.user_id, n.account_number, " +
+                    "n.currency, n.status, n.bank_id, n.bank_name, n.balance, n.transaction_count, n.last_activity_at, " +
+                    "n.created_at, n.updated_at, n.projected_at)";
+
+    private static final String DELETE_ORPHANED_PROJECTIONS_SQL =
+            "DELETE FROM account_projections p WHERE p.account_id BETWEEN ? AND ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM bank_accounts a WHERE a.id = p.account_id)";
+
+    private static final String DELETE_ORPHANED_TURNOVER_SQL =
+            "DELETE FROM account_daily_turnover d WHERE d.account_id BETWEEN ? AND ? " +
+                    "AND NOT EXISTS (SELECT 1 FROM bank_accounts a WHERE a.id = d.account_id)";
+
+    // Zakres po idx_transactions_date - przy naprawie po przebudowie to tylko ostatnie minuty
+    private static final String ACCOUNT_DAYS_SINCE_SQL =
+            "SELECT DISTINCT l.account_id, CAST(l.transaction_date AS DATE) AS turnover_date FROM (" +
+                    "SELECT t.source_account_id AS account_id, t.transaction_date FROM transactions t " +
+                    "WHERE t.transaction_date >= ? AND t.source_account_id IS NOT NULL " +
+                    "UNION ALL " +
+                    "SELECT t.target_account_id, t.transaction_date FROM transactions t " +
+                    "WHERE t.transaction_date >= ? AND t.target_account_id IS NOT NULL" +
+                    ") l";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountProjectionJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts an empty projection row for the account unless it exists, then locks the row until the end
+     * of the current transaction.
+     *
+     * @return false if the account no longer exists in bank_accounts.
+     */
+    public boolean insertMissingAndLock(Long accountId, LocalDateTime now) {
+        jdbcTemplate.update(INSERT_MISSING_SQL, Timestamp.valueOf(now), accountId);
+        return !jdbcTemplate.queryForList(LOCK_SQL, Long.class, accountId).isEmpty();
+    }
+
+    public void refreshTurnover(Long accountId, LocalDate day) {
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbcTemplate.update(REFRESH_TURNOVER_SQL, accountId, Date.valueOf(day),
+                accountId, from, to, COMPLETED, REFUNDED,
+                accountId, from, to, COMPLETED, REFUNDED);
+    }
+
+    public void refreshBalance(Long accountId, LocalDateTime now) {
+        jdbcTemplate.update(REFRESH_BALANCE_SQL, accountId, Timestamp.valueOf(now), accountId);
+    }
+
+    public void refreshMetadata(Long accountId, LocalDateTime now) {
+        jdbcTemplate.update(REFRESH_METADATA_SQL, accountId, Timestamp.valueOf(now));
+    }
+
+    public void delete(Long accountId) {
+        // Najpierw wiersz projekcji - ta sama kolejność blokad co przy odświeżaniu
+        jdbcTemplate.update("DELETE FROM account_projections WHERE account_id = ?", accountId);
+        jdbcTemplate.update("DELETE FROM account_daily_turnover WHERE account_id = ?", accountId);
+    }
+
+    /**
+     * Recomputes the daily turnover of all accounts with IDs in [fromId, toId].
+     *
+     * @return Number of turnover rows written.
+     */
+    public int rebuildTurnover(long fromId, long toId) {
+        return jdbcTemplate.update(BULK_TURNOVER_SQL, fromId, toId, COMPLETED, REFUNDED, fromId, toId, COMPLETED, REFUNDED);
+    }
+
+    /**
+     * Recomputes the projection rows of all accounts with IDs in [fromId, toId] from their daily turnover
+     * and removes rows of deleted accounts.
+     *
+     * @return Number of projection rows written.
+     */
+    public int rebuildProjections(long fromId, long toId, LocalDateTime now) {
+        jdbcTemplate.update(DELETE_ORPHANED_TURNOVER_SQL, fromId, toId);
+        jdbcTemplate.update(DELETE_ORPHANED_PROJECTIONS_SQL, fromId, toId);
+        return jdbcTemplate.update(BULK_PROJECTION_SQL, Timestamp.valueOf(now), fromId, toId, fromId, toId);
+    }
+
+    /**
+     * @return Smallest and largest bank account ID, empty if there are no accounts.
+     */
+    public Optional<long[]> accountIdRange() {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM bank_accounts", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? Optional.empty() : Optional.of(new long[]{min, rs.getLong(2)});
+        });
+    }
+
+    public List<AccountDay> findAccountDaysSince(LocalDateTime from) {
+        Timestamp since = Timestamp.valueOf(from);
+        return jdbcTemplate.query(ACCOUNT_DAYS_SINCE_SQL,
+                (rs, rowNum) -> new AccountDay(rs.getLong(1), rs.getDate(2).toLocalDate()), since, since);
+    }
+}
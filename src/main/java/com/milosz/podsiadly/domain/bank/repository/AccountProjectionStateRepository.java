@@ -0,0 +1,22 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.AccountProjectionState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AccountProjectionStateRepository extends JpaRepository<AccountProjectionState, Long> {
+
+    // Przejęcie przebudowy; trwająca dłużej niż staleBefore uznawana jest za przerwaną (np. restart węzła)
+    @Modifying
+    @Query("UPDATE AccountProjectionState s SET s.status = com.milosz.podsiadly.domain.bank.model.AccountProjectionState.RebuildStatus.REBUILDING, " +
+            "s.rebuildStartedAt = :now, s.lastError = NULL WHERE s.id = :id " +
+            "AND (s.status <> com.milosz.podsiadly.domain.bank.model.AccountProjectionState.RebuildStatus.REBUILDING " +
+            "OR s.rebuildStartedAt < :staleBefore)")
+    int claimRebuild(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+}
@@ -0,0 +1,9 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.BalanceSnapshotState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceSnapshotStateRepository extends JpaRepository<BalanceSnapshotState, Long> {
+}
@@ -1,17 +1,56 @@
 package com.milosz.podsiadly.domain.bank.repository;
 
+import com.milosz.podsiadly.domain.bank.balance.AccountBalanceSnapshot;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
     Optional<BankAccount> findByAccountNumber(String accountNumber);
+    List<BankAccount> findByAccountNumberIn(Collection<String> accountNumbers);
     List<BankAccount> findByUserId(Long userId);
     List<BankAccount> findByBankId(Long bankId);
     List<BankAccount> findByStatus(BankAccount.AccountStatus status);
+    List<BankAccount> findByStatusAndIdBetweenOrderByIdAsc(BankAccount.AccountStatus status, Long fromId, Long toId);
+
+    // Konta istniejące w okresie niezależnie od obecnego statusu; zamknięte przed bazą z closed_at mają tylko updated_at
+    @Query("SELECT a FROM BankAccount a WHERE a.id > :afterId AND a.createdAt < :periodEnd " +
+            "AND (a.status <> com.milosz.podsiadly.domain.bank.model.BankAccount.AccountStatus.CLOSED " +
+            "OR COALESCE(a.closedAt, a.updatedAt) >= :periodStart) ORDER BY a.id")
+    List<BankAccount> findOpenInPeriodAfterId(@Param("afterId") Long afterId, @Param("periodStart") LocalDateTime periodStart,
+                                              @Param("periodEnd") LocalDateTime periodEnd, Pageable limit);
+
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.balance.AccountBalanceSnapshot(a.id, a.balance, a.version) " +
+            "FROM BankAccount a WHERE a.id = :id")
+    Optional<AccountBalanceSnapshot> findBalanceSnapshot(@Param("id") Long id);
+
+    // Metadane konta dla AccountMetadataCache - bez salda i bez ładowania encji
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.AccountMetadata(a.id, a.accountNumber, a.currency, a.status, a.bank.id, a.userId) " +
+            "FROM BankAccount a WHERE a.id = :id")
+    Optional<AccountMetadata> findMetadataById(@Param("id") Long id);
+
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.AccountMetadata(a.id, a.accountNumber, a.currency, a.status, a.bank.id, a.userId) " +
+            "FROM BankAccount a WHERE a.accountNumber = :accountNumber")
+    Optional<AccountMetadata> findMetadataByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Compare-and-set salda: aktualizuje wiersz tylko wtedy, gdy wersja nie zmieniła się od odczytu
+    @Modifying
+    @Query("UPDATE BankAccount a SET a.balance = :balance, a.version = a.version + 1, a.updatedAt = :updatedAt " +
+            "WHERE a.id = :id AND a.version = :expectedVersion")
+    int compareAndSetBalance(@Param("id") Long id,
+                             @Param("expectedVersion") Long expectedVersion,
+                             @Param("balance") BigDecimal balance,
+                             @Param("updatedAt") LocalDateTime updatedAt);
 
 }
@@ -0,0 +1,31 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.DailyBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyBalanceSnapshotRepository extends JpaRepository<DailyBalanceSnapshot, Long> {
+
+    // Najbliższa migawka nie późniejsza niż podany dzień - jedno zejście po indeksie (account_id, snapshot_date)
+    Optional<DailyBalanceSnapshot> findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(Long accountId, LocalDate date);
+
+    List<DailyBalanceSnapshot> findByAccountIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(Long accountId, LocalDate from, LocalDate to);
+
+    List<DailyBalanceSnapshot> findByAccountIdInAndSnapshotDate(Collection<Long> accountIds, LocalDate date);
+
+    // Ostatnia migawka przed podanym dniem dla każdego z kont (kont bez migawki nie ma w wyniku)
+    @Query("SELECT s FROM DailyBalanceSnapshot s WHERE s.accountId IN :accountIds AND s.snapshotDate = " +
+            "(SELECT MAX(p.snapshotDate) FROM DailyBalanceSnapshot p WHERE p.accountId = s.accountId AND p.snapshotDate < :date)")
+    List<DailyBalanceSnapshot> findLatestBefore(@Param("accountIds") Collection<Long> accountIds, @Param("date") LocalDate date);
+
+    @Query("SELECT MAX(s.snapshotDate) FROM DailyBalanceSnapshot s")
+    Optional<LocalDate> findLatestSnapshotDate();
+}
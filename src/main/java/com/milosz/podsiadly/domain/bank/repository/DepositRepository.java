@@ -2,9 +2,15 @@ package com.milosz.podsiadly.domain.bank.repository;
 
 
 import com.milosz.podsiadly.domain.bank.model.Deposit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +19,14 @@ public interface DepositRepository extends JpaRepository<Deposit, Long> {
     Optional<Deposit> findByDepositNumber(String depositNumber);
     List<Deposit> findByAccountId(Long accountId);
     List<Deposit> findByStatus(Deposit.DepositStatus status);
+
+    // Zakres po idx_deposits_status_end_date; blokada - lokata zapadnie raz, także przy kilku instancjach
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Deposit d WHERE d.status = com.milosz.podsiadly.domain.bank.model.Deposit.DepositStatus.ACTIVE " +
+            "AND d.endDate < :today ORDER BY d.endDate ASC, d.id ASC")
+    List<Deposit> findDueForUpdate(@Param("today") LocalDate today, Pageable limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Deposit d WHERE d.id = :id")
+    Optional<Deposit> findByIdForUpdate(@Param("id") Long id);
 }
@@ -0,0 +1,9 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Minimal view of a standing order kept in the dispatcher's timing wheel.
+ */
+public record DueStandingOrder(Long id, Long sourceAccountId, LocalDateTime nextExecutionAt) {
+}
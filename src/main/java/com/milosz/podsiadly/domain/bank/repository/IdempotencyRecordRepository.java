@@ -0,0 +1,57 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Zwykły INSERT (nie merge) - równoległe żądanie z tym samym kluczem dostaje naruszenie klucza głównego
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records (idempotency_key, request_hash, status, created_at, expires_at) " +
+            "VALUES (:key, :requestHash, 'IN_PROGRESS', :createdAt, :expiresAt)", nativeQuery = true)
+    void claim(@Param("key") String key,
+               @Param("requestHash") String requestHash,
+               @Param("createdAt") LocalDateTime createdAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Dołącza do transakcji zmiany biznesowej; 0 wierszy, jeśli zajęcie przejęło inne żądanie
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.milosz.podsiadly.domain.bank.model.IdempotencyRecord.IdempotencyStatus.COMPLETED, " +
+            "r.responseStatus = :responseStatus, r.responseBody = :responseBody WHERE r.idempotencyKey = :key AND r.createdAt = :claimedAt " +
+            "AND r.status = com.milosz.podsiadly.domain.bank.model.IdempotencyRecord.IdempotencyStatus.IN_PROGRESS")
+    int complete(@Param("key") String key,
+                 @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseBody") String responseBody);
+
+    // Zwalnia tylko to zajęcie, które wskazuje claimedAt - nie rusza klucza zajętego ponownie przez inne żądanie
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.createdAt = :claimedAt")
+    int release(@Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Wygasły rekord albo porzucone zajęcie (IN_PROGRESS starsze niż staleBefore); warunek sprawdzany w samym DELETE,
+    // więc rekord zakończony w międzyczasie nie zostanie usunięty
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND (r.expiresAt < :now OR " +
+            "(r.status = com.milosz.podsiadly.domain.bank.model.IdempotencyRecord.IdempotencyStatus.IN_PROGRESS AND r.createdAt < :staleBefore))")
+    int releaseAbandoned(@Param("key") String key,
+                         @Param("now") LocalDateTime now,
+                         @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
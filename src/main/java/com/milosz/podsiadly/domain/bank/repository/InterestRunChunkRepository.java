@@ -0,0 +1,28 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.InterestRunChunk;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InterestRunChunkRepository extends JpaRepository<InterestRunChunk, Long> {
+
+    @Query("SELECT c.id FROM InterestRunChunk c WHERE c.runId = :runId AND c.done = false ORDER BY c.fromAccountId")
+    List<Long> findPendingIds(@Param("runId") Long runId);
+
+    // Blokada przedziału na czas wypłaty - dwie instancje nie wypłacą odsetek z tego samego przedziału
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM InterestRunChunk c WHERE c.id = :id")
+    Optional<InterestRunChunk> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.InterestRunTotals(COUNT(c), COALESCE(SUM(c.scannedCount), 0), " +
+            "COALESCE(SUM(c.creditedCount), 0)) FROM InterestRunChunk c WHERE c.runId = :runId AND c.done = true")
+    InterestRunTotals sumDone(@Param("runId") Long runId);
+}
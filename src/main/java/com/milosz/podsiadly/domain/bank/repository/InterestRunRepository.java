@@ -0,0 +1,41 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InterestRunRepository extends JpaRepository<InterestRun, Long> {
+
+    Optional<InterestRun> findByAccrualDate(LocalDate accrualDate);
+
+    List<InterestRun> findTop50ByOrderByAccrualDateDesc();
+
+    @Query("SELECT MAX(r.accrualDate) FROM InterestRun r " +
+            "WHERE r.status = com.milosz.podsiadly.domain.bank.model.InterestRun.InterestRunStatus.COMPLETED")
+    Optional<LocalDate> findLastCompletedAccrualDate();
+
+    // Uruchomione, które od staleBefore nie zakończyły przedziału (np. po awarii węzła)
+    @Query("SELECT r.id FROM InterestRun r WHERE r.status = com.milosz.podsiadly.domain.bank.model.InterestRun.InterestRunStatus.RUNNING " +
+            "AND r.heartbeatAt < :staleBefore ORDER BY r.accrualDate")
+    List<Long> findStaleIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE InterestRun r SET r.status = com.milosz.podsiadly.domain.bank.model.InterestRun.InterestRunStatus.RUNNING, " +
+            "r.heartbeatAt = :now, r.lastError = NULL, r.finishedAt = NULL WHERE r.id = :id " +
+            "AND (r.status = com.milosz.podsiadly.domain.bank.model.InterestRun.InterestRunStatus.FAILED " +
+            "OR (r.status = com.milosz.podsiadly.domain.bank.model.InterestRun.InterestRunStatus.RUNNING AND r.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE InterestRun r SET r.heartbeatAt = :now WHERE r.id = :id")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,7 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+/**
+ * Counters summed over the completed chunks of an interest run.
+ */
+public record InterestRunTotals(Long completedChunks, Long scannedCount, Long creditedCount) {
+}
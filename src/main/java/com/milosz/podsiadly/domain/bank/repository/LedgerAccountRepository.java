@@ -0,0 +1,12 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LedgerAccountRepository extends JpaRepository<LedgerAccount, Long> {
+    Optional<LedgerAccount> findByCode(String code);
+}
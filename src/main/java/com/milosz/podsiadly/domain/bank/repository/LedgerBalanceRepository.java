@@ -0,0 +1,53 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.dto.LedgerAccountBalance;
+import com.milosz.podsiadly.domain.bank.dto.ReconciliationMismatch;
+import com.milosz.podsiadly.domain.bank.dto.TrialBalanceLine;
+import com.milosz.podsiadly.domain.bank.model.LedgerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LedgerBalanceRepository extends JpaRepository<LedgerBalance, Long> {
+
+    // Przyrostowa aktualizacja salda zmaterializowanego - bez odczytu wiersza
+    @Modifying
+    @Query("UPDATE LedgerBalance b SET b.debitTotal = b.debitTotal + :debit, b.creditTotal = b.creditTotal + :credit, " +
+            "b.postingCount = b.postingCount + :postings, b.updatedAt = :updatedAt " +
+            "WHERE b.ledgerAccountId = :ledgerAccountId AND b.slot = :slot")
+    int increment(@Param("ledgerAccountId") Long ledgerAccountId,
+                  @Param("slot") Integer slot,
+                  @Param("debit") BigDecimal debit,
+                  @Param("credit") BigDecimal credit,
+                  @Param("postings") Long postings,
+                  @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Zestawienie obrotów i sald: agregat po zmaterializowanych wierszach, bez skanowania księgowań
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.dto.TrialBalanceLine(a.currency, SUM(b.debitTotal), SUM(b.creditTotal), " +
+            "SUM(b.debitTotal) - SUM(b.creditTotal)) " +
+            "FROM LedgerBalance b, LedgerAccount a WHERE a.id = b.ledgerAccountId GROUP BY a.currency ORDER BY a.currency")
+    List<TrialBalanceLine> trialBalance();
+
+    // Salda kont wewnętrznych banku - każde konto to suma jego slotów
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.dto.LedgerAccountBalance(a.code, a.type, a.currency, " +
+            "SUM(b.debitTotal), SUM(b.creditTotal), SUM(b.postingCount), a.balanceSlots) " +
+            "FROM LedgerBalance b, LedgerAccount a WHERE a.id = b.ledgerAccountId AND a.bankId = :bankId AND a.bankAccountId IS NULL " +
+            "GROUP BY a.code, a.type, a.currency, a.balanceSlots ORDER BY a.code")
+    List<LedgerAccountBalance> findInternalAccountBalances(@Param("bankId") Long bankId);
+
+    // Konta klientów, których saldo w księdze (uznania - obciążenia) różni się od salda w bank_accounts
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.dto.ReconciliationMismatch(acc.id, acc.accountNumber, " +
+            "SUM(b.creditTotal) - SUM(b.debitTotal), acc.balance) " +
+            "FROM LedgerBalance b, LedgerAccount l, BankAccount acc " +
+            "WHERE l.id = b.ledgerAccountId AND l.bankAccountId = acc.id " +
+            "GROUP BY acc.id, acc.accountNumber, acc.balance " +
+            "HAVING SUM(b.creditTotal) - SUM(b.debitTotal) <> acc.balance")
+    List<ReconciliationMismatch> findReconciliationMismatches();
+}
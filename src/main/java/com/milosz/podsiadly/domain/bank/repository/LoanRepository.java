@@ -1,9 +1,15 @@
 package com.milosz.podsiadly.domain.bank.repository;
 
 import com.milosz.podsiadly.domain.bank.model.Loan;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +18,11 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     Optional<Loan> findByLoanNumber(String loanNumber);
     List<Loan> findByAccountId(Long accountId);
     List<Loan> findByStatus(Loan.LoanStatus status);
+
+    // Zakres po idx_loans_status_next_due_date; partycja po koncie - pożyczki jednego konta trafiają do jednej partycji
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Loan l WHERE l.status = com.milosz.podsiadly.domain.bank.model.Loan.LoanStatus.ACTIVE " +
+            "AND l.nextDueDate <= :today AND MOD(l.account.id, :partitions) = :partition AND l.id > :afterId ORDER BY l.id ASC")
+    List<Loan> findDueForUpdate(@Param("today") LocalDate today, @Param("partitions") int partitions,
+                                @Param("partition") int partition, @Param("afterId") Long afterId, Pageable limit);
 }
@@ -0,0 +1,44 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReversalJobRepository extends JpaRepository<ReversalJob, Long> {
+
+    List<ReversalJob> findTop50ByOrderByIdDesc();
+
+    // Blokada wiersza zadania na czas paczki - dwie instancje nie przetworzą tej samej paczki
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM ReversalJob j WHERE j.id = :id")
+    Optional<ReversalJob> findByIdForUpdate(@Param("id") Long id);
+
+    // Nowe zadania oraz uruchomione, które od staleBefore nie zatwierdziły paczki (np. po awarii węzła)
+    @Query("SELECT j.id FROM ReversalJob j WHERE j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.PENDING " +
+            "OR (j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.RUNNING AND j.heartbeatAt < :staleBefore) " +
+            "ORDER BY j.id")
+    List<Long> findRunnableIds(@Param("staleBefore") LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("UPDATE ReversalJob j SET j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.RUNNING, " +
+            "j.heartbeatAt = :now, j.startedAt = COALESCE(j.startedAt, :now) WHERE j.id = :id " +
+            "AND (j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.PENDING " +
+            "OR (j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.RUNNING AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Przy zamykaniu węzła - zadanie wraca do kolejki od razu, bez czekania na uznanie za porzucone
+    @Modifying
+    @Query("UPDATE ReversalJob j SET j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.PENDING " +
+            "WHERE j.id = :id AND j.status = com.milosz.podsiadly.domain.bank.model.ReversalJob.ReversalJobStatus.RUNNING")
+    int release(@Param("id") Long id);
+}
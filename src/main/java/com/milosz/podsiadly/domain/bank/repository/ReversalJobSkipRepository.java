@@ -0,0 +1,13 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.ReversalJobSkip;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReversalJobSkipRepository extends JpaRepository<ReversalJobSkip, Long> {
+
+    List<ReversalJobSkip> findByJobIdOrderByIdAsc(Long jobId);
+}
@@ -0,0 +1,34 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    List<StandingOrder> findBySourceAccountIdOrderByIdAsc(Long sourceAccountId);
+
+    // Aktywne zlecenia z terminem w oknie [from, to) - zakres indeksu idx_standing_orders_due, stronicowanie po ID
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.DueStandingOrder(o.id, o.sourceAccountId, o.nextExecutionAt) " +
+            "FROM StandingOrder o WHERE o.status = com.milosz.podsiadly.domain.bank.model.StandingOrder.StandingOrderStatus.ACTIVE " +
+            "AND o.nextExecutionAt >= :from AND o.nextExecutionAt < :to AND o.id > :afterId ORDER BY o.id")
+    List<DueStandingOrder> findDueBetween(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // Przejęcie wykonania: blokuje wiersz do końca transakcji; 0 = zlecenie anulowane, już wykonane lub jeszcze nie wymagalne
+    @Modifying
+    @Query("UPDATE StandingOrder o SET o.lastAttemptAt = :now WHERE o.id = :id " +
+            "AND o.status = com.milosz.podsiadly.domain.bank.model.StandingOrder.StandingOrderStatus.ACTIVE " +
+            "AND o.nextExecutionAt <= :now")
+    int claimDue(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
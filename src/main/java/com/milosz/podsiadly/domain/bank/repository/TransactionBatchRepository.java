@@ -0,0 +1,83 @@
+package com.milosz.podsiadly.domain.bank.repository;
+
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * JDBC access to the transactions table for bulk paths, bypassing the persistence context.
+ * IDs are taken from the same pooled sequence as the JPA mapping of {@link Transaction}.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (id, transaction_ref, source_account_id, target_account_id, amount, currency, " +
+                    "type, status, description, transaction_date, reversal_of_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextIdBlockSql;
+
+    public TransactionBatchRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextIdBlockSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(Transaction.ID_SEQUENCE);
+    }
+
+    /**
+     * Assigns IDs and inserts the transactions with JDBC batches of the given size.
+     *
+     * @param transactions Transactions to insert; accounts only need their IDs set.
+     * @param batchSize    Number of rows per JDBC batch.
+     */
+    public void insertAll(List<Transaction> transactions, int batchSize) {
+        assignIds(transactions);
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, batchSize, (ps, transaction) -> {
+            ps.setLong(1, transaction.getId());
+            ps.setString(2, transaction.getTransactionRef());
+            setNullableId(ps, 3, transaction.getSourceAccount() != null ? transaction.getSourceAccount().getId() : null);
+            setNullableId(ps, 4, transaction.getTargetAccount() != null ? transaction.getTargetAccount().getId() : null);
+            ps.setBigDecimal(5, transaction.getAmount());
+            ps.setString(6, transaction.getCurrency());
+            ps.setString(7, transaction.getType().name());
+            ps.setString(8, transaction.getStatus().name());
+            ps.setString(9, transaction.getDescription());
+            ps.setTimestamp(10, Timestamp.valueOf(transaction.getTransactionDate()));
+            setNullableId(ps, 11, transaction.getReversalOf() != null ? transaction.getReversalOf().getId() : null);
+        });
+    }
+
+    /**
+     * Pooled-lo semantics (hibernate.id.optimizer.pooled.preferred): a sequence value V
+     * reserves the block [V, V + allocationSize - 1], the same blocks Hibernate hands out.
+     */
+    private void assignIds(List<Transaction> transactions) {
+        long next = 0;
+        long blockEnd = -1;
+        for (Transaction transaction : transactions) {
+            if (next > blockEnd) {
+                Long blockStart = jdbcTemplate.queryForObject(nextIdBlockSql, Long.class);
+                next = blockStart;
+                blockEnd = blockStart + Transaction.ID_ALLOCATION_SIZE - 1;
+            }
+            transaction.setId(next++);
+        }
+    }
+
+    private static void setNullableId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if (id == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, id);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.milosz.podsiadly.domain.bank.repository;
 
 import com.milosz.podsiadly.domain.bank.model.Transaction;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -17,4 +28,183 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByTargetAccountIdAndTransactionDateBetween(Long targetAccountId, LocalDateTime startDate, LocalDateTime endDate);
     List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<Transaction> findBySourceAccountIdAndAmountGreaterThanAndTransactionDateBetween(Long sourceAccountId, BigDecimal amount, LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Wiersze ładowane po ID paczkami - lista parametrów IN pozostaje ograniczona także dla długich zakresów
+    int FETCH_BY_ID_CHUNK = 1000;
+
+    // ID z UNION ALL (jedna gałąź na nogę, po indeksach (konto, data)), potem encje z kontami jednym zapytaniem na paczkę
+    default List<Transaction> findAccountHistoryBetween(Long accountId, LocalDateTime startDate, LocalDateTime endDate) {
+        return findAllWithAccountsInOrder(findAccountHistoryIdsBetween(accountId, startDate, endDate));
+    }
+
+    // Przelew na to samo konto tylko w gałęzi obciążeń - bez duplikatu w wyniku
+    @Query(value = "SELECT h.id FROM (" +
+            "SELECT t.id, t.transaction_date FROM transactions t WHERE t.source_account_id = :accountId " +
+            "AND t.transaction_date BETWEEN :startDate AND :endDate " +
+            "UNION ALL " +
+            "SELECT t.id, t.transaction_date FROM transactions t WHERE t.target_account_id = :accountId " +
+            "AND (t.source_account_id IS NULL OR t.source_account_id <> :accountId) " +
+            "AND t.transaction_date BETWEEN :startDate AND :endDate" +
+            ") h ORDER BY h.transaction_date DESC, h.id DESC", nativeQuery = true)
+    List<Long> findAccountHistoryIdsBetween(@Param("accountId") Long accountId,
+                                            @Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Loads the transactions with both accounts, in the order of the given IDs, which must already be sorted
+     * by (transactionDate DESC, id DESC).
+     */
+    default List<Transaction> findAllWithAccountsInOrder(List<Long> ids) {
+        List<Transaction> transactions = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += FETCH_BY_ID_CHUNK) {
+            transactions.addAll(findAllWithAccountsByIdIn(ids.subList(start, Math.min(start + FETCH_BY_ID_CHUNK, ids.size()))));
+        }
+        return transactions;
+    }
+
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.sourceAccount LEFT JOIN FETCH t.targetAccount " +
+            "WHERE t.id IN :ids ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findAllWithAccountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Stronicowanie po kluczu (transactionDate DESC, id DESC): kolejna strona zaczyna się za kursorem, bez OFFSET.
+    // Każda gałąź UNION ALL czyta tylko swój indeks (konto, data) i kończy po limicie, encje z kontami dociągane po ID
+    default List<Transaction> findAccountHistoryFirstPage(Long accountId, Pageable limit) {
+        return findAllWithAccountsInOrder(findAccountHistoryFirstPageIds(accountId, limit.getPageSize()));
+    }
+
+    default List<Transaction> findAccountHistoryPageAfter(Long accountId, LocalDateTime cursorDate, Long cursorId, Pageable limit) {
+        return findAllWithAccountsInOrder(findAccountHistoryPageAfterIds(accountId, cursorDate, cursorId, limit.getPageSize()));
+    }
+
+    @Query(value = "SELECT h.id FROM (" +
+            "(SELECT t.id, t.transaction_date FROM transactions t WHERE t.source_account_id = :accountId " +
+            "ORDER BY t.transaction_date DESC, t.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT t.id, t.transaction_date FROM transactions t WHERE t.target_account_id = :accountId " +
+            "AND (t.source_account_id IS NULL OR t.source_account_id <> :accountId) " +
+            "ORDER BY t.transaction_date DESC, t.id DESC LIMIT :limit)" +
+            ") h ORDER BY h.transaction_date DESC, h.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findAccountHistoryFirstPageIds(@Param("accountId") Long accountId, @Param("limit") int limit);
+
+    @Query(value = "SELECT h.id FROM (" +
+            "(SELECT t.id, t.transaction_date FROM transactions t WHERE t.source_account_id = :accountId " +
+            "AND (t.transaction_date < :cursorDate OR (t.transaction_date = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.transaction_date DESC, t.id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT t.id, t.transaction_date FROM transactions t WHERE t.target_account_id = :accountId " +
+            "AND (t.source_account_id IS NULL OR t.source_account_id <> :accountId) " +
+            "AND (t.transaction_date < :cursorDate OR (t.transaction_date = :cursorDate AND t.id < :cursorId)) " +
+            "ORDER BY t.transaction_date DESC, t.id DESC LIMIT :limit)" +
+            ") h ORDER BY h.transaction_date DESC, h.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findAccountHistoryPageAfterIds(@Param("accountId") Long accountId,
+                                              @Param("cursorDate") LocalDateTime cursorDate,
+                                              @Param("cursorId") Long cursorId,
+                                              @Param("limit") int limit);
+
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.sourceAccount LEFT JOIN FETCH t.targetAccount " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findFirstPage(Pageable limit);
+
+    @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.sourceAccount LEFT JOIN FETCH t.targetAccount " +
+            "WHERE t.transactionDate < :cursorDate OR (t.transactionDate = :cursorDate AND t.id < :cursorId) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findPageAfter(@Param("cursorDate") LocalDateTime cursorDate,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable limit);
+
+    // Strumień wierszy z kursora bazy danych - encje tylko do odczytu, pobierane paczkami
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    // Gałęzie UNION ALL per noga jak w findAccountHistoryIdsBetween; konta ładowane leniwie, raz na konto w kontekście
+    @Query(value = "SELECT t.* FROM transactions t WHERE t.source_account_id = :accountId " +
+            "UNION ALL " +
+            "SELECT t.* FROM transactions t WHERE t.target_account_id = :accountId " +
+            "AND (t.source_account_id IS NULL OR t.source_account_id <> :accountId) " +
+            "ORDER BY transaction_date DESC, id DESC", nativeQuery = true)
+    Stream<Transaction> streamAccountHistory(@Param("accountId") Long accountId);
+
+    // Transakcje zmieniające saldo konta w przedziale [from, to), chronologicznie - do wyciągów
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    // Per noga jak streamAccountHistory; przelew na to samo konto zwracany raz (z gałęzi obciążeń)
+    @Query(value = "SELECT t.* FROM transactions t WHERE t.source_account_id = :accountId " +
+            "AND t.status IN ('COMPLETED', 'REFUNDED') AND t.transaction_date >= :from AND t.transaction_date < :to " +
+            "UNION ALL " +
+            "SELECT t.* FROM transactions t WHERE t.target_account_id = :accountId " +
+            "AND (t.source_account_id IS NULL OR t.source_account_id <> :accountId) " +
+            "AND t.status IN ('COMPLETED', 'REFUNDED') AND t.transaction_date >= :from AND t.transaction_date < :to " +
+            "ORDER BY transaction_date ASC, id ASC", nativeQuery = true)
+    Stream<Transaction> streamAccountPeriod(@Param("accountId") Long accountId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    // Zmiana salda konta w przedziale [from, to): uznania minus obciążenia zaksięgowanych transakcji (też odwróconych - odwrócenie to osobna transakcja).
+    // Osobno per noga, po jednym FK w warunku; przelew na to samo konto daje +kwota - kwota = 0
+    default BigDecimal sumNetChange(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return sumCredits(accountId, from, to).subtract(sumDebits(accountId, from, to));
+    }
+
+    default BigDecimal sumNetChangeSince(Long accountId, LocalDateTime from) {
+        return sumCreditsSince(accountId, from).subtract(sumDebitsSince(accountId, from));
+    }
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.targetAccount.id = :accountId " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from AND t.transactionDate < :to")
+    BigDecimal sumCredits(@Param("accountId") Long accountId,
+                          @Param("from") LocalDateTime from,
+                          @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.sourceAccount.id = :accountId " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from AND t.transactionDate < :to")
+    BigDecimal sumDebits(@Param("accountId") Long accountId,
+                         @Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.targetAccount.id = :accountId " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from")
+    BigDecimal sumCreditsSince(@Param("accountId") Long accountId, @Param("from") LocalDateTime from);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.sourceAccount.id = :accountId " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from")
+    BigDecimal sumDebitsSince(@Param("accountId") Long accountId, @Param("from") LocalDateTime from);
+
+    // Sumy dzienne dla zamknięcia dnia - zakres po idx_transactions_date, grupowanie po koncie
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.AccountAmount(t.sourceAccount.id, SUM(t.amount)) " +
+            "FROM Transaction t WHERE t.sourceAccount IS NOT NULL " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from AND t.transactionDate < :to GROUP BY t.sourceAccount.id")
+    List<AccountAmount> sumDebitsByAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.milosz.podsiadly.domain.bank.repository.AccountAmount(t.targetAccount.id, SUM(t.amount)) " +
+            "FROM Transaction t WHERE t.targetAccount IS NOT NULL " +
+            "AND t.status IN (com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED, " +
+            "com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.REFUNDED) " +
+            "AND t.transactionDate >= :from AND t.transactionDate < :to GROUP BY t.targetAccount.id")
+    List<AccountAmount> sumCreditsByAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Kandydaci do odwrócenia po kluczu (transactionDate, id) rosnąco - zakres po idx_transactions_date; wiersze blokowane do końca paczki
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.status = com.milosz.podsiadly.domain.bank.model.Transaction.TransactionStatus.COMPLETED " +
+            "AND t.type IN :types AND t.transactionDate >= :from AND t.transactionDate < :to " +
+            "AND (t.transactionDate > :cursorDate OR (t.transactionDate = :cursorDate AND t.id > :cursorId)) " +
+            "ORDER BY t.transactionDate ASC, t.id ASC")
+    List<Transaction> findReversalCandidates(@Param("types") Collection<Transaction.TransactionType> types,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             @Param("cursorDate") LocalDateTime cursorDate,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable limit);
+}
@@ -0,0 +1,251 @@
+package com.milosz.podsiadly.domain.bank.reversal;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.core.kafka.producer.EventProducer;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.model.ReversalJobSkip;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobRepository;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobSkipRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionBatchRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionRepository;
+import com.milosz.podsiadly.domain.bank.service.PostingService;
+import com.milosz.podsiadly.domain.bank.service.TransactionEvents;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reverses one chunk of a {@link ReversalJob} per database transaction.
+ * <p>
+ * The chunk is read with a keyset query after the job's cursor and the matched rows are locked. For every
+ * transaction a compensating REVERSAL transaction with swapped accounts is created and the original is
+ * marked REFUNDED. Balances change with one {@link BalanceUpdater} call per chunk (one leg per account),
+ * the new rows are written with JDBC batching and their postings and outbox events are added in the same
+ * transaction. The cursor and counters are stored in that transaction as well, so a crash loses at most the
+ * uncommitted chunk and a resumed job neither skips nor repeats transactions.
+ * <p>
+ * Loan and term deposit transactions are not reversible here: their schedules and deposit records would no
+ * longer match the ledger.
+ */
+@Slf4j
+@Component
+public class ReversalChunkProcessor {
+
+    public static final Set<Transaction.TransactionType> REVERSIBLE_TYPES = EnumSet.of(
+            Transaction.TransactionType.TRANSFER,
+            Transaction.TransactionType.DEPOSIT,
+            Transaction.TransactionType.WITHDRAWAL,
+            Transaction.TransactionType.FEE,
+            Transaction.TransactionType.INTEREST_PAYOUT);
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final ReversalJobRepository reversalJobRepository;
+    private final ReversalJobSkipRepository reversalJobSkipRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final PostingService postingService;
+    private final EventProducer eventProducer;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public ReversalChunkProcessor(ReversalJobRepository reversalJobRepository, ReversalJobSkipRepository reversalJobSkipRepository,
+                                  TransactionRepository transactionRepository, TransactionBatchRepository transactionBatchRepository,
+                                  BankAccountRepository bankAccountRepository, BalanceUpdater balanceUpdater,
+                                  PostingService postingService, EventProducer eventProducer, IdGenerator idGenerator,
+                                  PlatformTransactionManager transactionManager) {
+        this.reversalJobRepository = reversalJobRepository;
+        this.reversalJobSkipRepository = reversalJobSkipRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionBatchRepository = transactionBatchRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceUpdater = balanceUpdater;
+        this.postingService = postingService;
+        this.eventProducer = eventProducer;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reverses the next chunk of the job and checkpoints it.
+     *
+     * @param jobId ID of a job claimed by this instance.
+     * @return Whether the job has more transactions to reverse.
+     */
+    public ChunkResult processChunk(Long jobId) {
+        long startedNanos = System.nanoTime();
+        return transactionTemplate.execute(status -> {
+            ReversalJob job = reversalJobRepository.findByIdForUpdate(jobId).orElse(null);
+            if (job == null || job.getStatus() != ReversalJob.ReversalJobStatus.RUNNING) {
+                return ChunkResult.STOPPED; // Anulowane albo przejęte przez inną instancję po uznaniu za porzucone
+            }
+
+            List<Transaction> candidates = transactionRepository.findReversalCandidates(
+                    job.getTransactionType() != null ? Set.of(job.getTransactionType()) : REVERSIBLE_TYPES,
+                    job.getFromDate(), job.getToDate(), job.getCursorDate(), job.getCursorId(),
+                    PageRequest.of(0, job.getChunkSize()));
+            int reversed = candidates.isEmpty() ? 0 : reverse(job, candidates);
+
+            LocalDateTime now = LocalDateTime.now();
+            if (!candidates.isEmpty()) {
+                Transaction last = candidates.get(candidates.size() - 1);
+                job.setCursorDate(last.getTransactionDate());
+                job.setCursorId(last.getId());
+            }
+            job.setScannedCount(job.getScannedCount() + candidates.size());
+            job.setReversedCount(job.getReversedCount() + reversed);
+            job.setSkippedCount(job.getSkippedCount() + candidates.size() - reversed);
+            job.setChunkCount(job.getChunkCount() + 1);
+            job.setHeartbeatAt(now);
+            job.setProcessingMillis(job.getProcessingMillis() + (System.nanoTime() - startedNanos) / 1_000_000);
+            if (candidates.size() < job.getChunkSize()) {
+                job.setStatus(ReversalJob.ReversalJobStatus.COMPLETED);
+                job.setFinishedAt(now);
+                return ChunkResult.DONE;
+            }
+            return ChunkResult.CONTINUE;
+        });
+    }
+
+    /**
+     * Marks the job as failed in a separate transaction; the failed chunk has been rolled back and the job
+     * can be resumed from its last checkpoint.
+     */
+    public void recordFailure(Long jobId, Exception failure) {
+        String error = String.valueOf(failure.getMessage());
+        transactionTemplate.executeWithoutResult(status -> reversalJobRepository.findByIdForUpdate(jobId)
+                .filter(job -> job.getStatus() == ReversalJob.ReversalJobStatus.RUNNING)
+                .ifPresent(job -> {
+                    job.setStatus(ReversalJob.ReversalJobStatus.FAILED);
+                    job.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                    job.setFinishedAt(LocalDateTime.now());
+                }));
+    }
+
+    private int reverse(ReversalJob job, List<Transaction> candidates) {
+        Map<Long, BankAccount> accountsById = loadAccounts(candidates);
+
+        // Saldo otwarcia + zmiany netto z wcześniejszych odwróceń paczki = środki dostępne dla kolejnego (w groszach)
+        Map<Long, Long> openingBalances = new HashMap<>();
+        Map<Long, Long> netDeltas = new LinkedHashMap<>();
+        List<Transaction> reversals = new ArrayList<>(candidates.size());
+        List<ReversalJobSkip> skips = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Transaction original : candidates) {
+            // Odwrócenie obciąża konto uznane pierwotnie i uznaje konto pierwotnie obciążone
+            BankAccount debited = account(original.getTargetAccount(), accountsById);
+            BankAccount credited = account(original.getSourceAccount(), accountsById);
+            if ((original.getTargetAccount() != null && debited == null) || (original.getSourceAccount() != null && credited == null)) {
+                skips.add(skip(job, original, "Konto transakcji już nie istnieje."));
+                continue;
+            }
+
+            long amount = Money.toMinorUnits(original.getAmount(), original.getCurrency());
+            if (debited != null) {
+                long available = openingBalances.computeIfAbsent(debited.getId(), id -> balanceUpdater.currentMoney(debited).minorUnits())
+                        + netDeltas.getOrDefault(debited.getId(), 0L);
+                if (available < amount) {
+                    skips.add(skip(job, original, "Niewystarczające środki na koncie " + debited.getAccountNumber() + "."));
+                    continue;
+                }
+                netDeltas.merge(debited.getId(), -amount, Math::addExact);
+            }
+            if (credited != null) {
+                netDeltas.merge(credited.getId(), amount, Math::addExact);
+            }
+
+            reversals.add(Transaction.builder()
+                    .transactionRef(idGenerator.nextRef("TRN-"))
+                    .sourceAccount(debited)
+                    .targetAccount(credited)
+                    .amount(original.getAmount())
+                    .currency(original.getCurrency())
+                    .type(Transaction.TransactionType.REVERSAL)
+                    .status(Transaction.TransactionStatus.COMPLETED)
+                    .description("Reversal of " + original.getTransactionRef() + ": " + job.getReason())
+                    .transactionDate(now)
+                    .reversalOf(original)
+                    .build());
+            original.setStatus(Transaction.TransactionStatus.REFUNDED); // Zapis przy flush - wiersz zablokowany zapytaniem o kandydatów
+        }
+
+        if (!reversals.isEmpty()) {
+            balanceUpdater.apply(toLegs(netDeltas, accountsById));
+            transactionBatchRepository.insertAll(reversals, jdbcBatchSize);
+            postingService.postAll(reversals); // ID nadane przez insertAll
+            reversals.forEach(reversal -> eventProducer.publishTransactionCompletedEvent(TransactionEvents.completed(reversal)));
+        }
+        if (!skips.isEmpty()) {
+            reversalJobSkipRepository.saveAll(skips);
+            log.debug("Reversal job {} skipped {} transactions in chunk {}.", job.getJobRef(), skips.size(), job.getChunkCount() + 1);
+        }
+        return reversals.size();
+    }
+
+    private Map<Long, BankAccount> loadAccounts(List<Transaction> candidates) {
+        Set<Long> ids = candidates.stream()
+                .flatMap(transaction -> Stream.of(transaction.getSourceAccount(), transaction.getTargetAccount()))
+                .filter(Objects::nonNull)
+                .map(BankAccount::getId)
+                .collect(Collectors.toSet());
+        return bankAccountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+    }
+
+    private static BankAccount account(BankAccount reference, Map<Long, BankAccount> accountsById) {
+        return reference != null ? accountsById.get(reference.getId()) : null;
+    }
+
+    private static ReversalJobSkip skip(ReversalJob job, Transaction original, String reason) {
+        return ReversalJobSkip.builder()
+                .jobId(job.getId())
+                .transactionId(original.getId())
+                .reason(reason)
+                .build();
+    }
+
+    private static List<BalanceLeg> toLegs(Map<Long, Long> netDeltas, Map<Long, BankAccount> accountsById) {
+        List<BalanceLeg> legs = new ArrayList<>(netDeltas.size());
+        netDeltas.forEach((accountId, delta) -> {
+            BankAccount account = accountsById.get(accountId);
+            if (delta < 0) {
+                legs.add(new BalanceLeg(account, delta, "Niewystarczające środki na koncie " + account.getAccountNumber() + "."));
+            } else if (delta > 0) {
+                legs.add(new BalanceLeg(account, delta, null));
+            }
+        });
+        return legs;
+    }
+
+    public enum ChunkResult {
+        CONTINUE, DONE, STOPPED
+    }
+}
@@ -0,0 +1,131 @@
+package com.milosz.podsiadly.domain.bank.reversal;
+
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobRepository;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link ReversalJob}s on a small worker pool, one chunk per database transaction.
+ * <p>
+ * A job is claimed with a conditional update before its first chunk. New jobs are submitted right after
+ * they are committed; the periodic scan picks up jobs left PENDING (e.g. created on a node that stopped)
+ * and RUNNING jobs whose last chunk committed longer ago than the stale timeout, so a job interrupted by
+ * a crash continues from its checkpoint on any instance.
+ */
+@Slf4j
+@Component
+public class ReversalJobRunner {
+
+    private final ReversalJobRepository reversalJobRepository;
+    private final ReversalChunkProcessor chunkProcessor;
+    private final AuditService auditService;
+    private final ReversalProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> activeIds = ConcurrentHashMap.newKeySet(); // Zadania w kolejce lub w toku na tym węźle
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    public ReversalJobRunner(ReversalJobRepository reversalJobRepository, ReversalChunkProcessor chunkProcessor,
+                             AuditService auditService, ReversalProperties properties,
+                             PlatformTransactionManager transactionManager) {
+        this.reversalJobRepository = reversalJobRepository;
+        this.chunkProcessor = chunkProcessor;
+        this.auditService = auditService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkerThreads()),
+                runnable -> new Thread(runnable, "reversal-job-" + threadIndex.getAndIncrement()));
+    }
+
+    /**
+     * Queues the job unless it already runs on this instance.
+     *
+     * @param jobId ID of a committed job.
+     */
+    public void submit(Long jobId) {
+        if (!running || !activeIds.add(jobId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    activeIds.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            activeIds.remove(jobId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.reversal.scan-interval-ms:30000}")
+    public void resumeJobs() {
+        reversalJobRepository.findRunnableIds(staleBefore(LocalDateTime.now())).forEach(this::submit);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false; // Bieżące paczki kończą się normalnie, zadania wracają do kolejki
+        workers.shutdown();
+    }
+
+    private void run(Long jobId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> reversalJobRepository.claim(jobId, now, staleBefore(now)));
+        if (claimed == null || claimed == 0) {
+            return; // Zakończone, anulowane albo wykonywane przez inną instancję
+        }
+        log.info("Reversal job {} started.", jobId);
+        try {
+            ReversalChunkProcessor.ChunkResult result = ReversalChunkProcessor.ChunkResult.CONTINUE;
+            while (running && result == ReversalChunkProcessor.ChunkResult.CONTINUE) {
+                result = chunkProcessor.processChunk(jobId);
+            }
+            if (result == ReversalChunkProcessor.ChunkResult.CONTINUE) {
+                transactionTemplate.executeWithoutResult(status -> reversalJobRepository.release(jobId));
+                log.info("Reversal job {} released at shutdown, it resumes from its last checkpoint.", jobId);
+            } else if (result == ReversalChunkProcessor.ChunkResult.DONE) {
+                finished(jobId);
+            }
+        } catch (Exception e) {
+            log.error("Reversal job {} failed: {}", jobId, e.getMessage(), e);
+            chunkProcessor.recordFailure(jobId, e);
+        }
+    }
+
+    private void finished(Long jobId) {
+        ReversalJob job = reversalJobRepository.findById(jobId).orElseThrow();
+        log.info("Reversal job {} completed: {} scanned, {} reversed, {} skipped in {} chunks, {} ms ({} transactions/s).",
+                job.getJobRef(), job.getScannedCount(), job.getReversedCount(), job.getSkippedCount(), job.getChunkCount(),
+                job.getProcessingMillis(), String.format("%.1f", job.getTransactionsPerSecond()));
+        auditService.logEvent(
+                job.getRequestedBy(),
+                "REVERSAL_JOB_COMPLETED",
+                "ReversalJob",
+                job.getId(),
+                "Zadanie " + job.getJobRef() + ": " + job.getReversedCount() + " odwróconych, " + job.getSkippedCount() + " pominiętych.",
+                job.getSkippedCount() == 0 ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+    }
+
+    private LocalDateTime staleBefore(LocalDateTime now) {
+        return now.minusSeconds(properties.getStaleAfterSeconds());
+    }
+}
@@ -0,0 +1,43 @@
+package com.milosz.podsiadly.domain.bank.reversal;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of bulk reversal jobs.
+ * Automatically bound from banking.reversal.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.reversal")
+@Getter
+@Setter
+public class ReversalProperties {
+
+    /**
+     * Transactions reversed per database transaction when the job does not specify a chunk size.
+     */
+    private int defaultChunkSize = 500;
+
+    /**
+     * Upper bound on the chunk size a job may request; bounds lock hold time and memory per chunk.
+     */
+    private int maxChunkSize = 5000;
+
+    /**
+     * Number of jobs this instance runs concurrently.
+     */
+    private int workerThreads = 2;
+
+    /**
+     * Delay between scans for new jobs and for abandoned jobs to resume, in milliseconds.
+     */
+    private long scanIntervalMs = 30000;
+
+    /**
+     * A running job that has not committed a chunk for this long is considered abandoned and resumed
+     * from its last checkpoint, in seconds. Must exceed the time of one chunk.
+     */
+    private long staleAfterSeconds = 300;
+}
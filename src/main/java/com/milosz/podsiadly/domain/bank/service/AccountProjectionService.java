@@ -0,0 +1,75 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.domain.bank.model.AccountDailyTurnover;
+import com.milosz.podsiadly.domain.bank.model.AccountProjection;
+import com.milosz.podsiadly.domain.bank.model.AccountProjectionState;
+import com.milosz.podsiadly.domain.bank.projection.AccountProjectionProperties;
+import com.milosz.podsiadly.domain.bank.projection.AccountProjectionRebuilder;
+import com.milosz.podsiadly.domain.bank.projection.AccountProjector;
+import com.milosz.podsiadly.domain.bank.repository.AccountDailyTurnoverRepository;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Odczyty z projekcji kont (salda, obroty dzienne, ostatnia aktywność) budowanej z zakończonych transakcji.
+ * Projekcję utrzymuje {@link AccountProjector}, pełną przebudowę wykonuje {@link AccountProjectionRebuilder}.
+ * Saldo w projekcji jest ostatecznie spójne - może być opóźnione względem bank_accounts o czas dostarczenia zdarzenia.
+ */
+@RequiredArgsConstructor
+@Service
+public class AccountProjectionService {
+
+    private final AccountProjectionRepository accountProjectionRepository;
+    private final AccountDailyTurnoverRepository dailyTurnoverRepository;
+    private final AccountProjectionRebuilder rebuilder;
+    private final AccountProjectionProperties properties;
+
+    /**
+     * Konta użytkownika z projekcji.
+     *
+     * @param userId ID użytkownika.
+     * @return Konta użytkownika; puste, jeśli projekcja nie została jeszcze zbudowana lub odczyty z niej są wyłączone.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<AccountProjection>> findAccountsByUserId(Long userId) {
+        if (!properties.isServeReads() || !rebuilder.isReady()) {
+            return Optional.empty();
+        }
+        return Optional.of(accountProjectionRepository.findByUserIdOrderByAccountIdAsc(userId));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AccountProjection> findAccount(Long accountId) {
+        return accountProjectionRepository.findById(accountId);
+    }
+
+    /**
+     * Obroty dzienne konta w zakresie dni [from, to]; dni bez ruchu są pomijane.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountDailyTurnover> getDailyTurnover(Long accountId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Data końcowa nie może być wcześniejsza niż początkowa.");
+        }
+        return dailyTurnoverRepository.findByAccountIdAndTurnoverDateBetweenOrderByTurnoverDateAsc(accountId, from, to);
+    }
+
+    /**
+     * Uruchamia w tle pełną przebudowę projekcji z tabeli transakcji.
+     *
+     * @throws IllegalStateException jeśli przebudowa już trwa.
+     */
+    public AccountProjectionState startRebuild() {
+        return rebuilder.startRebuild();
+    }
+
+    public AccountProjectionState getState() {
+        return rebuilder.state();
+    }
+}
@@ -1,9 +1,17 @@
 package com.milosz.podsiadly.domain.bank.service;
 import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.core.event.AccountChangedEvent;
+import com.milosz.podsiadly.core.kafka.producer.EventProducer;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.cache.AccountMetadataCache;
 import com.milosz.podsiadly.domain.bank.dto.AccountDto;
 import com.milosz.podsiadly.domain.user.repository.UserRepository;
 import com.milosz.podsiadly.domain.bank.model.Bank;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.AccountMetadata;
 import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
 import com.milosz.podsiadly.domain.bank.repository.BankRepository;
 import com.milosz.podsiadly.domain.compliance.model.AuditLog;
@@ -12,13 +20,15 @@ import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.apache.kafka.common.requests.DeleteAclsResponse.log;
 
@@ -30,7 +40,10 @@ public class AccountService {
     private final BankRepository bankRepository; // Potrzebne do powiązania konta z bankiem
     private final AuditService auditService;
     private final UserRepository userRepository;
-    private final TransactionService transactionService;
+    private final BalanceUpdater balanceUpdater;
+    private final IdGenerator idGenerator;
+    private final AccountMetadataCache accountMetadataCache;
+    private final EventProducer eventProducer;
     // --- RENAMED AND MODIFIED METHOD ---
     @Transactional
     public BankAccount createBankAccount(Long userId, Long bankId, String accountType, String currency, String username) {
@@ -55,6 +68,7 @@ public class AccountService {
                 .build();
 
         BankAccount savedAccount = bankAccountRepository.save(newAccount);
+        publishAccountChanged(savedAccount, AccountChangedEvent.ChangeType.CREATED); // Konto bez transakcji też musi trafić do projekcji
 
         auditService.logEvent(
                 username,
@@ -68,9 +82,9 @@ public class AccountService {
         return savedAccount;
     }
 
-    // New helper method for account number generation
+    // Numer konta z generatora Snowflake: unikalny bez sprawdzania kolizji i rosnący (przyjazny dla indeksu)
     private String generateUniqueAccountNumber() {
-        return "ACC-" + UUID.randomUUID().toString().substring(0, 10).toUpperCase();
+        return idGenerator.nextRef("ACC-");
     }
 
     @Transactional(readOnly = true)
@@ -88,22 +102,54 @@ public class AccountService {
                 "User accessed details for account " + account.getAccountNumber(),
                 AuditLog.AuditStatus.SUCCESS
         );
-        return account;
+        return withCurrentBalance(account);
+    }
+
+    // Ten sam wpis co w getAccountById, dla konta rozwiązanego z cache metadanych (bez ładowania encji)
+    public void logAccountAccess(AccountMetadata account, String username) {
+        auditService.logEvent(
+                username,
+                "ACCOUNT_ACCESSED",
+                "BankAccount",
+                account.id(),
+                "User accessed details for account " + account.accountNumber(),
+                AuditLog.AuditStatus.SUCCESS
+        );
     }
 
     @Transactional(readOnly = true)
     public Optional<BankAccount> getAccountByAccountNumber(String accountNumber) {
-        return bankAccountRepository.findByAccountNumber(accountNumber);
+        return bankAccountRepository.findByAccountNumber(accountNumber).map(this::withCurrentBalance);
     }
 
     @Transactional(readOnly = true)
     public List<BankAccount> getAccountsByUserId(Long userId) {
-        return bankAccountRepository.findByUserId(userId);
+        List<BankAccount> accounts = bankAccountRepository.findByUserId(userId);
+        accounts.forEach(this::withCurrentBalance);
+        return accounts;
+    }
+
+    // Projekcja liczy saldo z transakcji i nie widzi korekt administracyjnych - saldo zawsze z balanceUpdater
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> getCurrentBalancesByUserId(Long userId) {
+        return bankAccountRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(BankAccount::getId, balanceUpdater::currentBalance));
     }
 
     @Transactional(readOnly = true)
     public List<BankAccount> getAllBankAccounts() {
-        return bankAccountRepository.findAll();
+        List<BankAccount> accounts = bankAccountRepository.findAll();
+        accounts.forEach(this::withCurrentBalance);
+        return accounts;
+    }
+
+    // Encja nie może zostać zapisana z saldem z pamięci: gdy odczyt dołącza do transakcji zapisu
+    // (np. żądanie wykonywane przez IdempotencyService), encja zachowuje saldo zapisane w bazie.
+    private BankAccount withCurrentBalance(BankAccount account) {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            account.setBalance(balanceUpdater.currentBalance(account));
+        }
+        return account;
     }
 
     @Transactional
@@ -116,12 +162,16 @@ public class AccountService {
         // Apply updates from DTO to the existing entity
         // Only update fields that are meant to be changeable via PUT
         if (accountDto.balance() != null) {
-            existingAccount.setBalance(accountDto.balance());
+            balanceUpdater.overwrite(existingAccount, accountDto.balance());
         }
         if (accountDto.currency() != null && !accountDto.currency().isBlank()) {
             existingAccount.setCurrency(accountDto.currency());
         }
         if (accountDto.status() != null) {
+            if (accountDto.status() != existingAccount.getStatus()) {
+                // Data zamknięcia wyznacza ostatni okres wyciągów konta; ponowne otwarcie ją kasuje
+                existingAccount.setClosedAt(accountDto.status() == BankAccount.AccountStatus.CLOSED ? LocalDateTime.now() : null);
+            }
             existingAccount.setStatus(accountDto.status());
         }
         // accountNumber, userId, bank, createdAt are typically NOT updated via this method.
@@ -130,6 +180,7 @@ public class AccountService {
         existingAccount.setUpdatedAt(LocalDateTime.now()); // Update timestamp
 
         BankAccount updatedAccount = bankAccountRepository.save(existingAccount);
+        invalidateMetadata(updatedAccount, AccountChangedEvent.ChangeType.UPDATED);
 
         auditService.logEvent(
                 username,
@@ -155,6 +206,8 @@ public class AccountService {
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + accountId));
 
         bankAccountRepository.delete(account);
+        evictBalanceAfterCommit(accountId);
+        invalidateMetadata(account, AccountChangedEvent.ChangeType.DELETED);
 
         // Log account deletion
         auditService.logEvent(
@@ -168,34 +221,40 @@ public class AccountService {
         log.info("Account {} deleted successfully.", accountId);
     }
 
+    // Saldo w pamięci znika dopiero po commicie - wycofane usunięcie nie może zgubić sald z write-behind
+    private void evictBalanceAfterCommit(Long accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            balanceUpdater.evict(accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                balanceUpdater.evict(accountId);
+            }
+        });
+    }
+
+    // Lokalnie po commicie, na pozostałych węzłach przez outbox -> Kafka
+    private void invalidateMetadata(BankAccount account, AccountChangedEvent.ChangeType changeType) {
+        accountMetadataCache.evictAfterCommit(account.getId());
+        publishAccountChanged(account, changeType);
+    }
+
+    private void publishAccountChanged(BankAccount account, AccountChangedEvent.ChangeType changeType) {
+        eventProducer.publishAccountChangedEvent(AccountChangedEvent.builder()
+                .accountId(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .changeType(changeType)
+                .changedAt(LocalDateTime.now())
+                .build());
+    }
+
     @Transactional
     public BankAccount updateAccountBalance(Long accountId, BigDecimal amount) {
         BankAccount account = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new EntityNotFoundException("Bank account with ID " + accountId + " not found."));
-        account.setBalance(account.getBalance().add(amount));
-        return bankAccountRepository.save(account);
-    }
-    @Transactional
-    public void applyDailyInterest() {
-        log.info("Applying daily interest to all active accounts.");
-        List<BankAccount> activeAccounts = bankAccountRepository.findByStatus(BankAccount.AccountStatus.ACTIVE);
-
-        for (BankAccount account : activeAccounts) {
-            // Prosta logika naliczania odsetek: np. 0.01% dziennie
-            BigDecimal dailyInterestRate = new BigDecimal("0.0001"); // 0.01%
-            BigDecimal interestAmount = account.getBalance().multiply(dailyInterestRate)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            if (interestAmount.compareTo(BigDecimal.ZERO) > 0) {
-                account.setBalance(account.getBalance().add(interestAmount));
-                bankAccountRepository.save(account);
-
-                // Opcjonalnie: Zapisz to jako transakcję typu INTEREST_PAYOUT
-                // Upewnij się, że masz TransactionType.INTEREST_PAYOUT w Transaction.java
-                transactionService.createInterestPayoutTransaction(account, interestAmount); // Zakładam taką metodę w TransactionService
-                log.debug("Applied {} interest to account {}", interestAmount, account.getAccountNumber());
-            }
-        }
-        log.info("Daily interest application completed.");
+        balanceUpdater.apply(List.of(BalanceLeg.adjustment(account, Money.of(amount, account.getCurrency())))); // Kwota ze znakiem, bez kontroli środków
+        return account;
     }
 }
@@ -0,0 +1,232 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.model.BalanceSnapshotState;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.DailyBalanceSnapshot;
+import com.milosz.podsiadly.domain.bank.repository.AccountAmount;
+import com.milosz.podsiadly.domain.bank.repository.BalanceSnapshotStateRepository;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.DailyBalanceSnapshotRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dzienne migawki sald (saldo na koniec dnia) i zapytania o saldo na wskazany dzień.
+ * Migawki są dopisywane przyrostowo: saldo zamknięcia = poprzednia migawka + zmiana netto
+ * zakończonych transakcji danego dnia. Dzień bez ruchu na koncie nie tworzy migawki.
+ * <p>
+ * Transakcje z datą wsteczną, sprzed ostatniego zamkniętego dnia, nie korygują już zapisanych migawek.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BalanceSnapshotService {
+
+    private static final int ACCOUNT_CHUNK_SIZE = 1000;
+
+    private final DailyBalanceSnapshotRepository snapshotRepository;
+    private final BalanceSnapshotStateRepository stateRepository;
+    private final TransactionRepository transactionRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final ScheduledJobLock scheduledJobLock;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${banking.snapshot.max-catch-up-days:31}")
+    private int maxCatchUpDays;
+
+    /**
+     * Zamyka kolejne dni od dnia po ostatnim zamkniętym ({@link BalanceSnapshotState}) do wczoraj, najwyżej
+     * banking.snapshot.max-catch-up-days w jednym przebiegu - po dłuższej przerwie zaległe dni domykają kolejne
+     * przebiegi, bez luk w migawkach. Stan przesuwa się także po dniach bez ruchu, więc długa cisza nie zatrzymuje migawek.
+     * Bez stanu i migawek zaczyna od dnia max-catch-up-days przed wczoraj (pierwsze migawki liczone od bieżącego salda).
+     * Przy wielu instancjach dni zamyka tylko ta z dzierżawą, a dzierżawa trwa do zatwierdzenia migawek.
+     */
+    @Scheduled(cron = "${banking.snapshot.cron:0 5 0 * * *}")
+    public void closeMissingDays() {
+        scheduledJobLock.runExclusively("balance-snapshots",
+                () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> closePendingDays()));
+    }
+
+    private void closePendingDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        int maxDays = Math.max(1, maxCatchUpDays);
+        LocalDate from = closedUntil()
+                .map(last -> last.plusDays(1))
+                .orElse(yesterday.minusDays(maxDays - 1L));
+        LocalDate until = from.plusDays(maxDays - 1L);
+        if (until.isBefore(yesterday)) {
+            log.warn("Daily balance snapshots lag behind: closing {} to {}, remaining days until {} in the next runs.",
+                    from, until, yesterday);
+        } else {
+            until = yesterday;
+        }
+        if (until.isBefore(from)) {
+            return; // Wczoraj już zamknięty
+        }
+        for (LocalDate day = from; !day.isAfter(until); day = day.plusDays(1)) {
+            closeDay(day);
+        }
+        // W tej samej transakcji co migawki - wycofany przebieg nie przesuwa stanu
+        BalanceSnapshotState state = stateRepository.findById(BalanceSnapshotState.SINGLETON_ID)
+                .orElseGet(() -> BalanceSnapshotState.builder().id(BalanceSnapshotState.SINGLETON_ID).build());
+        state.setClosedUntil(until);
+        stateRepository.save(state);
+    }
+
+    // Baza sprzed wiersza stanu: ostatni zamknięty dzień to dzień najnowszej migawki
+    private Optional<LocalDate> closedUntil() {
+        return stateRepository.findById(BalanceSnapshotState.SINGLETON_ID)
+                .map(BalanceSnapshotState::getClosedUntil)
+                .or(snapshotRepository::findLatestSnapshotDate);
+    }
+
+    /**
+     * Zapisuje migawki zamknięcia dnia dla kont z ruchem w tym dniu. Ponowne wywołanie dla tego samego dnia
+     * przelicza migawki zamiast je dublować.
+     *
+     * @param day Dzień do zamknięcia.
+     * @return Liczba zapisanych migawek.
+     */
+    @Transactional
+    public int closeDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+
+        Map<Long, BigDecimal> netChanges = new HashMap<>();
+        for (AccountAmount debit : transactionRepository.sumDebitsByAccount(from, to)) {
+            netChanges.merge(debit.accountId(), debit.amount().negate(), BigDecimal::add);
+        }
+        for (AccountAmount credit : transactionRepository.sumCreditsByAccount(from, to)) {
+            netChanges.merge(credit.accountId(), credit.amount(), BigDecimal::add);
+        }
+        if (netChanges.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> accountIds = new ArrayList<>(netChanges.keySet());
+        List<DailyBalanceSnapshot> snapshots = new ArrayList<>(accountIds.size());
+        for (int start = 0; start < accountIds.size(); start += ACCOUNT_CHUNK_SIZE) {
+            List<Long> chunk = accountIds.subList(start, Math.min(start + ACCOUNT_CHUNK_SIZE, accountIds.size()));
+            Map<Long, DailyBalanceSnapshot> previous = byAccountId(snapshotRepository.findLatestBefore(chunk, day));
+            Map<Long, DailyBalanceSnapshot> existing = byAccountId(snapshotRepository.findByAccountIdInAndSnapshotDate(chunk, day));
+
+            for (Long accountId : chunk) {
+                DailyBalanceSnapshot prior = previous.get(accountId);
+                BigDecimal closing = prior != null
+                        ? prior.getClosingBalance().add(netChanges.get(accountId))
+                        : seedClosingBalance(accountId, to);
+                if (closing == null) {
+                    continue; // Konto zostało usunięte
+                }
+                DailyBalanceSnapshot snapshot = existing.getOrDefault(accountId,
+                        DailyBalanceSnapshot.builder().accountId(accountId).snapshotDate(day).build());
+                snapshot.setClosingBalance(closing);
+                snapshots.add(snapshot);
+            }
+        }
+        snapshotRepository.saveAll(snapshots);
+        log.info("Closed {} with {} daily balance snapshots.", day, snapshots.size());
+        return snapshots.size();
+    }
+
+    /**
+     * Saldo konta na koniec wskazanego dnia: najbliższa wcześniejsza migawka plus zmiany od niej.
+     *
+     * @param accountId ID konta.
+     * @param date      Dzień, na którego koniec liczone jest saldo.
+     * @return Saldo zamknięcia dnia.
+     * @throws ResourceNotFoundException jeśli konto nie istnieje.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAsOf(Long accountId, LocalDate date) {
+        BankAccount account = bankAccountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found with ID: " + accountId));
+        return balanceAsOf(account, date);
+    }
+
+    /**
+     * Średnie saldo dzienne w zakresie dni [from, to] (saldo zamknięcia każdego dnia).
+     *
+     * @param account Konto.
+     * @param from    Pierwszy dzień zakresu.
+     * @param to      Ostatni dzień zakresu.
+     * @return Średnie saldo, zaokrąglone do 2 miejsc.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal averageDailyBalance(BankAccount account, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Data końcowa nie może być wcześniejsza niż początkowa.");
+        }
+        LocalDate closedUntil = closedUntil().orElse(from.minusDays(1));
+        Map<LocalDate, BigDecimal> closingByDay = snapshotRepository
+                .findByAccountIdAndSnapshotDateBetweenOrderBySnapshotDateAsc(account.getId(), from.plusDays(1), to).stream()
+                .collect(Collectors.toMap(DailyBalanceSnapshot::getSnapshotDate, DailyBalanceSnapshot::getClosingBalance));
+
+        BigDecimal running = balanceAsOf(account, from);
+        BigDecimal total = running;
+        for (LocalDate day = from.plusDays(1); !day.isAfter(to); day = day.plusDays(1)) {
+            if (day.isAfter(closedUntil)) {
+                running = balanceAsOf(account, day); // Dzień jeszcze nie zamknięty - brak migawki nie oznacza braku ruchu
+            } else {
+                running = closingByDay.getOrDefault(day, running);
+            }
+            total = total.add(running);
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        return total.divide(BigDecimal.valueOf(days), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Saldo zamknięcia dnia dla wczytanego już konta (np. w zadaniach masowych).
+     *
+     * @param account Konto.
+     * @param date    Dzień, na którego koniec liczone jest saldo.
+     * @return Saldo zamknięcia dnia.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAsOf(BankAccount account, LocalDate date) {
+        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+        return snapshotRepository.findFirstByAccountIdAndSnapshotDateLessThanEqualOrderBySnapshotDateDesc(account.getId(), date)
+                .map(snapshot -> snapshot.getClosingBalance().add(transactionRepository.sumNetChange(
+                        account.getId(), snapshot.getSnapshotDate().plusDays(1).atStartOfDay(), endOfDay)))
+                // Brak migawki: od bieżącego salda odejmij zmiany po tym dniu
+                .orElseGet(() -> balanceUpdater.currentBalance(account)
+                        .subtract(transactionRepository.sumNetChangeSince(account.getId(), endOfDay)));
+    }
+
+    // Pierwsza migawka konta: bieżące saldo minus wszystko, co zaksięgowano po końcu dnia
+    private BigDecimal seedClosingBalance(Long accountId, LocalDateTime endOfDay) {
+        return bankAccountRepository.findById(accountId)
+                .map(account -> balanceUpdater.currentBalance(account)
+                        .subtract(transactionRepository.sumNetChangeSince(accountId, endOfDay)))
+                .orElse(null);
+    }
+
+    private static Map<Long, DailyBalanceSnapshot> byAccountId(List<DailyBalanceSnapshot> snapshots) {
+        return snapshots.stream().collect(Collectors.toMap(DailyBalanceSnapshot::getAccountId, Function.identity()));
+    }
+}
@@ -0,0 +1,288 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionItem;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionRequest;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionResponse;
+import com.milosz.podsiadly.domain.bank.dto.BatchTransactionResult;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionBatchRepository;
+import com.milosz.podsiadly.core.kafka.producer.EventProducer;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Przetwarzanie wsadowe transakcji (np. nocne listy płac).
+ * Wszystkie pozycje są walidowane w pamięci, salda zmieniane są jednym wywołaniem
+ * {@link BalanceUpdater} (jedna noga na konto), a wiersze transakcji zapisywane przez JDBC batch.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BatchTransactionService {
+
+    private static final int MAX_APPLY_ATTEMPTS = 3;
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionBatchRepository transactionBatchRepository;
+    private final BalanceUpdater balanceUpdater;
+    private final EventProducer eventProducer;
+    private final AuditService auditService;
+    private final IdGenerator idGenerator;
+    private final PostingService postingService;
+    private final EntityManager entityManager;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    /**
+     * Przetwarza wsad transakcji w jednej transakcji bazodanowej.
+     * Pozycje nieprawidłowe (brak konta, niezgodna waluta, brak środków) są odrzucane
+     * i zwracane ze statusem FAILED; pozostałe są księgowane w kolejności przesłania.
+     * Gdy równoległa operacja obciąży konto między sprawdzeniem środków a zmianą sald, wsad jest planowany
+     * od nowa na świeżych saldach (do {@value #MAX_APPLY_ATTEMPTS} prób); potem zaakceptowane pozycje są odrzucane.
+     *
+     * @param request  Wsad transakcji.
+     * @param username Użytkownik zlecający wsad (do audytu).
+     * @return Wynik dla każdej pozycji wsadu.
+     */
+    @Transactional
+    public BatchTransactionResponse processBatch(BatchTransactionRequest request, String username) {
+        List<BatchTransactionItem> items = request.items();
+        Map<Long, BankAccount> accountsById = loadSourceAccounts(items);
+        Map<String, BankAccount> accountsByNumber = loadTargetAccounts(items);
+        accountsByNumber.values().forEach(account -> accountsById.putIfAbsent(account.getId(), account));
+        LocalDateTime now = LocalDateTime.now();
+
+        BatchPlan plan = plan(items, accountsById, accountsByNumber, now);
+        for (int attempt = 1; !plan.accepted().isEmpty(); attempt++) {
+            try {
+                balanceUpdater.apply(toLegs(plan.netDeltas(), accountsById));
+                break;
+            } catch (InsufficientFundsException e) {
+                if (attempt >= MAX_APPLY_ATTEMPTS) {
+                    log.warn("Batch for user {} rejected after {} attempts, balances keep changing: {}", username, attempt, e.getMessage());
+                    plan = plan.rejectAccepted("Saldo konta zmieniło się w trakcie przetwarzania wsadu: " + e.getMessage());
+                    break;
+                }
+                log.info("Balance changed concurrently during batch for user {} (attempt {}), re-planning: {}", username, attempt, e.getMessage());
+                plan.openingBalances().keySet().forEach(accountId -> refresh(accountsById.get(accountId)));
+                plan = plan(items, accountsById, accountsByNumber, now);
+            }
+        }
+
+        List<Transaction> accepted = plan.accepted();
+        List<BatchTransactionResult> results = plan.results();
+        if (!accepted.isEmpty()) {
+            transactionBatchRepository.insertAll(accepted, jdbcBatchSize);
+            postingService.postAll(accepted); // ID nadane przez insertAll
+
+            for (int i = 0; i < accepted.size(); i++) {
+                Transaction transaction = accepted.get(i);
+                int index = plan.acceptedIndexes().get(i);
+                results.set(index, new BatchTransactionResult(index,
+                        transaction.getId(), transaction.getTransactionRef(), transaction.getStatus(), null));
+                eventProducer.publishTransactionCompletedEvent(TransactionEvents.completed(transaction));
+            }
+        }
+
+        int failed = items.size() - accepted.size();
+        log.info("Batch of {} transactions processed for user {}: {} completed, {} failed.",
+                items.size(), username, accepted.size(), failed);
+        auditService.logEvent(
+                username,
+                "TRANSACTION_BATCH_PROCESSED",
+                "Transaction",
+                null,
+                "Wsad " + items.size() + " transakcji: " + accepted.size() + " zakończonych, " + failed + " odrzuconych.",
+                failed == 0 ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+        return new BatchTransactionResponse(items.size(), accepted.size(), failed, results);
+    }
+
+    /**
+     * Pozycje zaakceptowane i odrzucone oraz zmiany netto sald (w groszach) wyliczone z sald otwarcia.
+     * Wyniki pozycji zaakceptowanych są uzupełniane po zapisie.
+     */
+    private record BatchPlan(List<BatchTransactionResult> results, List<Transaction> accepted, List<Integer> acceptedIndexes,
+                             Map<Long, Long> openingBalances, Map<Long, Long> netDeltas) {
+
+        BatchPlan rejectAccepted(String reason) {
+            List<BatchTransactionResult> rejected = new ArrayList<>(results);
+            acceptedIndexes.forEach(index -> rejected.set(index,
+                    new BatchTransactionResult(index, null, null, Transaction.TransactionStatus.FAILED, reason)));
+            return new BatchPlan(rejected, List.of(), List.of(), openingBalances, Map.of());
+        }
+    }
+
+    private BatchPlan plan(List<BatchTransactionItem> items, Map<Long, BankAccount> accountsById,
+                           Map<String, BankAccount> accountsByNumber, LocalDateTime now) {
+        // Saldo otwarcia + zmiany netto z wcześniejszych pozycji = środki dostępne dla kolejnej pozycji (w groszach)
+        Map<Long, Long> openingBalances = new HashMap<>();
+        Map<Long, Long> netDeltas = new LinkedHashMap<>();
+        List<BatchTransactionResult> results = new ArrayList<>(items.size());
+        List<Transaction> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int index = 0; index < items.size(); index++) {
+            BatchTransactionItem item = items.get(index);
+            try {
+                BankAccount source = item.sourceAccountId() != null ? accountsById.get(item.sourceAccountId()) : null;
+                BankAccount target = item.targetAccountNumber() != null ? accountsByNumber.get(item.targetAccountNumber()) : null;
+                validate(item, source, target);
+
+                long amount = Money.toMinorUnits(item.amount(), item.currency());
+                if (debitsSource(item.type())) {
+                    long available = openingBalances.computeIfAbsent(source.getId(), id -> balanceUpdater.currentMoney(source).minorUnits())
+                            + netDeltas.getOrDefault(source.getId(), 0L);
+                    if (available < amount) {
+                        throw new IllegalStateException("Niewystarczające środki na koncie źródłowym.");
+                    }
+                    netDeltas.merge(source.getId(), -amount, Math::addExact);
+                }
+                if (creditsTarget(item.type())) {
+                    netDeltas.merge(target.getId(), amount, Math::addExact);
+                }
+
+                Transaction transaction = Transaction.builder()
+                        .transactionRef(idGenerator.nextRef("TRN-"))
+                        .sourceAccount(debitsSource(item.type()) ? source : null)
+                        .targetAccount(creditsTarget(item.type()) ? target : null)
+                        .amount(item.amount())
+                        .currency(item.currency())
+                        .type(item.type())
+                        .status(Transaction.TransactionStatus.COMPLETED)
+                        .description(item.description() != null ? item.description() : defaultDescription(item.type(), source, target))
+                        .transactionDate(now)
+                        .build();
+                accepted.add(transaction);
+                acceptedIndexes.add(index);
+                results.add(null); // uzupełniane po zapisie
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(new BatchTransactionResult(index, null, null, Transaction.TransactionStatus.FAILED, e.getMessage()));
+            }
+        }
+        return new BatchPlan(results, accepted, acceptedIndexes, openingBalances, netDeltas);
+    }
+
+    // Tryby bazodanowe czytają saldo z encji - kolejny plan musi widzieć saldo po równoległym obciążeniu
+    private void refresh(BankAccount account) {
+        if (entityManager.contains(account)) {
+            entityManager.refresh(account);
+        }
+    }
+
+    private Map<Long, BankAccount> loadSourceAccounts(List<BatchTransactionItem> items) {
+        Set<Long> ids = items.stream()
+                .map(BatchTransactionItem::sourceAccountId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bankAccountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    private Map<String, BankAccount> loadTargetAccounts(List<BatchTransactionItem> items) {
+        Set<String> numbers = items.stream()
+                .map(BatchTransactionItem::targetAccountNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(HashSet::new));
+        if (numbers.isEmpty()) {
+            return new HashMap<>();
+        }
+        return bankAccountRepository.findByAccountNumberIn(numbers).stream()
+                .collect(Collectors.toMap(BankAccount::getAccountNumber, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+
+    private void validate(BatchTransactionItem item, BankAccount source, BankAccount target) {
+        if (item.type() == Transaction.TransactionType.REVERSAL) {
+            throw new IllegalArgumentException("Transakcje odwracające tworzy wyłącznie zadanie zwrotów.");
+        }
+        if (debitsSource(item.type())) {
+            if (source == null) {
+                throw new IllegalArgumentException("Konto źródłowe o ID " + item.sourceAccountId() + " nie znaleziono.");
+            }
+            if (!source.getCurrency().equals(item.currency())) {
+                throw new IllegalArgumentException("Waluta transakcji musi być zgodna z walutą konta źródłowego.");
+            }
+        }
+        if (creditsTarget(item.type())) {
+            if (target == null) {
+                throw new IllegalArgumentException("Konto docelowe o numerze " + item.targetAccountNumber() + " nie znaleziono.");
+            }
+            if (!target.getCurrency().equals(item.currency())) {
+                throw new IllegalArgumentException("Waluta transakcji musi być zgodna z walutą konta docelowego.");
+            }
+        }
+        if (item.type() == Transaction.TransactionType.TRANSFER && source.getId().equals(target.getId())) {
+            throw new IllegalArgumentException("Konto źródłowe i docelowe muszą być różne.");
+        }
+    }
+
+    /**
+     * Jedna noga na konto: ujemne salda netto są obciążeniami ze sprawdzeniem środków,
+     * dodatnie - uznaniami. Środki zostały już sprawdzone pozycja po pozycji,
+     * sprawdzenie w {@link BalanceUpdater} chroni przed równoległymi zmianami.
+     */
+    private List<BalanceLeg> toLegs(Map<Long, Long> netDeltas, Map<Long, BankAccount> accountsById) {
+        List<BalanceLeg> legs = new ArrayList<>(netDeltas.size());
+        netDeltas.forEach((accountId, delta) -> {
+            BankAccount account = accountsById.get(accountId);
+            if (delta < 0) {
+                legs.add(new BalanceLeg(account, delta, "Niewystarczające środki na koncie " + account.getAccountNumber() + "."));
+            } else if (delta > 0) {
+                legs.add(new BalanceLeg(account, delta, null));
+            }
+        });
+        return legs;
+    }
+
+    private static boolean debitsSource(Transaction.TransactionType type) {
+        return switch (type) {
+            case TRANSFER, WITHDRAWAL, LOAN_REPAYMENT, LOAN_INTEREST, FEE, TERM_DEPOSIT_PLACEMENT, REVERSAL -> true;
+            case DEPOSIT, INTEREST_PAYOUT, LOAN_DISBURSEMENT, TERM_DEPOSIT_MATURITY -> false;
+        };
+    }
+
+    private static boolean creditsTarget(Transaction.TransactionType type) {
+        return switch (type) {
+            case TRANSFER, DEPOSIT, INTEREST_PAYOUT, LOAN_DISBURSEMENT, TERM_DEPOSIT_MATURITY, REVERSAL -> true;
+            case WITHDRAWAL, LOAN_REPAYMENT, LOAN_INTEREST, FEE, TERM_DEPOSIT_PLACEMENT -> false;
+        };
+    }
+
+    private static String defaultDescription(Transaction.TransactionType type, BankAccount source, BankAccount target) {
+        return switch (type) {
+            case TRANSFER -> "Transfer from " + source.getAccountNumber() + " to " + target.getAccountNumber();
+            case REVERSAL -> "Reversal from " + source.getAccountNumber() + " to " + target.getAccountNumber();
+            case DEPOSIT, INTEREST_PAYOUT, LOAN_DISBURSEMENT, TERM_DEPOSIT_MATURITY -> type + " to " + target.getAccountNumber();
+            case WITHDRAWAL, LOAN_REPAYMENT, LOAN_INTEREST, FEE, TERM_DEPOSIT_PLACEMENT -> type + " from " + source.getAccountNumber();
+        };
+    }
+}
@@ -1,5 +1,8 @@
 package com.milosz.podsiadly.domain.bank.service;
 
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.deposit.DepositMaturityJob;
+import com.milosz.podsiadly.domain.bank.deposit.DepositMaturityProcessor;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
 import com.milosz.podsiadly.domain.bank.model.Deposit;
 import com.milosz.podsiadly.domain.bank.model.Transaction;
@@ -13,7 +16,6 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class DepositService {
@@ -21,11 +23,16 @@ public class DepositService {
     private final DepositRepository depositRepository;
     private final BankAccountRepository bankAccountRepository;
     private final TransactionService transactionService; // Do tworzenia transakcji depozytu
+    private final IdGenerator idGenerator;
+    private final DepositMaturityProcessor depositMaturityProcessor;
 
-    public DepositService(DepositRepository depositRepository, BankAccountRepository bankAccountRepository, TransactionService transactionService) {
+    public DepositService(DepositRepository depositRepository, BankAccountRepository bankAccountRepository, TransactionService transactionService,
+                          IdGenerator idGenerator, DepositMaturityProcessor depositMaturityProcessor) {
         this.depositRepository = depositRepository;
         this.bankAccountRepository = bankAccountRepository;
         this.transactionService = transactionService;
+        this.idGenerator = idGenerator;
+        this.depositMaturityProcessor = depositMaturityProcessor;
     }
 
     @Transactional
@@ -41,23 +48,18 @@ public class DepositService {
         }
 
         deposit.setAccount(account);
-        deposit.setDepositNumber("DEP-" + UUID.randomUUID().toString());
+        deposit.setDepositNumber(idGenerator.nextRef("DEP-"));
         deposit.setStartDate(LocalDate.now());
         deposit.setEndDate(deposit.getStartDate().plusMonths(deposit.getTermMonths()));
         deposit.setStatus(Deposit.DepositStatus.ACTIVE);
         //deposit.setOutstandingBalance(deposit.getAmount()); // Na początku, outstandingBalance to pełna kwota
 
-        // Zablokuj środki na koncie bankowym
-        account.setBalance(account.getBalance().subtract(deposit.getAmount()));
-        bankAccountRepository.save(account);
-
-        // Utwórz transakcję dla depozytu
+        // Utwórz transakcję blokującą środki na lokacie - saldo konta obciąża wyłącznie processTransaction
         Transaction depositTransaction = new Transaction();
-        depositTransaction.setSourceAccount(account); // Konto źródłowe dla depozytu jest jednocześnie docelowym
-        depositTransaction.setTargetAccount(account);
+        depositTransaction.setSourceAccount(account); // Stroną Ma jest konto wewnętrzne banku "lokaty terminowe"
         depositTransaction.setAmount(deposit.getAmount());
         depositTransaction.setCurrency(account.getCurrency());
-        depositTransaction.setType(Transaction.TransactionType.DEPOSIT);
+        depositTransaction.setType(Transaction.TransactionType.TERM_DEPOSIT_PLACEMENT); // Środki schodzą z konta na lokatę
         depositTransaction.setDescription("Creating a deposit " + deposit.getDepositNumber());
         transactionService.processTransaction(depositTransaction); // Użyj TransactionService do przetworzenia
 
@@ -98,38 +100,16 @@ public class DepositService {
 
     /**
      * Procesuje lokatę po jej dojrzewaniu.
-     * Zwraca kwotę główną + odsetki na konto użytkownika.
+     * Zwraca kwotę główną + odsetki na konto użytkownika; lokaty w terminie zapadają też automatycznie ({@link DepositMaturityJob}).
      */
     @Transactional
     public void matureDeposit(Long depositId) {
-        Deposit deposit = depositRepository.findById(depositId)
+        Deposit deposit = depositRepository.findByIdForUpdate(depositId)
                 .orElseThrow(() -> new EntityNotFoundException("Deposit with ID " + depositId + " not found."));
 
         if (deposit.getStatus() != Deposit.DepositStatus.ACTIVE || !deposit.getEndDate().isBefore(LocalDate.now())) {
             throw new IllegalStateException("The deposit is not active or has not reached maturity.");
         }
-
-        BigDecimal totalPayout = deposit.getAmount().add(
-                deposit.getAmount().multiply(deposit.getInterestRate())
-                        .multiply(BigDecimal.valueOf(deposit.getTermMonths()))
-                        .divide(BigDecimal.valueOf(12), BigDecimal.ROUND_HALF_UP)
-        );
-
-        BankAccount account = deposit.getAccount();
-        account.setBalance(account.getBalance().add(totalPayout));
-        bankAccountRepository.save(account);
-
-        deposit.setStatus(Deposit.DepositStatus.MATURED);
-        depositRepository.save(deposit);
-
-        // Utwórz transakcję dla wypłaty lokaty z odsetkami
-        Transaction payoutTransaction = new Transaction();
-        payoutTransaction.setSourceAccount(account); // Wypłata z lokaty na to samo konto
-        payoutTransaction.setTargetAccount(account);
-        payoutTransaction.setAmount(totalPayout);
-        payoutTransaction.setCurrency(account.getCurrency());
-        payoutTransaction.setType(Transaction.TransactionType.INTEREST_PAYOUT); // lub WITHDRAWAL
-        payoutTransaction.setDescription("Withdrawal of funds from the deposit " + deposit.getDepositNumber() + " along with interest.");
-        transactionService.processTransaction(payoutTransaction);
+        depositMaturityProcessor.mature(List.of(deposit));
     }
 }
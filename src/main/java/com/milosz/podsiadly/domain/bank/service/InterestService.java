@@ -0,0 +1,78 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.domain.bank.interest.InterestAccrualRunner;
+import com.milosz.podsiadly.domain.bank.interest.InterestProperties;
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Naliczanie odsetek dziennych od sald aktywnych kont.
+ * Naliczenie wykonuje w tle {@link InterestAccrualRunner} przedziałami kont, każdy w osobnej transakcji.
+ */
+@RequiredArgsConstructor
+@Service
+public class InterestService {
+
+    private final InterestRunRepository interestRunRepository;
+    private final InterestAccrualRunner interestAccrualRunner;
+    private final InterestProperties interestProperties;
+
+    /**
+     * Rozpoczyna naliczenie odsetek za wskazany dzień.
+     *
+     * @param accrualDate Dzień, za który naliczane są odsetki.
+     * @return Zaplanowane naliczenie.
+     * @throws IllegalArgumentException jeśli dzień jeszcze się nie zakończył, jest starszy niż ostatnie zakończone
+     *                                  naliczenie lub wykracza poza okno banking.interest.backfill-days.
+     * @throws IllegalStateException jeśli za ten dzień istnieje już naliczenie.
+     */
+    public InterestRun startRun(LocalDate accrualDate) {
+        if (!accrualDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Odsetki można naliczyć wyłącznie za zakończony dzień.");
+        }
+        requireWithinBackfillWindow(accrualDate);
+        Optional<LocalDate> lastCompleted = interestRunRepository.findLastCompletedAccrualDate();
+        if (lastCompleted.isPresent() && accrualDate.isBefore(lastCompleted.get())) {
+            throw new IllegalArgumentException("Odsetki za " + accrualDate + " są starsze niż ostatnie zakończone naliczenie za "
+                    + lastCompleted.get() + ".");
+        }
+        return interestAccrualRunner.start(accrualDate);
+    }
+
+    /**
+     * Wznawia naliczenie zakończone błędem - przetwarzane są tylko niewykonane przedziały kont.
+     *
+     * @param id ID naliczenia.
+     * @return Wznowione naliczenie.
+     * @throws IllegalArgumentException jeśli dzień naliczenia wykracza poza okno banking.interest.backfill-days.
+     * @throws IllegalStateException jeśli naliczenie zostało zakończone lub nadal trwa.
+     */
+    public InterestRun resumeRun(Long id) {
+        interestRunRepository.findById(id).ifPresent(run -> requireWithinBackfillWindow(run.getAccrualDate()));
+        return interestAccrualRunner.resume(id);
+    }
+
+    // Naliczenie za dawno zamknięty dzień (np. literówka w dacie) wypłaciłoby odsetki od dzisiejszych sald
+    private void requireWithinBackfillWindow(LocalDate accrualDate) {
+        if (accrualDate.isBefore(LocalDate.now().minusDays(interestProperties.getBackfillDays()))) {
+            throw new IllegalArgumentException("Odsetki można naliczyć najwyżej " + interestProperties.getBackfillDays() + " dni wstecz.");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<InterestRun> getRunById(Long id) {
+        return interestRunRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<InterestRun> getRecentRuns() {
+        return interestRunRepository.findTop50ByOrderByAccrualDateDesc();
+    }
+}
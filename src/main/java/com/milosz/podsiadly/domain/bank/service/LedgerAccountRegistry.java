@@ -0,0 +1,148 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount;
+import com.milosz.podsiadly.domain.bank.model.LedgerBalance;
+import com.milosz.podsiadly.domain.bank.repository.LedgerAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.LedgerBalanceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves (and on first use creates) the ledger accounts of customer accounts and the bank-owned
+ * internal accounts. Ledger accounts are cached for the lifetime of the application.
+ * <p>
+ * A hot internal account is one logical account backed by several ledger_balances rows (slots).
+ * Writers rotate over the slots with {@link #nextSlot}, so concurrent postings to the same account
+ * lock different rows; readers sum all slots. The slot count can only grow: missing rows are added
+ * when the configured count is raised, and no balance ever has to be moved between slots.
+ */
+@Slf4j
+@Component
+public class LedgerAccountRegistry {
+
+    private final LedgerAccountRepository ledgerAccountRepository;
+    private final LedgerBalanceRepository ledgerBalanceRepository;
+    private final TransactionTemplate requiresNew;
+    private final LedgerProperties properties;
+    private final ConcurrentHashMap<String, LedgerAccount> byCode = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicInteger> slotCursors = new ConcurrentHashMap<>();
+
+    public LedgerAccountRegistry(LedgerAccountRepository ledgerAccountRepository,
+                                 LedgerBalanceRepository ledgerBalanceRepository,
+                                 LedgerProperties properties,
+                                 PlatformTransactionManager transactionManager) {
+        this.ledgerAccountRepository = ledgerAccountRepository;
+        this.ledgerBalanceRepository = ledgerBalanceRepository;
+        this.properties = properties;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public LedgerAccount customerAccount(BankAccount account) {
+        return resolve(LedgerAccount.builder()
+                .code("CUST:" + account.getId())
+                .type(LedgerAccount.LedgerAccountType.LIABILITY) // Środki klienta są zobowiązaniem banku
+                .currency(account.getCurrency())
+                .bankId(account.getBank() != null ? account.getBank().getId() : null)
+                .bankAccountId(account.getId())
+                .balanceSlots(1) // Wiersz konta klienta i tak jest blokowany przez aktualizację salda
+                .build());
+    }
+
+    public LedgerAccount internalAccount(Long bankId, LedgerAccount.InternalAccount internal, String currency) {
+        return resolve(LedgerAccount.builder()
+                .code("BANK:" + bankId + ":" + internal.name() + ":" + currency)
+                .type(internal.getType())
+                .currency(currency)
+                .bankId(bankId)
+                .balanceSlots(properties.slotsFor(internal))
+                .build());
+    }
+
+    /**
+     * Picks the slot for the next update of an account. Consecutive callers get consecutive slots,
+     * so up to balanceSlots concurrent postings never wait for each other's row lock.
+     */
+    public int nextSlot(LedgerAccount account) {
+        if (account.getBalanceSlots() <= 1) {
+            return 0;
+        }
+        int cursor = slotCursors.computeIfAbsent(account.getId(), id -> new AtomicInteger()).getAndIncrement();
+        return Math.floorMod(cursor, account.getBalanceSlots());
+    }
+
+    private LedgerAccount resolve(LedgerAccount candidate) {
+        LedgerAccount cached = byCode.get(candidate.getCode());
+        if (cached != null) {
+            return cached;
+        }
+        LedgerAccount account = ledgerAccountRepository.findByCode(candidate.getCode())
+                .map(existing -> existing.getBalanceSlots() < candidate.getBalanceSlots()
+                        ? growSlots(existing, candidate.getBalanceSlots())
+                        : existing)
+                .orElseGet(() -> create(candidate));
+        byCode.putIfAbsent(account.getCode(), account);
+        return account;
+    }
+
+    // Osobna transakcja: konto księgowe zostaje, nawet jeśli transakcja wywołująca zostanie wycofana
+    private LedgerAccount create(LedgerAccount candidate) {
+        try {
+            return requiresNew.execute(status -> {
+                LedgerAccount saved = ledgerAccountRepository.save(candidate);
+                ledgerBalanceRepository.saveAll(emptySlots(saved.getId(), 0, saved.getBalanceSlots()));
+                log.info("Created ledger account {} with {} balance slots.", saved.getCode(), saved.getBalanceSlots());
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Równoległe utworzenie tego samego konta - użyj zwycięzcy
+            return ledgerAccountRepository.findByCode(candidate.getCode()).orElseThrow(() -> e);
+        }
+    }
+
+    // Dodanie brakujących slotów po zwiększeniu banking.ledger.balance-slots; istniejące wiersze zostają bez zmian
+    private LedgerAccount growSlots(LedgerAccount account, int slots) {
+        try {
+            return requiresNew.execute(status -> {
+                // Odczyt we własnym kontekście - encja z transakcji wywołującej pozostaje niezmieniona
+                LedgerAccount current = ledgerAccountRepository.findById(account.getId()).orElseThrow();
+                int previous = current.getBalanceSlots();
+                if (previous >= slots) {
+                    return current;
+                }
+                ledgerBalanceRepository.saveAll(emptySlots(current.getId(), previous, slots));
+                current.setBalanceSlots(slots);
+                log.info("Ledger account {} grown from {} to {} balance slots.", current.getCode(), previous, slots);
+                return ledgerAccountRepository.save(current);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Inna instancja dodała sloty równolegle
+            return ledgerAccountRepository.findByCode(account.getCode()).orElseThrow(() -> e);
+        }
+    }
+
+    private static List<LedgerBalance> emptySlots(Long ledgerAccountId, int fromSlot, int toSlot) {
+        List<LedgerBalance> slots = new ArrayList<>(toSlot - fromSlot);
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            slots.add(LedgerBalance.builder()
+                    .ledgerAccountId(ledgerAccountId)
+                    .slot(slot)
+                    .debitTotal(BigDecimal.ZERO)
+                    .creditTotal(BigDecimal.ZERO)
+                    .postingCount(0L)
+                    .build());
+        }
+        return slots;
+    }
+}
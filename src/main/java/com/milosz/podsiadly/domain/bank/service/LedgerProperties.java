@@ -0,0 +1,36 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of the double-entry ledger.
+ * Automatically bound from banking.ledger.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.ledger")
+@Getter
+@Setter
+public class LedgerProperties {
+
+    /**
+     * Default number of balance slots (ledger_balances rows) of a bank-owned internal account.
+     */
+    private int internalBalanceSlots = 16;
+
+    /**
+     * Slot count overrides per internal account, e.g. CASH: 64 for the busiest counterparty.
+     * Raising a value adds slots to existing accounts; lowering it has no effect on them.
+     */
+    private Map<LedgerAccount.InternalAccount, Integer> balanceSlots = new EnumMap<>(LedgerAccount.InternalAccount.class);
+
+    public int slotsFor(LedgerAccount.InternalAccount internal) {
+        return Math.max(1, balanceSlots.getOrDefault(internal, internalBalanceSlots));
+    }
+}
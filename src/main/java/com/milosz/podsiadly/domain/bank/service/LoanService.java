@@ -1,10 +1,16 @@
 package com.milosz.podsiadly.domain.bank.service;
 
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.dto.LoanInstallmentDto;
+import com.milosz.podsiadly.domain.bank.loan.AmortizationSchedule;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
 import com.milosz.podsiadly.domain.bank.model.Loan;
+import com.milosz.podsiadly.domain.bank.model.LoanSchedule;
 import com.milosz.podsiadly.domain.bank.model.Transaction;
 import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
 import com.milosz.podsiadly.domain.bank.repository.LoanRepository;
+import com.milosz.podsiadly.domain.bank.repository.LoanScheduleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,19 +19,23 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class LoanService {
 
     private final LoanRepository loanRepository;
+    private final LoanScheduleRepository loanScheduleRepository;
     private final BankAccountRepository bankAccountRepository;
     private final TransactionService transactionService; // Do tworzenia transakcji kredytowych
+    private final IdGenerator idGenerator;
 
-    public LoanService(LoanRepository loanRepository, BankAccountRepository bankAccountRepository, TransactionService transactionService) {
+    public LoanService(LoanRepository loanRepository, LoanScheduleRepository loanScheduleRepository,
+                       BankAccountRepository bankAccountRepository, TransactionService transactionService, IdGenerator idGenerator) {
         this.loanRepository = loanRepository;
+        this.loanScheduleRepository = loanScheduleRepository;
         this.bankAccountRepository = bankAccountRepository;
         this.transactionService = transactionService;
+        this.idGenerator = idGenerator;
     }
 
     @Transactional
@@ -44,27 +54,60 @@ public class LoanService {
         }
 
         loan.setAccount(account);
-        loan.setLoanNumber("LOAN-" + UUID.randomUUID().toString());
+        loan.setLoanNumber(idGenerator.nextRef("LOAN-"));
         loan.setStartDate(LocalDate.now());
         loan.setEndDate(loan.getStartDate().plusMonths(loan.getTermMonths()));
         loan.setStatus(Loan.LoanStatus.ACTIVE);
         loan.setOutstandingBalance(loan.getPrincipalAmount()); // Na początku, zaległość to pełna kwota
 
-        // Zasil konto bankowe kwotą pożyczki
-        account.setBalance(account.getBalance().add(loan.getPrincipalAmount()));
-        bankAccountRepository.save(account);
+        // Harmonogram rat annuitetowych - raty pobiera codziennie LoanCollectionJob
+        AmortizationSchedule schedule = AmortizationSchedule.annuity(
+                Money.toMinorUnits(loan.getPrincipalAmount(), account.getCurrency()),
+                loan.getInterestRate(), loan.getTermMonths(), loan.getStartDate());
+        loan.setNextInstallment(1);
+        loan.setNextDueDate(schedule.installment(1).dueDate());
 
-        // Utwórz transakcję dla wypłaty pożyczki
+        // Utwórz transakcję dla wypłaty pożyczki - saldo konta zasila wyłącznie processTransaction
         Transaction loanPayoutTransaction = new Transaction();
-        loanPayoutTransaction.setSourceAccount(account); // Zakładamy, że to konto banku (nie jest to do końca zgodne z rzeczywistością, ale upraszcza model)
-        loanPayoutTransaction.setTargetAccount(account);
+        loanPayoutTransaction.setTargetAccount(account); // Stroną Wn jest konto wewnętrzne banku "należności z tytułu pożyczek"
         loanPayoutTransaction.setAmount(loan.getPrincipalAmount());
         loanPayoutTransaction.setCurrency(account.getCurrency());
-        loanPayoutTransaction.setType(Transaction.TransactionType.DEPOSIT); // Pożyczka jest "depozytem" na konto klienta
+        loanPayoutTransaction.setType(Transaction.TransactionType.LOAN_DISBURSEMENT);
         loanPayoutTransaction.setDescription("Wypłata pożyczki " + loan.getLoanNumber() + " na konto.");
         transactionService.processTransaction(loanPayoutTransaction);
 
-        return loanRepository.save(loan);
+        Loan saved = loanRepository.save(loan);
+        loanScheduleRepository.save(LoanSchedule.builder()
+                .loanId(saved.getId())
+                .installmentCount(schedule.size())
+                .installments(schedule.encode())
+                .build());
+        return saved;
+    }
+
+    /**
+     * Zwraca harmonogram spłat pożyczki.
+     *
+     * @param loanId ID pożyczki.
+     * @return Raty w kolejności płatności; pusta lista dla pożyczek założonych przed wprowadzeniem harmonogramów.
+     * @throws EntityNotFoundException jeśli pożyczka nie istnieje.
+     */
+    @Transactional(readOnly = true)
+    public List<LoanInstallmentDto> getSchedule(Long loanId) {
+        Loan loan = loanRepository.findById(loanId)
+                .orElseThrow(() -> new EntityNotFoundException("Pożyczka o ID " + loanId + " nie znaleziono."));
+        String currency = loan.getAccount().getCurrency();
+        return loanScheduleRepository.findById(loanId)
+                .map(stored -> AmortizationSchedule.decode(stored.getInstallments(), loan.getStartDate()).installments().stream()
+                        .map(installment -> new LoanInstallmentDto(
+                                installment.number(),
+                                installment.dueDate(),
+                                Money.toBigDecimal(installment.principalMinor(), currency),
+                                Money.toBigDecimal(installment.interestMinor(), currency),
+                                Money.toBigDecimal(installment.totalMinor(), currency),
+                                installment.number() < loan.getNextInstallment()))
+                        .toList())
+                .orElse(List.of());
     }
 
     @Transactional(readOnly = true)
@@ -96,6 +139,7 @@ public class LoanService {
             throw new EntityNotFoundException("Pożyczka o ID " + id + " nie znaleziono.");
         }
         // Rozważ logikę, jeśli pożyczka jest aktywna
+        loanScheduleRepository.deleteById(id);
         loanRepository.deleteById(id);
     }
 
@@ -121,18 +165,12 @@ public class LoanService {
             loan.setStatus(Loan.LoanStatus.PAID_OFF);
         }
 
-        // Pobierz konto bankowe, z którego ma nastąpić spłata
+        // Pobierz konto bankowe, z którego ma nastąpić spłata (kontrolę środków i obciążenie wykonuje processTransaction)
         BankAccount account = loan.getAccount();
-        if (account.getBalance().compareTo(repaymentAmount) < 0) {
-            throw new IllegalStateException("Niewystarczające środki na koncie do spłaty pożyczki.");
-        }
-        account.setBalance(account.getBalance().subtract(repaymentAmount));
-        bankAccountRepository.save(account);
 
         // Utwórz transakcję dla spłaty pożyczki
         Transaction repaymentTransaction = new Transaction();
-        repaymentTransaction.setSourceAccount(account); // Konto klienta
-        repaymentTransaction.setTargetAccount(account); // Konto banku (upraszczamy)
+        repaymentTransaction.setSourceAccount(account); // Konto klienta; stroną Ma jest konto wewnętrzne należności banku
         repaymentTransaction.setAmount(repaymentAmount);
         repaymentTransaction.setCurrency(account.getCurrency());
         repaymentTransaction.setType(Transaction.TransactionType.LOAN_REPAYMENT);
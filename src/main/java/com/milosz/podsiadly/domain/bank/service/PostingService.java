@@ -0,0 +1,166 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.domain.bank.dto.LedgerAccountBalance;
+import com.milosz.podsiadly.domain.bank.dto.ReconciliationMismatch;
+import com.milosz.podsiadly.domain.bank.dto.TrialBalanceLine;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount;
+import com.milosz.podsiadly.domain.bank.model.LedgerAccount.InternalAccount;
+import com.milosz.podsiadly.domain.bank.model.Posting;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.LedgerBalanceRepository;
+import com.milosz.podsiadly.domain.bank.repository.PostingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Księgowanie podwójnego zapisu: każda zakończona transakcja daje jedno obciążenie i jedno uznanie
+ * (tabela postings, tylko INSERT), a salda zmaterializowane w ledger_balances są zwiększane przyrostowo
+ * w tej samej transakcji bazodanowej. Operacje bez drugiego konta klienta (wpłata, wypłata, opłata,
+ * pożyczka, lokata) księgowane są na konta wewnętrzne banku.
+ */
+@RequiredArgsConstructor
+@Service
+public class PostingService {
+
+    private static final Comparator<SlotKey> SLOT_ORDER =
+            Comparator.comparing(SlotKey::ledgerAccountId).thenComparing(SlotKey::slot);
+
+    private final LedgerAccountRegistry ledgerAccountRegistry;
+    private final PostingRepository postingRepository;
+    private final LedgerBalanceRepository ledgerBalanceRepository;
+
+    private record SlotKey(Long ledgerAccountId, int slot) {
+    }
+
+    private static final class SlotDelta {
+        private BigDecimal debit = BigDecimal.ZERO;
+        private BigDecimal credit = BigDecimal.ZERO;
+        private long postings;
+    }
+
+    /**
+     * Księguje zapisaną (z nadanym ID) transakcję.
+     *
+     * @param transaction Zakończona transakcja.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void post(Transaction transaction) {
+        postAll(List.of(transaction));
+    }
+
+    /**
+     * Księguje zapisane transakcje; salda zmaterializowane aktualizowane są jednym UPDATE na wiersz.
+     *
+     * @param transactions Zakończone transakcje z nadanymi ID.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void postAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Posting> postings = new ArrayList<>(transactions.size() * 2);
+        // Wiersze sald aktualizowane w stałej kolejności (konto, slot) - równoległe księgowania nie zakleszczą się
+        Map<SlotKey, SlotDelta> deltas = new TreeMap<>(SLOT_ORDER);
+
+        // Jeden slot na konto w ramach wywołania: wsad blokuje jeden wiersz gorącego konta, nie wszystkie
+        Map<Long, SlotKey> slots = new HashMap<>();
+
+        for (Transaction transaction : transactions) {
+            LedgerAccount debitAccount = debitAccount(transaction);
+            LedgerAccount creditAccount = creditAccount(transaction);
+            postings.add(posting(transaction, debitAccount, Posting.EntryType.DEBIT, now));
+            postings.add(posting(transaction, creditAccount, Posting.EntryType.CREDIT, now));
+
+            SlotDelta debit = deltas.computeIfAbsent(slotOf(debitAccount, slots), key -> new SlotDelta());
+            debit.debit = debit.debit.add(transaction.getAmount());
+            debit.postings++;
+            SlotDelta credit = deltas.computeIfAbsent(slotOf(creditAccount, slots), key -> new SlotDelta());
+            credit.credit = credit.credit.add(transaction.getAmount());
+            credit.postings++;
+        }
+
+        postingRepository.saveAll(postings);
+        deltas.forEach((key, delta) -> {
+            int updated = ledgerBalanceRepository.increment(key.ledgerAccountId(), key.slot(),
+                    delta.debit, delta.credit, delta.postings, now);
+            if (updated != 1) {
+                throw new IllegalStateException("Brak wiersza salda księgowego dla konta " + key.ledgerAccountId() + ", slot " + key.slot() + ".");
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<TrialBalanceLine> trialBalance() {
+        return ledgerBalanceRepository.trialBalance();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LedgerAccountBalance> internalAccountBalances(Long bankId) {
+        return ledgerBalanceRepository.findInternalAccountBalances(bankId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReconciliationMismatch> reconcile() {
+        return ledgerBalanceRepository.findReconciliationMismatches();
+    }
+
+    private LedgerAccount debitAccount(Transaction transaction) {
+        BankAccount source = transaction.getSourceAccount();
+        BankAccount target = transaction.getTargetAccount();
+        return switch (transaction.getType()) {
+            case TRANSFER, WITHDRAWAL, FEE, LOAN_REPAYMENT, LOAN_INTEREST, TERM_DEPOSIT_PLACEMENT -> ledgerAccountRegistry.customerAccount(source);
+            case DEPOSIT -> internal(target, InternalAccount.CASH);
+            case LOAN_DISBURSEMENT -> internal(target, InternalAccount.LOANS_RECEIVABLE);
+            case INTEREST_PAYOUT -> internal(target, InternalAccount.INTEREST_EXPENSE);
+            case TERM_DEPOSIT_MATURITY -> internal(target, InternalAccount.TERM_DEPOSITS);
+            case REVERSAL -> creditAccount(transaction.getReversalOf()); // Zapisy odwrotne do transakcji odwracanej
+        };
+    }
+
+    private LedgerAccount creditAccount(Transaction transaction) {
+        BankAccount source = transaction.getSourceAccount();
+        BankAccount target = transaction.getTargetAccount();
+        return switch (transaction.getType()) {
+            case TRANSFER, DEPOSIT, LOAN_DISBURSEMENT, INTEREST_PAYOUT, TERM_DEPOSIT_MATURITY -> ledgerAccountRegistry.customerAccount(target);
+            case WITHDRAWAL -> internal(source, InternalAccount.CASH);
+            case FEE -> internal(source, InternalAccount.FEE_INCOME);
+            case LOAN_REPAYMENT -> internal(source, InternalAccount.LOANS_RECEIVABLE);
+            case LOAN_INTEREST -> internal(source, InternalAccount.INTEREST_INCOME);
+            case TERM_DEPOSIT_PLACEMENT -> internal(source, InternalAccount.TERM_DEPOSITS);
+            case REVERSAL -> debitAccount(transaction.getReversalOf());
+        };
+    }
+
+    // Konto wewnętrzne banku prowadzącego konto klienta, w walucie konta klienta
+    private LedgerAccount internal(BankAccount customerAccount, InternalAccount internal) {
+        return ledgerAccountRegistry.internalAccount(customerAccount.getBank().getId(), internal, customerAccount.getCurrency());
+    }
+
+    private SlotKey slotOf(LedgerAccount account, Map<Long, SlotKey> slots) {
+        return slots.computeIfAbsent(account.getId(), id -> new SlotKey(id, ledgerAccountRegistry.nextSlot(account)));
+    }
+
+    private static Posting posting(Transaction transaction, LedgerAccount account, Posting.EntryType entryType, LocalDateTime now) {
+        return Posting.builder()
+                .transactionId(transaction.getId())
+                .ledgerAccountId(account.getId())
+                .entryType(entryType)
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .postedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.dto.ReversalJobRequest;
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.model.ReversalJobSkip;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobRepository;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobSkipRepository;
+import com.milosz.podsiadly.domain.bank.reversal.ReversalChunkProcessor;
+import com.milosz.podsiadly.domain.bank.reversal.ReversalJobRunner;
+import com.milosz.podsiadly.domain.bank.reversal.ReversalProperties;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Zlecanie masowych zwrotów (odwróceń) transakcji z zadanego okresu.
+ * Zadania wykonuje w tle {@link ReversalJobRunner} paczkami po {@link ReversalJob#getChunkSize()} transakcji.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ReversalService {
+
+    private final ReversalJobRepository reversalJobRepository;
+    private final ReversalJobSkipRepository reversalJobSkipRepository;
+    private final ReversalJobRunner reversalJobRunner;
+    private final ReversalProperties properties;
+    private final AuditService auditService;
+    private final IdGenerator idGenerator;
+
+    /**
+     * Zakłada zadanie odwracania; przetwarzanie rozpoczyna się po zatwierdzeniu transakcji.
+     *
+     * @param request  Zakres, typ transakcji i powód zwrotu.
+     * @param username Użytkownik zlecający zwrot (do audytu).
+     * @return Zapisane zadanie w statusie PENDING.
+     * @throws IllegalArgumentException jeśli zakres, typ lub rozmiar paczki są nieprawidłowe.
+     */
+    @Transactional
+    public ReversalJob createJob(ReversalJobRequest request, String username) {
+        if (!request.fromDate().isBefore(request.toDate())) {
+            throw new IllegalArgumentException("Początek zakresu musi być wcześniejszy niż jego koniec.");
+        }
+        if (request.transactionType() != null && !ReversalChunkProcessor.REVERSIBLE_TYPES.contains(request.transactionType())) {
+            throw new IllegalArgumentException("Transakcji typu " + request.transactionType() + " nie można odwrócić.");
+        }
+        int chunkSize = request.chunkSize() != null ? request.chunkSize() : properties.getDefaultChunkSize();
+        if (chunkSize > properties.getMaxChunkSize()) {
+            throw new IllegalArgumentException("Rozmiar paczki nie może przekraczać " + properties.getMaxChunkSize() + ".");
+        }
+
+        ReversalJob saved = reversalJobRepository.save(ReversalJob.builder()
+                .jobRef(idGenerator.nextRef("REV-"))
+                .transactionType(request.transactionType())
+                .fromDate(request.fromDate())
+                .toDate(request.toDate())
+                .reason(request.reason())
+                .chunkSize(chunkSize)
+                .status(ReversalJob.ReversalJobStatus.PENDING)
+                .cursorDate(request.fromDate()) // ID transakcji są dodatnie - kursor (fromDate, 0) obejmuje cały zakres
+                .cursorId(0L)
+                .requestedBy(username)
+                .build());
+
+        auditService.logEvent(
+                username,
+                "REVERSAL_JOB_CREATED",
+                "ReversalJob",
+                saved.getId(),
+                "Zadanie " + saved.getJobRef() + " (" + (saved.getTransactionType() != null ? saved.getTransactionType() : "ALL")
+                        + ") za okres " + saved.getFromDate() + " - " + saved.getToDate() + ": " + saved.getReason(),
+                AuditLog.AuditStatus.SUCCESS
+        );
+        submitAfterCommit(saved.getId());
+        log.info("Reversal job {} created by {} for {} - {}.", saved.getJobRef(), username, saved.getFromDate(), saved.getToDate());
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ReversalJob> getJobById(Long id) {
+        return reversalJobRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReversalJob> getRecentJobs() {
+        return reversalJobRepository.findTop50ByOrderByIdDesc();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReversalJobSkip> getSkips(Long id) {
+        return reversalJobSkipRepository.findByJobIdOrderByIdAsc(id);
+    }
+
+    /**
+     * Anuluje zadanie; paczka w toku zostanie zatwierdzona, kolejne nie zostaną przetworzone.
+     *
+     * @param id ID zadania.
+     * @return Anulowane zadanie.
+     * @throws ResourceNotFoundException jeśli zadanie nie istnieje.
+     * @throws IllegalStateException jeśli zadanie zostało już zakończone.
+     */
+    @Transactional
+    public ReversalJob cancelJob(Long id) {
+        ReversalJob job = reversalJobRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reversal job not found with ID: " + id));
+        if (job.getStatus() != ReversalJob.ReversalJobStatus.PENDING && job.getStatus() != ReversalJob.ReversalJobStatus.RUNNING) {
+            throw new IllegalStateException("Zadanie " + job.getJobRef() + " zostało już zakończone.");
+        }
+        job.setStatus(ReversalJob.ReversalJobStatus.CANCELLED);
+        log.info("Reversal job {} cancelled after {} reversed transactions.", job.getJobRef(), job.getReversedCount());
+        return job;
+    }
+
+    /**
+     * Wznawia zadanie zakończone błędem od ostatniego punktu kontrolnego.
+     *
+     * @param id ID zadania.
+     * @return Zadanie w statusie PENDING.
+     * @throws ResourceNotFoundException jeśli zadanie nie istnieje.
+     * @throws IllegalStateException jeśli zadanie nie zakończyło się błędem.
+     */
+    @Transactional
+    public ReversalJob resumeJob(Long id) {
+        ReversalJob job = reversalJobRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Reversal job not found with ID: " + id));
+        if (job.getStatus() != ReversalJob.ReversalJobStatus.FAILED) {
+            throw new IllegalStateException("Zadanie " + job.getJobRef() + " nie zakończyło się błędem.");
+        }
+        job.setStatus(ReversalJob.ReversalJobStatus.PENDING);
+        job.setFinishedAt(null);
+        submitAfterCommit(job.getId());
+        log.info("Reversal job {} resumed from transaction {}.", job.getJobRef(), job.getCursorId());
+        return job;
+    }
+
+    // Runner dostaje zadanie dopiero po commicie - wcześniej nie mógłby go przejąć
+    private void submitAfterCommit(Long jobId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reversalJobRunner.submit(jobId);
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.dto.StandingOrderRequest;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.StandingOrderRepository;
+import com.milosz.podsiadly.domain.bank.standingorder.StandingOrderDispatcher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Zakładanie i anulowanie zleceń stałych oraz przelewów z odroczoną datą.
+ * Wykonaniem zleceń zajmuje się {@link StandingOrderDispatcher}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class StandingOrderService {
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final StandingOrderDispatcher standingOrderDispatcher;
+    private final IdGenerator idGenerator;
+
+    /**
+     * Zakłada zlecenie stałe.
+     *
+     * @param request Dane zlecenia.
+     * @return Zapisane zlecenie.
+     * @throws ResourceNotFoundException jeśli konto źródłowe lub docelowe nie istnieje.
+     * @throws IllegalArgumentException jeśli waluta lub terminy są nieprawidłowe.
+     */
+    @Transactional
+    public StandingOrder createStandingOrder(StandingOrderRequest request) {
+        BankAccount sourceAccount = bankAccountRepository.findById(request.sourceAccountId())
+                .orElseThrow(() -> new ResourceNotFoundException("Source account with ID " + request.sourceAccountId() + " not found."));
+        BankAccount targetAccount = bankAccountRepository.findByAccountNumber(request.targetAccountNumber())
+                .orElseThrow(() -> new ResourceNotFoundException("Target account with number " + request.targetAccountNumber() + " not found."));
+        if (!sourceAccount.getCurrency().equalsIgnoreCase(request.currency()) || !targetAccount.getCurrency().equalsIgnoreCase(request.currency())) {
+            throw new IllegalArgumentException("Waluta zlecenia musi być zgodna z walutą obu kont.");
+        }
+        if (sourceAccount.getId().equals(targetAccount.getId())) {
+            throw new IllegalArgumentException("Konto źródłowe i docelowe zlecenia muszą być różne.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime startAt = request.firstExecutionAt() != null && request.firstExecutionAt().isAfter(now)
+                ? request.firstExecutionAt()
+                : now;
+        if (request.endDate() != null && request.endDate().isBefore(startAt.toLocalDate())) {
+            throw new IllegalArgumentException("Data końcowa zlecenia nie może być wcześniejsza niż pierwsze wykonanie.");
+        }
+
+        StandingOrder saved = standingOrderRepository.save(StandingOrder.builder()
+                .orderRef(idGenerator.nextRef("SO-"))
+                .sourceAccountId(sourceAccount.getId())
+                .targetAccountNumber(targetAccount.getAccountNumber())
+                .amount(request.amount())
+                .currency(sourceAccount.getCurrency())
+                .description(request.description())
+                .frequency(request.frequency())
+                .startAt(startAt)
+                .endDate(request.endDate())
+                .occurrence(0)
+                .nextExecutionAt(startAt)
+                .failedAttempts(0)
+                .status(StandingOrder.StandingOrderStatus.ACTIVE)
+                .build());
+
+        // Dispatcher dostaje zlecenie dopiero po commicie - wcześniej wykonawca by go nie zobaczył
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                standingOrderDispatcher.schedule(saved.getId(), saved.getSourceAccountId(), saved.getNextExecutionAt());
+            }
+        });
+        log.info("Standing order {} ({}) created for account {}, first execution at {}.",
+                saved.getOrderRef(), saved.getFrequency(), saved.getSourceAccountId(), saved.getStartAt());
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<StandingOrder> getStandingOrderById(Long id) {
+        return standingOrderRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StandingOrder> getStandingOrdersByAccountId(Long accountId) {
+        return standingOrderRepository.findBySourceAccountIdOrderByIdAsc(accountId);
+    }
+
+    /**
+     * Anuluje zlecenie; wpis w kole czasowym zostaje, ale wykonawca pominie zlecenie nieaktywne.
+     *
+     * @param id ID zlecenia.
+     * @return Anulowane zlecenie.
+     * @throws ResourceNotFoundException jeśli zlecenie nie istnieje.
+     * @throws IllegalStateException jeśli zlecenie nie jest aktywne.
+     */
+    @Transactional
+    public StandingOrder cancelStandingOrder(Long id) {
+        StandingOrder order = standingOrderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Standing order not found with ID: " + id));
+        if (order.getStatus() != StandingOrder.StandingOrderStatus.ACTIVE) {
+            throw new IllegalStateException("Zlecenie " + order.getOrderRef() + " nie jest aktywne.");
+        }
+        order.setStatus(StandingOrder.StandingOrderStatus.CANCELLED);
+        log.info("Standing order {} cancelled.", order.getOrderRef());
+        return standingOrderRepository.save(order);
+    }
+}
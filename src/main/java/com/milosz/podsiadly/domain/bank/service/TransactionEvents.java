@@ -0,0 +1,44 @@
+package com.milosz.podsiadly.domain.bank.service;
+
+import com.milosz.podsiadly.core.event.TransactionCompletedEvent;
+import com.milosz.podsiadly.core.event.TransactionFailedEvent;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+
+/**
+ * Builds Kafka events from {@link Transaction} entities so that single and bulk
+ * processing paths publish identical payloads.
+ */
+public final class TransactionEvents {
+
+    private TransactionEvents() {
+    }
+
+    public static TransactionCompletedEvent completed(Transaction transaction) {
+        return TransactionCompletedEvent.builder()
+                .transactionId(transaction.getId())
+                .sourceAccountId(transaction.getSourceAccount() != null ? transaction.getSourceAccount().getId() : null)
+                .targetAccountId(transaction.getTargetAccount() != null ? transaction.getTargetAccount().getId() : null)
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .transactionType(transaction.getType().name())
+                .completedAt(transaction.getTransactionDate())
+                .description(transaction.getDescription())
+                .userId(transaction.getSourceAccount() != null ? transaction.getSourceAccount().getUserId() : null) // Użyj userId z konta źródłowego
+                .build();
+    }
+
+    public static TransactionFailedEvent failed(Transaction transaction, Exception e) {
+        return TransactionFailedEvent.builder()
+                .transactionId(transaction.getId())
+                .sourceAccountId(transaction.getSourceAccount() != null ? transaction.getSourceAccount().getId() : null)
+                .targetAccountId(transaction.getTargetAccount() != null ? transaction.getTargetAccount().getId() : null)
+                .amount(transaction.getAmount())
+                .currency(transaction.getCurrency())
+                .transactionType(transaction.getType() != null ? transaction.getType().name() : null)
+                .reason(e.getMessage()) // Użyj komunikatu błędu jako powodu
+                .failedAt(transaction.getTransactionDate())
+                .details(e.toString()) // Pełniejsze szczegóły wyjątku
+                .userId(transaction.getSourceAccount() != null ? transaction.getSourceAccount().getUserId() : null)
+                .build();
+    }
+}
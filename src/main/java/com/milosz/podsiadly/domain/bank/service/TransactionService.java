@@ -2,10 +2,20 @@ package com.milosz.podsiadly.domain.bank.service;
 
 import com.milosz.podsiadly.common.exception.InsufficientFundsException;
 import com.milosz.podsiadly.common.exception.ResourceNotFoundException;
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.balance.BalanceLeg;
+import com.milosz.podsiadly.domain.bank.balance.BalanceUpdater;
+import com.milosz.podsiadly.domain.bank.cache.AccountMetadataCache;
+import com.milosz.podsiadly.domain.bank.dto.TransactionCursor;
+import com.milosz.podsiadly.domain.bank.dto.TransactionDto;
+import com.milosz.podsiadly.domain.bank.dto.TransactionPage;
 import com.milosz.podsiadly.domain.bank.dto.TransactionRequest; // Nadal potrzebne, jeśli używasz toEntity z mappera
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
 import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.AccountMetadata;
 import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.bank.repository.TransactionBatchRepository;
 import com.milosz.podsiadly.domain.bank.repository.TransactionRepository;
 import com.milosz.podsiadly.core.event.TransactionCompletedEvent;
 import com.milosz.podsiadly.core.event.TransactionFailedEvent;
@@ -13,33 +23,55 @@ import com.milosz.podsiadly.core.kafka.producer.EventProducer;
 import com.milosz.podsiadly.domain.compliance.model.AuditLog;
 import com.milosz.podsiadly.domain.compliance.service.AuditService;
 import com.milosz.podsiadly.domain.bank.mapper.TransactionMapper; // Potrzebne, jeśli używasz toEntity z mappera
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j // Lombok do logowania
 @RequiredArgsConstructor // Lombok do generowania konstruktora z wymaganymi polami (final)
 @Service
 public class TransactionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final TransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
     private final EventProducer eventProducer;
     private final AuditService auditService;
     private final TransactionMapper transactionMapper; // Pozostawiamy, jeśli jest używany (np. dla TransactionRequest)
+    private final BalanceUpdater balanceUpdater; // Strategia aktualizacji sald (banking.balance.mode)
+    private final EntityManager entityManager;
+    private final IdGenerator idGenerator;
+    private final PostingService postingService;
+    private final AccountMetadataCache accountMetadataCache;
+    private final TransactionBatchRepository transactionBatchRepository;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
 
     /**
      * Główna metoda do przetwarzania dowolnego typu transakcji.
      * Obsługuje walidację, aktualizację sald, persystencję transakcji
-     * oraz publikowanie zdarzeń do Kafki.
+     * oraz publikowanie zdarzeń do Kafki (sukces przez outbox, w tej samej transakcji bazodanowej).
      *
      * @param transaction Obiekt transakcji do przetworzenia.
      * @return Przetworzony i zapisany obiekt transakcji.
@@ -51,13 +83,14 @@ public class TransactionService {
     public Transaction processTransaction(Transaction transaction) {
         BankAccount sourceAccount = transaction.getSourceAccount();
         BankAccount targetAccount = transaction.getTargetAccount();
-        BigDecimal amount = transaction.getAmount();
 
         // Podstawowe walidacje
         if (sourceAccount == null && targetAccount == null) {
             throw new IllegalArgumentException("Muszą być podane co najmniej jedno konto źródłowe lub docelowe.");
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        // Jedyna konwersja BigDecimal -> jednostki groszowe; dalej saldo liczone jest na long
+        Money amount = Money.of(transaction.getAmount(), transaction.getCurrency());
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Kwota transakcji musi być dodatnia.");
         }
         if (sourceAccount != null && !sourceAccount.getCurrency().equals(transaction.getCurrency())) {
@@ -67,11 +100,10 @@ public class TransactionService {
             throw new IllegalArgumentException("Waluta transakcji musi być zgodna z walutą konta docelowego.");
         }
 
-        // Ustawienie referencji transakcji i początkowego statusu
+        // Ustawienie referencji transakcji (status ustawiany dopiero w stanie końcowym)
         if (transaction.getTransactionRef() == null || transaction.getTransactionRef().isEmpty()) {
-            transaction.setTransactionRef("TRN-" + UUID.randomUUID().toString());
+            transaction.setTransactionRef(idGenerator.nextRef("TRN-"));
         }
-        transaction.setStatus(Transaction.TransactionStatus.PENDING); // Początkowy status
         if (transaction.getTransactionDate() == null) { // Ustaw datę, jeśli nie jest już ustawiona
             transaction.setTransactionDate(LocalDateTime.now());
         }
@@ -89,6 +121,7 @@ public class TransactionService {
                     handleWithdrawal(sourceAccount, amount);
                     break;
                 case LOAN_REPAYMENT:
+                case LOAN_INTEREST:
                     handleLoanRepayment(sourceAccount, amount);
                     break;
                 case INTEREST_PAYOUT:
@@ -97,31 +130,32 @@ public class TransactionService {
                 case FEE:
                     handleFee(sourceAccount, amount);
                     break;
+                case LOAN_DISBURSEMENT:
+                    handleLoanDisbursement(targetAccount, amount);
+                    break;
+                case TERM_DEPOSIT_PLACEMENT:
+                    handleTermDepositPlacement(sourceAccount, amount);
+                    break;
+                case TERM_DEPOSIT_MATURITY:
+                    handleTermDepositMaturity(targetAccount, amount);
+                    break;
+                case REVERSAL:
+                    throw new IllegalArgumentException("Transakcje odwracające tworzy wyłącznie zadanie zwrotów.");
                 default:
                     throw new IllegalArgumentException("Nieznany typ transakcji: " + transaction.getType());
             }
 
-            // Zapisz transakcję po pomyślnym przetworzeniu sald
+            // Zapisz transakcję jednym INSERT-em, od razu w stanie końcowym
+            transaction.setStatus(Transaction.TransactionStatus.COMPLETED);
             Transaction savedTransaction = transactionRepository.save(transaction);
-            savedTransaction.setStatus(Transaction.TransactionStatus.COMPLETED); // Zmień status na COMPLETED
-            transactionRepository.save(savedTransaction); // Zaktualizuj status w bazie
+            postingService.post(savedTransaction); // Zapisy księgowe (Wn/Ma) w tej samej transakcji bazodanowej
 
             log.info("Transaction completed successfully with ID: {}", savedTransaction.getId());
 
             // Publikacja zdarzenia TransactionCompletedEvent do KAFKI
-            TransactionCompletedEvent completedEvent = TransactionCompletedEvent.builder()
-                    .transactionId(savedTransaction.getId())
-                    .sourceAccountId(savedTransaction.getSourceAccount() != null ? savedTransaction.getSourceAccount().getId() : null)
-                    .targetAccountId(savedTransaction.getTargetAccount() != null ? savedTransaction.getTargetAccount().getId() : null)
-                    .amount(savedTransaction.getAmount())
-                    .currency(savedTransaction.getCurrency())
-                    .transactionType(savedTransaction.getType().name())
-                    .completedAt(savedTransaction.getTransactionDate())
-                    .description(savedTransaction.getDescription())
-                    .userId(savedTransaction.getSourceAccount() != null ? savedTransaction.getSourceAccount().getUserId() : null) // Użyj userId z konta źródłowego
-                    .build();
-            eventProducer.publishTransactionCompletedEvent(completedEvent); // Wysyłamy do Kafki
-            log.info("TransactionCompletedEvent published for transaction ID: {}", savedTransaction.getId());
+            TransactionCompletedEvent completedEvent = TransactionEvents.completed(savedTransaction);
+            eventProducer.publishTransactionCompletedEvent(completedEvent); // Zapis do outboxu - wysyłka do Kafki dopiero po commicie (OutboxRelay)
+            log.info("TransactionCompletedEvent queued in outbox for transaction ID: {}", savedTransaction.getId());
 
             // Audit log dla pomyślnej transakcji
             auditService.logEvent(
@@ -144,19 +178,8 @@ public class TransactionService {
             Transaction failedTransaction = transactionRepository.save(transaction);
 
             // Publikacja zdarzenia TransactionFailedEvent do KAFKI
-            TransactionFailedEvent failedEvent = TransactionFailedEvent.builder()
-                    .transactionId(failedTransaction.getId())
-                    .sourceAccountId(failedTransaction.getSourceAccount() != null ? failedTransaction.getSourceAccount().getId() : null)
-                    .targetAccountId(failedTransaction.getTargetAccount() != null ? failedTransaction.getTargetAccount().getId() : null)
-                    .amount(failedTransaction.getAmount())
-                    .currency(failedTransaction.getCurrency())
-                    .transactionType(failedTransaction.getType() != null ? failedTransaction.getType().name() : null)
-                    .reason(e.getMessage()) // Użyj komunikatu błędu jako powodu
-                    .failedAt(failedTransaction.getTransactionDate())
-                    .details(e.toString()) // Pełniejsze szczegóły wyjątku
-                    .userId(failedTransaction.getSourceAccount() != null ? failedTransaction.getSourceAccount().getUserId() : null)
-                    .build();
-            eventProducer.publishTransactionFailedEvent(failedEvent); // Wysyłamy do Kafki
+            TransactionFailedEvent failedEvent = TransactionEvents.failed(failedTransaction, e);
+            eventProducer.publishTransactionFailedEvent(failedEvent); // Bezpośrednio do Kafki - outbox zostałby wycofany razem z transakcją
             log.warn("TransactionFailedEvent published for transaction ID: {}", failedEvent.getTransactionId());
 
             // Audit log dla nieudanej transakcji
@@ -173,71 +196,92 @@ public class TransactionService {
         }
     }
 
-    private void handleTransfer(BankAccount sourceAccount, BankAccount targetAccount, BigDecimal amount) {
+    private void handleTransfer(BankAccount sourceAccount, BankAccount targetAccount, Money amount) {
         if (sourceAccount == null || targetAccount == null) {
             throw new IllegalArgumentException("Dla przelewu wymagane są oba konta: źródłowe i docelowe.");
         }
-        if (sourceAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Niewystarczające środki na koncie źródłowym.");
-        }
-
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(amount));
-        targetAccount.setBalance(targetAccount.getBalance().add(amount));
-
-        bankAccountRepository.save(sourceAccount);
-        bankAccountRepository.save(targetAccount);
+        balanceUpdater.apply(List.of(
+                BalanceLeg.debit(sourceAccount, amount, "Niewystarczające środki na koncie źródłowym."),
+                BalanceLeg.credit(targetAccount, amount)
+        ));
     }
 
-    private void handleDeposit(BankAccount targetAccount, BigDecimal amount) {
+    private void handleDeposit(BankAccount targetAccount, Money amount) {
         if (targetAccount == null) {
             throw new IllegalArgumentException("Dla wpłaty wymagane jest konto docelowe.");
         }
-        targetAccount.setBalance(targetAccount.getBalance().add(amount));
-        bankAccountRepository.save(targetAccount);
+        balanceUpdater.apply(List.of(BalanceLeg.credit(targetAccount, amount)));
     }
 
-    private void handleWithdrawal(BankAccount sourceAccount, BigDecimal amount) {
+    private void handleWithdrawal(BankAccount sourceAccount, Money amount) {
         if (sourceAccount == null) {
             throw new IllegalArgumentException("Dla wypłaty wymagane jest konto źródłowe.");
         }
-        if (sourceAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Niewystarczające środki na koncie źródłowym.");
-        }
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(amount));
-        bankAccountRepository.save(sourceAccount);
+        balanceUpdater.apply(List.of(BalanceLeg.debit(sourceAccount, amount, "Niewystarczające środki na koncie źródłowym.")));
     }
 
-    private void handleLoanRepayment(BankAccount sourceAccount, BigDecimal amount) {
+    private void handleLoanRepayment(BankAccount sourceAccount, Money amount) {
         if (sourceAccount == null) {
             throw new IllegalArgumentException("Dla spłaty pożyczki wymagane jest konto źródłowe.");
         }
-        if (sourceAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Niewystarczające środki na koncie do spłaty pożyczki.");
-        }
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(amount));
-        bankAccountRepository.save(sourceAccount);
+        balanceUpdater.apply(List.of(BalanceLeg.debit(sourceAccount, amount, "Niewystarczające środki na koncie do spłaty pożyczki.")));
     }
 
-    private void handleInterestPayout(BankAccount targetAccount, BigDecimal amount) {
+    private void handleInterestPayout(BankAccount targetAccount, Money amount) {
         if (targetAccount == null) {
             throw new IllegalArgumentException("Dla wypłaty odsetek wymagane jest konto docelowe.");
         }
-        targetAccount.setBalance(targetAccount.getBalance().add(amount));
-        bankAccountRepository.save(targetAccount);
+        balanceUpdater.apply(List.of(BalanceLeg.credit(targetAccount, amount)));
     }
 
-    private void handleFee(BankAccount sourceAccount, BigDecimal amount) {
+    private void handleFee(BankAccount sourceAccount, Money amount) {
         if (sourceAccount == null) {
             throw new IllegalArgumentException("Dla opłaty wymagane jest konto źródłowe.");
         }
-        if (sourceAccount.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Niewystarczające środki na koncie na pokrycie opłaty.");
+        balanceUpdater.apply(List.of(BalanceLeg.debit(sourceAccount, amount, "Niewystarczające środki na koncie na pokrycie opłaty.")));
+    }
+
+    private void handleLoanDisbursement(BankAccount targetAccount, Money amount) {
+        if (targetAccount == null) {
+            throw new IllegalArgumentException("Dla wypłaty pożyczki wymagane jest konto docelowe.");
+        }
+        balanceUpdater.apply(List.of(BalanceLeg.credit(targetAccount, amount)));
+    }
+
+    private void handleTermDepositPlacement(BankAccount sourceAccount, Money amount) {
+        if (sourceAccount == null) {
+            throw new IllegalArgumentException("Dla założenia lokaty wymagane jest konto źródłowe.");
+        }
+        balanceUpdater.apply(List.of(BalanceLeg.debit(sourceAccount, amount, "Niewystarczające środki na koncie na założenie lokaty.")));
+    }
+
+    private void handleTermDepositMaturity(BankAccount targetAccount, Money amount) {
+        if (targetAccount == null) {
+            throw new IllegalArgumentException("Dla zwrotu lokaty wymagane jest konto docelowe.");
         }
-        sourceAccount.setBalance(sourceAccount.getBalance().subtract(amount));
-        bankAccountRepository.save(sourceAccount);
+        balanceUpdater.apply(List.of(BalanceLeg.credit(targetAccount, amount)));
     }
 
 
+    /**
+     * Zapisuje transakcje przygotowane przez zadania masowe, które same sprawdziły środki na kontach.
+     * Salda zmieniane są jednym wywołaniem {@link BalanceUpdater}, wiersze zapisywane przez JDBC batch,
+     * a księgowania i zdarzenia (outbox) dodawane w transakcji bazodanowej wywołującego.
+     *
+     * @param transactions Transakcje w statusie COMPLETED, jeszcze bez ID.
+     * @param legs         Zmiany sald netto odpowiadające transakcjom, jedna na konto.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void completeAll(List<Transaction> transactions, List<BalanceLeg> legs) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        balanceUpdater.apply(legs);
+        transactionBatchRepository.insertAll(transactions, jdbcBatchSize);
+        postingService.postAll(transactions); // ID nadane przez insertAll
+        transactions.forEach(transaction -> eventProducer.publishTransactionCompletedEvent(TransactionEvents.completed(transaction)));
+    }
+
     @Transactional(readOnly = true)
     public Optional<Transaction> getTransactionById(Long id) {
         return transactionRepository.findById(id);
@@ -255,10 +299,7 @@ public class TransactionService {
 
     @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByAccountIdAndDateRange(Long accountId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transaction> sourceTransactions = transactionRepository.findBySourceAccountIdAndTransactionDateBetween(accountId, startDate, endDate);
-        List<Transaction> targetTransactions = transactionRepository.findByTargetAccountIdAndTransactionDateBetween(accountId, startDate, endDate);
-        sourceTransactions.addAll(targetTransactions);
-        return sourceTransactions.stream().distinct().toList();
+        return transactionRepository.findAccountHistoryBetween(accountId, startDate, endDate);
     }
 
     @Transactional(readOnly = true)
@@ -266,6 +307,86 @@ public class TransactionService {
         return transactionRepository.findAll();
     }
 
+    /**
+     * Zwraca stronę historii konta, od najnowszych transakcji (stronicowanie po kluczu transactionDate, id).
+     *
+     * @param accountId ID konta.
+     * @param cursor Kursor z poprzedniej strony lub null dla pierwszej strony.
+     * @param limit Liczba transakcji na stronie (maksymalnie {@value #MAX_PAGE_SIZE}).
+     * @return Strona transakcji z kursorem następnej strony.
+     * @throws IllegalArgumentException jeśli kursor jest nieprawidłowy.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPageByAccountId(Long accountId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        PageRequest fetch = PageRequest.of(0, pageSize + 1); // Jeden wiersz więcej mówi, czy jest następna strona
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findAccountHistoryFirstPage(accountId, fetch);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findAccountHistoryPageAfter(accountId, position.transactionDate(), position.id(), fetch);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Zwraca stronę wszystkich transakcji, od najnowszych (stronicowanie po kluczu transactionDate, id).
+     *
+     * @param cursor Kursor z poprzedniej strony lub null dla pierwszej strony.
+     * @param limit Liczba transakcji na stronie (maksymalnie {@value #MAX_PAGE_SIZE}).
+     * @return Strona transakcji z kursorem następnej strony.
+     * @throws IllegalArgumentException jeśli kursor jest nieprawidłowy.
+     */
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        PageRequest fetch = PageRequest.of(0, pageSize + 1);
+        List<Transaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findFirstPage(fetch);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            rows = transactionRepository.findPageAfter(position.transactionDate(), position.id(), fetch);
+        }
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Przekazuje całą historię konta, od najnowszych transakcji, wiersz po wierszu.
+     * Encje są odłączane po przetworzeniu, więc zużycie pamięci nie zależy od długości historii.
+     *
+     * @param accountId ID konta.
+     * @param consumer Odbiorca kolejnych transakcji (wywoływany wewnątrz transakcji bazodanowej).
+     */
+    @Transactional(readOnly = true)
+    public void streamTransactionsByAccountId(Long accountId, Consumer<TransactionDto> consumer) {
+        try (Stream<Transaction> transactions = transactionRepository.streamAccountHistory(accountId)) {
+            transactions.forEach(transaction -> {
+                consumer.accept(transactionMapper.toDto(transaction));
+                entityManager.detach(transaction);
+            });
+        }
+    }
+
+    private static int pageSize(int limit) {
+        if (limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private TransactionPage toPage(List<Transaction> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<Transaction> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+        return new TransactionPage(transactionMapper.toDtoList(page), nextCursor);
+    }
+
     /**
      * Tworzy transakcję wpłaty i przekazuje ją do głównej metody processTransaction.
      *
@@ -326,10 +447,7 @@ public class TransactionService {
 
         processTransaction(depositTransaction); // Przetwarzamy transakcję przez główną metodę
 
-        // Po pomyślnym przetworzeniu transakcji, pobieramy zaktualizowane konto
-        // (stan konta został zmieniony w processTransaction)
-        return bankAccountRepository.findById(accountId).orElseThrow(() ->
-                new IllegalStateException("Account disappeared after deposit transaction!"));
+        return withBalanceAfterCommit(account);
     }
 
     /**
@@ -360,9 +478,25 @@ public class TransactionService {
 
         processTransaction(withdrawalTransaction); // Przetwarzamy transakcję przez główną metodę
 
-        // Po pomyślnym przetworzeniu transakcji, pobieramy zaktualizowane konto
-        return bankAccountRepository.findById(accountId).orElseThrow(() ->
-                new IllegalStateException("Account disappeared after withdrawal transaction!"));
+        return withBalanceAfterCommit(account);
+    }
+
+    // W trybach write-behind saldo encji się nie zmienia, a zmiana trafia do salda w pamięci dopiero przy commicie.
+    // Encja jest odłączana po zapisie zmian, więc saldo z pamięci ustawione po commicie nie zostanie zapisane do bazy
+    private BankAccount withBalanceAfterCommit(BankAccount account) {
+        entityManager.flush();
+        entityManager.detach(account);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            account.setBalance(balanceUpdater.currentBalance(account));
+            return account;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                account.setBalance(balanceUpdater.currentBalance(account));
+            }
+        });
+        return account;
     }
 
     /**
@@ -405,16 +539,24 @@ public class TransactionService {
         log.info("Initiating transfer from account ID {} to account number {} for amount {} {}",
                 sourceAccountId, targetAccountNumber, amount, currency);
 
-        BankAccount sourceAccount = bankAccountRepository.findById(sourceAccountId)
+        // Walidacja z cache metadanych - odrzucenie bez zapytań do bazy
+        AccountMetadata source = accountMetadataCache.get(sourceAccountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Source account with ID " + sourceAccountId + " not found."));
-
-        BankAccount targetAccount = bankAccountRepository.findByAccountNumber(targetAccountNumber)
+        AccountMetadata target = accountMetadataCache.getByAccountNumber(targetAccountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Target account with number " + targetAccountNumber + " not found."));
 
-        if (!sourceAccount.getCurrency().equalsIgnoreCase(currency) || !targetAccount.getCurrency().equalsIgnoreCase(currency)) {
-            throw new IllegalArgumentException("Currency mismatch for transfer transaction. Source: " + sourceAccount.getCurrency() + ", Target: " + targetAccount.getCurrency() + ", Transaction: " + currency);
+        if (!source.currency().equalsIgnoreCase(currency) || !target.currency().equalsIgnoreCase(currency)) {
+            throw new IllegalArgumentException("Currency mismatch for transfer transaction. Source: " + source.currency() + ", Target: " + target.currency() + ", Transaction: " + currency);
         }
 
+        // Oba konta jednym zapytaniem (encje są potrzebne do aktualizacji sald)
+        Map<Long, BankAccount> accounts = bankAccountRepository.findAllById(List.of(source.id(), target.id())).stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+        BankAccount sourceAccount = Optional.ofNullable(accounts.get(source.id()))
+                .orElseThrow(() -> new ResourceNotFoundException("Source account with ID " + sourceAccountId + " not found."));
+        BankAccount targetAccount = Optional.ofNullable(accounts.get(target.id()))
+                .orElseThrow(() -> new ResourceNotFoundException("Target account with number " + targetAccountNumber + " not found."));
+
         Transaction newTransaction = Transaction.builder()
                 .sourceAccount(sourceAccount)
                 .targetAccount(targetAccount)
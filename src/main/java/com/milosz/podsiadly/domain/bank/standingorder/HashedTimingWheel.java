@@ -0,0 +1,103 @@
+package com.milosz.podsiadly.domain.bank.standingorder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, holding items by deadline.
+ * <p>
+ * An item is placed in bucket {@code deadlineTick mod size} together with the number of full rotations
+ * left before it expires, so scheduling is O(1) and a tick only visits one bucket, regardless of how many
+ * items are waiting. {@link #schedule} may be called from any thread; items are moved into the buckets
+ * by {@link #advance}, which must only be called from one thread at a time.
+ */
+final class HashedTimingWheel<T> {
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineTick;
+        private long rounds;
+
+        private Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final List<LinkedList<Entry<T>>> buckets;
+    private final Queue<Entry<T>> pending = new ConcurrentLinkedQueue<>();
+    private long currentTick; // Następny tick do przetworzenia
+    private int size;
+
+    HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickMillis);
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = capacity - 1;
+        this.buckets = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            buckets.add(new LinkedList<>());
+        }
+    }
+
+    /**
+     * Schedules an item; a deadline in the past expires on the next {@link #advance}.
+     */
+    void schedule(T item, long deadlineMillis) {
+        // Zaokrąglenie w górę - element nigdy nie wygasa przed swoim terminem
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        pending.add(new Entry<>(item, deadlineTick));
+    }
+
+    /**
+     * Processes every tick up to {@code nowMillis}.
+     *
+     * @return Items whose deadline has passed, in tick order.
+     */
+    List<T> advance(long nowMillis) {
+        long lastTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        transferPending();
+        List<T> expired = new ArrayList<>();
+        for (; currentTick <= lastTick; currentTick++) {
+            Iterator<Entry<T>> bucket = buckets.get((int) (currentTick & mask)).iterator();
+            while (bucket.hasNext()) {
+                Entry<T> entry = bucket.next();
+                if (entry.rounds <= 0) {
+                    bucket.remove();
+                    size--;
+                    expired.add(entry.item);
+                } else {
+                    entry.rounds--;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return Number of items in the buckets, excluding those scheduled since the last {@link #advance}.
+     */
+    int size() {
+        return size;
+    }
+
+    private void transferPending() {
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            long tick = Math.max(entry.deadlineTick, currentTick); // Termin już minął - najbliższy tick
+            entry.rounds = (tick - currentTick) / buckets.size();
+            buckets.get((int) (tick & mask)).add(entry);
+            size++;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.milosz.podsiadly.domain.bank.standingorder;
+
+import com.milosz.podsiadly.domain.bank.repository.DueStandingOrder;
+import com.milosz.podsiadly.domain.bank.repository.StandingOrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires standing orders from a {@link HashedTimingWheel} instead of polling the whole table.
+ * <p>
+ * Every load interval the orders due before now + load horizon are read with a range scan of the
+ * (status, next_execution_at) index and placed in the wheel; each load only reads the window after the
+ * previous one. Orders created or rescheduled inside an already loaded window are scheduled directly
+ * through {@link #schedule}. On every tick the expired orders are grouped by source account and each
+ * group is executed sequentially on one worker thread, so orders of one account never compete for its
+ * balance while different accounts run in parallel.
+ * <p>
+ * Each instance loads all orders; the row claim in {@link StandingOrderExecutor} decides which one executes.
+ */
+@Slf4j
+@Component
+public class StandingOrderDispatcher {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderExecutor standingOrderExecutor;
+    private final StandingOrderProperties properties;
+    private final HashedTimingWheel<DueStandingOrder> wheel;
+    private final Set<Long> scheduledIds = ConcurrentHashMap.newKeySet(); // Zlecenia w kole - bez duplikatów z nakładających się odczytów
+    private final ExecutorService workers;
+    private volatile LocalDateTime loadedUntil; // null do pierwszego odczytu
+
+    public StandingOrderDispatcher(StandingOrderRepository standingOrderRepository, StandingOrderExecutor standingOrderExecutor,
+                                   StandingOrderProperties properties) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.standingOrderExecutor = standingOrderExecutor;
+        this.properties = properties;
+        this.wheel = new HashedTimingWheel<>(properties.getTickMs(), properties.getWheelSize(), System.currentTimeMillis());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkerThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "standing-order-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reads the orders due in the next window into the wheel. The first load also picks up overdue orders.
+     */
+    @Scheduled(fixedDelayString = "${banking.standing-orders.load-interval-ms:60000}")
+    public void loadUpcoming() {
+        LocalDateTime from = loadedUntil != null ? loadedUntil : BEGINNING;
+        LocalDateTime to = LocalDateTime.now().plusNanos(properties.getLoadHorizonMs() * 1_000_000L);
+        // Granica przesuwana przed odczytem: zlecenie zatwierdzone po odczycie widzi już nowe okno i planuje się samo
+        loadedUntil = to;
+
+        PageRequest page = PageRequest.of(0, Math.max(1, properties.getLoadPageSize()));
+        long afterId = 0;
+        int loaded = 0;
+        List<DueStandingOrder> due;
+        do {
+            due = standingOrderRepository.findDueBetween(from, to, afterId, page);
+            for (DueStandingOrder order : due) {
+                if (addToWheel(order)) {
+                    loaded++;
+                }
+                afterId = order.id();
+            }
+        } while (due.size() == page.getPageSize());
+        log.debug("Loaded {} standing orders due before {} ({} waiting in the timing wheel).", loaded, to, wheel.size());
+    }
+
+    /**
+     * Advances the wheel and hands the expired orders to the workers, grouped by source account.
+     */
+    @Scheduled(fixedRateString = "${banking.standing-orders.tick-ms:1000}")
+    public void tick() {
+        List<DueStandingOrder> expired = wheel.advance(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+        Map<Long, List<DueStandingOrder>> byAccount = new LinkedHashMap<>();
+        for (DueStandingOrder order : expired) {
+            byAccount.computeIfAbsent(order.sourceAccountId(), id -> new ArrayList<>()).add(order);
+        }
+        byAccount.values().forEach(group -> workers.execute(() -> executeGroup(group)));
+        log.debug("Dispatched {} due standing orders for {} accounts.", expired.size(), byAccount.size());
+    }
+
+    /**
+     * Schedules an order created or rescheduled after its window was loaded; later orders are left to the loader.
+     */
+    public void schedule(Long orderId, Long sourceAccountId, LocalDateTime nextExecutionAt) {
+        LocalDateTime until = loadedUntil;
+        if (until != null && nextExecutionAt.isBefore(until)) {
+            addToWheel(new DueStandingOrder(orderId, sourceAccountId, nextExecutionAt));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Standing order workers did not finish within 30 s.");
+        }
+    }
+
+    private void executeGroup(List<DueStandingOrder> group) {
+        for (DueStandingOrder order : group) {
+            scheduledIds.remove(order.id());
+            try {
+                standingOrderExecutor.execute(order.id())
+                        .ifPresent(next -> schedule(order.id(), order.sourceAccountId(), next));
+            } catch (RuntimeException e) {
+                // Np. baza niedostępna - termin w tabeli się nie zmienił, więc loader go nie odczyta ponownie
+                log.error("Cannot execute standing order {}, retrying after the load interval: {}", order.id(), e.getMessage(), e);
+                addToWheel(new DueStandingOrder(order.id(), order.sourceAccountId(),
+                        LocalDateTime.now().plusNanos(properties.getLoadIntervalMs() * 1_000_000L)));
+            }
+        }
+    }
+
+    private boolean addToWheel(DueStandingOrder order) {
+        if (!scheduledIds.add(order.id())) {
+            return false;
+        }
+        long deadline = order.nextExecutionAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(order, deadline);
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+package com.milosz.podsiadly.domain.bank.standingorder;
+
+import com.milosz.podsiadly.domain.bank.model.StandingOrder;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.StandingOrderRepository;
+import com.milosz.podsiadly.domain.bank.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Executes one due standing order through {@link TransactionService}.
+ * <p>
+ * The order row is claimed with a conditional update and advanced to its next occurrence in the same
+ * database transaction as the transfer, so an occurrence is executed at most once, also when several
+ * instances dispatch the same order. A failed transfer is rolled back and recorded in a separate transaction.
+ */
+@Slf4j
+@Component
+public class StandingOrderExecutor {
+
+    private static final int MAX_FAILURE_REASON_LENGTH = 255;
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final TransactionService transactionService;
+    private final StandingOrderProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public StandingOrderExecutor(StandingOrderRepository standingOrderRepository, TransactionService transactionService,
+                                 StandingOrderProperties properties, PlatformTransactionManager transactionManager) {
+        this.standingOrderRepository = standingOrderRepository;
+        this.transactionService = transactionService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executes the order if it is still active and due.
+     *
+     * @param orderId ID of the standing order.
+     * @return Next execution time if the order stays active, empty if it finished or was cancelled.
+     */
+    public Optional<LocalDateTime> execute(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return transactionTemplate.execute(status -> {
+                if (standingOrderRepository.claimDue(orderId, now) == 0) {
+                    // Anulowane albo już przesunięte na późniejszy termin (np. przez inną instancję)
+                    return standingOrderRepository.findById(orderId)
+                            .filter(order -> order.getStatus() == StandingOrder.StandingOrderStatus.ACTIVE)
+                            .map(StandingOrder::getNextExecutionAt);
+                }
+                StandingOrder order = standingOrderRepository.findById(orderId).orElseThrow();
+                Transaction transaction = transactionService.createTransferTransaction(
+                        order.getSourceAccountId(), order.getTargetAccountNumber(), order.getAmount(), order.getCurrency(),
+                        order.getDescription() != null ? order.getDescription() : "Standing order " + order.getOrderRef(), now);
+                order.setLastTransactionId(transaction.getId());
+                order.setLastFailureReason(null);
+                return Optional.ofNullable(advance(order, now));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Standing order {} failed: {}", orderId, e.getMessage());
+            return transactionTemplate.execute(status -> recordFailure(orderId, now, e));
+        }
+    }
+
+    private Optional<LocalDateTime> recordFailure(Long orderId, LocalDateTime now, RuntimeException failure) {
+        Optional<StandingOrder> found = standingOrderRepository.findById(orderId)
+                .filter(order -> order.getStatus() == StandingOrder.StandingOrderStatus.ACTIVE);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        StandingOrder order = found.get();
+        String reason = String.valueOf(failure.getMessage());
+        order.setLastFailureReason(reason.length() > MAX_FAILURE_REASON_LENGTH ? reason.substring(0, MAX_FAILURE_REASON_LENGTH) : reason);
+        order.setLastAttemptAt(now);
+        order.setFailedAttempts(order.getFailedAttempts() + 1);
+        if (order.getFailedAttempts() >= properties.getMaxAttempts()) {
+            log.warn("Standing order {} skipped occurrence {} after {} failed attempts.",
+                    order.getOrderRef(), order.getOccurrence(), order.getFailedAttempts());
+            return Optional.ofNullable(advance(order, now));
+        }
+        order.setNextExecutionAt(now.plusNanos(properties.getRetryDelayMs() * 1_000_000L));
+        return Optional.of(order.getNextExecutionAt());
+    }
+
+    // Przejście do następnego wystąpienia; terminy przegapione podczas przestoju są pomijane (bez serii zaległych przelewów)
+    private static LocalDateTime advance(StandingOrder order, LocalDateTime now) {
+        int occurrence = order.getOccurrence();
+        LocalDateTime next;
+        do {
+            occurrence++;
+            next = order.getFrequency().occurrenceAt(order.getStartAt(), occurrence);
+        } while (next != null && !next.isAfter(now));
+
+        order.setOccurrence(occurrence);
+        order.setFailedAttempts(0);
+        if (next == null || (order.getEndDate() != null && next.toLocalDate().isAfter(order.getEndDate()))) {
+            order.setStatus(StandingOrder.StandingOrderStatus.COMPLETED);
+            return null;
+        }
+        order.setNextExecutionAt(next);
+        return next;
+    }
+}
@@ -0,0 +1,57 @@
+package com.milosz.podsiadly.domain.bank.standingorder;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the standing order dispatcher.
+ * Automatically bound from banking.standing-orders.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.standing-orders")
+@Getter
+@Setter
+public class StandingOrderProperties {
+
+    /**
+     * Duration of one timing wheel tick, in milliseconds. Orders fire at most one tick late.
+     */
+    private long tickMs = 1000;
+
+    /**
+     * Number of timing wheel buckets (rounded up to a power of two).
+     */
+    private int wheelSize = 512;
+
+    /**
+     * Delay between loads of upcoming orders from the table, in milliseconds.
+     */
+    private long loadIntervalMs = 60000;
+
+    /**
+     * How far ahead of now orders are loaded into the wheel, in milliseconds. Must exceed the load interval.
+     */
+    private long loadHorizonMs = 120000;
+
+    /**
+     * Number of orders read per query while loading.
+     */
+    private int loadPageSize = 5000;
+
+    /**
+     * Number of threads executing due orders; orders of one source account always run on one thread, in due order.
+     */
+    private int workerThreads = 4;
+
+    /**
+     * Failed executions of one occurrence (e.g. insufficient funds) before it is skipped.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Delay before a failed occurrence is retried, in milliseconds.
+     */
+    private long retryDelayMs = 3600000;
+}
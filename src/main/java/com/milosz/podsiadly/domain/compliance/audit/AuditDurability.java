@@ -0,0 +1,24 @@
+package com.milosz.podsiadly.domain.compliance.audit;
+
+/**
+ * How long the caller of {@code AuditService.logEvent} waits for its audit row.
+ */
+public enum AuditDurability {
+    /**
+     * The row is inserted by the calling thread, inside the caller's transaction, so it commits or rolls back
+     * together with the business change. The default.
+     */
+    SYNC,
+    /**
+     * The row is queued and the caller waits until the background writer commits the batch containing it.
+     * The batch commits independently of the caller's transaction: the row stays even if the business change
+     * rolls back, and is missing if the batch fails after the business change committed. The caller keeps its
+     * database connection while it waits (up to banking.audit.commit-timeout-ms).
+     */
+    GROUP_COMMIT,
+    /**
+     * The row is queued and the caller returns immediately; rows are dropped when the buffer is full.
+     * Like GROUP_COMMIT, rows commit independently of the caller's transaction.
+     */
+    FIRE_AND_FORGET
+}
@@ -0,0 +1,176 @@
+package com.milosz.podsiadly.domain.compliance.audit;
+
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.repository.AuditLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes {@link AuditLog} rows according to the configured {@link AuditDurability}.
+ * In the buffered modes rows go through a bounded ring buffer and a single background thread
+ * inserts them in batches, one database transaction per batch.
+ */
+@Slf4j
+@Component
+public class AuditLogWriter {
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditProperties auditProperties;
+    private final AuditWriterMetrics metrics;
+    private final TransactionTemplate batchTransaction;
+    private final TransactionTemplate separateTransaction;
+    private final BlockingQueue<PendingAuditLog> buffer;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private record PendingAuditLog(AuditLog auditLog, CompletableFuture<AuditLog> written) {
+    }
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository, AuditProperties auditProperties,
+                          AuditWriterMetrics metrics, PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditProperties = auditProperties;
+        this.metrics = metrics;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction = new TransactionTemplate(transactionManager);
+        this.separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int capacity = Math.max(1, auditProperties.getBufferCapacity());
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.writerThread = new Thread(this::drainLoop, "audit-log-writer");
+        this.writerThread.setDaemon(true);
+        metrics.bindBuffer(buffer, capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread.start();
+        log.info("Audit log writer started (durability: {}, buffer: {}).",
+                auditProperties.getDurability(), auditProperties.getBufferCapacity());
+    }
+
+    /**
+     * Writes the audit row.
+     *
+     * @param auditLog The row to write.
+     * @return The row; its ID is set unless it is still waiting in the buffer.
+     */
+    public AuditLog write(AuditLog auditLog) {
+        return switch (auditProperties.getDurability()) {
+            case SYNC -> writeSync(auditLog);
+            case GROUP_COMMIT -> writeGroupCommit(auditLog);
+            case FIRE_AND_FORGET -> writeFireAndForget(auditLog);
+        };
+    }
+
+    private AuditLog writeSync(AuditLog auditLog) {
+        // W transakcji tylko do odczytu (np. getAccountById) INSERT nie zostałby wykonany - zapis w osobnej transakcji
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return separateTransaction.execute(status -> auditLogRepository.save(auditLog));
+        }
+        return auditLogRepository.save(auditLog);
+    }
+
+    private AuditLog writeGroupCommit(AuditLog auditLog) {
+        PendingAuditLog pending = new PendingAuditLog(auditLog, new CompletableFuture<>());
+        long start = System.nanoTime();
+        boolean queued;
+        try {
+            queued = buffer.offer(pending, auditProperties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        metrics.recordEnqueueWait(System.nanoTime() - start);
+        if (!queued) {
+            metrics.recordSyncFallback();
+            return separateTransaction.execute(status -> auditLogRepository.save(auditLog));
+        }
+
+        try {
+            return pending.written().get(auditProperties.getCommitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Audit log '{}' not committed within {} ms, continuing without waiting.",
+                    auditLog.getAction(), auditProperties.getCommitTimeoutMs());
+            return auditLog;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Audit log write failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return auditLog;
+        }
+    }
+
+    private AuditLog writeFireAndForget(AuditLog auditLog) {
+        if (!buffer.offer(new PendingAuditLog(auditLog, null))) {
+            metrics.recordDropped();
+            log.warn("Audit buffer full, dropping audit log '{}' for user {}.", auditLog.getAction(), auditLog.getUsername());
+        }
+        return auditLog;
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, auditProperties.getFlushBatchSize());
+        List<PendingAuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingAuditLog first = buffer.poll(auditProperties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wszystko, co zebrało się w czasie poprzedniego zapisu, trafia do jednego commita
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingAuditLog> batch) {
+        List<AuditLog> rows = batch.stream().map(PendingAuditLog::auditLog).toList();
+        long start = System.nanoTime();
+        try {
+            batchTransaction.executeWithoutResult(status -> auditLogRepository.saveAll(rows));
+            metrics.recordFlush(rows.size(), System.nanoTime() - start);
+            batch.forEach(pending -> {
+                if (pending.written() != null) {
+                    pending.written().complete(pending.auditLog());
+                }
+            });
+        } catch (Exception e) {
+            metrics.recordWriteFailures(rows.size());
+            log.error("Failed to write batch of {} audit logs: {}", rows.size(), e.getMessage(), e);
+            batch.forEach(pending -> {
+                if (pending.written() != null) {
+                    pending.written().completeExceptionally(e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        log.info("Stopping audit log writer, {} rows still buffered.", buffer.size());
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+}
@@ -0,0 +1,47 @@
+package com.milosz.podsiadly.domain.compliance.audit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the audit log writer.
+ * Automatically bound from banking.audit.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.audit")
+@Getter
+@Setter
+public class AuditProperties {
+
+    /**
+     * Write mode; see {@link AuditDurability} for the consistency trade-off of the buffered modes.
+     */
+    private AuditDurability durability = AuditDurability.SYNC;
+
+    /**
+     * Capacity of the bounded buffer between callers and the background writer.
+     */
+    private int bufferCapacity = 8192;
+
+    /**
+     * Maximum number of audit rows inserted in one database transaction.
+     */
+    private int flushBatchSize = 500;
+
+    /**
+     * How long the background writer waits for the first row of a new batch, in milliseconds.
+     */
+    private long flushIntervalMs = 50;
+
+    /**
+     * GROUP_COMMIT: how long a caller waits for buffer space before writing the row itself, in milliseconds.
+     */
+    private long offerTimeoutMs = 100;
+
+    /**
+     * GROUP_COMMIT: how long a caller waits for its batch to be committed, in milliseconds.
+     */
+    private long commitTimeoutMs = 5000;
+}
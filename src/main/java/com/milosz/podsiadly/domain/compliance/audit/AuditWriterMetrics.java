@@ -0,0 +1,79 @@
+package com.milosz.podsiadly.domain.compliance.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters describing backpressure and throughput of the audit log writer.
+ * Exposed through the actuator (e.g. /actuator/prometheus).
+ */
+@Component
+public class AuditWriterMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer enqueueWait;
+    private final Counter dropped;
+    private final Counter syncFallbacks;
+    private final Counter writeFailures;
+    private final Timer flush;
+    private final DistributionSummary batchSize;
+
+    public AuditWriterMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.enqueueWait = Timer.builder("banking.audit.enqueue.wait")
+                .description("Time callers spent waiting for space in the audit buffer")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("banking.audit.dropped")
+                .description("Audit rows discarded because the buffer was full (FIRE_AND_FORGET)")
+                .register(meterRegistry);
+        this.syncFallbacks = Counter.builder("banking.audit.sync.fallbacks")
+                .description("Audit rows written by the caller because the buffer stayed full (GROUP_COMMIT)")
+                .register(meterRegistry);
+        this.writeFailures = Counter.builder("banking.audit.write.failures")
+                .description("Audit rows lost because their batch could not be written")
+                .register(meterRegistry);
+        this.flush = Timer.builder("banking.audit.flush")
+                .description("Time needed to insert and commit one batch of audit rows")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("banking.audit.batch.size")
+                .description("Number of audit rows committed per batch")
+                .register(meterRegistry);
+    }
+
+    public void bindBuffer(Collection<?> buffer, int capacity) {
+        Gauge.builder("banking.audit.buffer.size", buffer, Collection::size)
+                .description("Audit rows waiting for the background writer")
+                .register(meterRegistry);
+        Gauge.builder("banking.audit.buffer.capacity", () -> capacity)
+                .description("Capacity of the audit buffer")
+                .register(meterRegistry);
+    }
+
+    public void recordEnqueueWait(long nanos) {
+        enqueueWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public void recordSyncFallback() {
+        syncFallbacks.increment();
+    }
+
+    public void recordWriteFailures(int rows) {
+        writeFailures.increment(rows);
+    }
+
+    public void recordFlush(int rows, long nanos) {
+        batchSize.record(rows);
+        flush.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,5 +1,6 @@
 package com.milosz.podsiadly.domain.compliance.service;
 
+import com.milosz.podsiadly.domain.compliance.audit.AuditLogWriter;
 import com.milosz.podsiadly.domain.compliance.model.AuditLog;
 import com.milosz.podsiadly.domain.compliance.repository.AuditLogRepository;
 import lombok.RequiredArgsConstructor;
@@ -14,18 +15,20 @@ import java.util.List;
 public class AuditService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
 
     /**
      * Logs an audit event to the database.
+     * Depending on banking.audit.durability the row is written synchronously in the caller's transaction
+     * or handed to the batching background writer (see {@link com.milosz.podsiadly.domain.compliance.audit.AuditDurability}).
      * @param username The user who performed the action.
      * @param action The type of action performed (e.g., "DEPOSIT_CREATED", "LOGIN_SUCCESS").
      * @param entityType The type of entity affected (optional).
      * @param entityId The ID of the entity affected (optional).
      * @param details Additional details about the action (e.g., JSON payload, error message).
      * @param status The status of the action (SUCCESS or FAILURE).
-     * @return The saved AuditLog entity.
+     * @return The AuditLog entity; without an ID if it is still buffered (FIRE_AND_FORGET).
      */
-    @Transactional
     public AuditLog logEvent(String username, String action, String entityType, Long entityId, String details, AuditLog.AuditStatus status) {
         AuditLog auditLog = AuditLog.builder()
                 .username(username)
@@ -36,7 +39,7 @@ public class AuditService {
                 .status(status)
                 .timestamp(LocalDateTime.now()) // Will be overridden by @CreatedDate if JPA Auditing is fully set up
                 .build();
-        return auditLogRepository.save(auditLog);
+        return auditLogWriter.write(auditLog);
     }
 
     /**
@@ -11,7 +11,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bank_statements")
+@Table(name = "bank_statements", indexes = {
+        @Index(name = "idx_bank_statements_type_period_account", columnList = "statement_type, period_start, account_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,8 +40,9 @@ public class BankStatement {
     @Column(nullable = false)
     private String statementType; // e.g., "MONTHLY", "ANNUAL", "CUSTOM"
 
-    @Column(columnDefinition = "TEXT") // Store statement content as text (e.g., JSON, CSV, or path to file)
-    private String content;
+    private String archivePath; // Archive (tar.gz/zip) holding the rendered statement; content is not stored in the DB
+
+    private String archiveEntry; // Entry name of the statement inside the archive
 
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,43 @@
+package com.milosz.podsiadly.domain.report.repository;
+
+import com.milosz.podsiadly.domain.report.model.BankStatement;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * JDBC batch inserts of {@link BankStatement} rows for bulk statement runs; IDENTITY keys would make
+ * Hibernate insert the rows one by one.
+ */
+@Repository
+public class BankStatementBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO bank_statements (account_id, statement_reference, period_start, period_end, statement_type, " +
+                    "archive_path, archive_entry, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BankStatementBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the statements with JDBC batches of the given size; generated IDs are not read back.
+     */
+    public void insertAll(List<BankStatement> statements, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, statements, batchSize, (ps, statement) -> {
+            ps.setLong(1, statement.getAccountId());
+            ps.setString(2, statement.getStatementReference());
+            ps.setTimestamp(3, Timestamp.valueOf(statement.getPeriodStart()));
+            ps.setTimestamp(4, Timestamp.valueOf(statement.getPeriodEnd()));
+            ps.setString(5, statement.getStatementType());
+            ps.setString(6, statement.getArchivePath());
+            ps.setString(7, statement.getArchiveEntry());
+            ps.setString(8, statement.getStatus().name());
+            ps.setTimestamp(9, Timestamp.valueOf(statement.getCreatedAt()));
+        });
+    }
+}
@@ -3,9 +3,17 @@ package com.milosz.podsiadly.domain.report.repository;
 
 import com.milosz.podsiadly.domain.report.model.BankStatement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @Repository
 public interface BankStatementRepository extends JpaRepository<BankStatement, Long> {
-    // You might add custom queries here, e.g., find by accountId, by date range
+
+    // Wyciągi generowane w kolejności ID kont - największe ID to punkt wznowienia przerwanego przebiegu
+    @Query("SELECT MAX(s.accountId) FROM BankStatement s WHERE s.statementType = :statementType AND s.periodStart = :periodStart")
+    Optional<Long> findLastAccountId(@Param("statementType") String statementType, @Param("periodStart") LocalDateTime periodStart);
 }
\ No newline at end of file
@@ -77,8 +77,7 @@ public class ReportGenerator {
                     .periodStart(requestDto.startDate())
                     .periodEnd(requestDto.endDate())
                     .statementType("TRANSACTION_HISTORY")
-                    // You'd convert the generatedReport (e.g., List<TransactionDto>) to JSON string here
-                    .content("Generated transaction history for account " + requestDto.accountId()) // Placeholder
+                    // Treść zwracana w odpowiedzi - archiwizowane są tylko wyciągi miesięczne (MonthlyStatementGenerator)
                     .status(BankStatement.StatementStatus.GENERATED)
                     .build();
             bankStatementRepository.save(statement);
@@ -1,5 +1,6 @@
 package com.milosz.podsiadly.domain.report.service;
 
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
 import com.milosz.podsiadly.domain.report.dto.ReportRequestDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import java.util.UUID;
 public class ReportSubscriptionService {
 
     private final ReportGenerator reportGenerator;
+    private final ScheduledJobLock scheduledJobLock;
 
     // In a real application, these would be persisted in a database
     private final List<ReportSubscription> subscriptions = new ArrayList<>();
@@ -62,20 +64,23 @@ public class ReportSubscriptionService {
      */
     @Scheduled(cron = "0 0 0 * * ?") // Runs every day at midnight
     public void processScheduledReports() {
-        log.info("Starting scheduled report generation for {} subscriptions...", subscriptions.size());
-        for (ReportSubscription subscription : subscriptions) {
-            try {
-                log.info("Generating scheduled report for subscription ID: {}", subscription.id());
-                Object reportContent = reportGenerator.generateReport(subscription.reportRequest());
-                // In a real system, here you'd handle the delivery of 'reportContent'
-                // based on 'subscription.deliveryMethod()'.
-                log.info("Successfully generated and (simulated) delivered scheduled report for subscription ID: {}", subscription.id());
-            } catch (Exception e) {
-                log.error("Failed to generate or deliver scheduled report for subscription ID: {}: {}", subscription.id(), e.getMessage(), e);
-                // Log failure, potentially update subscription status
+        // Jedna dzierżawa na cały przebieg - ID subskrypcji są losowe per instancja, więc blokada per subskrypcja niczego nie wykluczała
+        scheduledJobLock.runExclusively("scheduled-reports", () -> {
+            log.info("Starting scheduled report generation for {} subscriptions...", subscriptions.size());
+            for (ReportSubscription subscription : subscriptions) {
+                try {
+                    log.info("Generating scheduled report for subscription ID: {}", subscription.id());
+                    Object reportContent = reportGenerator.generateReport(subscription.reportRequest());
+                    // In a real system, here you'd handle the delivery of 'reportContent'
+                    // based on 'subscription.deliveryMethod()'.
+                    log.info("Successfully generated and (simulated) delivered scheduled report for subscription ID: {}", subscription.id());
+                } catch (Exception e) {
+                    log.error("Failed to generate or deliver scheduled report for subscription ID: {}: {}", subscription.id(), e.getMessage(), e);
+                    // Log failure, potentially update subscription status
+                }
             }
-        }
-        log.info("Finished scheduled report generation.");
+            log.info("Finished scheduled report generation.");
+        });
     }
 
     /**
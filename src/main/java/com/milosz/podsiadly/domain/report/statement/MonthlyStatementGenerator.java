@@ -0,0 +1,220 @@
+package com.milosz.podsiadly.domain.report.statement;
+
+import com.milosz.podsiadly.common.exception.ReportGenerationException;
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.core.lock.SchedulerLease;
+import com.milosz.podsiadly.core.lock.SchedulerLockProperties;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import com.milosz.podsiadly.domain.report.model.BankStatement;
+import com.milosz.podsiadly.domain.report.repository.BankStatementBatchRepository;
+import com.milosz.podsiadly.domain.report.repository.BankStatementRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the monthly statements of all active accounts into rolling compressed archives.
+ * <p>
+ * Accounts are read in ID order page by page; the statements of a page are rendered in parallel by
+ * {@link StatementRenderer} and appended to the current archive in account order. Once an archive holds
+ * {@link StatementProperties#getStatementsPerArchive()} statements it is completed and only then are its
+ * {@link BankStatement} rows, referencing the archive and entry, inserted. The database therefore never
+ * points at an unfinished archive, and a failed run resumes after the last archived account.
+ * The run holds a {@link ScheduledJobLock} lease, extended after every archive.
+ * <p>
+ * Only accounts created before the end of the month are included, so calling {@link #generate(YearMonth)}
+ * again for a finished month generates nothing; the scheduler uses this to retry failed months daily.
+ */
+@Slf4j
+@Component
+public class MonthlyStatementGenerator {
+
+    public static final String STATEMENT_TYPE = "MONTHLY";
+    private static final String LOCK_NAME = "monthly-statements";
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BankStatementRepository bankStatementRepository;
+    private final BankStatementBatchRepository bankStatementBatchRepository;
+    private final StatementRenderer renderer;
+    private final AuditService auditService;
+    private final ScheduledJobLock scheduledJobLock;
+    private final SchedulerLockProperties lockProperties;
+    private final StatementProperties properties;
+    private final ExecutorService workers;
+
+    @Value("${banking.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    public MonthlyStatementGenerator(BankAccountRepository bankAccountRepository, BankStatementRepository bankStatementRepository,
+                                     BankStatementBatchRepository bankStatementBatchRepository, StatementRenderer renderer,
+                                     AuditService auditService, ScheduledJobLock scheduledJobLock,
+                                     SchedulerLockProperties lockProperties, StatementProperties properties) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.bankStatementRepository = bankStatementRepository;
+        this.bankStatementBatchRepository = bankStatementBatchRepository;
+        this.renderer = renderer;
+        this.auditService = auditService;
+        this.scheduledJobLock = scheduledJobLock;
+        this.lockProperties = lockProperties;
+        this.properties = properties;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getRenderThreads()),
+                runnable -> new Thread(runnable, "statement-render-" + threadIndex.getAndIncrement()));
+    }
+
+    /**
+     * Generates the statements of the month that are not archived yet.
+     *
+     * @param month Statement period.
+     * @return Number of statements generated by this call; 0 if another instance is generating them.
+     * @throws ReportGenerationException if rendering or writing an archive fails; archived statements are kept.
+     */
+    public int generate(YearMonth month) {
+        Optional<SchedulerLease> lease = scheduledJobLock.tryAcquire(LOCK_NAME, lockProperties.getLockAtMostForMs());
+        if (lease.isEmpty()) {
+            log.info("Statements for {} are being generated by another instance.", month);
+            return 0;
+        }
+        long startedNanos = System.nanoTime();
+        int generated = 0;
+        String error = null;
+        try {
+            generated = run(month, lease.get());
+        } catch (RuntimeException e) {
+            error = String.valueOf(e.getMessage());
+            throw e;
+        } finally {
+            scheduledJobLock.release(lease.get(), lockProperties.getLockAtLeastForMs());
+            finish(month, generated, error, Math.max(1, (System.nanoTime() - startedNanos) / 1_000_000));
+        }
+        return generated;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private int run(YearMonth month, SchedulerLease lease) {
+        LocalDateTime periodStart = month.atDay(1).atStartOfDay();
+        LocalDateTime periodEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+        long afterId = bankStatementRepository.findLastAccountId(STATEMENT_TYPE, periodStart).orElse(0L);
+        if (afterId > 0) {
+            log.info("Resuming statements for {} after account {}.", month, afterId);
+        }
+        Path directory = Path.of(properties.getArchiveDir(), month.toString());
+        PageRequest page = PageRequest.of(0, Math.max(1, properties.getAccountPageSize()));
+        int perArchive = Math.max(1, properties.getStatementsPerArchive());
+
+        int generated = 0;
+        StatementArchiveWriter archive = null;
+        List<BankStatement> archived = new ArrayList<>(perArchive);
+        try {
+            List<BankAccount> accounts;
+            // Konta otwarte choć przez część okresu, niezależnie od obecnego statusu - późniejsze zablokowanie
+            // lub zamknięcie nie usuwa konta z wyciągów, a ponowny przebieg nie dopisze kont założonych po okresie
+            while (!(accounts = bankAccountRepository.findOpenInPeriodAfterId(afterId, periodStart, periodEnd, page)).isEmpty()) {
+                List<Future<RenderedStatement>> rendered = new ArrayList<>(accounts.size());
+                for (BankAccount account : accounts) {
+                    rendered.add(workers.submit(() -> renderer.render(account, month)));
+                }
+                for (Future<RenderedStatement> future : rendered) {
+                    RenderedStatement statement = future.get(); // Kolejność kont zachowana w archiwum i indeksie
+                    if (archive == null) {
+                        // Nazwa od pierwszego konta - wznowiony przebieg nie nadpisze gotowego archiwum
+                        archive = new StatementArchiveWriter(directory, "statements-" + month + "-" + statement.accountId(),
+                                properties.getArchiveFormat());
+                    }
+                    archive.add(statement);
+                    archived.add(toEntity(statement, month, archive.path()));
+                    if (archive.size() >= perArchive) {
+                        generated += complete(archive, archived, lease);
+                        archive = null;
+                    }
+                }
+                afterId = accounts.get(accounts.size() - 1).getId();
+            }
+            if (archive != null) {
+                generated += complete(archive, archived, lease);
+                archive = null;
+            }
+            return generated;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportGenerationException("Statement generation for " + month + " interrupted after " + generated + " statements.");
+        } catch (ExecutionException e) {
+            throw new ReportGenerationException("Rendering a statement for " + month + " failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (IOException e) {
+            throw new ReportGenerationException("Writing a statement archive for " + month + " failed: " + e.getMessage(), e);
+        } finally {
+            if (archive != null) {
+                try {
+                    archive.close(); // Niedokończone archiwum usuwane - jego wyciągi powstaną przy wznowieniu
+                } catch (IOException e) {
+                    log.warn("Could not discard unfinished statement archive {}: {}", archive.path(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private int complete(StatementArchiveWriter archive, List<BankStatement> archived, SchedulerLease lease) throws IOException {
+        Path path = archive.finish();
+        bankStatementBatchRepository.insertAll(archived, jdbcBatchSize);
+        int count = archived.size();
+        archived.clear();
+        if (!scheduledJobLock.extend(lease, lockProperties.getLockAtMostForMs())) {
+            throw new ReportGenerationException("Statement lock " + lease.name() + " was lost; stopping after archive " + path + ".");
+        }
+        log.info("Statement archive {} completed with {} statements.", path, count);
+        return count;
+    }
+
+    private static BankStatement toEntity(RenderedStatement statement, YearMonth month, Path archivePath) {
+        return BankStatement.builder()
+                .accountId(statement.accountId())
+                .statementReference(statement.statementRef())
+                .periodStart(month.atDay(1).atStartOfDay())
+                .periodEnd(month.atEndOfMonth().atTime(23, 59, 59))
+                .statementType(STATEMENT_TYPE)
+                .archivePath(archivePath.toString())
+                .archiveEntry(statement.entryName())
+                .status(BankStatement.StatementStatus.GENERATED)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void finish(YearMonth month, int generated, String error, long millis) {
+        if (generated == 0 && error == null) {
+            log.debug("No pending statements for {}.", month); // Codzienne ponowienie za kompletny miesiąc - bez wpisu audytu
+            return;
+        }
+        log.info("Generated {} statements for {} in {} ms ({} statements/s).",
+                generated, month, millis, String.format("%.1f", generated * 1000.0 / millis));
+        auditService.logEvent(
+                "SYSTEM",
+                error == null ? "STATEMENTS_GENERATED" : "STATEMENTS_FAILED",
+                "BankStatement",
+                null,
+                "Wyciągi za " + month + ": wygenerowano " + generated + (error != null ? ", przerwano: " + error : "."),
+                error == null ? AuditLog.AuditStatus.SUCCESS : AuditLog.AuditStatus.FAILURE
+        );
+    }
+}
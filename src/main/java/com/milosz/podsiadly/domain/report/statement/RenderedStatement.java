@@ -0,0 +1,18 @@
+package com.milosz.podsiadly.domain.report.statement;
+
+import java.math.BigDecimal;
+
+/**
+ * Statement of one account rendered by {@link StatementRenderer}, ready to be archived.
+ *
+ * @param accountId        ID of the account.
+ * @param statementRef     Reference of the statement.
+ * @param entryName        File name of the statement inside the archive.
+ * @param content          Rendered statement (UTF-8 text).
+ * @param transactionCount Number of transactions listed.
+ * @param openingBalance   Balance at the start of the period.
+ * @param closingBalance   Balance at the end of the period.
+ */
+public record RenderedStatement(Long accountId, String statementRef, String entryName, byte[] content,
+                                int transactionCount, BigDecimal openingBalance, BigDecimal closingBalance) {
+}
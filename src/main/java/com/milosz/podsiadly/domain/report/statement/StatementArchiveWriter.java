@@ -0,0 +1,113 @@
+package com.milosz.podsiadly.domain.report.statement;
+
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes rendered statements into one compressed archive and its index file.
+ * <p>
+ * The archive is written under a temporary name and moved into place by {@link #finish()}, together with the
+ * index ({@code <archive>.index.csv}: reference, account ID, entry, transaction count, opening and closing
+ * balance), so an archive under its final name is always complete. {@link #close()} without {@link #finish()}
+ * discards both files.
+ */
+class StatementArchiveWriter implements Closeable {
+
+    private final Path archivePath;
+    private final Path temporaryArchive;
+    private final Path indexPath;
+    private final Path temporaryIndex;
+    private final ArchiveOutputStream<?> archive;
+    private final BufferedWriter index;
+    private int size;
+    private boolean finished;
+
+    StatementArchiveWriter(Path directory, String baseName, StatementProperties.ArchiveFormat format) throws IOException {
+        Files.createDirectories(directory);
+        this.archivePath = directory.resolve(baseName + format.extension());
+        this.temporaryArchive = directory.resolve(baseName + format.extension() + ".tmp");
+        this.indexPath = directory.resolve(baseName + format.extension() + ".index.csv");
+        this.temporaryIndex = directory.resolve(baseName + format.extension() + ".index.csv.tmp");
+
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporaryArchive), 64 * 1024);
+        if (format == StatementProperties.ArchiveFormat.ZIP) {
+            this.archive = new ZipArchiveOutputStream(out);
+        } else {
+            TarArchiveOutputStream tar = new TarArchiveOutputStream(new GzipCompressorOutputStream(out));
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            this.archive = tar;
+        }
+        this.index = Files.newBufferedWriter(temporaryIndex, StandardCharsets.UTF_8);
+        this.index.write("statement_reference;account_id;entry;transactions;opening_balance;closing_balance");
+        this.index.newLine();
+    }
+
+    void add(RenderedStatement statement) throws IOException {
+        if (archive instanceof TarArchiveOutputStream tar) {
+            TarArchiveEntry entry = new TarArchiveEntry(statement.entryName());
+            entry.setSize(statement.content().length);
+            tar.putArchiveEntry(entry);
+        } else {
+            ((ZipArchiveOutputStream) archive).putArchiveEntry(new ZipArchiveEntry(statement.entryName()));
+        }
+        archive.write(statement.content());
+        archive.closeArchiveEntry();
+
+        index.write(statement.statementRef() + ";" + statement.accountId() + ";" + statement.entryName() + ";"
+                + statement.transactionCount() + ";" + statement.openingBalance().toPlainString() + ";"
+                + statement.closingBalance().toPlainString());
+        index.newLine();
+        size++;
+    }
+
+    /**
+     * Completes the archive and its index and moves both to their final names.
+     *
+     * @return Path of the archive.
+     */
+    Path finish() throws IOException {
+        archive.finish();
+        archive.close();
+        index.close();
+        Files.move(temporaryIndex, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temporaryArchive, archivePath, StandardCopyOption.REPLACE_EXISTING);
+        finished = true;
+        return archivePath;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Path path() {
+        return archivePath;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            archive.close();
+            index.close();
+        } finally {
+            Files.deleteIfExists(temporaryArchive);
+            Files.deleteIfExists(temporaryIndex);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.milosz.podsiadly.domain.report.statement;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the monthly statement run.
+ * Automatically bound from banking.statements.* properties.
+ */
+@Component
+@ConfigurationProperties(prefix = "banking.statements")
+@Getter
+@Setter
+public class StatementProperties {
+
+    /**
+     * Directory the statement archives are written to, one subdirectory per month.
+     */
+    private String archiveDir = "./data/statements";
+
+    /**
+     * Archive format of the rendered statements.
+     */
+    private ArchiveFormat archiveFormat = ArchiveFormat.TAR_GZ;
+
+    /**
+     * Statements per archive; a new archive is started once the current one is full.
+     */
+    private int statementsPerArchive = 10000;
+
+    /**
+     * Number of statements rendered in parallel; each holds a pooled connection while it streams transactions.
+     */
+    private int renderThreads = 4;
+
+    /**
+     * Accounts read per page; a page is rendered in parallel before its statements are archived in order.
+     */
+    private int accountPageSize = 500;
+
+    /**
+     * Number of past months checked by the daily run; statements missing after a failed run are generated then.
+     */
+    private int catchUpMonths = 3;
+
+    public enum ArchiveFormat {
+        TAR_GZ(".tar.gz"), ZIP(".zip");
+
+        private final String extension;
+
+        ArchiveFormat(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+}
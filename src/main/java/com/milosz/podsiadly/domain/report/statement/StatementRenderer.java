@@ -0,0 +1,124 @@
+package com.milosz.podsiadly.domain.report.statement;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import com.milosz.podsiadly.domain.bank.model.Transaction;
+import com.milosz.podsiadly.domain.bank.repository.TransactionRepository;
+import com.milosz.podsiadly.domain.bank.service.BalanceSnapshotService;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Renders the monthly statement of one account as semicolon-separated UTF-8 text.
+ * <p>
+ * The period's transactions are streamed from a database cursor and detached once written, so memory use
+ * depends on the rendered text only, not on the persistence context. The opening balance comes from the daily
+ * balance snapshots; the closing balance is the opening balance plus the listed transactions.
+ */
+@Component
+public class StatementRenderer {
+
+    private final TransactionRepository transactionRepository;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final EntityManager entityManager;
+    private final IdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+
+    public StatementRenderer(TransactionRepository transactionRepository, BalanceSnapshotService balanceSnapshotService,
+                             EntityManager entityManager, IdGenerator idGenerator, PlatformTransactionManager transactionManager) {
+        this.transactionRepository = transactionRepository;
+        this.balanceSnapshotService = balanceSnapshotService;
+        this.entityManager = entityManager;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Renders the statement of the account for the month.
+     *
+     * @param account Account, may be detached.
+     * @param month   Statement period.
+     */
+    public RenderedStatement render(BankAccount account, YearMonth month) {
+        return transactionTemplate.execute(status -> {
+            LocalDate firstDay = month.atDay(1);
+            String statementRef = idGenerator.nextRef("STM-");
+            BigDecimal opening = balanceSnapshotService.balanceAsOf(account, firstDay.minusDays(1));
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+            out.println("Statement;" + statementRef);
+            out.println("Account;" + account.getAccountNumber() + ";" + account.getCurrency());
+            out.println("Period;" + firstDay + ";" + month.atEndOfMonth());
+            out.println("Opening balance;" + opening.toPlainString());
+            out.println("Date;Reference;Type;Counterparty;Description;Debit;Credit;Balance");
+
+            BigDecimal balance = opening;
+            BigDecimal debits = BigDecimal.ZERO;
+            BigDecimal credits = BigDecimal.ZERO;
+            BigDecimal interest = BigDecimal.ZERO;
+            int count = 0;
+            try (Stream<Transaction> transactions = transactionRepository.streamAccountPeriod(account.getId(),
+                    firstDay.atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay())) {
+                for (Iterator<Transaction> it = transactions.iterator(); it.hasNext(); ) {
+                    Transaction transaction = it.next();
+                    boolean debit = isAccount(transaction.getSourceAccount(), account);
+                    boolean credit = isAccount(transaction.getTargetAccount(), account);
+                    // Przelew na to samo konto: wiersz obciążenia i wiersz uznania, saldo bez zmian jak w sumNetChange
+                    if (debit) {
+                        balance = balance.subtract(transaction.getAmount());
+                        debits = debits.add(transaction.getAmount());
+                        line(out, transaction, transaction.getTargetAccount(), false, balance);
+                    }
+                    if (credit) {
+                        balance = balance.add(transaction.getAmount());
+                        credits = credits.add(transaction.getAmount());
+                        if (transaction.getType() == Transaction.TransactionType.INTEREST_PAYOUT) {
+                            interest = interest.add(transaction.getAmount());
+                        }
+                        line(out, transaction, transaction.getSourceAccount(), true, balance);
+                    }
+                    entityManager.detach(transaction);
+                    count++;
+                }
+            }
+
+            out.println("Total debits;" + debits.toPlainString());
+            out.println("Total credits;" + credits.toPlainString());
+            out.println("Interest credited;" + interest.toPlainString());
+            out.println("Closing balance;" + balance.toPlainString());
+            out.flush();
+            String entryName = account.getAccountNumber() + "-" + month + ".csv";
+            return new RenderedStatement(account.getId(), statementRef, entryName, buffer.toByteArray(), count, opening, balance);
+        });
+    }
+
+    private static boolean isAccount(BankAccount leg, BankAccount account) {
+        return leg != null && account.getId().equals(leg.getId());
+    }
+
+    private static void line(PrintWriter out, Transaction transaction, BankAccount counterparty, boolean credit, BigDecimal balance) {
+        out.println(transaction.getTransactionDate() + ";" + transaction.getTransactionRef() + ";" + transaction.getType() + ";"
+                + (counterparty != null ? counterparty.getAccountNumber() : "") + ";" + text(transaction.getDescription()) + ";"
+                + (credit ? "" : transaction.getAmount().toPlainString()) + ";"
+                + (credit ? transaction.getAmount().toPlainString() : "") + ";" + balance.toPlainString());
+    }
+
+    // Separator i znaki nowej linii z opisu rozbiłyby wiersz
+    private static String text(String value) {
+        return value == null ? "" : value.replace(';', ',').replace('\n', ' ').replace('\r', ' ');
+    }
+}
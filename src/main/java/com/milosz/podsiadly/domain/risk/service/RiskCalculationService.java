@@ -1,9 +1,11 @@
 package com.milosz.podsiadly.domain.risk.service;
 
+import com.milosz.podsiadly.common.id.IdGenerator;
 import com.milosz.podsiadly.domain.bank.model.BankAccount;
 import com.milosz.podsiadly.domain.bank.model.Transaction;
 import com.milosz.podsiadly.domain.bank.repository.BankAccountRepository;
 import com.milosz.podsiadly.domain.bank.repository.TransactionRepository;
+import com.milosz.podsiadly.domain.bank.service.BalanceSnapshotService;
 import com.milosz.podsiadly.domain.risk.model.RiskAssessment;
 import com.milosz.podsiadly.domain.risk.model.RiskIndicator;
 import com.milosz.podsiadly.domain.risk.repository.RiskAssessmentRepository;
@@ -17,7 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -34,6 +36,8 @@ public class RiskCalculationService {
     private final BankAccountRepository bankAccountRepository;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository; // Potrzebne do pobierania obiektów User
+    private final IdGenerator idGenerator;
+    private final BalanceSnapshotService balanceSnapshotService;
 
     @Transactional
     public RiskAssessment performAccountRiskAssessment(Long accountId) {
@@ -44,6 +48,7 @@ public class RiskCalculationService {
         RiskAssessment.RiskLevel overallRisk = determineOverallRiskLevel(indicatorValues);
 
         RiskAssessment assessment = RiskAssessment.builder()
+                .assessmentRef(idGenerator.nextRef("RA-"))
                 .entityType(RiskAssessment.AssessmentEntityType.ACCOUNT)
                 .entityId(accountId)
                 .assessedAccount(account)
@@ -66,6 +71,7 @@ public class RiskCalculationService {
         RiskAssessment.RiskLevel overallRisk = determineOverallRiskLevel(indicatorValues);
 
         RiskAssessment assessment = RiskAssessment.builder()
+                .assessmentRef(idGenerator.nextRef("RA-"))
                 .entityType(RiskAssessment.AssessmentEntityType.USER)
                 .entityId(userId)
                 .assessedUser(user)
@@ -86,10 +92,9 @@ public class RiskCalculationService {
         // Example Indicator: Account Balance
         values.put("ACCOUNT_BALANCE", account.getBalance());
 
-        // Example Indicator: Average Daily Balance over last 30 days
-        // This would require more complex transaction analysis. For simplicity, let's mock it.
-        // In real scenario: transactionRepository.findBySourceAccountIdAndTransactionDateBetween(...)
-        values.put("AVG_DAILY_BALANCE_30D", account.getBalance().divide(BigDecimal.valueOf(2), RoundingMode.HALF_UP)); // Mocked
+        // Average Daily Balance over the last 30 closed days, from daily balance snapshots
+        LocalDate lastClosedDay = LocalDate.now().minusDays(1);
+        values.put("AVG_DAILY_BALANCE_30D", balanceSnapshotService.averageDailyBalance(account, lastClosedDay.minusDays(29), lastClosedDay));
 
         // Example Indicator: Number of large transactions in a period
         long largeTransactionsCount = transactionRepository.findBySourceAccountIdAndAmountGreaterThanAndTransactionDateBetween(
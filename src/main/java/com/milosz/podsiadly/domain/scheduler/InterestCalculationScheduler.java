@@ -1,17 +1,26 @@
 package com.milosz.podsiadly.domain.scheduler;
 
-import com.milosz.podsiadly.domain.bank.service.AccountService; // Zakładam, że AccountService będzie miał metodę do naliczania odsetek
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
+import com.milosz.podsiadly.domain.bank.service.InterestService;
+import com.milosz.podsiadly.domain.report.statement.MonthlyStatementGenerator;
+import com.milosz.podsiadly.domain.report.statement.StatementProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class InterestCalculationScheduler {
 
-    private final AccountService accountService;
+    private final InterestService interestService;
+    private final ScheduledJobLock scheduledJobLock; // Przy wielu instancjach naliczenie startuje tylko na jednej
+    private final MonthlyStatementGenerator monthlyStatementGenerator;
+    private final StatementProperties statementProperties;
 
     /**
      * Scheduled task to calculate and apply interest to bank accounts.
@@ -26,29 +35,40 @@ public class InterestCalculationScheduler {
      */
     @Scheduled(cron = "0 0 0 * * ?") // Runs daily at midnight
     public void calculateAndApplyInterest() {
-        log.info("Starting scheduled interest calculation and application at {}", System.currentTimeMillis());
-        try {
-            // W realnym scenariuszu AccountService miałby metodę do obsługi naliczania odsetek dla wszystkich kont
-            accountService.applyDailyInterest(); // Zakładam istnienie takiej metody
-            log.info("Finished scheduled interest calculation and application successfully.");
-        } catch (Exception e) {
-            log.error("Error during scheduled interest calculation and application: {}", e.getMessage(), e);
-            // Tutaj można dodać logikę powiadomień o błędach
-        }
+        scheduledJobLock.runExclusively("interest-calculation", () -> {
+            log.info("Starting scheduled interest calculation and application at {}", System.currentTimeMillis());
+            try {
+                // Odsetki za dzień, który właśnie się zakończył; naliczenie biegnie w tle przedziałami kont
+                interestService.startRun(LocalDate.now().minusDays(1));
+                log.info("Scheduled interest run started successfully.");
+            } catch (Exception e) {
+                log.error("Error during scheduled interest calculation and application: {}", e.getMessage(), e);
+                // Tutaj można dodać logikę powiadomień o błędach
+            }
+        });
     }
 
     /**
-     * Another example: run every first day of the month at 01:00 AM.
-     * This could be for monthly interest statements or more complex calculations.
+     * Generates the monthly statements of the past months into compressed archives.
+     * Runs daily at 01:00 AM: on the 1st it generates the previous month, on other days it completes months
+     * whose run failed (up to banking.statements.catch-up-months back); the generator holds its own cluster lock.
      */
-    @Scheduled(cron = "0 0 1 1 * ?") // Runs on the 1st day of every month at 01:00 AM
+    @Scheduled(cron = "0 0 1 * * ?") // Runs daily at 01:00 AM
     public void generateMonthlyInterestStatements() {
         log.info("Starting scheduled monthly interest statement generation at {}", System.currentTimeMillis());
-        try {
-            // accountService.generateMonthlyStatements(); // Przykład innej metody
-            log.info("Finished scheduled monthly interest statement generation successfully.");
-        } catch (Exception e) {
-            log.error("Error during scheduled monthly interest statement generation: {}", e.getMessage(), e);
+        YearMonth current = YearMonth.now();
+        // Od najstarszego miesiąca; przerwany przebieg wznawia się od ostatniego zarchiwizowanego konta
+        for (int monthsBack = Math.max(1, statementProperties.getCatchUpMonths()); monthsBack >= 1; monthsBack--) {
+            YearMonth month = current.minusMonths(monthsBack);
+            try {
+                int generated = monthlyStatementGenerator.generate(month);
+                if (generated > 0) {
+                    log.info("Generated {} statements for {}.", generated, month);
+                }
+            } catch (Exception e) {
+                log.error("Error during scheduled monthly interest statement generation for {}: {}", month, e.getMessage(), e);
+            }
         }
+        log.info("Finished scheduled monthly interest statement generation.");
     }
 }
\ No newline at end of file
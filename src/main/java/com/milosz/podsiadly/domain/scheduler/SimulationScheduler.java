@@ -1,5 +1,6 @@
 package com.milosz.podsiadly.domain.scheduler;
 
+import com.milosz.podsiadly.core.lock.ScheduledJobLock;
 import com.milosz.podsiadly.domain.simulation.service.BankingSimulationService; // Zakładam, że taki serwis powstanie
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Component;
 public class SimulationScheduler {
 
     private final BankingSimulationService bankingSimulationService; // Serwis do uruchamiania symulacji
+    private final ScheduledJobLock scheduledJobLock; // Przy wielu instancjach symulacja biegnie tylko na jednej
 
     /**
      * Scheduled task to run banking simulations.
@@ -21,15 +23,17 @@ public class SimulationScheduler {
      */
     @Scheduled(fixedRate = 300000) // Runs every 5 minutes (300,000 milliseconds)
     public void runBankingSimulations() {
-        log.info("Starting scheduled banking simulations at {}", System.currentTimeMillis());
-        try {
-            // Tutaj wywołamy główną metodę serwisu symulacji
-            bankingSimulationService.runRandomBankingSimulation(); // Zakładam istnienie takiej metody
-            log.info("Finished scheduled banking simulations successfully.");
-        } catch (Exception e) {
-            log.error("Error during scheduled banking simulations: {}", e.getMessage(), e);
-            // Tutaj można dodać logikę powiadomień o błędach
-        }
+        scheduledJobLock.runExclusively("banking-simulation", () -> {
+            log.info("Starting scheduled banking simulations at {}", System.currentTimeMillis());
+            try {
+                // Tutaj wywołamy główną metodę serwisu symulacji
+                bankingSimulationService.runRandomBankingSimulation(); // Zakładam istnienie takiej metody
+                log.info("Finished scheduled banking simulations successfully.");
+            } catch (Exception e) {
+                log.error("Error during scheduled banking simulations: {}", e.getMessage(), e);
+                // Tutaj można dodać logikę powiadomień o błędach
+            }
+        });
     }
 
     /**
@@ -37,12 +41,14 @@ public class SimulationScheduler {
      */
     @Scheduled(cron = "0 30 2 * * ?") // Runs daily at 02:30 AM
     public void runDailyRiskAssessmentSimulation() {
-        log.info("Starting scheduled daily risk assessment simulation at {}", System.currentTimeMillis());
-        try {
-            // bankingSimulationService.runRiskAssessmentSimulation(); // Przykład innej metody
-            log.info("Finished scheduled daily risk assessment simulation successfully.");
-        } catch (Exception e) {
-            log.error("Error during scheduled daily risk assessment simulation: {}", e.getMessage(), e);
-        }
+        scheduledJobLock.runExclusively("daily-risk-assessment", () -> {
+            log.info("Starting scheduled daily risk assessment simulation at {}", System.currentTimeMillis());
+            try {
+                // bankingSimulationService.runRiskAssessmentSimulation(); // Przykład innej metody
+                log.info("Finished scheduled daily risk assessment simulation successfully.");
+            } catch (Exception e) {
+                log.error("Error during scheduled daily risk assessment simulation: {}", e.getMessage(), e);
+            }
+        });
     }
 }
\ No newline at end of file
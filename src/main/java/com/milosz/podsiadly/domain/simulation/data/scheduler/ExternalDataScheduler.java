@@ -20,6 +20,7 @@ public class ExternalDataScheduler {
     /**
      * Scheduled task to fetch and cache external data (exchange rates, news, economic data).
      * Runs every 30 minutes.
+     * Runs on every instance without a cluster lock: the fetched data is cached in each instance's memory.
      */
     @Scheduled(fixedRate = 1800000) // 30 minutes in milliseconds
     public void fetchAllExternalData() {
@@ -18,7 +18,8 @@ import java.util.Map;
 public class ScenarioEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scenario_events_seq_gen")
+    @SequenceGenerator(name = "scenario_events_seq_gen", sequenceName = "scenario_events_seq", allocationSize = 50) // Batch inserts
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
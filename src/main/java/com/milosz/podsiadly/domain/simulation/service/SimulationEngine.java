@@ -1,5 +1,6 @@
 package com.milosz.podsiadly.domain.simulation.service;
 
+import com.milosz.podsiadly.common.id.IdGenerator;
 import com.milosz.podsiadly.domain.simulation.model.ScenarioEvent;
 import com.milosz.podsiadly.domain.simulation.model.SimulationRun;
 import com.milosz.podsiadly.domain.simulation.model.SimulationRun.RunStatus;
@@ -29,6 +30,7 @@ public class SimulationEngine {
     private final SimulationScenarioRepository simulationScenarioRepository;
     private final ScenarioGenerator scenarioGenerator;
     private final SimulationDataInjector simulationDataInjector;
+    private final IdGenerator idGenerator;
 
     // Use a fixed-size thread pool for running simulations to limit concurrent executions
     private final ExecutorService simulationExecutor = Executors.newFixedThreadPool(5); // Adjust pool size as needed
@@ -48,6 +50,7 @@ public class SimulationEngine {
                 .orElseThrow(() -> new ResourceNotFoundException("SimulationScenario not found with ID: " + scenarioId));
 
         SimulationRun initialRun = SimulationRun.builder() // Use a new variable name for clarity
+                .runIdentifier(idGenerator.nextRef("RUN-"))
                 .simulationScenario(scenario)
                 .status(RunStatus.PENDING)
                 .build();
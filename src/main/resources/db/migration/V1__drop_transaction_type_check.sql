@@ -0,0 +1,8 @@
+-- Hibernate 6 tworzy dla kolumn @Enumerated(STRING) ograniczenie CHECK z listą wartości enuma,
+-- a ddl-auto: update nie aktualizuje go po dodaniu nowych typów (LOAN_DISBURSEMENT ... REVERSAL).
+-- Usuwamy je - poprawność wartości zapewnia mapowanie enuma. Na pustej bazie (przed utworzeniem tabel) to no-op.
+ALTER TABLE IF EXISTS transactions DROP CONSTRAINT IF EXISTS transactions_type_check;
+
+-- Wypłaty i opłaty nie mają konta docelowego; kolumna utworzona wcześniej jako NOT NULL
+-- nie zmienia się przez ddl-auto: update.
+ALTER TABLE IF EXISTS transactions ALTER COLUMN target_account_id DROP NOT NULL;
@@ -0,0 +1,91 @@
+package com.milosz.podsiadly.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsOfOneNodeAreStrictlyIncreasingBeyondTheSequenceOfOneMillisecond() {
+        SnowflakeIdGenerator generator = generator(7);
+        long previous = 0;
+        // Więcej niż 4096 ID - sekwencja jednej milisekundy się wyczerpuje
+        for (int i = 0; i < 20_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID).isEqualTo(7L);
+            previous = id;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws Exception {
+        SnowflakeIdGenerator generator = generator(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<Long>>> batches = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batches.add(executor.submit(() -> {
+                List<Long> ids = new ArrayList<>(10_000);
+                for (int n = 0; n < 10_000; n++) {
+                    ids.add(generator.nextId());
+                }
+                return ids;
+            }));
+        }
+        Set<Long> unique = new HashSet<>();
+        for (Future<List<Long>> batch : batches) {
+            unique.addAll(batch.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(unique).hasSize(80_000);
+    }
+
+    @Test
+    void differentNodesNeverCollide() {
+        SnowflakeIdGenerator first = generator(1);
+        SnowflakeIdGenerator second = generator(2);
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(20_000);
+    }
+
+    @Test
+    void referencesSortInCreationOrder() {
+        SnowflakeIdGenerator generator = generator(3);
+        String previous = generator.nextRef("TRN-");
+        for (int i = 0; i < 1_000; i++) {
+            String ref = generator.nextRef("TRN-");
+            assertThat(ref).hasSize(4 + IdEncoding.LENGTH);
+            assertThat(ref).isGreaterThan(previous);
+            previous = ref;
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> generator(SnowflakeIdGenerator.MAX_NODE_ID + 1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static SnowflakeIdGenerator generator(int nodeId) {
+        IdProperties properties = new IdProperties();
+        properties.setNodeId(nodeId);
+        return new SnowflakeIdGenerator(properties);
+    }
+}
@@ -0,0 +1,49 @@
+package com.milosz.podsiadly.common.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void convertsUsingFractionDigitsOfTheCurrency() {
+        assertThat(Money.of(new BigDecimal("12.34"), "PLN").minorUnits()).isEqualTo(1234L);
+        assertThat(Money.of(new BigDecimal("1234"), "JPY").minorUnits()).isEqualTo(1234L);
+        assertThat(Money.of(new BigDecimal("1.234"), "KWD").minorUnits()).isEqualTo(1234L);
+        assertThat(Money.ofMinor(1234L, "PLN").toBigDecimal()).isEqualTo(new BigDecimal("12.34"));
+    }
+
+    @Test
+    void rejectsAmountWithMoreFractionDigitsThanTheCurrency() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001"), "PLN"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void throwsOnOverflowInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, "PLN");
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1L, "PLN"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MIN_VALUE, "PLN").negate()).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.multiplyByRate(2, 1)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsArithmeticAcrossCurrencies() {
+        assertThatThrownBy(() -> Money.ofMinor(100L, "PLN").plus(Money.ofMinor(100L, "EUR")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundsRateHalfAwayFromZero() {
+        // 0,05 zł * 10% = 0,005 zł -> 0,01 zł; ujemna kwota zaokrąglana symetrycznie
+        assertThat(Money.multiplyByRate(5L, 1, 10)).isEqualTo(1L);
+        assertThat(Money.multiplyByRate(-5L, 1, 10)).isEqualTo(-1L);
+        assertThat(Money.multiplyByRate(4L, 1, 10)).isZero();
+        assertThatThrownBy(() -> Money.multiplyByRate(5L, 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.milosz.podsiadly.core.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduledJobLockTest {
+
+    private final DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:locks-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final ScheduledJobLock first;
+    private final ScheduledJobLock second;
+
+    ScheduledJobLockTest() {
+        jdbcTemplate.execute("CREATE TABLE scheduler_locks (name VARCHAR(128) PRIMARY KEY, locked_by VARCHAR(255) NOT NULL, " +
+                "locked_at TIMESTAMP NOT NULL, locked_until TIMESTAMP NOT NULL, fencing_token BIGINT NOT NULL)");
+        first = lock("node-a");
+        second = lock("node-b");
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void onlyOneInstanceGetsTheLease() {
+        Optional<SchedulerLease> lease = first.tryAcquire("job", 60_000);
+
+        assertThat(lease).isNotEmpty();
+        assertThat(second.tryAcquire("job", 60_000)).isEmpty();
+        assertThat(first.isHeld(lease.get())).isTrue();
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndOldHolderIsFencedOff() throws InterruptedException {
+        SchedulerLease stale = first.tryAcquire("job", 1).orElseThrow();
+        Thread.sleep(20);
+
+        SchedulerLease current = second.tryAcquire("job", 60_000).orElseThrow();
+
+        assertThat(current.fencingToken()).isGreaterThan(stale.fencingToken());
+        assertThat(first.isHeld(stale)).isFalse();
+        assertThat(first.extend(stale, 60_000)).isFalse();
+        assertThat(second.extend(current, 60_000)).isTrue();
+        // Spóźnione zwolnienie starej dzierżawy nie zwalnia nowej
+        first.release(stale, 0);
+        assertThat(second.isHeld(current)).isTrue();
+    }
+
+    @Test
+    void releasedLeaseIsKeptForTheMinimumTime() {
+        first.release(first.tryAcquire("kept", 60_000).orElseThrow(), 60_000);
+        first.release(first.tryAcquire("freed", 60_000).orElseThrow(), 0);
+
+        assertThat(second.tryAcquire("kept", 60_000)).isEmpty();
+        assertThat(second.tryAcquire("freed", 60_000)).isNotEmpty();
+    }
+
+    @Test
+    void runExclusivelySkipsTheTaskWhileAnotherInstanceHoldsTheLease() {
+        first.tryAcquire("job", 60_000).orElseThrow();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThat(second.runExclusively("job", () -> ran.set(true))).isFalse();
+        assertThat(ran.get()).isFalse();
+        assertThat(second.runExclusively("other-job", () -> ran.set(true))).isTrue();
+        assertThat(ran.get()).isTrue();
+    }
+
+    private ScheduledJobLock lock(String owner) {
+        SchedulerLockProperties properties = new SchedulerLockProperties();
+        properties.setOwner(owner);
+        properties.setLockAtLeastForMs(0);
+        return new ScheduledJobLock(jdbcTemplate, properties, new DataSourceTransactionManager(dataSource));
+    }
+}
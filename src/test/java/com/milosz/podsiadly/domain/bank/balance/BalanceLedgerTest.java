@@ -0,0 +1,152 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.JournalEntry;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceLedgerTest {
+
+    private final RecordingBalanceJournal journal = new RecordingBalanceJournal();
+    private final BalanceLedger ledger = new BalanceLedger(new BalanceProperties(), journal);
+    private final BankAccount source = account(1L, "100.00");
+    private final BankAccount target = account(2L, "0.00");
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackTransactionReturnsReservationAndWritesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        JournaledBalanceCommit.apply(ledger, journal, transfer("30.00"));
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("70.00");
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("100.00");
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("0.00");
+        assertThat(ledger.drainDirty()).isEmpty();
+        assertThat(journal.groups).isEmpty();
+    }
+
+    @Test
+    void committedTransactionIsJournaledAsOneGroupBeforeCreditsBecomeAvailable() {
+        TransactionSynchronizationManager.initSynchronization();
+        JournaledBalanceCommit.apply(ledger, journal, transfer("30.00"));
+
+        beforeCommit();
+        assertThat(journal.groups).containsExactly(List.of(new JournalEntry(1L, 7000, -3000), new JournalEntry(2L, 3000, 3000)));
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("0.00");
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("30.00");
+        assertThat(ledger.drainDirty()).isEqualTo(Map.of(1L, new BigDecimal("70.00"), 2L, new BigDecimal("30.00")));
+    }
+
+    @Test
+    void failedDatabaseCommitAfterJournalingIsCompensated() {
+        TransactionSynchronizationManager.initSynchronization();
+        JournaledBalanceCommit.apply(ledger, journal, transfer("30.00"));
+
+        beforeCommit();
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("100.00");
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("0.00");
+        assertThat(journal.groups).hasSize(2);
+        assertThat(journal.groups.get(1)).containsExactly(new JournalEntry(1L, 10000, 3000), new JournalEntry(2L, 0, -3000));
+        assertThat(ledger.drainDirty()).isEqualTo(Map.of(1L, new BigDecimal("100.00"), 2L, new BigDecimal("0.00")));
+    }
+
+    @Test
+    void journalFailureFailsTheCommitAndReleasesTheReservation() {
+        journal.durabilityFailure = new IllegalStateException("fsync timeout");
+
+        assertThatThrownBy(() -> JournaledBalanceCommit.apply(ledger, journal, transfer("30.00")))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("100.00");
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("0.00");
+        assertThat(ledger.drainDirty()).isEqualTo(Map.of(1L, new BigDecimal("100.00"), 2L, new BigDecimal("0.00")));
+    }
+
+    @Test
+    void flushSeesCommittedBalanceWhileDebitIsReserved() {
+        JournaledBalanceCommit.apply(ledger, journal, transfer("10.00"));
+        ledger.drainDirty();
+
+        TransactionSynchronizationManager.initSynchronization();
+        JournaledBalanceCommit.apply(ledger, journal, transfer("30.00"));
+        ledger.markDirty(List.of(1L));
+
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("60.00");
+        assertThat(ledger.drainDirty()).isEqualTo(Map.of(1L, new BigDecimal("90.00")));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdrawTheAccount() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> debits = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            debits.add(executor.submit(() -> {
+                try {
+                    JournaledBalanceCommit.apply(ledger, journal, transfer("1.00"));
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> debit : debits) {
+            debit.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(rejected.get()).isEqualTo(100);
+        assertThat(ledger.balanceOf(source)).isEqualByComparingTo("0.00");
+        assertThat(ledger.balanceOf(target)).isEqualByComparingTo("100.00");
+        assertThat(ledger.drainDirty()).isEqualTo(Map.of(1L, new BigDecimal("0.00"), 2L, new BigDecimal("100.00")));
+        assertThat(journal.groups).hasSize(100);
+    }
+
+    private List<BalanceLeg> transfer(String amount) {
+        Money money = Money.of(new BigDecimal(amount), "PLN");
+        return List.of(BalanceLeg.debit(source, money, "Insufficient funds"), BalanceLeg.credit(target, money));
+    }
+
+    private static void beforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(status));
+    }
+
+    private static BankAccount account(Long id, String balance) {
+        return BankAccount.builder().id(id).currency("PLN").balance(new BigDecimal(balance)).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.exception.InsufficientFundsException;
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalancePartitionsTest {
+
+    private final RecordingBalanceJournal journal = new RecordingBalanceJournal();
+    private final BalancePartitions partitions = new BalancePartitions(properties(4), journal);
+    private final BankAccount first = account(1L, "50.00");
+    private final BankAccount second = account(2L, "50.00");
+    private final BankAccount target = account(3L, "0.00");
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        partitions.shutdown();
+    }
+
+    @Test
+    void rejectedDebitReleasesReservationsOfOtherPartitions() {
+        List<BalanceLeg> legs = List.of(
+                debit(first, "40.00"), debit(second, "60.00"), BalanceLeg.credit(target, pln("100.00")));
+
+        assertThatThrownBy(() -> JournaledBalanceCommit.apply(partitions, journal, legs))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(partitions.balanceOf(first)).isEqualByComparingTo("50.00");
+        assertThat(partitions.balanceOf(second)).isEqualByComparingTo("50.00");
+        assertThat(partitions.balanceOf(target)).isEqualByComparingTo("0.00");
+        assertThat(partitions.drainDirty()).isEmpty();
+        assertThat(journal.groups).isEmpty();
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdrawAcrossPartitions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> debits = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            debits.add(executor.submit(() -> {
+                try {
+                    JournaledBalanceCommit.apply(partitions, journal, List.of(
+                            debit(first, "1.00"), debit(second, "1.00"), BalanceLeg.credit(target, pln("2.00"))));
+                } catch (InsufficientFundsException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> debit : debits) {
+            debit.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(rejected.get()).isEqualTo(100);
+        assertThat(partitions.balanceOf(first)).isEqualByComparingTo("0.00");
+        assertThat(partitions.balanceOf(second)).isEqualByComparingTo("0.00");
+        assertThat(partitions.balanceOf(target)).isEqualByComparingTo("100.00");
+        assertThat(partitions.drainDirty()).isEqualTo(Map.of(
+                1L, new BigDecimal("0.00"), 2L, new BigDecimal("0.00"), 3L, new BigDecimal("100.00")));
+    }
+
+    private static BalanceLeg debit(BankAccount account, String amount) {
+        return BalanceLeg.debit(account, pln(amount), "Insufficient funds");
+    }
+
+    private static Money pln(String amount) {
+        return Money.of(new BigDecimal(amount), "PLN");
+    }
+
+    private static BalanceProperties properties(int partitions) {
+        BalanceProperties properties = new BalanceProperties();
+        properties.setPartitions(partitions);
+        return properties;
+    }
+
+    private static BankAccount account(Long id, String balance) {
+        return BankAccount.builder().id(id).currency("PLN").balance(new BigDecimal(balance)).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.common.money.Money;
+import com.milosz.podsiadly.domain.bank.journal.NoOpBalanceJournal;
+import com.milosz.podsiadly.domain.bank.model.BankAccount;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BalanceWriteBehindFlusherTest {
+
+    private final RecordingBalanceJournal journal = new RecordingBalanceJournal();
+    private final BalanceLedger ledger = new BalanceLedger(new BalanceProperties(), journal);
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private final BalanceWriteBehindFlusher flusher =
+            new BalanceWriteBehindFlusher(ledger, new BalanceProperties(), jdbcTemplate, journal);
+
+    private final BankAccount account = BankAccount.builder().id(1L).currency("PLN").balance(new BigDecimal("100.00")).build();
+
+    @Test
+    void writesCommittedBalancesAndCheckpointsTheJournal() {
+        JournaledBalanceCommit.apply(ledger, journal, List.of(BalanceLeg.debit(account, Money.of(new BigDecimal("25.00"), "PLN"), "Insufficient funds")));
+
+        flusher.flush();
+
+        assertThat(jdbcTemplate.rows).hasSize(1);
+        assertThat(jdbcTemplate.rows.get(0)[0]).isEqualTo(new BigDecimal("75.00"));
+        assertThat(jdbcTemplate.rows.get(0)[2]).isEqualTo(1L);
+        assertThat(journal.checkpoint).isEqualTo(1L);
+        assertThat(ledger.dirtyCount()).isZero();
+    }
+
+    @Test
+    void failedFlushKeepsAccountsDirtyAndDoesNotCheckpoint() {
+        JournaledBalanceCommit.apply(ledger, journal, List.of(BalanceLeg.credit(account, Money.of(new BigDecimal("5.00"), "PLN"))));
+        jdbcTemplate.failure = new DataAccessResourceFailureException("connection lost");
+
+        flusher.flush();
+
+        assertThat(ledger.dirtyCount()).isEqualTo(1);
+        assertThat(journal.checkpoint).isZero();
+    }
+
+    @Test
+    void refusesToStartWithoutDurableJournal() {
+        BalanceWriteBehindFlusher volatileFlusher =
+                new BalanceWriteBehindFlusher(ledger, new BalanceProperties(), jdbcTemplate, new NoOpBalanceJournal());
+
+        assertThatThrownBy(volatileFlusher::requireDurableJournal).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<Object[]> rows = new ArrayList<>();
+        private RuntimeException failure;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failure != null) {
+                throw failure;
+            }
+            rows.addAll(batchArgs);
+            return new int[batchArgs.size()];
+        }
+    }
+}
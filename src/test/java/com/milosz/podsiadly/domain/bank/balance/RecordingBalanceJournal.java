@@ -0,0 +1,56 @@
+package com.milosz.podsiadly.domain.bank.balance;
+
+import com.milosz.podsiadly.domain.bank.journal.BalanceJournal;
+import com.milosz.podsiadly.domain.bank.journal.JournalEntry;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory {@link BalanceJournal} keeping every appended group, for tests of the balance stores.
+ */
+class RecordingBalanceJournal implements BalanceJournal {
+
+    final List<List<JournalEntry>> groups = new CopyOnWriteArrayList<>();
+    final List<Long> confirmed = new CopyOnWriteArrayList<>();
+    volatile long checkpoint;
+    volatile RuntimeException durabilityFailure;
+
+    @Override
+    public synchronized long appendCommitted(List<JournalEntry> entries) {
+        groups.add(List.copyOf(entries));
+        return groups.size();
+    }
+
+    @Override
+    public long appendPending(List<JournalEntry> entries) {
+        return appendCommitted(entries);
+    }
+
+    @Override
+    public void confirm(long sequence) {
+        confirmed.add(sequence);
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+        if (durabilityFailure != null) {
+            throw durabilityFailure;
+        }
+    }
+
+    @Override
+    public long lastSequence() {
+        return groups.size();
+    }
+
+    @Override
+    public void checkpoint(long sequence) {
+        checkpoint = sequence;
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+}
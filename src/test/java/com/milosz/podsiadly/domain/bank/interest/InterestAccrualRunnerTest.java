@@ -0,0 +1,111 @@
+package com.milosz.podsiadly.domain.bank.interest;
+
+import com.milosz.podsiadly.common.id.IdGenerator;
+import com.milosz.podsiadly.domain.bank.model.InterestRun;
+import com.milosz.podsiadly.domain.bank.model.InterestRunChunk;
+import com.milosz.podsiadly.domain.bank.repository.AccountProjectionJdbcRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunChunkRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunRepository;
+import com.milosz.podsiadly.domain.bank.repository.InterestRunTotals;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InterestAccrualRunnerTest {
+
+    private static final long RUN_ID = 5L;
+
+    private final InterestRunRepository runRepository = mock(InterestRunRepository.class);
+    private final InterestRunChunkRepository chunkRepository = mock(InterestRunChunkRepository.class);
+    private final AccountProjectionJdbcRepository projectionJdbcRepository = mock(AccountProjectionJdbcRepository.class);
+    private final InterestChunkProcessor chunkProcessor = mock(InterestChunkProcessor.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final IdGenerator idGenerator = mock(IdGenerator.class);
+    private final AtomicReference<InterestRun> saved = new AtomicReference<>();
+    private InterestAccrualRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        InterestProperties properties = new InterestProperties();
+        properties.setChunkSize(1000);
+        runner = new InterestAccrualRunner(runRepository, chunkRepository, projectionJdbcRepository, chunkProcessor,
+                auditService, properties, idGenerator, mock(PlatformTransactionManager.class));
+        when(idGenerator.nextRef("INT-")).thenReturn("INT-1");
+        when(runRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            InterestRun run = invocation.getArgument(0);
+            run.setId(RUN_ID);
+            saved.set(run);
+            return run;
+        });
+        when(runRepository.findById(RUN_ID)).thenAnswer(invocation -> Optional.ofNullable(saved.get()));
+        when(projectionJdbcRepository.accountIdRange()).thenReturn(Optional.of(new long[]{1, 2500}));
+    }
+
+    @AfterEach
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void plansChunksOverTheAccountIdRangeAndCompletesWhenAllAreDone() {
+        when(chunkRepository.findPendingIds(RUN_ID)).thenReturn(List.of(11L, 12L, 13L));
+        when(chunkRepository.sumDone(RUN_ID)).thenReturn(new InterestRunTotals(3L, 2500L, 2400L));
+
+        InterestRun run = runner.start(LocalDate.of(2024, 5, 1));
+
+        ArgumentCaptor<List<InterestRunChunk>> chunks = ArgumentCaptor.forClass((Class) List.class);
+        verify(chunkRepository).saveAll(chunks.capture());
+        assertThat(chunks.getValue().stream().map(c -> c.getFromAccountId() + "-" + c.getToAccountId()).toList())
+                .containsExactly("1-1000", "1001-2000", "2001-2500");
+        assertThat(run.getChunkCount()).isEqualTo(3);
+
+        verify(auditService, timeout(2000)).logEvent(eq("SYSTEM"), eq("INTEREST_RUN_COMPLETED"), eq("InterestRun"), eq(RUN_ID),
+                anyString(), eq(AuditLog.AuditStatus.SUCCESS));
+        assertThat(saved.get().getStatus()).isEqualTo(InterestRun.InterestRunStatus.COMPLETED);
+    }
+
+    @Test
+    void failedChunkFailsTheRunButKeepsTheOtherChunks() {
+        when(chunkRepository.findPendingIds(RUN_ID)).thenReturn(List.of(11L, 12L, 13L));
+        doThrow(new IllegalStateException("deadlock")).when(chunkProcessor).process(eq(12L), any());
+        when(chunkRepository.sumDone(RUN_ID)).thenReturn(new InterestRunTotals(2L, 2000L, 1900L));
+
+        runner.start(LocalDate.of(2024, 5, 1));
+
+        verify(auditService, timeout(2000)).logEvent(eq("SYSTEM"), eq("INTEREST_RUN_FAILED"), eq("InterestRun"), eq(RUN_ID),
+                anyString(), eq(AuditLog.AuditStatus.FAILURE));
+        verify(chunkProcessor).process(eq(11L), any());
+        verify(chunkProcessor).process(eq(13L), any());
+        assertThat(saved.get().getStatus()).isEqualTo(InterestRun.InterestRunStatus.FAILED);
+        assertThat(saved.get().getLastError()).isEqualTo("deadlock");
+        assertThat(saved.get().getCompletedChunks()).isEqualTo(2);
+    }
+
+    @Test
+    void resumeRejectsRunThatIsCompletedOrStillRunning() {
+        when(runRepository.claim(eq(RUN_ID), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> runner.resume(RUN_ID)).isInstanceOf(IllegalStateException.class);
+    }
+}
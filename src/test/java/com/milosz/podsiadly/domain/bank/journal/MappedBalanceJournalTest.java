@@ -0,0 +1,182 @@
+package com.milosz.podsiadly.domain.bank.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedBalanceJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedBalanceJournal> opened = new ArrayList<>();
+    private final Set<Long> confirmations = ConcurrentHashMap.newKeySet(); // Wiersze balance_journal_commits
+
+    @AfterEach
+    void closeJournals() throws InterruptedException {
+        for (MappedBalanceJournal journal : opened) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void replaysNewestBalanceOfEveryCommittedGroup() {
+        MappedBalanceJournal journal = open();
+        journal.awaitDurable(journal.appendCommitted(List.of(new JournalEntry(1, 900, -100), new JournalEntry(2, 100, 100))));
+        journal.awaitDurable(journal.appendCommitted(List.of(new JournalEntry(1, 850, -50))));
+
+        // Awaria: bez zamknięcia dziennika i bez punktu kontrolnego
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(1L, 850L, 2L, 100L));
+    }
+
+    @Test
+    void skipsGroupCutOffBeforeItsCommitMarker() {
+        MappedBalanceJournal journal = open();
+        long marker = journal.appendCommitted(List.of(new JournalEntry(1, 900, -100), new JournalEntry(2, 100, 100)));
+        journal.awaitDurable(marker);
+        writeLegsWithoutMarker(marker + 1, new JournalEntry(1, 0, -900), new JournalEntry(3, 900, 900));
+
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(1L, 900L, 2L, 100L));
+    }
+
+    @Test
+    void keepsSkippingCutOffGroupAfterLaterGroupsAreAppended() {
+        MappedBalanceJournal journal = open();
+        long marker = journal.appendCommitted(List.of(new JournalEntry(1, 900, -100)));
+        journal.awaitDurable(marker);
+        writeLegsWithoutMarker(marker + 1, new JournalEntry(1, 0, -900));
+
+        MappedBalanceJournal restarted = open();
+        restarted.awaitDurable(restarted.appendCommitted(List.of(new JournalEntry(2, 300, 300))));
+
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(1L, 900L, 2L, 300L));
+    }
+
+    @Test
+    void doesNotReplayGroupsCoveredByCheckpoint() {
+        MappedBalanceJournal journal = open();
+        long flushed = journal.appendCommitted(List.of(new JournalEntry(1, 900, -100)));
+        journal.awaitDurable(journal.appendCommitted(List.of(new JournalEntry(2, 100, 100))));
+        journal.checkpoint(flushed);
+
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(2L, 100L));
+    }
+
+    @Test
+    void ignoresMarkerWhoseLegCountDoesNotMatch() {
+        List<JournalRecord> records = List.of(
+                new JournalRecord(JournalRecord.Type.LEG, 1, 0, 1, 900, -100),
+                new JournalRecord(JournalRecord.Type.COMMIT, 2, 0, 1, 2, 0),
+                new JournalRecord(JournalRecord.Type.LEG, 3, 0, 2, 50, 50),
+                new JournalRecord(JournalRecord.Type.COMMIT, 4, 0, 3, 1, 0));
+
+        assertThat(MappedBalanceJournal.committedBalances(MappedBalanceJournal.completeGroups(records, 0), Set.of()))
+                .isEqualTo(Map.of(2L, 50L));
+    }
+
+    @Test
+    void takesChangesOfUnconfirmedGroupsBackOutOfLaterBalances() {
+        MappedBalanceJournal journal = open();
+        journal.confirm(journal.appendPending(List.of(new JournalEntry(1, 900, -100), new JournalEntry(2, 100, 100))));
+        // Awaria po fsync, przed commitem bazy - potwierdzenie wycofane razem z transakcją
+        journal.appendPending(List.of(new JournalEntry(1, 800, -100), new JournalEntry(3, 100, 100)));
+        long last = journal.appendPending(List.of(new JournalEntry(1, 750, -50), new JournalEntry(2, 150, 50)));
+        journal.confirm(last);
+        journal.awaitDurable(last);
+
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(1L, 850L, 2L, 150L, 3L, 0L));
+    }
+
+    @Test
+    void overwriteEndsTheCorrectionOfEarlierUnconfirmedGroups() {
+        MappedBalanceJournal journal = open();
+        journal.appendPending(List.of(new JournalEntry(1, 800, -200)));
+        journal.awaitDurable(journal.appendCommitted(List.of(new JournalEntry(1, 500, -300))));
+
+        MappedBalanceJournal recovered = open();
+
+        assertThat(recovered.recoveredBalances()).isEqualTo(Map.of(1L, 500L));
+    }
+
+    @Test
+    void dropsConfirmationsCoveredByCheckpointOrNewerThanTheJournal() {
+        MappedBalanceJournal journal = open();
+        long flushed = journal.appendPending(List.of(new JournalEntry(1, 900, -100)));
+        journal.confirm(flushed);
+        journal.confirm(flushed + 1000);
+        journal.awaitDurable(flushed);
+        journal.checkpoint(flushed);
+
+        open().clearRecovered();
+
+        assertThat(confirmations).isEmpty();
+    }
+
+    private MappedBalanceJournal open() {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSizeMb(1);
+        properties.setCommitTimeoutMs(2000);
+        MappedBalanceJournal journal = new MappedBalanceJournal(properties, new InMemoryCommitLog());
+        journal.start();
+        opened.add(journal);
+        return journal;
+    }
+
+    private class InMemoryCommitLog implements JournalCommitLog {
+
+        @Override
+        public void confirm(long sequence) {
+            confirmations.add(sequence);
+        }
+
+        @Override
+        public Set<Long> confirmedAfter(long sequence) {
+            return confirmations.stream().filter(confirmed -> confirmed > sequence).collect(Collectors.toSet());
+        }
+
+        @Override
+        public void deleteUpTo(long sequence) {
+            confirmations.removeIf(confirmed -> confirmed <= sequence);
+        }
+
+        @Override
+        public void deleteAfter(long sequence) {
+            confirmations.removeIf(confirmed -> confirmed > sequence);
+        }
+    }
+
+    // Nogi grupy, której znacznik zatwierdzenia nie zdążył zostać zapisany
+    private void writeLegsWithoutMarker(long firstSequence, JournalEntry... legs) {
+        JournalSegment segment = JournalSegment.create(directory, firstSequence, 1024 * 1024);
+        CRC32C crc = new CRC32C();
+        long sequence = firstSequence;
+        for (JournalEntry leg : legs) {
+            segment.append(crc, JournalRecord.Type.LEG, sequence++, 0, leg.accountId(), leg.balanceMinor(), leg.deltaMinor());
+        }
+        segment.force();
+        segment.close();
+    }
+}
@@ -0,0 +1,56 @@
+package com.milosz.podsiadly.domain.bank.loan;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmortizationScheduleTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 31);
+
+    @Test
+    void decodesEncodedScheduleToTheSameInstallments() {
+        AmortizationSchedule schedule = AmortizationSchedule.annuity(30_000_000L, new BigDecimal("0.0725"), 360, START);
+
+        byte[] encoded = schedule.encode();
+        AmortizationSchedule decoded = AmortizationSchedule.decode(encoded, START);
+
+        assertThat(decoded.installments()).isEqualTo(schedule.installments());
+        // Wersja, liczba rat i dwa varinty na ratę - mniej niż 8 bajtów na ratę
+        assertThat(encoded.length).isLessThan(1 + 2 + 360 * 8);
+    }
+
+    @Test
+    void roundTripsAmountsNeedingMultiByteVarints() {
+        AmortizationSchedule schedule = AmortizationSchedule.annuity(1_000_000_000_000_000L, new BigDecimal("0.12"), 2, START);
+
+        assertThat(AmortizationSchedule.decode(schedule.encode(), START).installments()).isEqualTo(schedule.installments());
+    }
+
+    @Test
+    void repaysExactlyThePrincipal() {
+        List<Installment> installments = AmortizationSchedule.annuity(1_000_000L, new BigDecimal("0.05"), 12, START).installments();
+
+        assertThat(installments.stream().mapToLong(Installment::principalMinor).sum()).isEqualTo(1_000_000L);
+        assertThat(installments.get(0).dueDate()).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(installments.get(11).dueDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+    }
+
+    @Test
+    void splitsPrincipalEvenlyWithoutInterest() {
+        List<Installment> installments = AmortizationSchedule.annuity(1_200L, BigDecimal.ZERO, 12, START).installments();
+
+        assertThat(installments.stream().allMatch(i -> i.principalMinor() == 100L && i.interestMinor() == 0L)).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        assertThatThrownBy(() -> AmortizationSchedule.decode(new byte[]{2, 0}, START)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> AmortizationSchedule.decode(new byte[0], START)).isInstanceOf(IllegalStateException.class);
+    }
+}
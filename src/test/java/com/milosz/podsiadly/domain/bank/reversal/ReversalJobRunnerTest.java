@@ -0,0 +1,79 @@
+package com.milosz.podsiadly.domain.bank.reversal;
+
+import com.milosz.podsiadly.domain.bank.model.ReversalJob;
+import com.milosz.podsiadly.domain.bank.repository.ReversalJobRepository;
+import com.milosz.podsiadly.domain.compliance.model.AuditLog;
+import com.milosz.podsiadly.domain.compliance.service.AuditService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReversalJobRunnerTest {
+
+    private static final long JOB_ID = 7L;
+
+    private final ReversalJobRepository jobRepository = mock(ReversalJobRepository.class);
+    private final ReversalChunkProcessor chunkProcessor = mock(ReversalChunkProcessor.class);
+    private final AuditService auditService = mock(AuditService.class);
+    private final ReversalJobRunner runner = new ReversalJobRunner(jobRepository, chunkProcessor, auditService,
+            new ReversalProperties(), mock(PlatformTransactionManager.class));
+
+    @AfterEach
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void processesChunksUntilDoneAndAuditsTheJobOnce() {
+        when(jobRepository.claim(eq(JOB_ID), any(), any())).thenReturn(1);
+        when(chunkProcessor.processChunk(JOB_ID)).thenReturn(
+                ReversalChunkProcessor.ChunkResult.CONTINUE, ReversalChunkProcessor.ChunkResult.CONTINUE,
+                ReversalChunkProcessor.ChunkResult.DONE);
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(
+                ReversalJob.builder().id(JOB_ID).jobRef("REV-1").reversedCount(3).chunkCount(3).build()));
+
+        runner.submit(JOB_ID);
+
+        verify(auditService, timeout(2000)).logEvent(any(), eq("REVERSAL_JOB_COMPLETED"), eq("ReversalJob"), eq(JOB_ID),
+                anyString(), eq(AuditLog.AuditStatus.SUCCESS));
+        verify(chunkProcessor, times(3)).processChunk(JOB_ID);
+        verify(chunkProcessor, never()).recordFailure(anyLong(), any());
+    }
+
+    @Test
+    void leavesJobClaimedByAnotherInstanceAlone() {
+        when(jobRepository.claim(eq(JOB_ID), any(), any())).thenReturn(0);
+
+        runner.submit(JOB_ID);
+
+        verify(jobRepository, timeout(2000)).claim(eq(JOB_ID), any(), any());
+        verify(chunkProcessor, after(200).never()).processChunk(anyLong());
+    }
+
+    @Test
+    void recordsFailedChunkAndStopsTheJob() {
+        IllegalStateException failure = new IllegalStateException("database unavailable");
+        when(jobRepository.claim(eq(JOB_ID), any(), any())).thenReturn(1);
+        when(chunkProcessor.processChunk(JOB_ID)).thenReturn(ReversalChunkProcessor.ChunkResult.CONTINUE).thenThrow(failure);
+
+        runner.submit(JOB_ID);
+
+        verify(chunkProcessor, timeout(2000)).recordFailure(JOB_ID, failure);
+        verify(chunkProcessor, times(2)).processChunk(JOB_ID);
+        verify(auditService, never()).logEvent(any(), any(), any(), any(), any(), any());
+    }
+}
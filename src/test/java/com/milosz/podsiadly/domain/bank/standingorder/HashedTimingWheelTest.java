@@ -0,0 +1,54 @@
+package com.milosz.podsiadly.domain.bank.standingorder;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimingWheelTest {
+
+    // 8 kubełków po 10 ms - jeden obrót to 80 ms
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(10, 8, 0);
+
+    @Test
+    void neverExpiresItemBeforeItsDeadline() {
+        wheel.schedule("order", 25);
+
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(30)).containsExactly("order");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsItemsDueAfterSeveralRotationsInTheirBucket() {
+        wheel.schedule("later", 200);
+        wheel.schedule("sooner", 40); // Ten sam kubełek (tick 4), o dwa obroty wcześniej
+
+        assertThat(wheel.advance(40)).containsExactly("sooner");
+        assertThat(wheel.advance(199)).isEmpty();
+        assertThat(wheel.advance(200)).containsExactly("later");
+    }
+
+    @Test
+    void returnsExpiredItemsInTickOrder() {
+        wheel.schedule("third", 70);
+        wheel.schedule("first", 10);
+        wheel.schedule("second", 30);
+
+        assertThat(wheel.advance(100)).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void expiresOverdueItemOnTheNextTick() {
+        wheel.advance(100);
+        wheel.schedule("overdue", 50);
+
+        assertThat(wheel.advance(110)).containsExactly("overdue");
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThatThrownBy(() -> new HashedTimingWheel<String>(0, 8, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}